@@ -0,0 +1,86 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+/**
+ * Benchmark for method invocations on an AOP proxy, with a given number
+ * of advisors that match all methods and simply proceed. The proxy is either
+ * a JDK dynamic proxy ("jdk"), a JDK dynamic proxy invoking its target through
+ * a generated invoker ("jdk-generated"), or a CGLIB proxy ("cglib").
+ *
+ * @since 2.5.7
+ */
+public class AopProxyBenchmark extends MicroBenchmark {
+
+	public static final String JDK = "jdk";
+
+	public static final String JDK_GENERATED = "jdk-generated";
+
+	public static final String CGLIB = "cglib";
+
+
+	private final String proxyType;
+
+	private final int advisorCount;
+
+	private Service proxy;
+
+	private int counter;
+
+
+	public AopProxyBenchmark(String proxyType, int advisorCount) {
+		super("aopProxy.invoke", "proxy=" + proxyType + ",advisors=" + advisorCount);
+		this.proxyType = proxyType;
+		this.advisorCount = advisorCount;
+	}
+
+
+	public void setUp() {
+		ProxyFactory pf = new ProxyFactory(new BenchmarkBean());
+		if (CGLIB.equals(this.proxyType)) {
+			pf.setProxyTargetClass(true);
+		}
+		else {
+			pf.addInterface(Service.class);
+			pf.setUseGeneratedInvokers(JDK_GENERATED.equals(this.proxyType));
+		}
+		for (int i = 0; i < this.advisorCount; i++) {
+			pf.addAdvisor(new DefaultPointcutAdvisor(new NopInterceptor()));
+		}
+		this.proxy = (Service) pf.getProxy();
+	}
+
+	public Object invoke() {
+		this.proxy.setCount(this.counter++);
+		return this.proxy.getName();
+	}
+
+
+	private static class NopInterceptor implements MethodInterceptor {
+
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+			return invocation.proceed();
+		}
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.MutablePropertyValues;
+
+/**
+ * Benchmark for binding String values to a bean through a new
+ * BeanWrapperImpl, including type conversion and a nested property path -
+ * as happening for every request in web data binding. Property accessors
+ * are invoked either through reflection or through CGLIB-generated
+ * accessor classes ("generatedAccessors=true").
+ *
+ * @since 2.5.7
+ * @see BeanWrapperImpl#setUseGeneratedAccessors
+ */
+public class BeanWrapperBenchmark extends MicroBenchmark {
+
+	private final boolean useGeneratedAccessors;
+
+	private MutablePropertyValues pvs;
+
+
+	public BeanWrapperBenchmark(boolean useGeneratedAccessors) {
+		super("beanWrapper.setPropertyValues", "generatedAccessors=" + useGeneratedAccessors);
+		this.useGeneratedAccessors = useGeneratedAccessors;
+	}
+
+
+	public void setUp() {
+		this.pvs = new MutablePropertyValues();
+		this.pvs.addPropertyValue("name", "bean");
+		this.pvs.addPropertyValue("count", "42");
+		this.pvs.addPropertyValue("id", "4711");
+		this.pvs.addPropertyValue("amount", "12.5");
+		this.pvs.addPropertyValue("active", "true");
+		this.pvs.addPropertyValue("spouse.name", "spouse");
+		this.pvs.addPropertyValue("spouse.count", "7");
+	}
+
+	public Object invoke() {
+		BenchmarkBean bean = new BenchmarkBean();
+		bean.setSpouse(new BenchmarkBean());
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setUseGeneratedAccessors(this.useGeneratedAccessors);
+		bw.setPropertyValues(this.pvs);
+		return bean;
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+/**
+ * Result of running a single {@link MicroBenchmark}: the throughput
+ * measured in each iteration, plus derived statistics.
+ *
+ * <p>The error margin is the half-width of the 99.9% confidence interval
+ * around the mean score, based on Student's t-distribution - which is the
+ * figure that JMH reports as "Score Error (99.9%)".
+ *
+ * @since 2.5.7
+ */
+public class BenchmarkResult {
+
+	/** Two-sided 99.9% quantiles of Student's t-distribution, for 1 to 30 degrees of freedom */
+	private static final double[] T_QUANTILES = {
+			636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+			4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+			3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646};
+
+	/** Normal distribution quantile, used for more than 30 degrees of freedom */
+	private static final double Z_QUANTILE = 3.291;
+
+
+	private final MicroBenchmark benchmark;
+
+	private final double[] scores;
+
+
+	/**
+	 * Create a new BenchmarkResult.
+	 * @param benchmark the benchmark that has been run
+	 * @param scores the throughput (operations per second) of each measurement iteration
+	 */
+	public BenchmarkResult(MicroBenchmark benchmark, double[] scores) {
+		this.benchmark = benchmark;
+		this.scores = scores;
+	}
+
+
+	/**
+	 * Return the benchmark that has been run.
+	 */
+	public MicroBenchmark getBenchmark() {
+		return this.benchmark;
+	}
+
+	/**
+	 * Return the number of measurement iterations.
+	 */
+	public int getSampleCount() {
+		return this.scores.length;
+	}
+
+	/**
+	 * Return the mean throughput across all measurement iterations,
+	 * in operations per second.
+	 */
+	public double getScore() {
+		if (this.scores.length == 0) {
+			return Double.NaN;
+		}
+		double sum = 0;
+		for (int i = 0; i < this.scores.length; i++) {
+			sum += this.scores[i];
+		}
+		return sum / this.scores.length;
+	}
+
+	/**
+	 * Return the half-width of the 99.9% confidence interval around the mean score,
+	 * or <code>NaN</code> if there are less than two measurement iterations.
+	 */
+	public double getScoreError() {
+		int n = this.scores.length;
+		if (n < 2) {
+			return Double.NaN;
+		}
+		double mean = getScore();
+		double sumOfSquares = 0;
+		for (int i = 0; i < n; i++) {
+			double diff = this.scores[i] - mean;
+			sumOfSquares += diff * diff;
+		}
+		double stdDev = Math.sqrt(sumOfSquares / (n - 1));
+		double quantile = (n - 1 <= T_QUANTILES.length ? T_QUANTILES[n - 2] : Z_QUANTILE);
+		return quantile * stdDev / Math.sqrt(n);
+	}
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.DecimalFormat;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Command-line runner for {@link MicroBenchmark micro-benchmarks},
+ * following the measurement model of the JMH harness in throughput mode:
+ * Each benchmark gets set up, then invoked in a number of time-bounded
+ * warm-up iterations (discarded) and measurement iterations (recorded).
+ * The results are printed as a table and optionally written to a CSV file
+ * in JMH's CSV result format, for tracking performance regressions
+ * across builds.
+ *
+ * <p>Supported arguments:
+ * <ul>
+ * <li><code>-wi &lt;count&gt;</code>: number of warm-up iterations (default 5)
+ * <li><code>-i &lt;count&gt;</code>: number of measurement iterations (default 10)
+ * <li><code>-r &lt;millis&gt;</code>: duration of each iteration in milliseconds (default 1000)
+ * <li><code>-rff &lt;file&gt;</code>: CSV file to write the results to (default: none)
+ * <li><code>-l</code>: list the available benchmarks instead of running them
+ * <li>a regular expression that benchmark ids need to contain a match for
+ * (default: run all benchmarks)
+ * </ul>
+ *
+ * @since 2.5.7
+ * @see BenchmarkSuite
+ */
+public class BenchmarkRunner {
+
+	private static final String CSV_HEADER =
+			"\"Benchmark\",\"Mode\",\"Threads\",\"Samples\",\"Score\",\"Score Error (99.9%)\",\"Unit\",\"Param\"";
+
+	/** Number of invocations between two checks of the clock */
+	private static final int BATCH_SIZE = 64;
+
+
+	private int warmupIterations = 5;
+
+	private int measurementIterations = 10;
+
+	private long iterationMillis = 1000;
+
+	/** Receives the results of all invocations, so that they cannot be optimized away */
+	private volatile int sink;
+
+
+	public void setWarmupIterations(int warmupIterations) {
+		this.warmupIterations = warmupIterations;
+	}
+
+	public void setMeasurementIterations(int measurementIterations) {
+		this.measurementIterations = measurementIterations;
+	}
+
+	public void setIterationMillis(long iterationMillis) {
+		this.iterationMillis = iterationMillis;
+	}
+
+
+	/**
+	 * Run the given benchmark: set up, warm up, measure, tear down.
+	 * @param benchmark the benchmark to run
+	 * @return the measured result
+	 * @throws Exception if the benchmark failed
+	 */
+	public BenchmarkResult run(MicroBenchmark benchmark) throws Exception {
+		benchmark.setUp();
+		try {
+			for (int i = 0; i < this.warmupIterations; i++) {
+				runIteration(benchmark);
+			}
+			double[] scores = new double[this.measurementIterations];
+			for (int i = 0; i < this.measurementIterations; i++) {
+				scores[i] = runIteration(benchmark);
+			}
+			return new BenchmarkResult(benchmark, scores);
+		}
+		finally {
+			benchmark.tearDown();
+		}
+	}
+
+	/**
+	 * Invoke the given benchmark for one iteration's duration.
+	 * @return the throughput in operations per second
+	 */
+	private double runIteration(MicroBenchmark benchmark) throws Exception {
+		int hash = 0;
+		long operations = 0;
+		long startTime = System.currentTimeMillis();
+		long endTime = startTime + this.iterationMillis;
+		long time;
+		do {
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				hash += System.identityHashCode(benchmark.invoke());
+			}
+			operations += BATCH_SIZE;
+			time = System.currentTimeMillis();
+		}
+		while (time < endTime);
+		this.sink += hash;
+		return operations * 1000.0 / (time - startTime);
+	}
+
+	/**
+	 * Run all given benchmarks, printing each result as it gets available.
+	 * @param benchmarks the benchmarks to run
+	 * @return the List of {@link BenchmarkResult BenchmarkResults}
+	 * @throws Exception if any benchmark failed
+	 */
+	public List runAll(List benchmarks) throws Exception {
+		List results = new LinkedList();
+		System.out.println(formatRow("Benchmark", "Param", "Cnt", "Score", "Error", "Units"));
+		for (Iterator it = benchmarks.iterator(); it.hasNext();) {
+			MicroBenchmark benchmark = (MicroBenchmark) it.next();
+			BenchmarkResult result = run(benchmark);
+			results.add(result);
+			System.out.println(formatRow(benchmark.getName(), benchmark.getParams(),
+					String.valueOf(result.getSampleCount()), formatScore(result.getScore()),
+					"+- " + formatScore(result.getScoreError()), "ops/s"));
+		}
+		return results;
+	}
+
+	/**
+	 * Write the given results to a CSV file, in JMH's CSV result format.
+	 * @param results the List of {@link BenchmarkResult BenchmarkResults}
+	 * @param fileName the name of the file to write
+	 * @throws IOException if the file could not be written
+	 */
+	public void writeCsv(List results, String fileName) throws IOException {
+		PrintWriter writer = new PrintWriter(new FileWriter(fileName));
+		try {
+			writer.println(CSV_HEADER);
+			for (Iterator it = results.iterator(); it.hasNext();) {
+				BenchmarkResult result = (BenchmarkResult) it.next();
+				MicroBenchmark benchmark = result.getBenchmark();
+				writer.println("\"" + benchmark.getName() + "\",\"thrpt\",1," + result.getSampleCount() + "," +
+						result.getScore() + "," + result.getScoreError() + ",\"ops/s\",\"" + benchmark.getParams() + "\"");
+			}
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	private static String formatRow(String name, String params, String count, String score, String error, String unit) {
+		StringBuffer sb = new StringBuffer();
+		pad(sb, name, 36, false);
+		pad(sb, params, 24, false);
+		pad(sb, count, 5, true);
+		pad(sb, score, 18, true);
+		pad(sb, error, 18, true);
+		sb.append("  ").append(unit);
+		return sb.toString();
+	}
+
+	private static void pad(StringBuffer sb, String value, int width, boolean alignRight) {
+		if (alignRight) {
+			for (int i = value.length(); i < width; i++) {
+				sb.append(' ');
+			}
+		}
+		sb.append(value);
+		if (!alignRight) {
+			for (int i = value.length(); i < width; i++) {
+				sb.append(' ');
+			}
+		}
+	}
+
+	private static String formatScore(double score) {
+		if (Double.isNaN(score)) {
+			return "NaN";
+		}
+		return new DecimalFormat("0.000").format(score);
+	}
+
+
+	public static void main(String[] args) throws Exception {
+		BenchmarkRunner runner = new BenchmarkRunner();
+		String resultFile = null;
+		Pattern include = null;
+		boolean listOnly = false;
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if ("-wi".equals(arg)) {
+				runner.setWarmupIterations(Integer.parseInt(args[++i]));
+			}
+			else if ("-i".equals(arg)) {
+				runner.setMeasurementIterations(Integer.parseInt(args[++i]));
+			}
+			else if ("-r".equals(arg)) {
+				runner.setIterationMillis(Long.parseLong(args[++i]));
+			}
+			else if ("-rff".equals(arg)) {
+				resultFile = args[++i];
+			}
+			else if ("-l".equals(arg)) {
+				listOnly = true;
+			}
+			else if (arg.length() > 0) {
+				include = Pattern.compile(arg);
+			}
+		}
+
+		List benchmarks = new LinkedList();
+		for (Iterator it = BenchmarkSuite.getBenchmarks().iterator(); it.hasNext();) {
+			MicroBenchmark benchmark = (MicroBenchmark) it.next();
+			if (include == null || include.matcher(benchmark.getId()).find()) {
+				benchmarks.add(benchmark);
+			}
+		}
+
+		if (listOnly) {
+			for (Iterator it = benchmarks.iterator(); it.hasNext();) {
+				System.out.println(((MicroBenchmark) it.next()).getId());
+			}
+			return;
+		}
+
+		List results = runner.runAll(benchmarks);
+		if (resultFile != null) {
+			runner.writeCsv(results, resultFile);
+			System.out.println("Results written to " + resultFile);
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Registry of all available micro-benchmarks, covering the hot paths of
+ * the core container, AOP, data binding, JDBC access and web dispatching.
+ * Add new benchmarks to {@link #getBenchmarks()}.
+ *
+ * @since 2.5.7
+ */
+public abstract class BenchmarkSuite {
+
+	private static final int[] ADVISOR_COUNTS = {1, 5, 10, 20};
+
+	private static final int[] ROW_COUNTS = {1, 10, 100};
+
+
+	/**
+	 * Return fresh instances of all available benchmarks,
+	 * one per parameter combination.
+	 * @return the List of {@link MicroBenchmark} instances
+	 */
+	public static List getBenchmarks() {
+		List benchmarks = new LinkedList();
+		benchmarks.add(new GetBeanBenchmark(true));
+		benchmarks.add(new GetBeanBenchmark(false));
+		benchmarks.add(new GetBeanBenchmark(false, 6));
+		for (int i = 0; i < ADVISOR_COUNTS.length; i++) {
+			benchmarks.add(new AopProxyBenchmark(AopProxyBenchmark.JDK, ADVISOR_COUNTS[i]));
+			benchmarks.add(new AopProxyBenchmark(AopProxyBenchmark.JDK_GENERATED, ADVISOR_COUNTS[i]));
+			benchmarks.add(new AopProxyBenchmark(AopProxyBenchmark.CGLIB, ADVISOR_COUNTS[i]));
+		}
+		benchmarks.add(new TransactionInterceptorBenchmark());
+		benchmarks.add(new DataSourceTransactionManagerBenchmark());
+		benchmarks.add(new BeanWrapperBenchmark(false));
+		benchmarks.add(new BeanWrapperBenchmark(true));
+		for (int i = 0; i < ROW_COUNTS.length; i++) {
+			benchmarks.add(new JdbcTemplateQueryBenchmark(ROW_COUNTS[i]));
+			benchmarks.add(new JdbcTemplateQueryBenchmark(ROW_COUNTS[i], true));
+		}
+		benchmarks.add(new NamedParameterBenchmark(true));
+		benchmarks.add(new NamedParameterBenchmark(false));
+		benchmarks.add(new UrlHandlerMappingBenchmark(true));
+		benchmarks.add(new UrlHandlerMappingBenchmark(false));
+		benchmarks.add(new DispatcherServletBenchmark());
+		return benchmarks;
+	}
+
+}
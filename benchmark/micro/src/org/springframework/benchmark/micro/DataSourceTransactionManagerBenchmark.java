@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmark for transaction begin and commit through a DataSourceTransactionManager,
+ * against an in-memory HSQLDB database. Within each transaction, the thread-bound
+ * Connection gets looked up and a transaction synchronization gets registered,
+ * as typical data access code would do.
+ *
+ * @since 2.5.7
+ */
+public class DataSourceTransactionManagerBenchmark extends MicroBenchmark {
+
+	private static final TransactionSynchronizationAdapter SYNCHRONIZATION = new TransactionSynchronizationAdapter() {
+	};
+
+
+	private SingleConnectionDataSource dataSource;
+
+	private TransactionTemplate transactionTemplate;
+
+	private TransactionCallback callback;
+
+
+	public DataSourceTransactionManagerBenchmark() {
+		super("dataSourceTransactionManager.commit");
+	}
+
+
+	public void setUp() {
+		this.dataSource = new SingleConnectionDataSource(
+				"org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:benchmarkTx", "sa", "", true);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(this.dataSource));
+		this.callback = new TransactionCallback() {
+			public Object doInTransaction(TransactionStatus status) {
+				TransactionSynchronizationManager.registerSynchronization(SYNCHRONIZATION);
+				return DataSourceUtils.getConnection(dataSource);
+			}
+		};
+	}
+
+	public Object invoke() {
+		return this.transactionTemplate.execute(this.callback);
+	}
+
+	public void tearDown() {
+		this.dataSource.destroy();
+	}
+
+}
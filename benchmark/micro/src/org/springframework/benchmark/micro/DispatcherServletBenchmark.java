@@ -0,0 +1,104 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import java.util.Properties;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.ConfigurableWebApplicationContext;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.mvc.Controller;
+
+/**
+ * Benchmark for request dispatching through a DispatcherServlet, with mock
+ * servlet objects: handler lookup against a number of URL mappings, handler
+ * adapter selection and invocation of a Controller that writes the response
+ * itself (i.e. without view rendering).
+ *
+ * @since 2.5.7
+ */
+public class DispatcherServletBenchmark extends MicroBenchmark {
+
+	private static final int MAPPINGS = 100;
+
+
+	private DispatcherServlet servlet;
+
+	private MockServletContext servletContext;
+
+	private int counter;
+
+
+	public DispatcherServletBenchmark() {
+		super("dispatcherServlet.service", "mappings=" + MAPPINGS);
+	}
+
+
+	public void setUp() throws ServletException {
+		this.servletContext = new MockServletContext();
+		this.servlet = new DispatcherServlet() {
+			protected void postProcessWebApplicationContext(ConfigurableWebApplicationContext wac) {
+				Properties mappings = new Properties();
+				for (int i = 0; i < MAPPINGS; i++) {
+					mappings.setProperty("/module" + i + "/*.html", "controller");
+				}
+				MutablePropertyValues pvs = new MutablePropertyValues();
+				pvs.addPropertyValue("mappings", mappings);
+				StaticWebApplicationContext swac = (StaticWebApplicationContext) wac;
+				swac.registerSingleton("handlerMapping", SimpleUrlHandlerMapping.class, pvs);
+				swac.registerSingleton("controller", WritingController.class);
+			}
+		};
+		this.servlet.setContextClass(StaticWebApplicationContext.class);
+		this.servlet.init(new MockServletConfig(this.servletContext, "benchmark"));
+	}
+
+	public Object invoke() throws Exception {
+		int module = (this.counter++ & 0x7fffffff) % MAPPINGS;
+		MockHttpServletRequest request =
+				new MockHttpServletRequest(this.servletContext, "GET", "/module" + module + "/view.html");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		this.servlet.service(request, response);
+		return response;
+	}
+
+	public void tearDown() {
+		this.servlet.destroy();
+	}
+
+
+	public static class WritingController implements Controller {
+
+		public ModelAndView handleRequest(HttpServletRequest request, HttpServletResponse response) throws Exception {
+			response.setContentType("text/plain");
+			response.getWriter().write("OK");
+			return null;
+		}
+	}
+
+}
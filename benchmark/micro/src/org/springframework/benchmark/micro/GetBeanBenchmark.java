@@ -0,0 +1,103 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessorAdapter;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+/**
+ * Benchmark for <code>getBean</code> calls against a DefaultListableBeanFactory,
+ * for a singleton (cache lookup) or a prototype (full bean creation including
+ * property population with type conversion and a bean reference).
+ * Optionally with a number of no-op BeanPostProcessors registered, half of
+ * them instantiation-aware, as typical for an ApplicationContext with
+ * annotation config.
+ *
+ * @since 2.5.7
+ */
+public class GetBeanBenchmark extends MicroBenchmark {
+
+	private final String scope;
+
+	private final int postProcessorCount;
+
+	private DefaultListableBeanFactory beanFactory;
+
+
+	public GetBeanBenchmark(boolean singleton) {
+		this(singleton, 0);
+	}
+
+	public GetBeanBenchmark(boolean singleton, int postProcessorCount) {
+		super("getBean", "scope=" + (singleton ? BeanDefinition.SCOPE_SINGLETON : BeanDefinition.SCOPE_PROTOTYPE) +
+				(postProcessorCount > 0 ? ",postProcessors=" + postProcessorCount : ""));
+		this.scope = (singleton ? BeanDefinition.SCOPE_SINGLETON : BeanDefinition.SCOPE_PROTOTYPE);
+		this.postProcessorCount = postProcessorCount;
+	}
+
+
+	public void setUp() {
+		this.beanFactory = new DefaultListableBeanFactory();
+		for (int i = 0; i < this.postProcessorCount; i++) {
+			this.beanFactory.addBeanPostProcessor(
+					i % 2 == 0 ? new NopBeanPostProcessor() : new NopInstantiationAwareBeanPostProcessor());
+		}
+		RootBeanDefinition spouse = new RootBeanDefinition(BenchmarkBean.class);
+		spouse.getPropertyValues().addPropertyValue("name", "spouse");
+		this.beanFactory.registerBeanDefinition("spouse", spouse);
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.addPropertyValue("name", "bean");
+		pvs.addPropertyValue("count", "42");
+		pvs.addPropertyValue("amount", "12.5");
+		pvs.addPropertyValue("active", "true");
+		pvs.addPropertyValue("spouse", new RuntimeBeanReference("spouse"));
+		RootBeanDefinition bd = new RootBeanDefinition(BenchmarkBean.class, pvs);
+		bd.setScope(this.scope);
+		this.beanFactory.registerBeanDefinition("bean", bd);
+		this.beanFactory.preInstantiateSingletons();
+	}
+
+	public Object invoke() {
+		return this.beanFactory.getBean("bean");
+	}
+
+	public void tearDown() {
+		this.beanFactory.destroySingletons();
+	}
+
+
+	private static class NopBeanPostProcessor implements BeanPostProcessor {
+
+		public Object postProcessBeforeInitialization(Object bean, String beanName) {
+			return bean;
+		}
+
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			return bean;
+		}
+	}
+
+
+	private static class NopInstantiationAwareBeanPostProcessor extends InstantiationAwareBeanPostProcessorAdapter {
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Benchmark for <code>JdbcTemplate.query</code> with a RowMapper against
+ * an in-memory HSQLDB database, for a given number of rows per query.
+ * Measures the framework overhead per statement and per row, since
+ * the database itself does hardly any work.
+ *
+ * <p>Uses either a hand-written RowMapper or a shared BeanPropertyRowMapper.
+ *
+ * @since 2.5.7
+ */
+public class JdbcTemplateQueryBenchmark extends MicroBenchmark {
+
+	private static final String SQL = "SELECT id, name, amount FROM item WHERE id < ?";
+
+	private static final RowMapper ROW_MAPPER = new RowMapper() {
+		public Object mapRow(ResultSet rs, int rowNum) throws SQLException {
+			BenchmarkBean bean = new BenchmarkBean();
+			bean.setId(rs.getLong(1));
+			bean.setName(rs.getString(2));
+			bean.setAmount(rs.getDouble(3));
+			return bean;
+		}
+	};
+
+
+	private final int rows;
+
+	private final RowMapper rowMapper;
+
+	private SingleConnectionDataSource dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private Object[] args;
+
+
+	public JdbcTemplateQueryBenchmark(int rows) {
+		super("jdbcTemplate.query", "rows=" + rows);
+		this.rows = rows;
+		this.rowMapper = ROW_MAPPER;
+	}
+
+	public JdbcTemplateQueryBenchmark(int rows, boolean beanPropertyRowMapper) {
+		super("jdbcTemplate.query", "rows=" + rows + (beanPropertyRowMapper ? ",mapper=beanProperty" : ""));
+		this.rows = rows;
+		this.rowMapper = (beanPropertyRowMapper ? new BeanPropertyRowMapper(BenchmarkBean.class) : ROW_MAPPER);
+	}
+
+
+	public void setUp() {
+		this.dataSource = new SingleConnectionDataSource(
+				"org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:benchmark" + this.rows, "sa", "", true);
+		this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+		this.jdbcTemplate.execute("CREATE TABLE item (id INTEGER PRIMARY KEY, name VARCHAR(50), amount DOUBLE)");
+		for (int i = 0; i < this.rows; i++) {
+			this.jdbcTemplate.update("INSERT INTO item VALUES (?, ?, ?)",
+					new Object[] {new Integer(i), "item" + i, new Double(i * 1.5)});
+		}
+		this.args = new Object[] {new Integer(this.rows)};
+	}
+
+	public Object invoke() {
+		return this.jdbcTemplate.query(SQL, this.args, this.rowMapper);
+	}
+
+	public void tearDown() {
+		this.jdbcTemplate.execute("SHUTDOWN");
+		this.dataSource.destroy();
+	}
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+/**
+ * Base class for a single micro-benchmark, i.e. one operation
+ * to be invoked repeatedly by the {@link BenchmarkRunner}.
+ *
+ * <p>Subclasses prepare their fixture in {@link #setUp()} and implement
+ * {@link #invoke()} as the operation to be measured. The operation's result
+ * gets consumed by the runner, preventing the JIT compiler from eliminating
+ * the operation as dead code.
+ *
+ * <p>A benchmark may be parameterized, e.g. with the number of advisors on
+ * an AOP proxy: Each parameter combination is a separate benchmark instance,
+ * reported with the same name but a different parameter String.
+ *
+ * @since 2.5.7
+ * @see BenchmarkSuite
+ */
+public abstract class MicroBenchmark {
+
+	private final String name;
+
+	private final String params;
+
+
+	/**
+	 * Create a new MicroBenchmark without parameters.
+	 * @param name the name of the benchmark
+	 */
+	protected MicroBenchmark(String name) {
+		this(name, "");
+	}
+
+	/**
+	 * Create a new MicroBenchmark.
+	 * @param name the name of the benchmark
+	 * @param params the parameters of this instance, in the form "key=value,key=value"
+	 */
+	protected MicroBenchmark(String name, String params) {
+		this.name = name;
+		this.params = params;
+	}
+
+
+	/**
+	 * Return the name of this benchmark.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Return the parameters of this benchmark instance
+	 * (an empty String if not parameterized).
+	 */
+	public String getParams() {
+		return this.params;
+	}
+
+	/**
+	 * Return the full identifier of this benchmark instance:
+	 * its name plus parameters, if any.
+	 */
+	public String getId() {
+		return (this.params.length() > 0 ? this.name + ":" + this.params : this.name);
+	}
+
+
+	/**
+	 * Prepare the fixture for this benchmark. Called once before warm-up.
+	 * <p>The default implementation is empty.
+	 */
+	public void setUp() throws Exception {
+	}
+
+	/**
+	 * Perform the operation to measure.
+	 * @return a result of the operation, to be consumed by the runner
+	 */
+	public abstract Object invoke() throws Exception;
+
+	/**
+	 * Release the fixture for this benchmark. Called once after measurement.
+	 * <p>The default implementation is empty.
+	 */
+	public void tearDown() throws Exception {
+	}
+
+}
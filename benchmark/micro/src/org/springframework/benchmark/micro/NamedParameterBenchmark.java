@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import org.springframework.jdbc.core.namedparam.ParsedSql;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+/**
+ * Benchmark for named parameter processing: either plain parsing of a
+ * SQL statement through NamedParameterUtils, or the full per-call statement
+ * preparation of NamedParameterJdbcTemplate (obtaining the parsed statement,
+ * expanding a collection parameter and building the argument array).
+ *
+ * @since 2.5.7
+ */
+public class NamedParameterBenchmark extends MicroBenchmark {
+
+	private static final String SQL =
+			"SELECT id, name, amount FROM item WHERE name = :name AND amount > :amount " +
+			"AND id IN (:ids) AND created < :created ORDER BY id";
+
+
+	private final boolean parseOnly;
+
+	private PreparingTemplate template;
+
+	private SqlParameterSource paramSource;
+
+
+	public NamedParameterBenchmark(boolean parseOnly) {
+		super("namedParameter", "mode=" + (parseOnly ? "parse" : "template"));
+		this.parseOnly = parseOnly;
+	}
+
+
+	public void setUp() {
+		this.template = new PreparingTemplate();
+		MapSqlParameterSource params = new MapSqlParameterSource();
+		params.addValue("name", "item");
+		params.addValue("amount", new Double(12.5));
+		params.addValue("ids", Arrays.asList(new Integer[] {new Integer(1), new Integer(2), new Integer(3)}));
+		params.addValue("created", new Date());
+		this.paramSource = params;
+	}
+
+	public Object invoke() {
+		if (this.parseOnly) {
+			return NamedParameterUtils.parseSqlStatement(SQL);
+		}
+		return this.template.prepare(SQL, this.paramSource);
+	}
+
+
+	/**
+	 * NamedParameterJdbcTemplate subclass that exposes the statement
+	 * preparation steps, without actually executing any statement.
+	 */
+	private static class PreparingTemplate extends NamedParameterJdbcTemplate {
+
+		public PreparingTemplate() {
+			super(new JdbcTemplate());
+		}
+
+		public Object[] prepare(String sql, SqlParameterSource paramSource) {
+			ParsedSql parsedSql = getParsedSql(sql);
+			String sqlToUse = NamedParameterUtils.substituteNamedParameters(parsedSql, paramSource);
+			Object[] params = NamedParameterUtils.buildValueArray(parsedSql, paramSource, null);
+			return new Object[] {sqlToUse, params};
+		}
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.benchmark.micro;
+
+import java.util.Properties;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttributeSourceAdvisor;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Benchmark for method invocations on a transactional JDK proxy, with
+ * transaction attributes in properties format: a read-only attribute for
+ * getters and a rollback rule for setters. The transaction manager does
+ * not hold any resources, measuring the transaction infrastructure only.
+ *
+ * @since 2.5.7
+ */
+public class TransactionInterceptorBenchmark extends MicroBenchmark {
+
+	private Service proxy;
+
+	private int counter;
+
+
+	public TransactionInterceptorBenchmark() {
+		super("transactionInterceptor.invoke");
+	}
+
+
+	public void setUp() {
+		Properties attributes = new Properties();
+		attributes.setProperty("get*", "PROPAGATION_REQUIRED,readOnly");
+		attributes.setProperty("set*", "PROPAGATION_REQUIRED,-Exception");
+		TransactionInterceptor ti = new TransactionInterceptor(new NoOpTransactionManager(), attributes);
+		ProxyFactory pf = new ProxyFactory(new BenchmarkBean());
+		pf.addInterface(Service.class);
+		pf.addAdvisor(new TransactionAttributeSourceAdvisor(ti));
+		pf.setFrozen(true);
+		this.proxy = (Service) pf.getProxy();
+	}
+
+	public Object invoke() {
+		this.proxy.setCount(this.counter++);
+		return this.proxy.getName();
+	}
+
+
+	private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.benchmark.micro;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+
+/**
+ * Benchmark for URL handler lookup against thousands of mappings: either
+ * through the index of registered paths kept for the default CompiledPathMatcher,
+ * or by matching every registered path with a plain AntPathMatcher.
+ *
+ * @since 2.5.7
+ */
+public class UrlHandlerMappingBenchmark extends MicroBenchmark {
+
+	private static final int MAPPINGS = 3000;
+
+	private static final String[] REQUEST_PATHS = {
+			"/app7/module42/item/view.html", "/app3/module1503/list", "/app2/module1502/a/b/c",
+			"/app2/module1502", "/static/css/site.css", "/app1/unknown", "/nowhere"};
+
+
+	private final boolean indexed;
+
+	private SimpleUrlHandlerMapping handlerMapping;
+
+	private int counter;
+
+
+	/**
+	 * Create a new UrlHandlerMappingBenchmark.
+	 * @param indexed whether to look up handlers through the index of registered
+	 * paths (default CompiledPathMatcher) rather than scanning them (AntPathMatcher)
+	 */
+	public UrlHandlerMappingBenchmark(boolean indexed) {
+		super("urlHandlerMapping.getHandler",
+				"mappings=" + MAPPINGS + ",lookup=" + (indexed ? "indexed" : "scanning"));
+		this.indexed = indexed;
+	}
+
+
+	public void setUp() {
+		Map urlMap = new LinkedHashMap();
+		for (int i = 0; i < MAPPINGS; i++) {
+			String prefix = "/app" + (i % 10) + "/module" + i;
+			switch (i % 4) {
+				case 0: urlMap.put(prefix + "/item/*.html", new Integer(i)); break;
+				case 1: urlMap.put(prefix + "/**", new Integer(i)); break;
+				case 2: urlMap.put(prefix + "/*", new Integer(i)); break;
+				default: urlMap.put(prefix + "/list", new Integer(i));
+			}
+		}
+		urlMap.put("/**/*.css", new Integer(-1));
+		urlMap.put("/app1/**", new Integer(-2));
+
+		StaticWebApplicationContext wac = new StaticWebApplicationContext();
+		wac.setServletContext(new MockServletContext());
+		wac.refresh();
+		this.handlerMapping = new SimpleUrlHandlerMapping();
+		if (!this.indexed) {
+			this.handlerMapping.setPathMatcher(new AntPathMatcher());
+		}
+		this.handlerMapping.setUrlMap(urlMap);
+		this.handlerMapping.setApplicationContext(wac);
+	}
+
+	public Object invoke() throws Exception {
+		String path = REQUEST_PATHS[(this.counter++ & 0x7fffffff) % REQUEST_PATHS.length];
+		return this.handlerMapping.getHandler(new MockHttpServletRequest("GET", path));
+	}
+
+}
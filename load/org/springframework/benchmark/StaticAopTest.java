@@ -25,9 +25,28 @@ public class StaticAopTest extends AbstractTest implements InitializingBean {
 	
 	private ITestBean advised;
 
+	private boolean proxyTargetClass = true;
+
+	private boolean useGeneratedInvokers;
+
+	/**
+	 * Set whether to create a CGLIB proxy (the default) or a JDK proxy.
+	 */
+	public void setProxyTargetClass(boolean proxyTargetClass) {
+		this.proxyTargetClass = proxyTargetClass;
+	}
+
+	/**
+	 * Set whether a JDK proxy should invoke the target through a generated invoker.
+	 */
+	public void setUseGeneratedInvokers(boolean useGeneratedInvokers) {
+		this.useGeneratedInvokers = useGeneratedInvokers;
+	}
+
 	public void afterPropertiesSet() {
 		ProxyFactory pf = new ProxyFactory(new Class[] { ITestBean.class });
-		pf.setProxyTargetClass(true);
+		pf.setProxyTargetClass(this.proxyTargetClass);
+		pf.setUseGeneratedInvokers(this.useGeneratedInvokers);
 
 		MethodInterceptor static1 = new Advices.NopInterceptor();
 
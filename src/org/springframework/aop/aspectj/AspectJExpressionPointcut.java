@@ -17,9 +17,10 @@
 package org.springframework.aop.aspectj;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
 import org.aopalliance.intercept.MethodInvocation;
@@ -51,6 +52,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
@@ -64,6 +66,14 @@ import org.springframework.util.StringUtils;
  * <p>Naturally, as this is to be processed by Spring AOP's proxy-based model,
  * only method execution pointcuts are supported.
  *
+ * <p>Match results per method are cached without locking. By default, the
+ * cache is shared with all other pointcut instances for the same expression
+ * (same expression String, declaration scope and pointcut parameters),
+ * e.g. with the pointcuts of several advice methods that refer to the same
+ * named pointcut. Expressions using the Spring-specific <code>bean()</code>
+ * designator keep a cache of their own, since their matching depends on
+ * the bean factory that this pointcut has been configured for.
+ *
  * @author Rob Harrop
  * @author Adrian Colyer
  * @author Rod Johnson
@@ -92,7 +102,9 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private static final Log logger = LogFactory.getLog(AspectJExpressionPointcut.class);
 
-	private final Map shadowMatchCache = new HashMap();
+	private boolean shareShadowMatchCache = true;
+
+	private boolean usesBeanDesignator = false;
 
 	private PointcutParser pointcutParser;
 
@@ -104,7 +116,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private BeanFactory beanFactory;
 
-	private PointcutExpression pointcutExpression;
+	private transient volatile ResolvedExpression resolvedExpression;
 
 
 	/**
@@ -165,6 +177,17 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		this.pointcutParameterTypes = types;
 	}
 
+	/**
+	 * Set whether to share the cache of per-method match results with all other
+	 * pointcut instances for the same expression, declaration scope and parameters.
+	 * <p>Default is "true". Switch this to "false" to keep a cache per pointcut
+	 * instance. Expressions that use the <code>bean()</code> designator,
+	 * directly or through a named pointcut, never share their cache.
+	 */
+	public void setShareShadowMatchCache(boolean shareShadowMatchCache) {
+		this.shareShadowMatchCache = shareShadowMatchCache;
+	}
+
 	public void setBeanFactory(BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
 	}
@@ -185,13 +208,37 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	 * Check whether this pointcut is ready to match,
 	 * lazily building the underlying AspectJ pointcut expression.
 	 */
-	private void checkReadyToMatch() {
+	private ResolvedExpression checkReadyToMatch() {
 		if (getExpression() == null) {
 			throw new IllegalStateException("Must set property 'expression' before attempting to match");
 		}
-		if (this.pointcutExpression == null) {
-			this.pointcutExpression = buildPointcutExpression();
+		ResolvedExpression resolved = this.resolvedExpression;
+		if (resolved == null) {
+			resolved = new ResolvedExpression(buildPointcutExpression(), obtainShadowMatchCache());
+			this.resolvedExpression = resolved;
 		}
+		return resolved;
+	}
+
+	/**
+	 * Obtain the cache for per-method match results: either shared with
+	 * all other pointcuts for the same expression or local to this pointcut.
+	 */
+	private ShadowMatchCache obtainShadowMatchCache() {
+		if (!this.shareShadowMatchCache || this.usesBeanDesignator) {
+			return new ShadowMatchCache();
+		}
+		// Key by name only: the shared cache registry must not hold on to any classes.
+		List key = new ArrayList(3 + this.pointcutParameterTypes.length);
+		key.add(getExpression());
+		key.add(this.pointcutDeclarationScope != null ? this.pointcutDeclarationScope.getName() : null);
+		key.add(Arrays.asList(this.pointcutParameterNames));
+		for (int i = 0; i < this.pointcutParameterTypes.length; i++) {
+			key.add(this.pointcutParameterTypes[i].getName());
+		}
+		ClassLoader classLoader = (this.pointcutDeclarationScope != null ?
+				this.pointcutDeclarationScope.getClassLoader() : ClassUtils.getDefaultClassLoader());
+		return ShadowMatchCache.getSharedCache(classLoader, key);
 	}
 
 	/**
@@ -224,15 +271,14 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	 * Return the underlying AspectJ pointcut expression.
 	 */
 	public PointcutExpression getPointcutExpression() {
-		checkReadyToMatch();
-		return this.pointcutExpression;
+		return checkReadyToMatch().pointcutExpression;
 	}
 
 
 	public boolean matches(Class targetClass) {
-		checkReadyToMatch();
+		PointcutExpression pointcutExpression = checkReadyToMatch().pointcutExpression;
 		try {
-			return this.pointcutExpression.couldMatchJoinPointsInType(targetClass);
+			return pointcutExpression.couldMatchJoinPointsInType(targetClass);
 		}
 		catch (BCException ex) {
 			logger.debug("PointcutExpression matching rejected target class", ex);
@@ -241,11 +287,11 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	}
 
 	public boolean matches(Method method, Class targetClass, boolean beanHasIntroductions) {
-		checkReadyToMatch();
+		ResolvedExpression resolved = checkReadyToMatch();
 		Method targetMethod = AopUtils.getMostSpecificMethod(method, targetClass);
-		ShadowMatch shadowMatch = null;
+		ShadowMatchCache.Entry shadowMatchEntry = null;
 		try {
-			shadowMatch = getShadowMatch(targetMethod, method);
+			shadowMatchEntry = getShadowMatch(resolved, targetMethod, method);
 		}
 		catch (ReflectionWorld.ReflectionWorldException ex) {
 			// Could neither introspect the target class nor the proxy class ->
@@ -256,6 +302,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		// Special handling for this, target, @this, @target, @annotation
 		// in Spring - we can optimize since we know we have exactly this class,
 		// and there will never be matching subclass at runtime.
+		ShadowMatch shadowMatch = shadowMatchEntry.getShadowMatch();
 		if (shadowMatch.alwaysMatches()) {
 			return true;
 		}
@@ -264,7 +311,9 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		}
 		else {
 		  // the maybe case
-		  return (beanHasIntroductions || matchesIgnoringSubtypes(shadowMatch) || matchesTarget(shadowMatch, targetClass));
+		  RuntimeTestWalker walker = shadowMatchEntry.getRuntimeTestWalker();
+		  return (beanHasIntroductions || !walker.testsSubtypeSensitiveVars() ||
+				  walker.testTargetInstanceOfResidue(targetClass));
 		}
 	}
 
@@ -273,17 +322,17 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	}
 
 	public boolean isRuntime() {
-		checkReadyToMatch();
-		return this.pointcutExpression.mayNeedDynamicTest();
+		return checkReadyToMatch().pointcutExpression.mayNeedDynamicTest();
 	}
 
 	public boolean matches(Method method, Class targetClass, Object[] args) {
-		checkReadyToMatch();
+		ResolvedExpression resolved = checkReadyToMatch();
 		ShadowMatch shadowMatch = null;
-		ShadowMatch originalShadowMatch = null;
+		ShadowMatchCache.Entry originalShadowMatchEntry = null;
 		try {
-			shadowMatch = getShadowMatch(AopUtils.getMostSpecificMethod(method, targetClass), method);
-			originalShadowMatch = getShadowMatch(method, method);
+			shadowMatch = getShadowMatch(
+					resolved, AopUtils.getMostSpecificMethod(method, targetClass), method).getShadowMatch();
+			originalShadowMatchEntry = getShadowMatch(resolved, method, method);
 		}
 		catch (ReflectionWorld.ReflectionWorldException ex) {
 			// Could neither introspect the target class nor the proxy class ->
@@ -322,7 +371,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		 * <p>See SPR-2979 for the original bug.
 		 */
 		if (pmi != null) {  // there is a current invocation
-			RuntimeTestWalker originalMethodResidueTest = new RuntimeTestWalker(originalShadowMatch);
+			RuntimeTestWalker originalMethodResidueTest = originalShadowMatchEntry.getRuntimeTestWalker();
 			if (!originalMethodResidueTest.testThisInstanceOfResidue(thisObject.getClass())) {
 				return false;
 			}
@@ -339,20 +388,6 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	}
 
 
-	/**
-	 * A match test returned maybe - if there are any subtype sensitive variables
-	 * involved in the test (this, target, at_this, at_target, at_annotation) then
-	 * we say this is not a match as in Spring there will never be a different
-	 * runtime subtype.
-	 */
-	private boolean matchesIgnoringSubtypes(ShadowMatch shadowMatch) {
-		return !(new RuntimeTestWalker(shadowMatch).testsSubtypeSensitiveVars());
-	}
-
-	private boolean matchesTarget(ShadowMatch shadowMatch, Class targetClass) {
-		return new RuntimeTestWalker(shadowMatch).testTargetInstanceOfResidue(targetClass);
-	}
-
 	private void bindParameters(ProxyMethodInvocation invocation, JoinPointMatch jpm) {
 		// Note: Can't use JoinPointMatch.getClass().getName() as the key, since
 		// Spring AOP does all the matching at a join point, and then all the invocations
@@ -363,25 +398,35 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		invocation.setUserAttribute(getExpression(), jpm);
 	}
 
-	private ShadowMatch getShadowMatch(Method targetMethod, Method originalMethod) {
-		synchronized (this.shadowMatchCache) {
-			ShadowMatch shadowMatch = (ShadowMatch) this.shadowMatchCache.get(targetMethod);
-			if (shadowMatch == null) {
-				try {
-					shadowMatch = this.pointcutExpression.matchesMethodExecution(targetMethod);
-				}
-				catch (ReflectionWorld.ReflectionWorldException ex) {
-					// Failed to introspect target method, probably because it has been loaded
-					// in a special ClassLoader. Let's try the original method instead...
-					if (targetMethod == originalMethod) {
-						throw ex;
-					}
-					shadowMatch = this.pointcutExpression.matchesMethodExecution(originalMethod);
+	/**
+	 * Return the cached ShadowMatch for the given method,
+	 * matching the method against the pointcut expression if necessary.
+	 * <p>If the ShadowMatch of a method has not been cached yet, concurrent
+	 * callers might compute it at the same time: an idempotent operation.
+	 * @param resolved the resolved pointcut expression and its cache
+	 * @param targetMethod the most specific method to match
+	 * @param originalMethod the method as invoked on the proxy
+	 * @return the cache entry with the ShadowMatch for the target method
+	 */
+	private ShadowMatchCache.Entry getShadowMatch(
+			ResolvedExpression resolved, Method targetMethod, Method originalMethod) {
+		ShadowMatchCache.Entry shadowMatchEntry = resolved.shadowMatchCache.get(targetMethod);
+		if (shadowMatchEntry == null) {
+			ShadowMatch shadowMatch = null;
+			try {
+				shadowMatch = resolved.pointcutExpression.matchesMethodExecution(targetMethod);
+			}
+			catch (ReflectionWorld.ReflectionWorldException ex) {
+				// Failed to introspect target method, probably because it has been loaded
+				// in a special ClassLoader. Let's try the original method instead...
+				if (targetMethod == originalMethod) {
+					throw ex;
 				}
-				this.shadowMatchCache.put(targetMethod, shadowMatch);
+				shadowMatch = resolved.pointcutExpression.matchesMethodExecution(originalMethod);
 			}
-			return shadowMatch;
+			shadowMatchEntry = resolved.shadowMatchCache.put(targetMethod, shadowMatch);
 		}
+		return shadowMatchEntry;
 	}
 
 
@@ -450,6 +495,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		}
 
 		public ContextBasedMatcher parse(String expression) {
+			usesBeanDesignator = true;
 			return new BeanNameContextMatcher(expression);
 		}
 	}
@@ -527,4 +573,22 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		}
 	}
 
+
+
+	/**
+	 * The underlying AspectJ pointcut expression along with its match cache,
+	 * published together through a single volatile field.
+	 */
+	private static class ResolvedExpression {
+
+		private final PointcutExpression pointcutExpression;
+
+		private final ShadowMatchCache shadowMatchCache;
+
+		public ResolvedExpression(PointcutExpression pointcutExpression, ShadowMatchCache shadowMatchCache) {
+			this.pointcutExpression = pointcutExpression;
+			this.shadowMatchCache = shadowMatchCache;
+		}
+	}
+
 }
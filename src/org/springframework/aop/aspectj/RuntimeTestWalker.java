@@ -17,6 +17,7 @@
 package org.springframework.aop.aspectj;
 
 import java.lang.reflect.Field;
+import java.util.Map;
 
 import org.aspectj.weaver.ResolvedType;
 import org.aspectj.weaver.ast.And;
@@ -34,6 +35,7 @@ import org.aspectj.weaver.reflect.ReflectionVar;
 import org.aspectj.weaver.reflect.ShadowMatchImpl;
 import org.aspectj.weaver.tools.ShadowMatch;
 
+import org.springframework.core.CollectionFactory;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
@@ -49,6 +51,10 @@ import org.springframework.util.ReflectionUtils;
  *
  * <p>See <a href="https://bugs.eclipse.org/bugs/show_bug.cgi?id=151593"/>.
  *
+ * <p>The runtime test gets analyzed once, on construction. Instanceof residue
+ * checks against a given class are cached per class, so a walker can be kept
+ * per ShadowMatch and be reused for every invocation of a dynamic pointcut.
+ *
  * @author Adrian Colyer
  * @author Ramnivas Laddad
  * @since 2.0
@@ -57,6 +63,20 @@ class RuntimeTestWalker {
 
 	private final Test runtimeTest;
 
+	private final boolean testsSubtypeSensitiveVars;
+
+	/** Name of the type in the effective this(TYPE) residue, if any */
+	private final String thisInstanceOfTypeName;
+
+	/** Name of the type in the effective target(TYPE) residue, if any */
+	private final String targetInstanceOfTypeName;
+
+	/** Class --> Boolean */
+	private final Map thisInstanceOfMatches = CollectionFactory.createConcurrentMapIfPossible(4);
+
+	/** Class --> Boolean */
+	private final Map targetInstanceOfMatches = CollectionFactory.createConcurrentMapIfPossible(4);
+
 
 	public RuntimeTestWalker(ShadowMatch shadowMatch) {
 		ShadowMatchImpl shadowMatchImplementation = (ShadowMatchImpl) shadowMatch;
@@ -75,6 +95,12 @@ class RuntimeTestWalker {
 			// makeAccessible call above
 			throw new IllegalStateException("Unable to access ShadowMatchImpl.runtimeTest field.");
 		}
+		this.testsSubtypeSensitiveVars =
+				new SubtypeSensitiveVarTypeTestVisitor().testsSubtypeSensitiveVars(this.runtimeTest);
+		this.thisInstanceOfTypeName =
+				new InstanceOfResidueTestVisitor(TestVisitorAdapter.THIS_VAR).getTypeName(this.runtimeTest);
+		this.targetInstanceOfTypeName =
+				new InstanceOfResidueTestVisitor(TestVisitorAdapter.TARGET_VAR).getTypeName(this.runtimeTest);
 	}
 
 
@@ -83,15 +109,40 @@ class RuntimeTestWalker {
 	 * then it tests subtype sensitive vars.
 	 */
 	public boolean testsSubtypeSensitiveVars() {
-		return new SubtypeSensitiveVarTypeTestVisitor().testsSubtypeSensitiveVars(this.runtimeTest);
+		return this.testsSubtypeSensitiveVars;
 	}
 
+	/**
+	 * Check if residue of this(TYPE) kind. See SPR-2979 for more details.
+	 */
 	public boolean testThisInstanceOfResidue(Class thisClass) {
-		return new ThisInstanceOfResidueTestVisitor(thisClass).thisInstanceOfMatches(this.runtimeTest);
+		return instanceOfMatches(this.thisInstanceOfTypeName, thisClass, true, this.thisInstanceOfMatches);
 	}
 
+	/**
+	 * Check if residue of target(TYPE) kind. See SPR-3783 for more details.
+	 */
 	public boolean testTargetInstanceOfResidue(Class targetClass) {
-		return new TargetInstanceOfResidueTestVisitor(targetClass).targetInstanceOfMatches(this.runtimeTest);
+		return instanceOfMatches(this.targetInstanceOfTypeName, targetClass, false, this.targetInstanceOfMatches);
+	}
+
+	private static boolean instanceOfMatches(String typeName, Class matchClass, boolean defaultMatches, Map cache) {
+		if (typeName == null) {
+			return defaultMatches;
+		}
+		Boolean matches = (Boolean) cache.get(matchClass);
+		if (matches == null) {
+			try {
+				Class typeClass = ClassUtils.forName(typeName, matchClass.getClassLoader());
+				// Don't use ReflectionType.isAssignableFrom() as it won't be aware of (Spring) mixins
+				matches = Boolean.valueOf(typeClass.isAssignableFrom(matchClass));
+			}
+			catch (ClassNotFoundException ex) {
+				matches = Boolean.FALSE;
+			}
+			cache.put(matchClass, matches);
+		}
+		return matches.booleanValue();
 	}
 
 
@@ -156,68 +207,30 @@ class RuntimeTestWalker {
 	}
 
 
-	private static abstract class InstanceOfResidueTestVisitor extends TestVisitorAdapter {
+	/**
+	 * Determines the type of the effective instanceof residue for a given var:
+	 * As in AspectJ's evaluation order, the last such test wins.
+	 */
+	private static class InstanceOfResidueTestVisitor extends TestVisitorAdapter {
+
+		private final int matchVarType;
 
-		private Class matchClass;
-		private boolean matches;
-		private int matchVarType;
+		private String typeName;
 
-		public InstanceOfResidueTestVisitor(Class matchClass, boolean defaultMatches, int matchVarType) {
-			this.matchClass = matchClass;
-			this.matches = defaultMatches;
+		public InstanceOfResidueTestVisitor(int matchVarType) {
 			this.matchVarType = matchVarType;
 		}
-		
-		public boolean instanceOfMatches(Test test) {
+
+		public String getTypeName(Test test) {
 			test.accept(this);
-			return matches;
+			return this.typeName;
 		}
 
 		public void visit(Instanceof i) {
-			ResolvedType type = (ResolvedType) i.getType();
 			int varType = getVarType((ReflectionVar) i.getVar());
-			if (varType != this.matchVarType) {
-				return;
+			if (varType == this.matchVarType) {
+				this.typeName = ((ResolvedType) i.getType()).getName();
 			}
-			try {
-				Class typeClass = ClassUtils.forName(type.getName(), this.matchClass.getClassLoader());
-				// Don't use ReflectionType.isAssignableFrom() as it won't be aware of (Spring) mixins
-				this.matches = typeClass.isAssignableFrom(this.matchClass);
-			}
-			catch (ClassNotFoundException ex) {
-				this.matches = false;
-			}
-		}
-	}
-
-
-	/**
-	 * Check if residue of target(TYPE) kind. See SPR-3783 for more details.
-	 */
-	private static class TargetInstanceOfResidueTestVisitor extends InstanceOfResidueTestVisitor {
-
-		public TargetInstanceOfResidueTestVisitor(Class targetClass) {
-			super(targetClass, false, TARGET_VAR);
-		}
-
-		public boolean targetInstanceOfMatches(Test test) {
-			return instanceOfMatches(test);
-		}
-	}
-
-
-	/**
-	 * Check if residue of this(TYPE) kind. See SPR-2979 for more details.
-	 */
-	private static class ThisInstanceOfResidueTestVisitor extends InstanceOfResidueTestVisitor {
-
-		public ThisInstanceOfResidueTestVisitor(Class thisClass) {
-			super(thisClass, true, THIS_VAR);
-		}
-
-		// TODO: Optimization: Process only if this() specifies a type and not an identifier.
-		public boolean thisInstanceOfMatches(Test test) {
-			return instanceOfMatches(test);
 		}
 	}
 
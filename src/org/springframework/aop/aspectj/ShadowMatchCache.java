@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.aspectj;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.aspectj.weaver.tools.ShadowMatch;
+
+import org.springframework.core.CollectionFactory;
+
+/**
+ * Cache of AspectJ {@link ShadowMatch} results per method, for a specific
+ * pointcut expression. Used by {@link AspectJExpressionPointcut}.
+ *
+ * <p>Lookups do not lock: the cache is backed by a concurrent Map where
+ * available, with the same ShadowMatch possibly computed twice in case of
+ * concurrent access to a method that has not been matched yet.
+ *
+ * <p>Pointcut instances for identical expressions can share a cache, obtained
+ * through {@link #getSharedCache(ClassLoader, Object)}. A shared cache is held
+ * weakly: it is released once the last pointcut that uses it has been released.
+ * The registry of shared caches is segmented by ClassLoader, with each segment
+ * held weakly as well, so that it does not keep redeployed applications alive.
+ *
+ * @since 2.5.7
+ */
+class ShadowMatchCache {
+
+	/** ClassLoader --> Map from shared cache key to CacheReference */
+	private static final Map sharedCaches = new WeakHashMap();
+
+	private static final ReferenceQueue releasedCaches = new ReferenceQueue();
+
+
+	/**
+	 * Return the cache shared by all pointcuts with the given key,
+	 * creating a new cache if none is in use for that key yet.
+	 * @param classLoader the ClassLoader that the pointcut expression
+	 * gets resolved against
+	 * @param key the key identifying the pointcut expression
+	 * (must implement <code>equals</code> and <code>hashCode</code>,
+	 * and must not refer to any classes or ClassLoaders)
+	 * @return the shared cache (never <code>null</code>)
+	 */
+	public static ShadowMatchCache getSharedCache(ClassLoader classLoader, Object key) {
+		synchronized (sharedCaches) {
+			CacheReference released = (CacheReference) releasedCaches.poll();
+			while (released != null) {
+				if (released.caches.get(released.key) == released) {
+					released.caches.remove(released.key);
+				}
+				released = (CacheReference) releasedCaches.poll();
+			}
+			Map caches = (Map) sharedCaches.get(classLoader);
+			if (caches == null) {
+				caches = new HashMap();
+				sharedCaches.put(classLoader, caches);
+			}
+			CacheReference ref = (CacheReference) caches.get(key);
+			ShadowMatchCache cache = (ref != null ? (ShadowMatchCache) ref.get() : null);
+			if (cache == null) {
+				cache = new ShadowMatchCache();
+				caches.put(key, new CacheReference(caches, key, cache));
+			}
+			return cache;
+		}
+	}
+
+
+	/** Method --> Entry */
+	private final Map entries = CollectionFactory.createConcurrentMapIfPossible(32);
+
+
+	/**
+	 * Return the cached entry for the given method, if any.
+	 * @param method the method that has been matched
+	 * @return the cache entry, or <code>null</code> if none
+	 */
+	public Entry get(Method method) {
+		return (Entry) this.entries.get(method);
+	}
+
+	/**
+	 * Cache the given ShadowMatch for the given method.
+	 * @param method the method that has been matched
+	 * @param shadowMatch the ShadowMatch for the method
+	 * @return the new cache entry
+	 */
+	public Entry put(Method method, ShadowMatch shadowMatch) {
+		Entry entry = new Entry(shadowMatch);
+		this.entries.put(method, entry);
+		return entry;
+	}
+
+	/**
+	 * Return the number of methods currently held in this cache.
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+
+	/**
+	 * A cached ShadowMatch, along with the analysis of its runtime residue.
+	 */
+	public static class Entry {
+
+		private final ShadowMatch shadowMatch;
+
+		private volatile RuntimeTestWalker runtimeTestWalker;
+
+		private Entry(ShadowMatch shadowMatch) {
+			this.shadowMatch = shadowMatch;
+		}
+
+		/**
+		 * Return the cached ShadowMatch.
+		 */
+		public ShadowMatch getShadowMatch() {
+			return this.shadowMatch;
+		}
+
+		/**
+		 * Return the RuntimeTestWalker for the ShadowMatch,
+		 * analyzing its runtime residue on first access.
+		 */
+		public RuntimeTestWalker getRuntimeTestWalker() {
+			if (this.runtimeTestWalker == null) {
+				// No need to synchronize: the analysis is idempotent.
+				this.runtimeTestWalker = new RuntimeTestWalker(this.shadowMatch);
+			}
+			return this.runtimeTestWalker;
+		}
+	}
+
+
+	/**
+	 * Weak reference to a shared cache, remembering its key for cleanup.
+	 */
+	private static class CacheReference extends WeakReference {
+
+		private final Map caches;
+
+		private final Object key;
+
+		public CacheReference(Map caches, Object key, ShadowMatchCache cache) {
+			super(cache, releasedCaches);
+			this.caches = caches;
+			this.key = key;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2006 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import org.aspectj.weaver.tools.PointcutParser;
 import org.aspectj.weaver.tools.TypePatternMatcher;
 
 import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.IndexableClassFilter;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -29,12 +30,14 @@ import org.springframework.util.StringUtils;
  * @author Rod Johnson
  * @since 2.0
  */
-public class TypePatternClassFilter implements ClassFilter {
+public class TypePatternClassFilter implements IndexableClassFilter {
 
 	private String typePattern;
 
 	private TypePatternMatcher aspectJTypePatternMatcher;
 
+	private ClassFilter candidateFilter;
+
 
 	/**
 	 * Creates a new instance of the {@link TypePatternClassFilter} class.
@@ -81,6 +84,8 @@ public class TypePatternClassFilter implements ClassFilter {
 		this.aspectJTypePatternMatcher =
 				PointcutParser.getPointcutParserSupportingAllPrimitivesAndUsingContextClassloaderForResolution().
 				parseTypePattern(replaceBooleanOperators(typePattern));
+		String packagePrefix = determinePackagePrefix(typePattern);
+		this.candidateFilter = (packagePrefix != null ? new PackagePrefixClassFilter(packagePrefix) : null);
 	}
 
 	public String getTypePattern() {
@@ -100,6 +105,47 @@ public class TypePatternClassFilter implements ClassFilter {
 		return this.aspectJTypePatternMatcher.matches(clazz);
 	}
 
+	/**
+	 * Return a filter for the package that the type pattern is restricted to,
+	 * if the pattern starts with a plain package name (e.g. "com.mycompany..*"
+	 * or "com.mycompany.service.*Service"); <code>null</code> else.
+	 */
+	public ClassFilter getCandidateFilter() {
+		return this.candidateFilter;
+	}
+
+	/**
+	 * Determine the package prefix that all classes matched by the given type
+	 * pattern share. Only considers simple patterns: Patterns with subtype,
+	 * annotation, array or generic type syntax or boolean operators are
+	 * not restricted to a package.
+	 * <p>The prefix may include enclosing type names, since the pattern does
+	 * not tell packages and types apart. Those are separated by '.' here but
+	 * by '$' in binary class names, which the resulting filter accounts for.
+	 * @param typePattern the type pattern
+	 * @return the package prefix including the trailing dot, or <code>null</code>
+	 */
+	private static String determinePackagePrefix(String typePattern) {
+		String pattern = typePattern.trim();
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (!Character.isJavaIdentifierPart(c) && c != '.' && c != '*') {
+				return null;
+			}
+		}
+		String[] segments = StringUtils.delimitedListToStringArray(pattern, ".");
+		StringBuffer prefix = new StringBuffer();
+		// The last segment denotes the type name itself, not a package.
+		for (int i = 0; i < segments.length - 1; i++) {
+			String segment = segments[i];
+			if (segment.length() == 0 || segment.indexOf('*') != -1) {
+				break;
+			}
+			prefix.append(segment).append('.');
+		}
+		return (prefix.length() > 0 ? prefix.toString() : null);
+	}
+
 	/**
 	 * If a type pattern has been specified in XML, the user cannot
 	 * write <code>and</code> as "&&" (though &amp;&amp; will work).
@@ -112,4 +158,46 @@ public class TypePatternClassFilter implements ClassFilter {
 		pcExpr = StringUtils.replace(pcExpr, " not ", " ! ");
 		return pcExpr;
 	}
+
+
+	/**
+	 * Candidate filter that matches all classes within a package and its subpackages,
+	 * treating the '$' separator of nested class names like a '.'.
+	 */
+	private static class PackagePrefixClassFilter implements ClassFilter {
+
+		private final String packagePrefix;
+
+		public PackagePrefixClassFilter(String packagePrefix) {
+			this.packagePrefix = packagePrefix;
+		}
+
+		public boolean matches(Class clazz) {
+			String className = clazz.getName();
+			if (className.length() < this.packagePrefix.length()) {
+				return false;
+			}
+			for (int i = 0; i < this.packagePrefix.length(); i++) {
+				char c = className.charAt(i);
+				if (c != this.packagePrefix.charAt(i) && !(c == '$' && this.packagePrefix.charAt(i) == '.')) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public boolean equals(Object other) {
+			return (this == other || (other instanceof PackagePrefixClassFilter &&
+					this.packagePrefix.equals(((PackagePrefixClassFilter) other).packagePrefix)));
+		}
+
+		public int hashCode() {
+			return this.packagePrefix.hashCode();
+		}
+
+		public String toString() {
+			return "package prefix '" + this.packagePrefix + "'";
+		}
+	}
+
 }
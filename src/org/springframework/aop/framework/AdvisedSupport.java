@@ -82,6 +82,9 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	/** Cache with Method as key and advisor chain List as value */
 	private transient Map methodCache;
 
+	/** Number of changes to advice or TargetSource, for detecting stale derived state */
+	private transient volatile int modificationCount = 0;
+
 	/**
 	 * Interfaces to be implemented by the proxy. Held in List to keep the order
 	 * of registration, to create JDK proxy with specified order of interfaces.
@@ -137,6 +140,7 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 
 	public void setTargetSource(TargetSource targetSource) {
 		this.targetSource = (targetSource != null ? targetSource : EMPTY_TARGET_SOURCE);
+		this.modificationCount++;
 	}
 
 	public TargetSource getTargetSource() {
@@ -475,9 +479,18 @@ public class AdvisedSupport extends ProxyConfig implements Advised {
 	protected void adviceChanged() {
 		synchronized (this.methodCache) {
 			this.methodCache.clear();
+			this.modificationCount++;
 		}
 	}
 
+	/**
+	 * Return the number of changes to the advice or the TargetSource of this
+	 * configuration so far. Allows proxies to detect stale pre-resolved state.
+	 */
+	int getModificationCount() {
+		return this.modificationCount;
+	}
+
 	/**
 	 * Call this method on a new instance created by the no-arg constructor
 	 * to create an independent copy of the configuration from the given object.
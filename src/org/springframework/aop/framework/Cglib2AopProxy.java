@@ -20,6 +20,7 @@ import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -304,28 +305,30 @@ final class Cglib2AopProxy implements AopProxy, Serializable {
 		// direct to the target using the fixed chain for that method.
 		if (isStatic && isFrozen) {
 			Method[] methods = rootClass.getMethods();
-			Callback[] fixedCallbacks = new Callback[methods.length];
+			List fixedCallbacks = new ArrayList(methods.length);
 			this.fixedInterceptorMap = new HashMap(methods.length);
 
-			// TODO: small memory optimisation here (can skip creation for
-			// methods with no advice)
+			// Methods without advice get dispatched to the target directly,
+			// so we only need fixed chain callbacks for advised methods.
 			for (int x = 0; x < methods.length; x++) {
 				List chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(methods[x], rootClass);
-				fixedCallbacks[x] = new FixedChainStaticTargetInterceptor(
-						chain, this.advised.getTargetSource().getTarget(), this.advised.getTargetClass());
-				this.fixedInterceptorMap.put(methods[x].toString(), new Integer(x));
+				if (!chain.isEmpty()) {
+					this.fixedInterceptorMap.put(methods[x].toString(), new Integer(fixedCallbacks.size()));
+					fixedCallbacks.add(new FixedChainStaticTargetInterceptor(new MethodInterceptorChain(chain),
+							this.advised.getTargetSource().getTarget(), this.advised.getTargetClass()));
+				}
 			}
 
 			// Now copy both the callbacks from mainCallbacks
 			// and fixedCallbacks into the callbacks array.
-			callbacks = new Callback[mainCallbacks.length + fixedCallbacks.length];
+			callbacks = new Callback[mainCallbacks.length + fixedCallbacks.size()];
 
 			for (int x = 0; x < mainCallbacks.length; x++) {
 				callbacks[x] = mainCallbacks[x];
 			}
 
-			for (int x = 0; x < fixedCallbacks.length; x++) {
-				callbacks[x + mainCallbacks.length] = fixedCallbacks[x];
+			for (int x = 0; x < fixedCallbacks.size(); x++) {
+				callbacks[x + mainCallbacks.length] = (Callback) fixedCallbacks.get(x);
 			}
 
 			this.fixedInterceptorOffset = mainCallbacks.length;
@@ -562,13 +565,13 @@ final class Cglib2AopProxy implements AopProxy, Serializable {
 	 */
 	private static class FixedChainStaticTargetInterceptor implements MethodInterceptor, Serializable {
 
-		private final List adviceChain;
+		private final MethodInterceptorChain adviceChain;
 
 		private final Object target;
 
 		private final Class targetClass;
 
-		public FixedChainStaticTargetInterceptor(List adviceChain, Object target, Class targetClass) {
+		public FixedChainStaticTargetInterceptor(MethodInterceptorChain adviceChain, Object target, Class targetClass) {
 			this.adviceChain = adviceChain;
 			this.target = target;
 			this.targetClass = targetClass;
@@ -688,6 +691,13 @@ final class Cglib2AopProxy implements AopProxy, Serializable {
 			this.protectedMethod = Modifier.isProtected(method.getModifiers());
 		}
 
+		public CglibMethodInvocation(Object proxy, Object target, Method method, Object[] arguments,
+				Class targetClass, MethodInterceptorChain chain, MethodProxy methodProxy) {
+			super(proxy, target, method, arguments, targetClass, chain);
+			this.methodProxy = methodProxy;
+			this.protectedMethod = Modifier.isProtected(method.getModifiers());
+		}
+
 		/**
 		 * Gives a marginal performance improvement versus using reflection to
 		 * invoke the target when invoking public methods.
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.sf.cglib.reflect.FastClass;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.support.AopUtils;
+
+/**
+ * Internal helper that invokes target methods behind a JDK dynamic proxy
+ * through a CGLIB-generated {@link FastClass}, i.e. through a generated
+ * invoker class that dispatches by method index instead of reflection.
+ * Not intended for direct use by application code.
+ *
+ * <p>Instances are created per proxy for the class of its static target.
+ * The generated class itself is cached by CGLIB per target class.
+ * Methods that the generated class cannot dispatch to, as well as targets
+ * of a different class, are invoked reflectively instead.
+ *
+ * @since 2.5.7
+ * @see ProxyConfig#setUseGeneratedInvokers
+ */
+class CglibTargetInvoker {
+
+	private static final Log logger = LogFactory.getLog(CglibTargetInvoker.class);
+
+	private static final Object[] EMPTY_ARGS = new Object[0];
+
+	private static final Integer NO_INDEX = new Integer(-1);
+
+
+	/**
+	 * Create a CglibTargetInvoker for the given target class.
+	 * @param targetClass the class of the static target
+	 * @param proxiedInterfaces the interfaces implemented by the proxy
+	 * @return the invoker, or <code>null</code> if no invoker class
+	 * could be generated for the given target class
+	 */
+	public static CglibTargetInvoker forClass(Class targetClass, Class[] proxiedInterfaces) {
+		if (targetClass.getClassLoader() == null) {
+			// Cannot define classes in the bootstrap ClassLoader (JDK classes).
+			return null;
+		}
+		try {
+			return new CglibTargetInvoker(targetClass, FastClass.create(targetClass), proxiedInterfaces);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate invoker class for target class [" + targetClass.getName() +
+						"] - falling back to reflective invocation", ex);
+			}
+			return null;
+		}
+	}
+
+
+	private final Class targetClass;
+
+	private final FastClass fastClass;
+
+	/** Interface Method --> method index within the generated class (Integer) */
+	private final Map methodIndexes = new HashMap();
+
+	/**
+	 * The same mapping keyed by Method identity, learned on invocation
+	 * (including misses). Since a JDK proxy class always passes the same
+	 * Method instances, this avoids repeated Method equality checks.
+	 * Copy-on-write, hence volatile.
+	 */
+	private volatile Map resolvedIndexes = new IdentityHashMap();
+
+
+	private CglibTargetInvoker(Class targetClass, FastClass fastClass, Class[] proxiedInterfaces) {
+		this.targetClass = targetClass;
+		this.fastClass = fastClass;
+		for (int i = 0; i < proxiedInterfaces.length; i++) {
+			Class proxiedInterface = proxiedInterfaces[i];
+			if (proxiedInterface.isAssignableFrom(targetClass)) {
+				Method[] methods = proxiedInterface.getMethods();
+				for (int j = 0; j < methods.length; j++) {
+					Method method = methods[j];
+					int index = fastClass.getIndex(method.getName(), method.getParameterTypes());
+					if (index >= 0) {
+						this.methodIndexes.put(method, new Integer(index));
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Invoke the given method on the given target, through the generated
+	 * class if possible, or through reflection else.
+	 * @param target the target object
+	 * @param method the method to invoke, as declared on a proxied interface
+	 * @param args the arguments for the method
+	 * @return the return value of the method, if any
+	 * @throws Throwable if thrown by the target method
+	 * @see AopUtils#invokeJoinpointUsingReflection
+	 */
+	public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		Integer index = (Integer) this.resolvedIndexes.get(method);
+		if (index == null) {
+			index = resolveIndex(method);
+		}
+		if (index == NO_INDEX || target == null || target.getClass() != this.targetClass) {
+			return AopUtils.invokeJoinpointUsingReflection(target, method, args);
+		}
+		try {
+			return this.fastClass.invoke(index.intValue(), target, (args != null ? args : EMPTY_ARGS));
+		}
+		catch (InvocationTargetException ex) {
+			// Invoked method threw an exception: rethrow it as-is.
+			throw ex.getTargetException();
+		}
+	}
+
+	private Integer resolveIndex(Method method) {
+		Integer index = (Integer) this.methodIndexes.get(method);
+		if (index == null) {
+			index = NO_INDEX;
+		}
+		// Concurrent updates may get lost here: the index will simply be resolved again.
+		Map resolvedIndexes = new IdentityHashMap(this.resolvedIndexes);
+		resolvedIndexes.put(method, index);
+		this.resolvedIndexes = resolvedIndexes;
+		return index;
+	}
+
+}
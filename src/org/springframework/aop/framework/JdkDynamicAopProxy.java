@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,9 @@ import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.aopalliance.intercept.MethodInvocation;
 import org.apache.commons.logging.Log;
@@ -50,6 +52,16 @@ import org.springframework.util.ClassUtils;
  * <p>Proxies are serializable so long as all Advisors (including Advices
  * and Pointcuts) and the TargetSource are serializable.
  *
+ * <p>For a {@link ProxyConfig#isFrozen() frozen} configuration with a static
+ * TargetSource, the interceptor chains for all proxied methods get resolved
+ * once, bypassing the AdvisedSupport method cache on invocation and walking
+ * a flattened interceptor array instead of a List. The chains get resolved
+ * again if the configuration has been modified in an unfrozen phase since.
+ *
+ * <p>If {@link ProxyConfig#isUseGeneratedInvokers() generated invokers} are
+ * requested, the final call to a static target goes through a CGLIB-generated
+ * invoker class instead of through reflection.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @author Rob Harrop
@@ -62,6 +74,10 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	/** use serialVersionUID from Spring 1.2 for interoperability */
 	private static final long serialVersionUID = 5531744639992436476L;
 
+	/** Whether CGLIB is available for generating target invokers */
+	private static final boolean cglibAvailable =
+			ClassUtils.isPresent("net.sf.cglib.reflect.FastClass", JdkDynamicAopProxy.class.getClassLoader());
+
 
 	/*
 	 * NOTE: We could avoid the code duplication between this class and the CGLIB
@@ -88,6 +104,18 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	 */
 	private boolean hashCodeDefined;
 
+	/**
+	 * Pre-resolved MethodInterceptorChains per proxied Method,
+	 * for the configuration state they have been resolved for.
+	 */
+	private transient volatile FrozenChains frozenChains;
+
+	/**
+	 * Generated invoker for the static target,
+	 * if "useGeneratedInvokers" has been requested.
+	 */
+	private final transient CglibTargetInvoker targetInvoker;
+
 
 	/**
 	 * Construct a new JdkDynamicAopProxy for the given AOP configuration.
@@ -101,6 +129,87 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 			throw new AopConfigException("No advisors and no TargetSource specified");
 		}
 		this.advised = config;
+		if (config.isFrozen()) {
+			this.frozenChains = new FrozenChains(config);
+		}
+		this.targetInvoker = (config.isUseGeneratedInvokers() ? createTargetInvoker(config) : null);
+	}
+
+	/**
+	 * Return the pre-resolved interceptor chain for the given method,
+	 * provided that the configuration is frozen. Re-resolves all chains
+	 * if the configuration has been modified since they were resolved.
+	 * @param method the proxied method
+	 * @return the chain, or <code>null</code> if not available
+	 */
+	private MethodInterceptorChain getFrozenChain(Method method) {
+		if (!this.advised.isFrozen()) {
+			return null;
+		}
+		FrozenChains chains = this.frozenChains;
+		if (chains == null || !chains.isCurrent(this.advised)) {
+			chains = new FrozenChains(this.advised);
+			this.frozenChains = chains;
+		}
+		return chains.getChain(method);
+	}
+
+	/**
+	 * Resolve the interceptor chains for all methods on the proxied interfaces,
+	 * provided that the target is static (i.e. always of the same target class).
+	 * @param config the frozen AOP configuration
+	 * @return a Map with Method keys and MethodInterceptorChain values,
+	 * or <code>null</code> if the chains cannot be resolved upfront
+	 */
+	private static Map resolveFrozenChains(AdvisedSupport config) {
+		TargetSource targetSource = config.getTargetSource();
+		if (!targetSource.isStatic()) {
+			return null;
+		}
+		Class targetClass = null;
+		try {
+			Object target = targetSource.getTarget();
+			if (target != null) {
+				targetClass = target.getClass();
+			}
+		}
+		catch (Exception ex) {
+			throw new AopConfigException("Could not obtain static target for resolving interceptor chains", ex);
+		}
+		Map chains = new HashMap();
+		Class[] proxiedInterfaces = AopProxyUtils.completeProxiedInterfaces(config);
+		for (int i = 0; i < proxiedInterfaces.length; i++) {
+			Method[] methods = proxiedInterfaces[i].getMethods();
+			for (int j = 0; j < methods.length; j++) {
+				Method method = methods[j];
+				List chain = config.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+				chains.put(method, (chain.isEmpty() ? MethodInterceptorChain.EMPTY : new MethodInterceptorChain(chain)));
+			}
+		}
+		return chains;
+	}
+
+	/**
+	 * Create a generated invoker for the static target of the given configuration.
+	 * @param config the AOP configuration
+	 * @return the invoker, or <code>null</code> if not applicable
+	 */
+	private static CglibTargetInvoker createTargetInvoker(AdvisedSupport config) {
+		TargetSource targetSource = config.getTargetSource();
+		if (!cglibAvailable || !targetSource.isStatic()) {
+			return null;
+		}
+		Object target = null;
+		try {
+			target = targetSource.getTarget();
+		}
+		catch (Exception ex) {
+			throw new AopConfigException("Could not obtain static target for generating invoker", ex);
+		}
+		if (target == null) {
+			return null;
+		}
+		return CglibTargetInvoker.forClass(target.getClass(), AopProxyUtils.completeProxiedInterfaces(config));
 	}
 
 
@@ -186,22 +295,44 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 				targetClass = target.getClass();
 			}
 
-			// Get the interception chain for this method.
-			List chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+			// Use the pre-resolved interception chain for this method, if available:
+			// only valid as long as the configuration remains frozen.
+			MethodInterceptorChain frozenChain = getFrozenChain(method);
 
-			// Check whether we have any advice. If we don't, we can fallback on direct
-			// reflective invocation of the target, and avoid creating a MethodInvocation.
-			if (chain.isEmpty()) {
-				// We can skip creating a MethodInvocation: just invoke the target directly
-				// Note that the final invoker must be an InvokerInterceptor so we know it does
-				// nothing but a reflective operation on the target, and no hot swapping or fancy proxying.
-				retVal = AopUtils.invokeJoinpointUsingReflection(target, method, args);
+			if (frozenChain != null) {
+				if (frozenChain.isEmpty()) {
+					// No advice for this method: invoke the target directly.
+					retVal = invokeTarget(target, method, args);
+				}
+				else {
+					invocation = (this.targetInvoker != null ?
+							new GeneratedInvokerMethodInvocation(
+									proxy, target, method, args, targetClass, frozenChain, this.targetInvoker) :
+							new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, frozenChain));
+					retVal = invocation.proceed();
+				}
 			}
 			else {
-				// We need to create a method invocation...
-				invocation = new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
-				// Proceed to the joinpoint through the interceptor chain.
-				retVal = invocation.proceed();
+				// Get the interception chain for this method.
+				List chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, targetClass);
+
+				// Check whether we have any advice. If we don't, we can fallback on direct
+				// reflective invocation of the target, and avoid creating a MethodInvocation.
+				if (chain.isEmpty()) {
+					// We can skip creating a MethodInvocation: just invoke the target directly
+					// Note that the final invoker must be an InvokerInterceptor so we know it does
+					// nothing but a reflective operation on the target, and no hot swapping or fancy proxying.
+					retVal = invokeTarget(target, method, args);
+				}
+				else {
+					// We need to create a method invocation...
+					invocation = (this.targetInvoker != null ?
+							new GeneratedInvokerMethodInvocation(
+									proxy, target, method, args, targetClass, chain, this.targetInvoker) :
+							new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain));
+					// Proceed to the joinpoint through the interceptor chain.
+					retVal = invocation.proceed();
+				}
 			}
 
 			// Massage return value if necessary.
@@ -227,6 +358,18 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 	}
 
 
+	/**
+	 * Invoke the given method on the target without any advice:
+	 * through the generated invoker, if any, or through reflection.
+	 */
+	private Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+		if (this.targetInvoker != null) {
+			return this.targetInvoker.invoke(target, method, args);
+		}
+		return AopUtils.invokeJoinpointUsingReflection(target, method, args);
+	}
+
+
 	/**
 	 * Equality means interfaces, advisors and TargetSource are equal.
 	 * <p>The compared object may be a JdkDynamicAopProxy instance itself
@@ -267,4 +410,55 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 		return JdkDynamicAopProxy.class.hashCode() * 13 + this.advised.getTargetSource().hashCode();
 	}
 
+
+
+	/**
+	 * Interceptor chains resolved for a specific state of a frozen configuration.
+	 */
+	private static class FrozenChains {
+
+		private final int modificationCount;
+
+		private final Map chains;
+
+		public FrozenChains(AdvisedSupport config) {
+			// Determine the state first: a concurrent modification will then be detected.
+			this.modificationCount = config.getModificationCount();
+			this.chains = resolveFrozenChains(config);
+		}
+
+		public boolean isCurrent(AdvisedSupport config) {
+			return (config.getModificationCount() == this.modificationCount);
+		}
+
+		public MethodInterceptorChain getChain(Method method) {
+			return (this.chains != null ? (MethodInterceptorChain) this.chains.get(method) : null);
+		}
+	}
+
+
+	/**
+	 * MethodInvocation that calls the target through a generated invoker.
+	 */
+	private static class GeneratedInvokerMethodInvocation extends ReflectiveMethodInvocation {
+
+		private final CglibTargetInvoker targetInvoker;
+
+		public GeneratedInvokerMethodInvocation(Object proxy, Object target, Method method, Object[] arguments,
+				Class targetClass, List interceptorsAndDynamicMethodMatchers, CglibTargetInvoker targetInvoker) {
+			super(proxy, target, method, arguments, targetClass, interceptorsAndDynamicMethodMatchers);
+			this.targetInvoker = targetInvoker;
+		}
+
+		public GeneratedInvokerMethodInvocation(Object proxy, Object target, Method method, Object[] arguments,
+				Class targetClass, MethodInterceptorChain chain, CglibTargetInvoker targetInvoker) {
+			super(proxy, target, method, arguments, targetClass, chain);
+			this.targetInvoker = targetInvoker;
+		}
+
+		protected Object invokeJoinpoint() throws Throwable {
+			return this.targetInvoker.invoke(this.target, this.method, this.arguments);
+		}
+	}
+
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+import org.aopalliance.intercept.MethodInterceptor;
+
+import org.springframework.aop.MethodMatcher;
+
+/**
+ * Internal framework class, holding the interceptor chain for a specific
+ * method in flattened form: an array of MethodInterceptors plus a parallel
+ * array of MethodMatchers for those interceptors that need a dynamic check.
+ *
+ * <p>Resolved once when creating a proxy for a frozen configuration, and
+ * then bound to the proxied method for the lifetime of the proxy. This allows
+ * {@link ReflectiveMethodInvocation} to walk the chain without List access
+ * and without type checks per element.
+ *
+ * @since 2.5.7
+ * @see AdvisedSupport#getInterceptorsAndDynamicInterceptionAdvice
+ * @see ProxyConfig#isFrozen()
+ */
+final class MethodInterceptorChain implements Serializable {
+
+	/** Canonical chain without any interceptors */
+	public static final MethodInterceptorChain EMPTY = new MethodInterceptorChain(Collections.EMPTY_LIST);
+
+
+	private final List interceptorList;
+
+	private final MethodInterceptor[] interceptors;
+
+	private final MethodMatcher[] methodMatchers;
+
+
+	/**
+	 * Create a new MethodInterceptorChain from the given List.
+	 * @param interceptorList List of MethodInterceptors and
+	 * InterceptorAndDynamicMethodMatchers, as determined by the AdvisorChainFactory
+	 */
+	public MethodInterceptorChain(List interceptorList) {
+		this.interceptorList = interceptorList;
+		int size = interceptorList.size();
+		this.interceptors = new MethodInterceptor[size];
+		MethodMatcher[] methodMatchers = null;
+		for (int i = 0; i < size; i++) {
+			Object interceptorOrInterceptionAdvice = interceptorList.get(i);
+			if (interceptorOrInterceptionAdvice instanceof InterceptorAndDynamicMethodMatcher) {
+				InterceptorAndDynamicMethodMatcher dm =
+						(InterceptorAndDynamicMethodMatcher) interceptorOrInterceptionAdvice;
+				if (methodMatchers == null) {
+					methodMatchers = new MethodMatcher[size];
+				}
+				methodMatchers[i] = dm.methodMatcher;
+				this.interceptors[i] = dm.interceptor;
+			}
+			else {
+				this.interceptors[i] = (MethodInterceptor) interceptorOrInterceptionAdvice;
+			}
+		}
+		this.methodMatchers = methodMatchers;
+	}
+
+
+	/**
+	 * Return whether this chain does not contain any interceptors.
+	 */
+	public boolean isEmpty() {
+		return (this.interceptors.length == 0);
+	}
+
+	/**
+	 * Return the original List of MethodInterceptors and
+	 * InterceptorAndDynamicMethodMatchers that this chain has been built from.
+	 */
+	public List getInterceptorList() {
+		return this.interceptorList;
+	}
+
+	/**
+	 * Return the MethodInterceptors in this chain.
+	 * <p>The returned array must not be modified.
+	 */
+	public MethodInterceptor[] getInterceptors() {
+		return this.interceptors;
+	}
+
+	/**
+	 * Return the MethodMatchers to be evaluated at runtime for each of the
+	 * interceptors in this chain (<code>null</code> elements for interceptors
+	 * that always apply), or <code>null</code> if no dynamic checks are needed.
+	 * <p>The returned array must not be modified.
+	 */
+	public MethodMatcher[] getMethodMatchers() {
+		return this.methodMatchers;
+	}
+
+}
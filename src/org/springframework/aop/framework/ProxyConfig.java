@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -44,6 +44,8 @@ public class ProxyConfig implements Serializable {
 
 	private boolean frozen = false;
 
+	private boolean useGeneratedInvokers = false;
+
 
 	/**
 	 * Set whether to proxy the target class directly, instead of just proxying
@@ -145,6 +147,31 @@ public class ProxyConfig implements Serializable {
 	}
 
 
+	/**
+	 * Set whether JDK dynamic proxies should invoke the target through a
+	 * CGLIB-generated invoker class, i.e. dispatching by method index instead
+	 * of reflection on the final call to the target method. Default is "false".
+	 * <p>Applies to proxies with a static TargetSource, in which case the invoker
+	 * class gets generated once for the target class when creating the proxy.
+	 * Target methods that the generated class cannot dispatch to will still be
+	 * invoked reflectively. CGLIB proxies always call public target methods
+	 * through their generated MethodProxy, independent of this setting.
+	 * <p>Requires CGLIB 2 on the classpath; silently ignored otherwise.
+	 * @see org.springframework.aop.TargetSource#isStatic()
+	 */
+	public void setUseGeneratedInvokers(boolean useGeneratedInvokers) {
+		this.useGeneratedInvokers = useGeneratedInvokers;
+	}
+
+	/**
+	 * Return whether JDK dynamic proxies should invoke the target
+	 * through a CGLIB-generated invoker class.
+	 */
+	public boolean isUseGeneratedInvokers() {
+		return this.useGeneratedInvokers;
+	}
+
+
 	/**
 	 * Copy configuration from the other config object.
 	 * @param other object to copy configuration from
@@ -156,6 +183,7 @@ public class ProxyConfig implements Serializable {
 		this.exposeProxy = other.exposeProxy;
 		this.frozen = other.frozen;
 		this.opaque = other.opaque;
+		this.useGeneratedInvokers = other.useGeneratedInvokers;
 	}
 
 	public String toString() {
@@ -164,7 +192,8 @@ public class ProxyConfig implements Serializable {
 		sb.append("optimize=").append(this.optimize).append("; ");
 		sb.append("opaque=").append(this.opaque).append("; ");
 		sb.append("exposeProxy=").append(this.exposeProxy).append("; ");
-		sb.append("frozen=").append(this.frozen);
+		sb.append("frozen=").append(this.frozen).append("; ");
+		sb.append("useGeneratedInvokers=").append(this.useGeneratedInvokers);
 		return sb.toString();
 	}
 
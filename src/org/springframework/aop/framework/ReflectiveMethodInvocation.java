@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.util.Map;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
+import org.springframework.aop.MethodMatcher;
 import org.springframework.aop.ProxyMethodInvocation;
 import org.springframework.aop.support.AopUtils;
 
@@ -80,6 +81,18 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 	 */
 	protected final List interceptorsAndDynamicMethodMatchers;
 
+	/**
+	 * Flattened interceptors from a pre-resolved chain, if any.
+	 * <code>null</code> if the List above needs to be evaluated instead.
+	 */
+	private final MethodInterceptor[] interceptors;
+
+	/**
+	 * MethodMatchers for a pre-resolved chain, parallel to the interceptor array,
+	 * or <code>null</code> if that chain does not require any dynamic checks.
+	 */
+	private final MethodMatcher[] methodMatchers;
+
 	/**
 	 * Index from 0 of the current interceptor we're invoking.
 	 * -1 until we invoke: then the current interceptor.
@@ -110,6 +123,31 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 		this.method = method;
 		this.arguments = arguments;
 		this.interceptorsAndDynamicMethodMatchers = interceptorsAndDynamicMethodMatchers;
+		this.interceptors = null;
+		this.methodMatchers = null;
+	}
+
+	/**
+	 * Construct a new ReflectiveMethodInvocation for a pre-resolved interceptor chain.
+	 * @param proxy the proxy object that the invocation was made on
+	 * @param target the target object to invoke
+	 * @param method the method to invoke
+	 * @param arguments the arguments to invoke the method with
+	 * @param targetClass the target class, for MethodMatcher invocations
+	 * @param chain the interceptor chain to apply, pre-resolved for the given method
+	 */
+	ReflectiveMethodInvocation(
+	    Object proxy, Object target, Method method, Object[] arguments,
+	    Class targetClass, MethodInterceptorChain chain) {
+
+		this.proxy = proxy;
+		this.target = target;
+		this.targetClass = targetClass;
+		this.method = method;
+		this.arguments = arguments;
+		this.interceptorsAndDynamicMethodMatchers = chain.getInterceptorList();
+		this.interceptors = chain.getInterceptors();
+		this.methodMatchers = chain.getMethodMatchers();
 	}
 
 
@@ -144,6 +182,10 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 
 
 	public Object proceed() throws Throwable {
+		if (this.interceptors != null) {
+			return proceedWithInterceptorArray();
+		}
+
 		//	We start with an index of -1 and increment early.
 		if (this.currentInterceptorIndex == this.interceptorsAndDynamicMethodMatchers.size() - 1) {
 			return invokeJoinpoint();
@@ -172,6 +214,22 @@ public class ReflectiveMethodInvocation implements ProxyMethodInvocation, Clonea
 		}
 	}
 
+	/**
+	 * Proceed through a pre-resolved interceptor chain: no List access,
+	 * and dynamic method matchers only evaluated where present.
+	 */
+	private Object proceedWithInterceptorArray() throws Throwable {
+		while (this.currentInterceptorIndex < this.interceptors.length - 1) {
+			int index = ++this.currentInterceptorIndex;
+			MethodMatcher mm = (this.methodMatchers != null ? this.methodMatchers[index] : null);
+			if (mm == null || mm.matches(this.method, this.targetClass, this.arguments)) {
+				return this.interceptors[index].invoke(this);
+			}
+			// Dynamic matching failed: skip this interceptor and try the next in the chain.
+		}
+		return invokeJoinpoint();
+	}
+
 	/**
 	 * Invoke the joinpoint using reflection.
 	 * Subclasses can override this to use custom invocation.
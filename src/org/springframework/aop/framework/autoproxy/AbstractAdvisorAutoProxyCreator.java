@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,7 +20,6 @@ import java.util.Collections;
 import java.util.List;
 
 import org.springframework.aop.TargetSource;
-import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.core.OrderComparator;
@@ -40,6 +39,13 @@ import org.springframework.core.OrderComparator;
  * Ordered interface will be considered as unordered; they will appear
  * at the end of the advisor chain in undefined order.
  *
+ * <p>Candidate Advisors are matched against bean classes through an index:
+ * Advisors whose ClassFilter implements
+ * {@link org.springframework.aop.support.IndexableClassFilter} are rejected
+ * for most bean classes through a single check of their candidate filter,
+ * without inspecting the methods of the bean class. Evaluation statistics per
+ * Advisor are available through {@link #getAdvisorStatistics()}.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @see #findCandidateAdvisors
@@ -48,6 +54,8 @@ public abstract class AbstractAdvisorAutoProxyCreator extends AbstractAutoProxyC
 
 	private BeanFactoryAdvisorRetrievalHelper advisorRetrievalHelper;
 
+	private volatile AdvisorApplicabilityIndex advisorIndex;
+
 
 	public void setBeanFactory(BeanFactory beanFactory) {
 		super.setBeanFactory(beanFactory);
@@ -108,15 +116,60 @@ public abstract class AbstractAdvisorAutoProxyCreator extends AbstractAutoProxyC
 	 * @see ProxyCreationContext#getCurrentProxiedBeanName()
 	 */
 	protected List findAdvisorsThatCanApply(List candidateAdvisors, Class beanClass, String beanName) {
+		if (candidateAdvisors.isEmpty()) {
+			return candidateAdvisors;
+		}
 		ProxyCreationContext.setCurrentProxiedBeanName(beanName);
 		try {
-			return AopUtils.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
+			AdvisorApplicabilityIndex index = getAdvisorIndex(candidateAdvisors);
+			long startTime = System.currentTimeMillis();
+			List eligibleAdvisors = index.findAdvisorsThatCanApply(beanClass);
+			if (logger.isTraceEnabled()) {
+				logger.trace("Found " + eligibleAdvisors.size() + " eligible out of " + candidateAdvisors.size() +
+						" candidate Advisors for bean '" + beanName + "' in " +
+						(System.currentTimeMillis() - startTime) + " ms");
+			}
+			return eligibleAdvisors;
 		}
 		finally {
 			ProxyCreationContext.setCurrentProxiedBeanName(null);
 		}
 	}
 
+	/**
+	 * Obtain the applicability index for the given candidate Advisors,
+	 * building a new index if the candidate Advisors have changed.
+	 */
+	private AdvisorApplicabilityIndex getAdvisorIndex(List candidateAdvisors) {
+		AdvisorApplicabilityIndex index = this.advisorIndex;
+		if (index == null || !index.isIndexFor(candidateAdvisors)) {
+			index = new AdvisorApplicabilityIndex(candidateAdvisors, index);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Indexed " + index.getIndexedAdvisorCount() + " out of " + candidateAdvisors.size() +
+						" candidate Advisors by candidate class filter");
+			}
+			this.advisorIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Return evaluation statistics for the candidate Advisors that this
+	 * auto-proxy creator currently applies: for each Advisor, a description
+	 * of the number of bean classes it has been evaluated for (and the time
+	 * spent doing so), the number of matches, and the number of bean classes
+	 * that it has been skipped for through its candidate class filter.
+	 * <p>Typically called after startup, for analyzing the time that the
+	 * individual Advisors take to determine their applicability.
+	 * @return a List of Strings, one per candidate Advisor
+	 * (or an empty List if no beans have been evaluated yet)
+	 * @since 2.5.7
+	 */
+	public List getAdvisorStatistics() {
+		AdvisorApplicabilityIndex index = this.advisorIndex;
+		return (index != null ? index.getAdvisorStatistics() : Collections.EMPTY_LIST);
+	}
+
 	/**
 	 * Return whether the Advisor bean with the given name is eligible
 	 * for proxying in the first place.
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework.autoproxy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.IntroductionAdvisor;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.IndexableClassFilter;
+
+/**
+ * Index over a List of candidate Advisors, determining the Advisors that
+ * can apply to a given bean class. Used by {@link AbstractAdvisorAutoProxyCreator}.
+ *
+ * <p>Advisors whose ClassFilter implements {@link IndexableClassFilter} are
+ * grouped by their candidate filter: Each distinct candidate filter (e.g. a
+ * required package or annotation) is evaluated once per bean class, rejecting
+ * all of its Advisors at once if it does not match. Only the remaining Advisors
+ * go through the full {@link AopUtils#canApply(Advisor, Class, boolean)} check,
+ * with the same semantics as {@link AopUtils#findAdvisorsThatCanApply}.
+ *
+ * <p>Keeps statistics per Advisor: the number of bean classes that the Advisor
+ * has been evaluated for or skipped for, the number of matches, and the time
+ * spent in evaluation (in milliseconds).
+ *
+ * @since 2.5.7
+ */
+class AdvisorApplicabilityIndex {
+
+	private final AdvisorEntry[] entries;
+
+
+	/**
+	 * Create a new AdvisorApplicabilityIndex for the given Advisors.
+	 * @param candidateAdvisors the candidate Advisors (in order)
+	 * @param previousIndex a previous index to carry statistics over from
+	 * (may be <code>null</code>)
+	 */
+	public AdvisorApplicabilityIndex(List candidateAdvisors, AdvisorApplicabilityIndex previousIndex) {
+		Map previousEntries = new IdentityHashMap();
+		if (previousIndex != null) {
+			for (int i = 0; i < previousIndex.entries.length; i++) {
+				AdvisorEntry entry = previousIndex.entries[i];
+				previousEntries.put(entry.advisor, entry);
+			}
+		}
+		this.entries = new AdvisorEntry[candidateAdvisors.size()];
+		int i = 0;
+		for (Iterator it = candidateAdvisors.iterator(); it.hasNext(); i++) {
+			Advisor advisor = (Advisor) it.next();
+			AdvisorEntry entry = (AdvisorEntry) previousEntries.get(advisor);
+			this.entries[i] = (entry != null ? entry : new AdvisorEntry(advisor));
+		}
+	}
+
+
+	/**
+	 * Determine whether this index has been built for the given Advisors,
+	 * i.e. for the same Advisor instances in the same order.
+	 * @param candidateAdvisors the candidate Advisors
+	 */
+	public boolean isIndexFor(List candidateAdvisors) {
+		if (candidateAdvisors.size() != this.entries.length) {
+			return false;
+		}
+		int i = 0;
+		for (Iterator it = candidateAdvisors.iterator(); it.hasNext(); i++) {
+			if (it.next() != this.entries[i].advisor) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Determine the sublist of the indexed Advisors that is applicable
+	 * to the given class.
+	 * @param clazz the target class
+	 * @return sublist of Advisors that can apply to an object of the given class
+	 * @see AopUtils#findAdvisorsThatCanApply
+	 */
+	public List findAdvisorsThatCanApply(Class clazz) {
+		List eligibleAdvisors = new LinkedList();
+		if (this.entries.length == 0) {
+			return eligibleAdvisors;
+		}
+		// Candidate filter --> Boolean, for the given class
+		Map candidateMatches = new HashMap();
+		for (int i = 0; i < this.entries.length; i++) {
+			AdvisorEntry entry = this.entries[i];
+			if (entry.advisor instanceof IntroductionAdvisor && entry.canApply(clazz, false, candidateMatches)) {
+				eligibleAdvisors.add(entry.advisor);
+			}
+		}
+		boolean hasIntroductions = !eligibleAdvisors.isEmpty();
+		for (int i = 0; i < this.entries.length; i++) {
+			AdvisorEntry entry = this.entries[i];
+			if (!(entry.advisor instanceof IntroductionAdvisor) &&
+					entry.canApply(clazz, hasIntroductions, candidateMatches)) {
+				eligibleAdvisors.add(entry.advisor);
+			}
+		}
+		return eligibleAdvisors;
+	}
+
+	/**
+	 * Return the number of Advisors that come with a candidate filter.
+	 */
+	public int getIndexedAdvisorCount() {
+		int count = 0;
+		for (int i = 0; i < this.entries.length; i++) {
+			if (this.entries[i].candidateFilter != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Return a description of the statistics per Advisor, one String per Advisor.
+	 */
+	public List getAdvisorStatistics() {
+		List statistics = new ArrayList(this.entries.length);
+		for (int i = 0; i < this.entries.length; i++) {
+			statistics.add(this.entries[i].toString());
+		}
+		return statistics;
+	}
+
+
+	/**
+	 * Index entry for a specific Advisor, including its evaluation statistics.
+	 */
+	private static class AdvisorEntry {
+
+		private final Advisor advisor;
+
+		private final ClassFilter candidateFilter;
+
+		private int evaluationCount;
+
+		private int matchCount;
+
+		private int skipCount;
+
+		private long evaluationTime;
+
+		public AdvisorEntry(Advisor advisor) {
+			this.advisor = advisor;
+			ClassFilter classFilter = null;
+			if (advisor instanceof IntroductionAdvisor) {
+				classFilter = ((IntroductionAdvisor) advisor).getClassFilter();
+			}
+			else if (advisor instanceof PointcutAdvisor) {
+				classFilter = ((PointcutAdvisor) advisor).getPointcut().getClassFilter();
+			}
+			this.candidateFilter = (classFilter instanceof IndexableClassFilter ?
+					((IndexableClassFilter) classFilter).getCandidateFilter() : null);
+		}
+
+		public boolean canApply(Class clazz, boolean hasIntroductions, Map candidateMatches) {
+			if (this.candidateFilter != null) {
+				Boolean candidate = (Boolean) candidateMatches.get(this.candidateFilter);
+				if (candidate == null) {
+					candidate = Boolean.valueOf(this.candidateFilter.matches(clazz));
+					candidateMatches.put(this.candidateFilter, candidate);
+				}
+				if (!candidate.booleanValue()) {
+					synchronized (this) {
+						this.skipCount++;
+					}
+					return false;
+				}
+			}
+			long startTime = System.currentTimeMillis();
+			boolean canApply = AopUtils.canApply(this.advisor, clazz, hasIntroductions);
+			long time = System.currentTimeMillis() - startTime;
+			synchronized (this) {
+				this.evaluationCount++;
+				this.evaluationTime += time;
+				if (canApply) {
+					this.matchCount++;
+				}
+			}
+			return canApply;
+		}
+
+		public synchronized String toString() {
+			StringBuffer sb = new StringBuffer();
+			sb.append(this.advisor).append(": evaluated for ").append(this.evaluationCount);
+			sb.append(" classes in ").append(this.evaluationTime).append(" ms");
+			sb.append(", matched ").append(this.matchCount);
+			sb.append(", skipped for ").append(this.skipCount).append(" classes");
+			if (this.candidateFilter != null) {
+				sb.append(" through candidate filter [").append(this.candidateFilter).append("]");
+			}
+			return sb.toString();
+		}
+	}
+
+}
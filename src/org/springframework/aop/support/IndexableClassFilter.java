@@ -0,0 +1,47 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.support;
+
+import org.springframework.aop.ClassFilter;
+
+/**
+ * Extension of the {@link ClassFilter} interface, to be implemented by
+ * filters that can describe the candidate classes they might match
+ * through a cheaper, shareable filter.
+ *
+ * <p>Used by auto-proxy creators to pre-select the advisors that need to be
+ * evaluated for a given bean class: Advisors with equal candidate filters
+ * are grouped, with each candidate filter evaluated only once per bean class.
+ *
+ * @since 2.5.7
+ * @see org.springframework.aop.framework.autoproxy.AbstractAdvisorAutoProxyCreator
+ */
+public interface IndexableClassFilter extends ClassFilter {
+
+	/**
+	 * Return a filter that matches at least all classes that this filter matches,
+	 * with a cheap <code>matches</code> implementation. Typically checks for a
+	 * required package, supertype or annotation.
+	 * <p>The returned filter should implement <code>equals</code> and
+	 * <code>hashCode</code>, allowing equivalent candidate filters of
+	 * different advisors to be evaluated only once.
+	 * @return the candidate filter, or <code>null</code> if no cheaper
+	 * check than this filter itself is available
+	 */
+	ClassFilter getCandidateFilter();
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2005 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  * 
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,7 +24,7 @@ import org.springframework.aop.ClassFilter;
  * Simple ClassFilter implementation that passes classes (and optionally subclasses)
  * @author Rod Johnson
  */
-public class RootClassFilter implements ClassFilter, Serializable {
+public class RootClassFilter implements IndexableClassFilter, Serializable {
 	
 	private Class clazz;
 	
@@ -38,4 +38,26 @@ public class RootClassFilter implements ClassFilter, Serializable {
 		return clazz.isAssignableFrom(candidate);
 	}
 
+	/**
+	 * This implementation returns this filter itself, since it is cheap to
+	 * evaluate and can be shared with other filters for the same root class.
+	 */
+	public ClassFilter getCandidateFilter() {
+		return this;
+	}
+
+
+	public boolean equals(Object other) {
+		return (this == other || (other instanceof RootClassFilter &&
+				this.clazz.equals(((RootClassFilter) other).clazz)));
+	}
+
+	public int hashCode() {
+		return this.clazz.hashCode();
+	}
+
+	public String toString() {
+		return getClass().getName() + ": " + this.clazz.getName();
+	}
+
 }
@@ -103,6 +103,8 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 	 */
 	private Map nestedBeanWrappers;
 
+	private boolean useGeneratedAccessors = false;
+
 
 	/**
 	 * Create new empty BeanWrapperImpl. Wrapped instance needs to be set afterwards.
@@ -166,6 +168,7 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 	private BeanWrapperImpl(Object object, String nestedPath, BeanWrapperImpl superBw) {
 		setWrappedInstance(object, nestedPath, superBw.getWrappedInstance());
 		setExtractOldValueForEditor(superBw.isExtractOldValueForEditor());
+		setUseGeneratedAccessors(superBw.isUseGeneratedAccessors());
 	}
 
 
@@ -230,6 +233,27 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 		return (this.rootObject != null ? this.rootObject.getClass() : null);
 	}
 
+	/**
+	 * Set whether to invoke property read and write methods through accessor
+	 * classes generated with CGLIB, instead of through reflection. Default is "false".
+	 * <p>Accessor classes are generated once per bean class and cached along with
+	 * its introspection results. Switching this on pays off for repeated access
+	 * to many properties of the same bean classes, for example when binding
+	 * wide beans; it has no effect if CGLIB is not available. Nested BeanWrappers
+	 * inherit this setting, so it applies to nested and indexed property paths too.
+	 */
+	public void setUseGeneratedAccessors(boolean useGeneratedAccessors) {
+		this.useGeneratedAccessors = useGeneratedAccessors;
+	}
+
+	/**
+	 * Return whether to invoke property read and write methods through
+	 * generated accessor classes.
+	 */
+	public boolean isUseGeneratedAccessors() {
+		return this.useGeneratedAccessors;
+	}
+
 	/**
 	 * Set the class to introspect.
 	 * Needs to be called when the target object changes.
@@ -539,12 +563,8 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 		if (pd == null || pd.getReadMethod() == null) {
 			throw new NotReadablePropertyException(getRootClass(), this.nestedPath + propertyName);
 		}
-		Method readMethod = pd.getReadMethod();
 		try {
-			if (!Modifier.isPublic(readMethod.getDeclaringClass().getModifiers())) {
-				readMethod.setAccessible(true);
-			}
-			Object value = readMethod.invoke(this.object, (Object[]) null);
+			Object value = invokeReadMethod(pd.getReadMethod());
 			if (tokens.keys != null) {
 				// apply indexes and map keys
 				for (int i = 0; i < tokens.keys.length; i++) {
@@ -815,12 +835,8 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 					}
 					else {
 						if (isExtractOldValueForEditor() && pd.getReadMethod() != null) {
-							Method readMethod = pd.getReadMethod();
-							if (!Modifier.isPublic(readMethod.getDeclaringClass().getModifiers())) {
-								readMethod.setAccessible(true);
-							}
 							try {
-								oldValue = readMethod.invoke(this.object, new Object[0]);
+								oldValue = invokeReadMethod(pd.getReadMethod());
 							}
 							catch (Exception ex) {
 								if (logger.isDebugEnabled()) {
@@ -833,11 +849,7 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 					}
 					pv.getOriginalPropertyValue().conversionNecessary = Boolean.valueOf(valueToApply != originalValue);
 				}
-				Method writeMethod = pd.getWriteMethod();
-				if (!Modifier.isPublic(writeMethod.getDeclaringClass().getModifiers())) {
-					writeMethod.setAccessible(true);
-				}
-				writeMethod.invoke(this.object, new Object[] {valueToApply});
+				invokeWriteMethod(pd.getWriteMethod(), valueToApply);
 			}
 			catch (InvocationTargetException ex) {
 				PropertyChangeEvent propertyChangeEvent =
@@ -862,6 +874,45 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 		}
 	}
 
+	/**
+	 * Invoke the given read method on the wrapped object, either through
+	 * the generated accessor class or through reflection.
+	 * @param readMethod the read method of the property
+	 * @return the property value
+	 */
+	private Object invokeReadMethod(Method readMethod) throws IllegalAccessException, InvocationTargetException {
+		if (this.useGeneratedAccessors) {
+			CglibPropertyMethodInvoker invoker = getCachedIntrospectionResults().getPropertyMethodInvoker();
+			if (invoker != null && invoker.supportsReadMethod(readMethod)) {
+				return invoker.invokeReadMethod(readMethod, this.object);
+			}
+		}
+		if (!Modifier.isPublic(readMethod.getDeclaringClass().getModifiers())) {
+			readMethod.setAccessible(true);
+		}
+		return readMethod.invoke(this.object, (Object[]) null);
+	}
+
+	/**
+	 * Invoke the given write method on the wrapped object, either through
+	 * the generated accessor class or through reflection.
+	 * @param writeMethod the write method of the property
+	 * @param value the (converted) value to apply
+	 */
+	private void invokeWriteMethod(Method writeMethod, Object value) throws IllegalAccessException, InvocationTargetException {
+		if (this.useGeneratedAccessors) {
+			CglibPropertyMethodInvoker invoker = getCachedIntrospectionResults().getPropertyMethodInvoker();
+			if (invoker != null && invoker.supportsWriteMethod(writeMethod, value)) {
+				invoker.invokeWriteMethod(writeMethod, this.object, value);
+				return;
+			}
+		}
+		if (!Modifier.isPublic(writeMethod.getDeclaringClass().getModifiers())) {
+			writeMethod.setAccessible(true);
+		}
+		writeMethod.invoke(this.object, new Object[] {value});
+	}
+
 
 	public String toString() {
 		StringBuffer sb = new StringBuffer(getClass().getName());
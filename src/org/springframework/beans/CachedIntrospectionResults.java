@@ -20,21 +20,20 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
-import java.lang.ref.Reference;
-import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.JdkVersion;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Internal class that caches JavaBeans {@link java.beans.PropertyDescriptor}
@@ -60,6 +59,10 @@ public class CachedIntrospectionResults {
 
 	private static final Log logger = LogFactory.getLog(CachedIntrospectionResults.class);
 
+	/** Whether CGLIB is available for generating property accessor classes */
+	private static final boolean cglibAvailable =
+			ClassUtils.isPresent("net.sf.cglib.reflect.FastClass", CachedIntrospectionResults.class.getClassLoader());
+
 	/**
 	 * Set of ClassLoaders that this CachedIntrospectionResults class will always
 	 * accept classes from, even if the classes do not qualify as cache-safe.
@@ -67,11 +70,17 @@ public class CachedIntrospectionResults {
 	static final Set acceptedClassLoaders = Collections.synchronizedSet(new HashSet());
 
 	/**
-	 * Map keyed by class containing CachedIntrospectionResults.
-	 * Needs to be a WeakHashMap with WeakReferences as values to allow
-	 * for proper garbage collection in case of multiple class loaders.
+	 * Cache keyed by class containing CachedIntrospectionResults.
+	 * Holds classes weakly and results for non-cache-safe classes softly,
+	 * to allow for proper garbage collection in case of multiple class loaders.
 	 */
-	static final Map classCache = Collections.synchronizedMap(new WeakHashMap());
+	static final IntrospectionCache classCache = new IntrospectionCache();
+
+	/**
+	 * Cache keyed by class containing Maps of the class's fields by name,
+	 * as used by DirectFieldAccessor.
+	 */
+	static final IntrospectionCache fieldCache = new IntrospectionCache();
 
 
 	/**
@@ -103,14 +112,8 @@ public class CachedIntrospectionResults {
 		if (classLoader == null) {
 			return;
 		}
-		synchronized (classCache) {
-			for (Iterator it = classCache.keySet().iterator(); it.hasNext();) {
-				Class beanClass = (Class) it.next();
-				if (isUnderneathClassLoader(beanClass.getClassLoader(), classLoader)) {
-					it.remove();
-				}
-			}
-		}
+		classCache.clearClassLoader(classLoader);
+		fieldCache.clearClassLoader(classLoader);
 		synchronized (acceptedClassLoaders) {
 			for (Iterator it = acceptedClassLoaders.iterator(); it.hasNext();) {
 				ClassLoader registeredLoader = (ClassLoader) it.next();
@@ -121,6 +124,24 @@ public class CachedIntrospectionResults {
 		}
 	}
 
+	/**
+	 * Return the number of lookups of CachedIntrospectionResults
+	 * that have been served from the cache.
+	 * <p>Intended for monitoring purposes.
+	 */
+	public static long getCacheHitCount() {
+		return classCache.getHitCount();
+	}
+
+	/**
+	 * Return the number of lookups of CachedIntrospectionResults
+	 * that required introspection of the bean class.
+	 * <p>Intended for monitoring purposes.
+	 */
+	public static long getCacheMissCount() {
+		return classCache.getMissCount();
+	}
+
 	/**
 	 * Create CachedIntrospectionResults for the given bean class.
 	 * <P>We don't want to use synchronization here. Object references are atomic,
@@ -130,32 +151,53 @@ public class CachedIntrospectionResults {
 	 * @throws BeansException in case of introspection failure
 	 */
 	static CachedIntrospectionResults forClass(Class beanClass) throws BeansException {
-		CachedIntrospectionResults results = null;
-		Object value = classCache.get(beanClass);
-		if (value instanceof Reference) {
-			Reference ref = (Reference) value;
-			results = (CachedIntrospectionResults) ref.get();
-		}
-		else {
-			results = (CachedIntrospectionResults) value;
-		}
+		CachedIntrospectionResults results = (CachedIntrospectionResults) classCache.get(beanClass);
 		if (results == null) {
 			// can throw BeansException
 			results = new CachedIntrospectionResults(beanClass);
-			if (ClassUtils.isCacheSafe(beanClass, CachedIntrospectionResults.class.getClassLoader()) ||
-					isClassLoaderAccepted(beanClass.getClassLoader())) {
-				classCache.put(beanClass, results);
-			}
-			else {
-				if (logger.isDebugEnabled()) {
-					logger.debug("Not strongly caching class [" + beanClass.getName() + "] because it is not cache-safe");
-				}
-				classCache.put(beanClass, new WeakReference(results));
+			boolean cacheSafe = isCacheSafe(beanClass);
+			if (!cacheSafe && logger.isDebugEnabled()) {
+				logger.debug("Not strongly caching class [" + beanClass.getName() + "] because it is not cache-safe");
 			}
+			classCache.put(beanClass, results, cacheSafe);
 		}
 		return results;
 	}
 
+	/**
+	 * Return the instance fields of the given class, keyed by field name.
+	 * Fields declared in superclasses take precedence over same-named fields
+	 * in subclasses, in line with previous DirectFieldAccessor behavior.
+	 * @param clazz the class to analyze
+	 * @return an unmodifiable Map from field name to Field
+	 */
+	static Map fieldsForClass(Class clazz) {
+		Map fieldMap = (Map) fieldCache.get(clazz);
+		if (fieldMap == null) {
+			final Map fields = new HashMap();
+			ReflectionUtils.doWithFields(clazz, new ReflectionUtils.FieldCallback() {
+				public void doWith(Field field) {
+					fields.put(field.getName(), field);
+				}
+			});
+			fieldMap = Collections.unmodifiableMap(fields);
+			fieldCache.put(clazz, fieldMap, isCacheSafe(clazz));
+		}
+		return fieldMap;
+	}
+
+	/**
+	 * Check whether the given class may be cached strongly: that is, whether
+	 * it is cache-safe with respect to this class's ClassLoader or whether
+	 * its ClassLoader has been explicitly accepted.
+	 * @param clazz the class to check
+	 * @see #acceptClassLoader
+	 */
+	private static boolean isCacheSafe(Class clazz) {
+		return (ClassUtils.isCacheSafe(clazz, CachedIntrospectionResults.class.getClassLoader()) ||
+				isClassLoaderAccepted(clazz.getClassLoader()));
+	}
+
 	/**
 	 * Check whether this CachedIntrospectionResults class is configured
 	 * to accept the given ClassLoader.
@@ -182,7 +224,7 @@ public class CachedIntrospectionResults {
 	 * @param candidate the candidate ClassLoader to check
 	 * @param parent the parent ClassLoader to check for
 	 */
-	private static boolean isUnderneathClassLoader(ClassLoader candidate, ClassLoader parent) {
+	static boolean isUnderneathClassLoader(ClassLoader candidate, ClassLoader parent) {
 		if (candidate == null) {
 			return false;
 		}
@@ -206,6 +248,9 @@ public class CachedIntrospectionResults {
 	/** PropertyDescriptor objects keyed by property name String */
 	private final Map propertyDescriptorCache;
 
+	/** Lazily generated CglibPropertyMethodInvoker, or Boolean.FALSE if not available */
+	private volatile Object propertyMethodInvoker;
+
 
 	/**
 	 * Create a new CachedIntrospectionResults instance for the given class.
@@ -270,4 +315,27 @@ public class CachedIntrospectionResults {
 		return (PropertyDescriptor) this.propertyDescriptorCache.get(propertyName);
 	}
 
+	/**
+	 * Return a CglibPropertyMethodInvoker for the introspected bean class,
+	 * generating its accessor class on first access.
+	 * @return the invoker, or <code>null</code> if CGLIB is not available
+	 * or no accessor class could be generated for the bean class
+	 */
+	CglibPropertyMethodInvoker getPropertyMethodInvoker() {
+		Object invoker = this.propertyMethodInvoker;
+		if (invoker == null) {
+			// Occasional concurrent generation is harmless: CGLIB caches generated classes.
+			if (cglibAvailable) {
+				PropertyDescriptor[] pds = (PropertyDescriptor[])
+						this.propertyDescriptorCache.values().toArray(new PropertyDescriptor[this.propertyDescriptorCache.size()]);
+				invoker = CglibPropertyMethodInvoker.forClass(getBeanClass(), pds);
+			}
+			if (invoker == null) {
+				invoker = Boolean.FALSE;
+			}
+			this.propertyMethodInvoker = invoker;
+		}
+		return (invoker instanceof CglibPropertyMethodInvoker ? (CglibPropertyMethodInvoker) invoker : null);
+	}
+
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sf.cglib.reflect.FastClass;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Internal helper that invokes the read and write methods of a bean class
+ * through a CGLIB-generated {@link FastClass}, i.e. through a generated
+ * accessor class that dispatches by method index instead of reflection.
+ * Not intended for direct use by application code.
+ *
+ * <p>Instances are created per bean class and held by the corresponding
+ * {@link CachedIntrospectionResults}, sharing their caching lifecycle.
+ * Methods that the generated class cannot dispatch to are reported as
+ * not supported, letting the caller fall back to reflective invocation.
+ *
+ * @since 2.5.7
+ * @see BeanWrapperImpl#setUseGeneratedAccessors
+ */
+class CglibPropertyMethodInvoker {
+
+	private static final Log logger = LogFactory.getLog(CglibPropertyMethodInvoker.class);
+
+	private static final Object[] EMPTY_ARGS = new Object[0];
+
+
+	/**
+	 * Create a CglibPropertyMethodInvoker for the given bean class.
+	 * @param beanClass the bean class to generate an accessor class for
+	 * @param pds the PropertyDescriptors of the bean class
+	 * @return the invoker, or <code>null</code> if no accessor class
+	 * could be generated for the given bean class
+	 */
+	public static CglibPropertyMethodInvoker forClass(Class beanClass, PropertyDescriptor[] pds) {
+		if (beanClass.getClassLoader() == null) {
+			// Cannot define classes in the bootstrap ClassLoader (JDK classes).
+			return null;
+		}
+		try {
+			return new CglibPropertyMethodInvoker(FastClass.create(beanClass), pds);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate accessor class for bean class [" + beanClass.getName() +
+						"] - falling back to reflective property access", ex);
+			}
+			return null;
+		}
+	}
+
+
+	private final FastClass fastClass;
+
+	/** Read or write Method --> MethodIndex */
+	private final Map methodIndexes = new HashMap();
+
+
+	private CglibPropertyMethodInvoker(FastClass fastClass, PropertyDescriptor[] pds) {
+		this.fastClass = fastClass;
+		for (int i = 0; i < pds.length; i++) {
+			registerMethod(pds[i].getReadMethod());
+			registerMethod(pds[i].getWriteMethod());
+		}
+	}
+
+	private void registerMethod(Method method) {
+		if (method != null) {
+			int index = this.fastClass.getIndex(method.getName(), method.getParameterTypes());
+			if (index >= 0) {
+				Class[] paramTypes = method.getParameterTypes();
+				this.methodIndexes.put(method,
+						new MethodIndex(index, (paramTypes.length == 1 ? paramTypes[0] : null)));
+			}
+		}
+	}
+
+
+	/**
+	 * Determine whether the given read method can be invoked through the generated class.
+	 * @param readMethod the read method of a bean property
+	 */
+	public boolean supportsReadMethod(Method readMethod) {
+		return this.methodIndexes.containsKey(readMethod);
+	}
+
+	/**
+	 * Determine whether the given write method can be invoked through the generated
+	 * class with the given value. Values that the write method does not accept as-is
+	 * are left to reflective invocation, which raises the appropriate exception.
+	 * @param writeMethod the write method of a bean property
+	 * @param value the value to pass into the write method
+	 */
+	public boolean supportsWriteMethod(Method writeMethod, Object value) {
+		MethodIndex methodIndex = (MethodIndex) this.methodIndexes.get(writeMethod);
+		return (methodIndex != null && methodIndex.parameterType != null &&
+				ClassUtils.isAssignableValue(methodIndex.parameterType, value));
+	}
+
+	/**
+	 * Invoke the given read method on the given target.
+	 * @param readMethod the read method (must be supported)
+	 * @param target the target bean
+	 * @return the value returned by the read method
+	 * @throws InvocationTargetException if the read method threw an exception
+	 * @see #supportsReadMethod
+	 */
+	public Object invokeReadMethod(Method readMethod, Object target) throws InvocationTargetException {
+		MethodIndex methodIndex = (MethodIndex) this.methodIndexes.get(readMethod);
+		return this.fastClass.invoke(methodIndex.index, target, EMPTY_ARGS);
+	}
+
+	/**
+	 * Invoke the given write method on the given target.
+	 * @param writeMethod the write method (must be supported)
+	 * @param target the target bean
+	 * @param value the value to pass into the write method
+	 * @throws InvocationTargetException if the write method threw an exception
+	 * @see #supportsWriteMethod
+	 */
+	public void invokeWriteMethod(Method writeMethod, Object target, Object value) throws InvocationTargetException {
+		MethodIndex methodIndex = (MethodIndex) this.methodIndexes.get(writeMethod);
+		this.fastClass.invoke(methodIndex.index, target, new Object[] {value});
+	}
+
+
+	/**
+	 * Index of a method within the generated class,
+	 * plus the parameter type in case of a write method.
+	 */
+	private static class MethodIndex {
+
+		public final int index;
+
+		public final Class parameterType;
+
+		public MethodIndex(int index, Class parameterType) {
+			this.index = index;
+			this.parameterType = parameterType;
+		}
+	}
+
+}
@@ -18,7 +18,6 @@ package org.springframework.beans;
 
 import java.beans.PropertyChangeEvent;
 import java.lang.reflect.Field;
-import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.core.MethodParameter;
@@ -46,7 +45,7 @@ public class DirectFieldAccessor extends AbstractPropertyAccessor {
 
 	private final Object target;
 
-	private final Map fieldMap = new HashMap();
+	private final Map fieldMap;
 
 	private final TypeConverterDelegate typeConverterDelegate;
 
@@ -58,11 +57,7 @@ public class DirectFieldAccessor extends AbstractPropertyAccessor {
 	public DirectFieldAccessor(Object target) {
 		Assert.notNull(target, "Target object must not be null");
 		this.target = target;
-		ReflectionUtils.doWithFields(this.target.getClass(), new ReflectionUtils.FieldCallback() {
-			public void doWith(Field field) {
-				fieldMap.put(field.getName(), field);
-			}
-		});
+		this.fieldMap = CachedIntrospectionResults.fieldsForClass(target.getClass());
 		this.typeConverterDelegate = new TypeConverterDelegate(this, target);
 		registerDefaultEditors();
 		setExtractOldValueForEditor(true);
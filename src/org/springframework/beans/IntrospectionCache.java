@@ -0,0 +1,194 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Internal cache for per-class introspection metadata, as used by
+ * {@link CachedIntrospectionResults} for JavaBeans introspection results
+ * and by {@link DirectFieldAccessor} for field metadata.
+ * Not intended for direct use by application code.
+ *
+ * <p>Keys are held weakly, so that cached classes do not prevent their
+ * ClassLoader from being garbage-collected. Values are either held strongly
+ * (for classes that are cache-safe or whose ClassLoader has been accepted)
+ * or through a SoftReference, letting the garbage collector reclaim them
+ * under memory pressure.
+ *
+ * <p>The cache is split into a fixed number of segments, each guarded by
+ * its own lock, so that concurrent lookups for different classes hardly
+ * ever contend with each other. Hit and miss counts are tracked per segment.
+ *
+ * @since 2.5.7
+ */
+class IntrospectionCache {
+
+	private static final int SEGMENT_COUNT = 16;
+
+
+	private final Segment[] segments;
+
+
+	/**
+	 * Create a new IntrospectionCache.
+	 */
+	public IntrospectionCache() {
+		this.segments = new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < this.segments.length; i++) {
+			this.segments[i] = new Segment();
+		}
+	}
+
+	private Segment getSegment(Class clazz) {
+		int hash = System.identityHashCode(clazz);
+		// Spread the hash bits, as in java.util.HashMap.
+		hash ^= (hash >>> 20) ^ (hash >>> 12);
+		hash ^= (hash >>> 7) ^ (hash >>> 4);
+		return this.segments[hash & (SEGMENT_COUNT - 1)];
+	}
+
+
+	/**
+	 * Retrieve the cached value for the given class,
+	 * counting the lookup as hit or miss.
+	 * @param clazz the class to look up
+	 * @return the cached value, or <code>null</code> if none cached
+	 * (or if a softly cached value has been reclaimed)
+	 */
+	public Object get(Class clazz) {
+		Segment segment = getSegment(clazz);
+		synchronized (segment) {
+			Object value = segment.entries.get(clazz);
+			if (value instanceof Reference) {
+				value = ((Reference) value).get();
+			}
+			if (value != null) {
+				segment.hitCount++;
+			}
+			else {
+				segment.missCount++;
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * Cache the given value for the given class.
+	 * @param clazz the class to cache the value for
+	 * @param value the value to cache
+	 * @param cacheStrongly whether to hold the value strongly
+	 * (else it will be held through a SoftReference)
+	 */
+	public void put(Class clazz, Object value, boolean cacheStrongly) {
+		Segment segment = getSegment(clazz);
+		synchronized (segment) {
+			segment.entries.put(clazz, (cacheStrongly ? value : new SoftReference(value)));
+		}
+	}
+
+	/**
+	 * Check whether an entry for the given class is present,
+	 * without counting the check as cache lookup.
+	 * @param clazz the class to check
+	 */
+	public boolean containsKey(Class clazz) {
+		Segment segment = getSegment(clazz);
+		synchronized (segment) {
+			return segment.entries.containsKey(clazz);
+		}
+	}
+
+	/**
+	 * Remove the entries for all classes underneath the given ClassLoader.
+	 * @param classLoader the ClassLoader to clear the cache for
+	 */
+	public void clearClassLoader(ClassLoader classLoader) {
+		for (int i = 0; i < this.segments.length; i++) {
+			Segment segment = this.segments[i];
+			synchronized (segment) {
+				for (Iterator it = segment.entries.keySet().iterator(); it.hasNext();) {
+					Class clazz = (Class) it.next();
+					if (CachedIntrospectionResults.isUnderneathClassLoader(clazz.getClassLoader(), classLoader)) {
+						it.remove();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the number of classes currently held in this cache.
+	 */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < this.segments.length; i++) {
+			Segment segment = this.segments[i];
+			synchronized (segment) {
+				size += segment.entries.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Return the number of lookups that found a cached value.
+	 */
+	public long getHitCount() {
+		long hitCount = 0;
+		for (int i = 0; i < this.segments.length; i++) {
+			Segment segment = this.segments[i];
+			synchronized (segment) {
+				hitCount += segment.hitCount;
+			}
+		}
+		return hitCount;
+	}
+
+	/**
+	 * Return the number of lookups that did not find a cached value.
+	 */
+	public long getMissCount() {
+		long missCount = 0;
+		for (int i = 0; i < this.segments.length; i++) {
+			Segment segment = this.segments[i];
+			synchronized (segment) {
+				missCount += segment.missCount;
+			}
+		}
+		return missCount;
+	}
+
+
+	/**
+	 * A segment of the cache: a WeakHashMap plus lookup statistics,
+	 * guarded by the segment's monitor.
+	 */
+	private static class Segment {
+
+		public final Map entries = new WeakHashMap();
+
+		public long hitCount;
+
+		public long missCount;
+	}
+
+}
@@ -238,6 +238,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 					(AbstractAutowireCapableBeanFactory) otherFactory;
 			this.instantiationStrategy = otherAutowireFactory.instantiationStrategy;
 			this.allowCircularReferences = otherAutowireFactory.allowCircularReferences;
+			setConcurrentSingletonCreation(otherAutowireFactory.isConcurrentSingletonCreation());
 			this.ignoredDependencyTypes.addAll(otherAutowireFactory.ignoredDependencyTypes);
 			this.ignoredDependencyInterfaces.addAll(otherAutowireFactory.ignoredDependencyInterfaces);
 		}
@@ -345,9 +346,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			throws BeansException {
 
 		Object result = existingBean;
-		for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext();) {
-			BeanPostProcessor beanProcessor = (BeanPostProcessor) it.next();
-			result = beanProcessor.postProcessBeforeInitialization(result, beanName);
+		BeanPostProcessor[] beanProcessors = getBeanPostProcessorCache().all;
+		for (int i = 0; i < beanProcessors.length; i++) {
+			result = beanProcessors[i].postProcessBeforeInitialization(result, beanName);
 		}
 		return result;
 	}
@@ -356,9 +357,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			throws BeansException {
 
 		Object result = existingBean;
-		for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext();) {
-			BeanPostProcessor beanProcessor = (BeanPostProcessor) it.next();
-			result = beanProcessor.postProcessAfterInitialization(result, beanName);
+		BeanPostProcessor[] beanProcessors = getBeanPostProcessorCache().all;
+		for (int i = 0; i < beanProcessors.length; i++) {
+			result = beanProcessors[i].postProcessAfterInitialization(result, beanName);
 		}
 		return result;
 	}
@@ -526,14 +527,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		// Apply SmartInstantiationAwareBeanPostProcessors to predict the
 		// eventual type after a before-instantiation shortcut.
 		if (beanClass != null && !mbd.isSynthetic() && hasInstantiationAwareBeanPostProcessors()) {
-			for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext(); ) {
-				BeanPostProcessor bp = (BeanPostProcessor) it.next();
-				if (bp instanceof SmartInstantiationAwareBeanPostProcessor) {
-					SmartInstantiationAwareBeanPostProcessor ibp = (SmartInstantiationAwareBeanPostProcessor) bp;
-					Class processedType = ibp.predictBeanType(beanClass, beanName);
-					if (processedType != null) {
-						return processedType;
-					}
+			SmartInstantiationAwareBeanPostProcessor[] ibps = getBeanPostProcessorCache().smartInstantiationAware;
+			for (int i = 0; i < ibps.length; i++) {
+				Class processedType = ibps[i].predictBeanType(beanClass, beanName);
+				if (processedType != null) {
+					return processedType;
 				}
 			}
 		}
@@ -638,12 +636,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	protected Object getEarlyBeanReference(String beanName, RootBeanDefinition mbd, Object bean) {
 		Object exposedObject = bean;
 		if (!mbd.isSynthetic() && hasInstantiationAwareBeanPostProcessors()) {
-			for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext(); ) {
-				BeanPostProcessor bp = (BeanPostProcessor) it.next();
-				if (bp instanceof SmartInstantiationAwareBeanPostProcessor) {
-					SmartInstantiationAwareBeanPostProcessor ibp = (SmartInstantiationAwareBeanPostProcessor) bp;
-					exposedObject = ibp.getEarlyBeanReference(exposedObject, beanName);
-				}
+			SmartInstantiationAwareBeanPostProcessor[] ibps = getBeanPostProcessorCache().smartInstantiationAware;
+			for (int i = 0; i < ibps.length; i++) {
+				exposedObject = ibps[i].getEarlyBeanReference(exposedObject, beanName);
 			}
 		}
 		return exposedObject;
@@ -663,36 +658,38 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	 * @return the FactoryBean instance, or <code>null</code> to indicate
 	 * that we couldn't obtain a shortcut FactoryBean instance
 	 */
-	private FactoryBean getSingletonFactoryBeanForTypeCheck(String beanName, RootBeanDefinition mbd) {
-		synchronized (getSingletonMutex()) {
-			BeanWrapper bw = (BeanWrapper) this.factoryBeanInstanceCache.get(beanName);
-			if (bw != null) {
-				return (FactoryBean) bw.getWrappedInstance();
-			}
-			if (isSingletonCurrentlyInCreation(beanName)) {
-				return null;
-			}
-			Object instance = null;
-			try {
-				// Mark this bean as currently in creation, even if just partially.
-				beforeSingletonCreation(beanName);
-				// Give BeanPostProcessors a chance to return a proxy instead of the target bean instance.
-				instance = resolveBeforeInstantiation(beanName, mbd);
-				if (instance == null) {
-					bw = createBeanInstance(beanName, mbd, null);
-					instance = bw.getWrappedInstance();
+	private FactoryBean getSingletonFactoryBeanForTypeCheck(final String beanName, final RootBeanDefinition mbd) {
+		return (FactoryBean) doWithSingletonLock(beanName, new ObjectFactory() {
+			public Object getObject() {
+				BeanWrapper bw = (BeanWrapper) factoryBeanInstanceCache.get(beanName);
+				if (bw != null) {
+					return bw.getWrappedInstance();
 				}
+				if (isSingletonCurrentlyInCreation(beanName)) {
+					return null;
+				}
+				Object instance = null;
+				try {
+					// Mark this bean as currently in creation, even if just partially.
+					beforeSingletonCreation(beanName);
+					// Give BeanPostProcessors a chance to return a proxy instead of the target bean instance.
+					instance = resolveBeforeInstantiation(beanName, mbd);
+					if (instance == null) {
+						bw = createBeanInstance(beanName, mbd, null);
+						instance = bw.getWrappedInstance();
+					}
+				}
+				finally {
+					// Finished partial creation of this bean.
+					afterSingletonCreation(beanName);
+				}
+				FactoryBean fb = getFactoryBean(beanName, instance);
+				if (bw != null) {
+					factoryBeanInstanceCache.put(beanName, bw);
+				}
+				return fb;
 			}
-			finally {
-				// Finished partial creation of this bean.
-				afterSingletonCreation(beanName);
-			}
-			FactoryBean fb = getFactoryBean(beanName, instance);
-			if (bw != null) {
-				this.factoryBeanInstanceCache.put(beanName, bw);
-			}
-			return fb;
-		}
+		});
 	}
 
 	/**
@@ -738,12 +735,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	protected void applyMergedBeanDefinitionPostProcessors(RootBeanDefinition mbd, Class beanType, String beanName)
 			throws BeansException {
 
-		for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext();) {
-			BeanPostProcessor beanProcessor = (BeanPostProcessor) it.next();
-			if (beanProcessor instanceof MergedBeanDefinitionPostProcessor) {
-				MergedBeanDefinitionPostProcessor bdp = (MergedBeanDefinitionPostProcessor) beanProcessor;
-				bdp.postProcessMergedBeanDefinition(mbd, beanType, beanName);
-			}
+		MergedBeanDefinitionPostProcessor[] bdps = getBeanPostProcessorCache().mergedBeanDefinition;
+		for (int i = 0; i < bdps.length; i++) {
+			bdps[i].postProcessMergedBeanDefinition(mbd, beanType, beanName);
 		}
 	}
 
@@ -784,14 +778,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 	protected Object applyBeanPostProcessorsBeforeInstantiation(Class beanClass, String beanName)
 			throws BeansException {
 
-		for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext();) {
-			BeanPostProcessor beanProcessor = (BeanPostProcessor) it.next();
-			if (beanProcessor instanceof InstantiationAwareBeanPostProcessor) {
-				InstantiationAwareBeanPostProcessor ibp = (InstantiationAwareBeanPostProcessor) beanProcessor;
-				Object result = ibp.postProcessBeforeInstantiation(beanClass, beanName);
-				if (result != null) {
-					return result;
-				}
+		InstantiationAwareBeanPostProcessor[] ibps = getBeanPostProcessorCache().instantiationAware;
+		for (int i = 0; i < ibps.length; i++) {
+			Object result = ibps[i].postProcessBeforeInstantiation(beanClass, beanName);
+			if (result != null) {
+				return result;
 			}
 		}
 		return null;
@@ -852,14 +843,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 			throws BeansException {
 
 		if (beanClass != null && hasInstantiationAwareBeanPostProcessors()) {
-			for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext();) {
-				BeanPostProcessor beanProcessor = (BeanPostProcessor) it.next();
-				if (beanProcessor instanceof SmartInstantiationAwareBeanPostProcessor) {
-					SmartInstantiationAwareBeanPostProcessor ibp = (SmartInstantiationAwareBeanPostProcessor) beanProcessor;
-					Constructor[] ctors = ibp.determineCandidateConstructors(beanClass, beanName);
-					if (ctors != null) {
-						return ctors;
-					}
+			SmartInstantiationAwareBeanPostProcessor[] ibps = getBeanPostProcessorCache().smartInstantiationAware;
+			for (int i = 0; i < ibps.length; i++) {
+				Constructor[] ctors = ibps[i].determineCandidateConstructors(beanClass, beanName);
+				if (ctors != null) {
+					return ctors;
 				}
 			}
 		}
@@ -952,14 +940,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		boolean continueWithPropertyPopulation = true;
 
 		if (!mbd.isSynthetic() && hasInstantiationAwareBeanPostProcessors()) {
-			for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext();) {
-				BeanPostProcessor beanProcessor = (BeanPostProcessor) it.next();
-				if (beanProcessor instanceof InstantiationAwareBeanPostProcessor) {
-					InstantiationAwareBeanPostProcessor ibp = (InstantiationAwareBeanPostProcessor) beanProcessor;
-					if (!ibp.postProcessAfterInstantiation(bw.getWrappedInstance(), beanName)) {
-						continueWithPropertyPopulation = false;
-						break;
-					}
+			InstantiationAwareBeanPostProcessor[] ibps = getBeanPostProcessorCache().instantiationAware;
+			for (int i = 0; i < ibps.length; i++) {
+				if (!ibps[i].postProcessAfterInstantiation(bw.getWrappedInstance(), beanName)) {
+					continueWithPropertyPopulation = false;
+					break;
 				}
 			}
 		}
@@ -991,14 +976,11 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		if (hasInstAwareBpps || needsDepCheck) {
 			PropertyDescriptor[] filteredPds = filterPropertyDescriptorsForDependencyCheck(bw);
 			if (hasInstAwareBpps) {
-				for (Iterator it = getBeanPostProcessors().iterator(); it.hasNext(); ) {
-					BeanPostProcessor beanProcessor = (BeanPostProcessor) it.next();
-					if (beanProcessor instanceof InstantiationAwareBeanPostProcessor) {
-						InstantiationAwareBeanPostProcessor ibp = (InstantiationAwareBeanPostProcessor) beanProcessor;
-						pvs = ibp.postProcessPropertyValues(pvs, filteredPds, bw.getWrappedInstance(), beanName);
-						if (pvs == null) {
-							return;
-						}
+				InstantiationAwareBeanPostProcessor[] ibps = getBeanPostProcessorCache().instantiationAware;
+				for (int i = 0; i < ibps.length; i++) {
+					pvs = ibps[i].postProcessPropertyValues(pvs, filteredPds, bw.getWrappedInstance(), beanName);
+					if (pvs == null) {
+						return;
 					}
 				}
 			}
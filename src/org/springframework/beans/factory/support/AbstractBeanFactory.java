@@ -19,7 +19,6 @@ package org.springframework.beans.factory.support;
 import java.beans.PropertyEditor;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -126,14 +125,17 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 	/** Indicates whether any DestructionAwareBeanPostProcessors have been registered */
 	private boolean hasDestructionAwareBeanPostProcessors;
 
+	/** BeanPostProcessors filtered by callback type, built on demand */
+	private volatile BeanPostProcessorCache beanPostProcessorCache;
+
 	/** Map from scope identifier String to corresponding Scope */
 	private final Map scopes = new HashMap();
 
 	/** Map from bean name to merged RootBeanDefinition */
 	private final Map mergedBeanDefinitions = CollectionFactory.createConcurrentMapIfPossible(16);
 
-	/** Names of beans that have already been created at least once */
-	private final Set alreadyCreated = Collections.synchronizedSet(new HashSet());
+	/** Names of beans that have already been created at least once: bean name --> Boolean.TRUE */
+	private final Map alreadyCreated = CollectionFactory.createConcurrentMapIfPossible(16);
 
 	/** Names of beans that are currently in creation */
 	private final ThreadLocal prototypesCurrentlyInCreation =
@@ -644,6 +646,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 	public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
 		Assert.notNull(beanPostProcessor, "BeanPostProcessor must not be null");
 		this.beanPostProcessors.add(beanPostProcessor);
+		this.beanPostProcessorCache = null;
 		if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor) {
 			this.hasInstantiationAwareBeanPostProcessors = true;
 		}
@@ -664,6 +667,20 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 		return this.beanPostProcessors;
 	}
 
+	/**
+	 * Return the BeanPostProcessors of this factory, pre-filtered by the
+	 * callback interfaces that bean creation checks for.
+	 * @see #getBeanPostProcessors()
+	 */
+	BeanPostProcessorCache getBeanPostProcessorCache() {
+		BeanPostProcessorCache cache = this.beanPostProcessorCache;
+		if (cache == null || !cache.isCurrent(this.beanPostProcessors)) {
+			cache = new BeanPostProcessorCache(this.beanPostProcessors);
+			this.beanPostProcessorCache = cache;
+		}
+		return cache;
+	}
+
 	/**
 	 * Return whether this factory holds a InstantiationAwareBeanPostProcessor
 	 * that will get applied to singleton beans on shutdown.
@@ -711,6 +728,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 			this.customEditors.putAll(otherAbstractFactory.customEditors);
 			this.propertyEditorRegistrars.addAll(otherAbstractFactory.propertyEditorRegistrars);
 			this.beanPostProcessors.addAll(otherAbstractFactory.beanPostProcessors);
+			this.beanPostProcessorCache = null;
 			this.hasInstantiationAwareBeanPostProcessors = this.hasInstantiationAwareBeanPostProcessors ||
 					otherAbstractFactory.hasInstantiationAwareBeanPostProcessors;
 			this.hasDestructionAwareBeanPostProcessors = this.hasDestructionAwareBeanPostProcessors ||
@@ -1219,7 +1237,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 	 * @param beanName the name of the bean
 	 */
 	protected void markBeanAsCreated(String beanName) {
-		this.alreadyCreated.add(beanName);
+		this.alreadyCreated.put(beanName, Boolean.TRUE);
 	}
 
 	/**
@@ -1230,7 +1248,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 	 * at this point already
 	 */
 	protected boolean isBeanEligibleForMetadataCaching(String beanName) {
-		return this.alreadyCreated.contains(beanName);
+		return this.alreadyCreated.containsKey(beanName);
 	}
 
 	/**
@@ -1240,7 +1258,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 	 * @return <code>true</code> if actually removed, <code>false</code> otherwise
 	 */
 	protected boolean removeSingletonIfCreatedForTypeCheckOnly(String beanName) {
-		if (!this.alreadyCreated.contains(beanName)) {
+		if (!this.alreadyCreated.containsKey(beanName)) {
 			removeSingleton(beanName);
 			return true;
 		}
@@ -1334,7 +1352,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 				// work for the given bean: DestructionAwareBeanPostProcessors,
 				// DisposableBean interface, custom destroy method.
 				registerDisposableBean(beanName,
-						new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessors()));
+						new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessorCache().destructionAware));
 			}
 			else {
 				// A bean with a custom scope...
@@ -1343,7 +1361,7 @@ public abstract class AbstractBeanFactory extends FactoryBeanRegistrySupport imp
 					throw new IllegalStateException("No Scope registered for scope '" + mbd.getScope() + "'");
 				}
 				scope.registerDestructionCallback(beanName,
-						new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessors()));
+						new DisposableBeanAdapter(bean, beanName, mbd, getBeanPostProcessorCache().destructionAware));
 			}
 		}
 	}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.config.SmartInstantiationAwareBeanPostProcessor;
+
+/**
+ * Snapshot of the BeanPostProcessors registered with an {@link AbstractBeanFactory},
+ * pre-filtered by the callback interfaces that bean creation checks for.
+ *
+ * <p>Spares each bean creation the repeated type checks against all registered
+ * post-processors, in particular for prototypes and custom-scoped beans.
+ * Built on first use and rebuilt whenever the registered post-processors
+ * have changed, including changes made through the List returned by
+ * {@link AbstractBeanFactory#getBeanPostProcessors()}.
+ *
+ * @since 2.5.7
+ * @see AbstractBeanFactory#getBeanPostProcessorCache()
+ */
+class BeanPostProcessorCache {
+
+	final BeanPostProcessor[] all;
+
+	final InstantiationAwareBeanPostProcessor[] instantiationAware;
+
+	final SmartInstantiationAwareBeanPostProcessor[] smartInstantiationAware;
+
+	final MergedBeanDefinitionPostProcessor[] mergedBeanDefinition;
+
+	final List destructionAware;
+
+
+	/**
+	 * Create a new BeanPostProcessorCache for the given post-processors.
+	 * @param beanPostProcessors the List of registered BeanPostProcessors
+	 */
+	public BeanPostProcessorCache(List beanPostProcessors) {
+		List instantiationAware = new ArrayList();
+		List smartInstantiationAware = new ArrayList();
+		List mergedBeanDefinition = new ArrayList();
+		List destructionAware = new ArrayList();
+		for (Iterator it = beanPostProcessors.iterator(); it.hasNext();) {
+			Object bp = it.next();
+			if (bp instanceof InstantiationAwareBeanPostProcessor) {
+				instantiationAware.add(bp);
+			}
+			if (bp instanceof SmartInstantiationAwareBeanPostProcessor) {
+				smartInstantiationAware.add(bp);
+			}
+			if (bp instanceof MergedBeanDefinitionPostProcessor) {
+				mergedBeanDefinition.add(bp);
+			}
+			if (bp instanceof DestructionAwareBeanPostProcessor) {
+				destructionAware.add(bp);
+			}
+		}
+		this.all = (BeanPostProcessor[]) beanPostProcessors.toArray(new BeanPostProcessor[beanPostProcessors.size()]);
+		this.instantiationAware = (InstantiationAwareBeanPostProcessor[])
+				instantiationAware.toArray(new InstantiationAwareBeanPostProcessor[instantiationAware.size()]);
+		this.smartInstantiationAware = (SmartInstantiationAwareBeanPostProcessor[])
+				smartInstantiationAware.toArray(new SmartInstantiationAwareBeanPostProcessor[smartInstantiationAware.size()]);
+		this.mergedBeanDefinition = (MergedBeanDefinitionPostProcessor[])
+				mergedBeanDefinition.toArray(new MergedBeanDefinitionPostProcessor[mergedBeanDefinition.size()]);
+		this.destructionAware = Collections.unmodifiableList(destructionAware);
+	}
+
+
+	/**
+	 * Return whether this cache still reflects the given post-processors,
+	 * that is, whether it holds the identical post-processors in the same order.
+	 * @param beanPostProcessors the List of registered BeanPostProcessors
+	 */
+	public boolean isCurrent(List beanPostProcessors) {
+		if (beanPostProcessors.size() != this.all.length) {
+			return false;
+		}
+		for (int i = 0; i < this.all.length; i++) {
+			if (beanPostProcessors.get(i) != this.all[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -44,6 +44,7 @@ import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.config.DependencyDescriptor;
 import org.springframework.core.CollectionFactory;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
@@ -105,6 +106,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Map from dependency type to corresponding autowired value */
 	private final Map resolvableDependencies = new HashMap();
 
+	/** TaskExecutor for pre-instantiating singletons in parallel, if any */
+	private TaskExecutor preInstantiationExecutor;
+
 
 	/**
 	 * Create a new DefaultListableBeanFactory.
@@ -164,6 +168,26 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		this.allowEagerClassLoading = allowEagerClassLoading;
 	}
 
+	/**
+	 * Set a TaskExecutor to pre-instantiate non-lazy singletons in parallel with.
+	 * <p>Default is none, pre-instantiating singletons one by one in registration
+	 * order. If specified, singletons that do not depend on each other will be
+	 * created concurrently on the given executor, which should usually be bounded
+	 * (e.g. a {@link org.springframework.core.task.SimpleAsyncTaskExecutor} with a
+	 * concurrency limit, or a thread pool). Dependencies are derived from
+	 * "depends-on" declarations, explicit bean references and the factory bean
+	 * of each bean definition; autowired dependencies get created on demand.
+	 * <p>Setting an executor implicitly switches this factory to
+	 * {@link #setConcurrentSingletonCreation "concurrent singleton creation"}.
+	 * @see #preInstantiateSingletons()
+	 */
+	public void setPreInstantiationExecutor(TaskExecutor preInstantiationExecutor) {
+		this.preInstantiationExecutor = preInstantiationExecutor;
+		if (preInstantiationExecutor != null) {
+			setConcurrentSingletonCreation(true);
+		}
+	}
+
 
 	public void copyConfigurationFrom(ConfigurableBeanFactory otherFactory) {
 		super.copyConfigurationFrom(otherFactory);
@@ -171,6 +195,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.preInstantiationExecutor = otherListableFactory.preInstantiationExecutor;
 		}
 	}
 
@@ -414,25 +439,51 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			this.logger.info("Pre-instantiating singletons in " + this);
 		}
 
+		if (this.preInstantiationExecutor != null) {
+			// Do not hold the bean definition lock while waiting for other threads.
+			List beanNames = new ArrayList();
+			synchronized (this.beanDefinitionMap) {
+				for (Iterator it = this.beanDefinitionNames.iterator(); it.hasNext();) {
+					String beanName = (String) it.next();
+					RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
+					if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
+						beanNames.add(beanName);
+					}
+				}
+			}
+			new ParallelSingletonPreInstantiator(this, this.preInstantiationExecutor).preInstantiate(beanNames);
+			return;
+		}
+
 		synchronized (this.beanDefinitionMap) {
 			for (Iterator it = this.beanDefinitionNames.iterator(); it.hasNext();) {
 				String beanName = (String) it.next();
 				RootBeanDefinition bd = getMergedLocalBeanDefinition(beanName);
 				if (!bd.isAbstract() && bd.isSingleton() && !bd.isLazyInit()) {
-					if (isFactoryBean(beanName)) {
-						FactoryBean factory = (FactoryBean) getBean(FACTORY_BEAN_PREFIX + beanName);
-						if (factory instanceof SmartFactoryBean && ((SmartFactoryBean) factory).isEagerInit()) {
-							getBean(beanName);
-						}
-					}
-					else {
-						getBean(beanName);
-					}
+					preInstantiateSingleton(beanName);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Pre-instantiate the given non-lazy singleton, also initializing the
+	 * object exposed by an eager-init {@link SmartFactoryBean}.
+	 * @param beanName the name of the bean
+	 * @throws BeansException if the bean could not be created
+	 */
+	void preInstantiateSingleton(String beanName) throws BeansException {
+		if (isFactoryBean(beanName)) {
+			FactoryBean factory = (FactoryBean) getBean(FACTORY_BEAN_PREFIX + beanName);
+			if (factory instanceof SmartFactoryBean && ((SmartFactoryBean) factory).isEagerInit()) {
+				getBean(beanName);
+			}
+		}
+		else {
+			getBean(beanName);
+		}
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of BeanDefinitionRegistry interface
@@ -16,9 +16,7 @@
 
 package org.springframework.beans.factory.support;
 
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -35,6 +33,7 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.SingletonBeanRegistry;
 import org.springframework.core.CollectionFactory;
+import org.springframework.core.NamedThreadLocal;
 import org.springframework.core.SimpleAliasRegistry;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -63,6 +62,12 @@ import org.springframework.util.StringUtils;
  * (which inherit from it). Can alternatively also be used as a nested
  * helper to delegate to.
  *
+ * <p>By default, singleton creation is serialized on a single registry-wide
+ * mutex. Alternatively, this registry can operate in a
+ * {@link #setConcurrentSingletonCreation "concurrent singleton creation"} mode,
+ * locking per bean name instead: Unrelated singletons may then get created in
+ * parallel, while lookups of fully initialized singletons never block either way.
+ *
  * @author Juergen Hoeller
  * @since 2.0
  * @see #registerSingleton
@@ -94,14 +99,23 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	/** Set of registered singletons, containing the bean names in registration order */
 	private final Set registeredSingletons = new LinkedHashSet(16);
 
-	/** Names of beans that are currently in creation */
-	private final Set singletonsCurrentlyInCreation = Collections.synchronizedSet(new HashSet());
+	/** Names of beans that are currently in creation: bean name --> Boolean.TRUE */
+	private final Map singletonsCurrentlyInCreation = CollectionFactory.createConcurrentMapIfPossible(16);
 
 	/** List of suppressed Exceptions, available for associating related causes */
-	private Set suppressedExceptions;
+	private final ThreadLocal suppressedExceptions = new NamedThreadLocal("Suppressed singleton creation exceptions");
 
 	/** Flag that indicates whether we're currently within destroySingletons */
-	private boolean singletonsCurrentlyInDestruction = false;
+	private volatile boolean singletonsCurrentlyInDestruction = false;
+
+	/** Whether to lock singleton creation per bean rather than on the singleton mutex */
+	private volatile boolean concurrentSingletonCreation = false;
+
+	/** Per-bean creation locks: bean name --> SingletonCreationLock */
+	private final Map singletonCreationLocks = CollectionFactory.createConcurrentMapIfPossible(16);
+
+	/** Threads blocked on a creation lock: Thread --> SingletonCreationLock */
+	private final Map threadsWaitingForCreation = CollectionFactory.createConcurrentMapIfPossible(16);
 
 	/** Disposable bean instances: bean name --> disposable instance */
 	private final Map disposableBeans = new LinkedHashMap(16);
@@ -116,6 +130,33 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	private final Map dependenciesForBeanMap = CollectionFactory.createConcurrentMapIfPossible(16);
 
 
+	/**
+	 * Set whether singleton creation should be locked per bean name instead of
+	 * on the registry-wide singleton mutex. Default is "false".
+	 * <p>Switch this to "true" to let unrelated singletons get created in parallel,
+	 * e.g. for lazy-init singletons that are first requested by many threads at
+	 * the same time. Concurrent requests for the <i>same</i> singleton still wait
+	 * for its creation to complete; early references to a singleton in creation
+	 * are only exposed to the creating thread itself.
+	 * <p>Note that a circular reference between singletons that happen to get
+	 * created by different threads cannot be resolved in this mode: It will be
+	 * reported as a {@link BeanCurrentlyInCreationException} instead of being
+	 * waited for forever.
+	 * <p>This flag needs to be set before any singleton has been created.
+	 */
+	public void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		this.concurrentSingletonCreation = concurrentSingletonCreation;
+	}
+
+	/**
+	 * Return whether singleton creation is locked per bean name
+	 * instead of on the registry-wide singleton mutex.
+	 */
+	public boolean isConcurrentSingletonCreation() {
+		return this.concurrentSingletonCreation;
+	}
+
+
 	public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
 		Assert.notNull(beanName, "'beanName' must not be null");
 		synchronized (this.singletonObjects) {
@@ -176,15 +217,28 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	protected Object getSingleton(String beanName, boolean allowEarlyReference) {
 		Object singletonObject = this.singletonObjects.get(beanName);
-		if (singletonObject == null) {
+		if (singletonObject == null && isSingletonCurrentlyInCreation(beanName) &&
+				(!this.concurrentSingletonCreation || isSingletonCreationLockHeld(beanName))) {
+			ObjectFactory singletonFactory = null;
 			synchronized (this.singletonObjects) {
 				singletonObject = this.earlySingletonObjects.get(beanName);
 				if (singletonObject == null && allowEarlyReference) {
-					ObjectFactory singletonFactory = (ObjectFactory) this.singletonFactories.get(beanName);
-					if (singletonFactory != null) {
-						singletonObject = singletonFactory.getObject();
-						this.earlySingletonObjects.put(beanName, singletonObject);
+					singletonFactory = (ObjectFactory) this.singletonFactories.get(beanName);
+				}
+			}
+			if (singletonFactory != null) {
+				// Obtain the early reference outside of the singleton mutex: it may invoke
+				// post-processors which in turn request other singletons from this registry.
+				Object earlyReference = singletonFactory.getObject();
+				synchronized (this.singletonObjects) {
+					singletonObject = this.earlySingletonObjects.get(beanName);
+					if (singletonObject == null) {
+						singletonObject = this.singletonObjects.get(beanName);
+					}
+					if (singletonObject == null && this.singletonFactories.get(beanName) == singletonFactory) {
+						this.earlySingletonObjects.put(beanName, earlyReference);
 						this.singletonFactories.remove(beanName);
+						singletonObject = earlyReference;
 					}
 				}
 			}
@@ -202,43 +256,131 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 */
 	public Object getSingleton(String beanName, ObjectFactory singletonFactory) {
 		Assert.notNull(beanName, "'beanName' must not be null");
-		synchronized (this.singletonObjects) {
+		if (this.concurrentSingletonCreation) {
 			Object singletonObject = this.singletonObjects.get(beanName);
 			if (singletonObject == null) {
-				if (this.singletonsCurrentlyInDestruction) {
-					throw new BeanCreationNotAllowedException(beanName,
-							"Singleton bean creation not allowed while the singletons of this factory are in destruction " +
-							"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
-				}
-				if (logger.isDebugEnabled()) {
-					logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
-				}
-				beforeSingletonCreation(beanName);
-				boolean recordSuppressedExceptions = (this.suppressedExceptions == null);
-				if (recordSuppressedExceptions) {
-					this.suppressedExceptions = new LinkedHashSet();
-				}
+				SingletonCreationLock creationLock = getSingletonCreationLock(beanName);
+				creationLock.acquire();
 				try {
-					singletonObject = singletonFactory.getObject();
-				}
-				catch (BeanCreationException ex) {
-					if (recordSuppressedExceptions) {
-						for (Iterator it = this.suppressedExceptions.iterator(); it.hasNext();) {
-							ex.addRelatedCause((Exception) it.next());
-						}
+					singletonObject = this.singletonObjects.get(beanName);
+					if (singletonObject == null) {
+						singletonObject = createSingleton(beanName, singletonFactory);
 					}
-					throw ex;
 				}
 				finally {
-					if (recordSuppressedExceptions) {
-						this.suppressedExceptions = null;
-					}
-					afterSingletonCreation(beanName);
+					creationLock.release();
 				}
-				addSingleton(beanName, singletonObject);
 			}
 			return (singletonObject != NULL_OBJECT ? singletonObject : null);
 		}
+		synchronized (this.singletonObjects) {
+			Object singletonObject = this.singletonObjects.get(beanName);
+			if (singletonObject == null) {
+				singletonObject = createSingleton(beanName, singletonFactory);
+			}
+			return (singletonObject != NULL_OBJECT ? singletonObject : null);
+		}
+	}
+
+	/**
+	 * Actually create the given singleton through the given ObjectFactory,
+	 * registering it with this registry. The caller is responsible for holding
+	 * the appropriate singleton lock.
+	 * @param beanName the name of the bean
+	 * @param singletonFactory the ObjectFactory to create the singleton with
+	 * @return the newly created singleton object (may be <code>null</code>)
+	 */
+	private Object createSingleton(String beanName, ObjectFactory singletonFactory) {
+		if (this.singletonsCurrentlyInDestruction) {
+			throw new BeanCreationNotAllowedException(beanName,
+					"Singleton bean creation not allowed while the singletons of this factory are in destruction " +
+					"(Do not request a bean from a BeanFactory in a destroy method implementation!)");
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Creating shared instance of singleton bean '" + beanName + "'");
+		}
+		beforeSingletonCreation(beanName);
+		boolean recordSuppressedExceptions = (this.suppressedExceptions.get() == null);
+		if (recordSuppressedExceptions) {
+			this.suppressedExceptions.set(new LinkedHashSet());
+		}
+		Object singletonObject = null;
+		try {
+			singletonObject = singletonFactory.getObject();
+		}
+		catch (BeanCreationException ex) {
+			if (recordSuppressedExceptions) {
+				for (Iterator it = ((Set) this.suppressedExceptions.get()).iterator(); it.hasNext();) {
+					ex.addRelatedCause((Exception) it.next());
+				}
+			}
+			throw ex;
+		}
+		finally {
+			if (recordSuppressedExceptions) {
+				this.suppressedExceptions.set(null);
+			}
+			afterSingletonCreation(beanName);
+		}
+		addSingleton(beanName, singletonObject);
+		return singletonObject;
+	}
+
+	/**
+	 * Execute the given callback while holding the creation lock for the
+	 * specified singleton: that is, the per-bean lock in
+	 * {@link #setConcurrentSingletonCreation "concurrent singleton creation"}
+	 * mode, or the {@link #getSingletonMutex() singleton mutex} otherwise.
+	 * <p>Subclasses should use this for any extended creation phase of a
+	 * specific singleton, e.g. for obtaining the object from a singleton
+	 * FactoryBean, instead of synchronizing on the singleton mutex.
+	 * @param beanName the name of the bean
+	 * @param callback the callback to execute
+	 * @return the object returned by the callback
+	 */
+	protected Object doWithSingletonLock(String beanName, ObjectFactory callback) {
+		if (this.concurrentSingletonCreation) {
+			SingletonCreationLock creationLock = getSingletonCreationLock(beanName);
+			creationLock.acquire();
+			try {
+				return callback.getObject();
+			}
+			finally {
+				creationLock.release();
+			}
+		}
+		synchronized (this.singletonObjects) {
+			return callback.getObject();
+		}
+	}
+
+	/**
+	 * Obtain the creation lock for the given singleton, creating it if necessary.
+	 * @param beanName the name of the bean
+	 * @return the corresponding SingletonCreationLock (never <code>null</code>)
+	 */
+	private SingletonCreationLock getSingletonCreationLock(String beanName) {
+		SingletonCreationLock creationLock = (SingletonCreationLock) this.singletonCreationLocks.get(beanName);
+		if (creationLock == null) {
+			synchronized (this.singletonCreationLocks) {
+				creationLock = (SingletonCreationLock) this.singletonCreationLocks.get(beanName);
+				if (creationLock == null) {
+					creationLock = new SingletonCreationLock(beanName);
+					this.singletonCreationLocks.put(beanName, creationLock);
+				}
+			}
+		}
+		return creationLock;
+	}
+
+	/**
+	 * Determine whether the current thread holds the creation lock
+	 * for the given singleton.
+	 * @param beanName the name of the bean
+	 */
+	private boolean isSingletonCreationLockHeld(String beanName) {
+		SingletonCreationLock creationLock = (SingletonCreationLock) this.singletonCreationLocks.get(beanName);
+		return (creationLock != null && creationLock.owner == Thread.currentThread());
 	}
 
 	/**
@@ -247,10 +389,9 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @param ex the Exception to register
 	 */
 	protected void onSuppressedException(Exception ex) {
-		synchronized (this.singletonObjects) {
-			if (this.suppressedExceptions != null) {
-				this.suppressedExceptions.add(ex);
-			}
+		Set exceptions = (Set) this.suppressedExceptions.get();
+		if (exceptions != null) {
+			exceptions.add(ex);
 		}
 	}
 
@@ -293,7 +434,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see #isSingletonCurrentlyInCreation
 	 */
 	protected void beforeSingletonCreation(String beanName) {
-		if (!this.singletonsCurrentlyInCreation.add(beanName)) {
+		if (this.singletonsCurrentlyInCreation.put(beanName, Boolean.TRUE) != null) {
 			throw new BeanCurrentlyInCreationException(beanName);
 		}
 	}
@@ -305,7 +446,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @see #isSingletonCurrentlyInCreation
 	 */
 	protected void afterSingletonCreation(String beanName) {
-		if (!this.singletonsCurrentlyInCreation.remove(beanName)) {
+		if (this.singletonsCurrentlyInCreation.remove(beanName) == null) {
 			throw new IllegalStateException("Singleton '" + beanName + "' isn't currently in creation");
 		}
 	}
@@ -316,7 +457,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 	 * @param beanName the name of the bean
 	 */
 	public final boolean isSingletonCurrentlyInCreation(String beanName) {
-		return this.singletonsCurrentlyInCreation.contains(beanName);
+		return (beanName != null && this.singletonsCurrentlyInCreation.containsKey(beanName));
 	}
 
 
@@ -442,6 +583,7 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 			this.registeredSingletons.clear();
 			this.singletonsCurrentlyInDestruction = false;
 		}
+		// Keep the per-bean creation locks: other threads may still hold or wait for them.
 	}
 
 	/**
@@ -527,4 +669,89 @@ public class DefaultSingletonBeanRegistry extends SimpleAliasRegistry implements
 		return this.singletonObjects;
 	}
 
+
+	/**
+	 * Reentrant lock for the creation of a specific singleton, used in
+	 * "concurrent singleton creation" mode. Based on plain wait/notify
+	 * for JDK 1.4 compatibility.
+	 * <p>Detects threads that would end up waiting for each other, as caused by
+	 * a circular reference between singletons created by different threads,
+	 * and reports such a cycle as BeanCurrentlyInCreationException.
+	 */
+	private class SingletonCreationLock {
+
+		private static final long DEADLOCK_CHECK_INTERVAL = 100;
+
+		private final String beanName;
+
+		private volatile Thread owner;
+
+		private int holdCount;
+
+		public SingletonCreationLock(String beanName) {
+			this.beanName = beanName;
+		}
+
+		public synchronized void acquire() {
+			Thread currentThread = Thread.currentThread();
+			if (this.owner == currentThread) {
+				this.holdCount++;
+				return;
+			}
+			if (this.owner != null) {
+				threadsWaitingForCreation.put(currentThread, this);
+				try {
+					while (this.owner != null) {
+						if (isWaitingForThread(currentThread)) {
+							throw new BeanCurrentlyInCreationException(this.beanName,
+									"Singleton is currently in creation in another thread which in turn waits for " +
+									"a singleton in creation in the current thread: Is there an unresolvable " +
+									"circular reference between singletons created by different threads?");
+						}
+						try {
+							wait(DEADLOCK_CHECK_INTERVAL);
+						}
+						catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+							throw new BeanCreationException(this.beanName,
+									"Interrupted while waiting for concurrent creation of singleton");
+						}
+					}
+				}
+				finally {
+					threadsWaitingForCreation.remove(currentThread);
+				}
+			}
+			this.owner = currentThread;
+			this.holdCount = 1;
+		}
+
+		public synchronized void release() {
+			if (--this.holdCount == 0) {
+				this.owner = null;
+				notifyAll();
+			}
+		}
+
+		/**
+		 * Follow the chain of lock owners waiting for other creation locks,
+		 * checking whether it leads back to the given thread.
+		 */
+		private boolean isWaitingForThread(Thread thread) {
+			SingletonCreationLock lock = this;
+			int maxSteps = threadsWaitingForCreation.size() + 1;
+			for (int i = 0; lock != null && i < maxSteps; i++) {
+				Thread lockOwner = lock.owner;
+				if (lockOwner == null) {
+					return false;
+				}
+				if (lockOwner == thread) {
+					return true;
+				}
+				lock = (SingletonCreationLock) threadsWaitingForCreation.get(lockOwner);
+			}
+			return false;
+		}
+	}
+
 }
@@ -26,6 +26,7 @@ import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.beans.factory.BeanCurrentlyInCreationException;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.FactoryBeanNotInitializedException;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.core.CollectionFactory;
 
 /**
@@ -83,16 +84,21 @@ public abstract class FactoryBeanRegistrySupport extends DefaultSingletonBeanReg
 	 * @throws BeanCreationException if FactoryBean object creation failed
 	 * @see org.springframework.beans.factory.FactoryBean#getObject()
 	 */
-	protected Object getObjectFromFactoryBean(FactoryBean factory, String beanName, boolean shouldPostProcess) {
+	protected Object getObjectFromFactoryBean(
+			final FactoryBean factory, final String beanName, final boolean shouldPostProcess) {
+
 		if (factory.isSingleton() && containsSingleton(beanName)) {
-			synchronized (getSingletonMutex()) {
-				Object object = this.factoryBeanObjectCache.get(beanName);
-				if (object == null) {
-					object = doGetObjectFromFactoryBean(factory, beanName, shouldPostProcess);
-					this.factoryBeanObjectCache.put(beanName, (object != null ? object : NULL_OBJECT));
+			Object object = doWithSingletonLock(beanName, new ObjectFactory() {
+				public Object getObject() {
+					Object object = factoryBeanObjectCache.get(beanName);
+					if (object == null) {
+						object = doGetObjectFromFactoryBean(factory, beanName, shouldPostProcess);
+						factoryBeanObjectCache.put(beanName, (object != null ? object : NULL_OBJECT));
+					}
+					return object;
 				}
-				return (object != NULL_OBJECT ? object : null);
-			}
+			});
+			return (object != NULL_OBJECT ? object : null);
 		}
 		else {
 			return doGetObjectFromFactoryBean(factory, beanName, shouldPostProcess);
@@ -0,0 +1,486 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.config.BeanDefinitionVisitor;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * Helper class for pre-instantiating the non-lazy singletons of a
+ * {@link DefaultListableBeanFactory} in parallel.
+ *
+ * <p>Builds a dependency graph from the bean definitions' "depends-on"
+ * declarations, explicit bean references, factory bean names and any
+ * dependencies registered already, with circular references collapsed
+ * into a single unit of work. Singletons are then created on the given
+ * TaskExecutor as soon as all of their known dependencies are available.
+ *
+ * <p>Singletons that turn out to circularly depend on a singleton created
+ * by another thread (e.g. through autowiring) are retried one by one
+ * in the calling thread once no further units can be started. Singletons
+ * depending on them only get created after the retry has succeeded.
+ *
+ * <p>Logs the creation time of each singleton at debug level.
+ *
+ * @since 2.5.7
+ * @see DefaultListableBeanFactory#setPreInstantiationExecutor
+ */
+class ParallelSingletonPreInstantiator {
+
+	private static final Log logger = LogFactory.getLog(ParallelSingletonPreInstantiator.class);
+
+	private final DefaultListableBeanFactory beanFactory;
+
+	private final TaskExecutor taskExecutor;
+
+	private final Object monitor = new Object();
+
+	private final LinkedList readyUnits = new LinkedList();
+
+	private int activeUnits = 0;
+
+	private BeansException failure;
+
+	private final LinkedList deferredUnits = new LinkedList();
+
+
+	/**
+	 * Create a new ParallelSingletonPreInstantiator for the given factory.
+	 * @param beanFactory the BeanFactory to pre-instantiate singletons in
+	 * @param taskExecutor the TaskExecutor to create singletons on
+	 */
+	public ParallelSingletonPreInstantiator(DefaultListableBeanFactory beanFactory, TaskExecutor taskExecutor) {
+		this.beanFactory = beanFactory;
+		this.taskExecutor = taskExecutor;
+	}
+
+
+	/**
+	 * Pre-instantiate the given singletons, returning once all of them
+	 * have been created.
+	 * @param beanNames the names of the singletons to pre-instantiate,
+	 * in registration order
+	 * @throws BeansException if any singleton could not be created
+	 */
+	public void preInstantiate(List beanNames) throws BeansException {
+		long startTime = System.currentTimeMillis();
+		synchronized (this.monitor) {
+			this.readyUnits.addAll(buildCreationUnits(beanNames));
+		}
+
+		while (true) {
+			CreationUnit unit;
+			synchronized (this.monitor) {
+				while ((this.readyUnits.isEmpty() || this.failure != null) && this.activeUnits > 0) {
+					try {
+						this.monitor.wait();
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						throw new BeanCreationException("Interrupted while waiting for singleton pre-instantiation");
+					}
+				}
+				if (this.failure != null) {
+					throw this.failure;
+				}
+				if (this.readyUnits.isEmpty()) {
+					if (this.deferredUnits.isEmpty()) {
+						break;
+					}
+					unit = (CreationUnit) this.deferredUnits.removeFirst();
+				}
+				else {
+					unit = (CreationUnit) this.readyUnits.removeFirst();
+					this.activeUnits++;
+				}
+			}
+			if (unit.deferredBeanNames != null) {
+				// Retry singletons that could not be created concurrently, one by one,
+				// before releasing the units that depend on them.
+				for (Iterator it = unit.deferredBeanNames.iterator(); it.hasNext();) {
+					String beanName = (String) it.next();
+					if (logger.isDebugEnabled()) {
+						logger.debug("Retrying creation of singleton '" + beanName + "' in calling thread");
+					}
+					createSingleton(beanName);
+				}
+				synchronized (this.monitor) {
+					releaseDependentUnits(unit);
+				}
+				continue;
+			}
+			try {
+				this.taskExecutor.execute(unit);
+			}
+			catch (TaskRejectedException ex) {
+				// Executor saturated or shut down: create in the calling thread instead.
+				unit.run();
+			}
+		}
+
+		if (logger.isInfoEnabled()) {
+			logger.info("Pre-instantiated " + beanNames.size() + " singletons in " +
+					(System.currentTimeMillis() - startTime) + " ms");
+		}
+	}
+
+
+	/**
+	 * Group the given singletons into creation units (one per set of circularly
+	 * dependent singletons) and link them according to their dependencies.
+	 * @return the units without dependencies, ready for creation
+	 */
+	private List buildCreationUnits(List beanNames) {
+		Set candidateNames = new HashSet(beanNames);
+		Map dependencies = new HashMap(beanNames.size());
+		for (Iterator it = beanNames.iterator(); it.hasNext();) {
+			String beanName = (String) it.next();
+			dependencies.put(beanName, determineDependencies(beanName, candidateNames));
+		}
+		Map unitsByBeanName = new UnitBuilder(dependencies).build(beanNames);
+
+		List readyUnits = new ArrayList();
+		Set processed = new LinkedHashSet();
+		for (Iterator it = beanNames.iterator(); it.hasNext();) {
+			CreationUnit unit = (CreationUnit) unitsByBeanName.get(it.next());
+			if (!processed.add(unit)) {
+				continue;
+			}
+			for (Iterator nameIt = unit.beanNames.iterator(); nameIt.hasNext();) {
+				Set beanDependencies = (Set) dependencies.get(nameIt.next());
+				for (Iterator depIt = beanDependencies.iterator(); depIt.hasNext();) {
+					CreationUnit dependency = (CreationUnit) unitsByBeanName.get(depIt.next());
+					if (dependency != unit && dependency.dependentUnits.add(unit)) {
+						unit.pendingDependencies++;
+					}
+				}
+			}
+		}
+		for (Iterator it = processed.iterator(); it.hasNext();) {
+			CreationUnit unit = (CreationUnit) it.next();
+			if (unit.pendingDependencies == 0) {
+				readyUnits.add(unit);
+			}
+		}
+		return readyUnits;
+	}
+
+	/**
+	 * Determine the names of all given singletons that the specified bean is known
+	 * to depend on, as far as derivable from its merged bean definition.
+	 */
+	private Set determineDependencies(String beanName, Set candidateNames) {
+		RootBeanDefinition mbd = this.beanFactory.getMergedLocalBeanDefinition(beanName);
+		Set referencedNames = new LinkedHashSet();
+		String[] dependsOn = mbd.getDependsOn();
+		if (dependsOn != null) {
+			for (int i = 0; i < dependsOn.length; i++) {
+				referencedNames.add(dependsOn[i]);
+			}
+		}
+		if (mbd.getFactoryBeanName() != null) {
+			referencedNames.add(mbd.getFactoryBeanName());
+		}
+		new BeanReferenceCollector(referencedNames).visitBeanDefinition(mbd);
+		String[] registeredDependencies = this.beanFactory.getDependenciesForBean(beanName);
+		for (int i = 0; i < registeredDependencies.length; i++) {
+			referencedNames.add(registeredDependencies[i]);
+		}
+
+		Set dependencies = new LinkedHashSet();
+		for (Iterator it = referencedNames.iterator(); it.hasNext();) {
+			String dependency = this.beanFactory.transformedBeanName((String) it.next());
+			if (!dependency.equals(beanName) && candidateNames.contains(dependency)) {
+				dependencies.add(dependency);
+			}
+		}
+		return dependencies;
+	}
+
+	/**
+	 * Create the given singleton, recording its creation time.
+	 */
+	private void createSingleton(String beanName) throws BeansException {
+		long startTime = System.currentTimeMillis();
+		this.beanFactory.preInstantiateSingleton(beanName);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Pre-instantiated singleton '" + beanName + "' in " +
+					(System.currentTimeMillis() - startTime) +
+					" ms in thread [" + Thread.currentThread().getName() + "]");
+		}
+	}
+
+	/**
+	 * Callback for a creation unit that has finished: Releases units
+	 * depending on it, or records the given failure. A unit with deferred
+	 * singletons gets queued for a retry instead of releasing its dependents.
+	 */
+	private void unitCompleted(CreationUnit unit, BeansException ex) {
+		synchronized (this.monitor) {
+			this.activeUnits--;
+			if (ex != null) {
+				if (this.failure == null) {
+					this.failure = ex;
+				}
+			}
+			else if (unit.deferredBeanNames != null) {
+				this.deferredUnits.add(unit);
+			}
+			else {
+				releaseDependentUnits(unit);
+			}
+			this.monitor.notifyAll();
+		}
+	}
+
+	/**
+	 * Mark the given unit's dependents as ready once all of their dependencies
+	 * are available. To be called with the monitor held.
+	 */
+	private void releaseDependentUnits(CreationUnit unit) {
+		for (Iterator it = unit.dependentUnits.iterator(); it.hasNext();) {
+			CreationUnit dependentUnit = (CreationUnit) it.next();
+			if (--dependentUnit.pendingDependencies == 0) {
+				this.readyUnits.add(dependentUnit);
+			}
+		}
+	}
+
+
+	/**
+	 * A set of singletons to be created in one go, in registration order:
+	 * either a single bean or a group of circularly dependent beans.
+	 */
+	private class CreationUnit implements Runnable {
+
+		private final List beanNames = new ArrayList(1);
+
+		private final Set dependentUnits = new LinkedHashSet();
+
+		private int pendingDependencies = 0;
+
+		/** Singletons of this unit to be retried in the calling thread, if any */
+		private List deferredBeanNames;
+
+		public void run() {
+			Iterator it = this.beanNames.iterator();
+			try {
+				while (it.hasNext()) {
+					String beanName = (String) it.next();
+					try {
+						createSingleton(beanName);
+					}
+					catch (BeansException ex) {
+						if (!(ex instanceof BeanCurrentlyInCreationException) &&
+								!ex.contains(BeanCurrentlyInCreationException.class)) {
+							throw ex;
+						}
+						if (logger.isDebugEnabled()) {
+							logger.debug("Deferring creation of singleton '" + beanName +
+									"' which is in concurrent circular creation: " + ex.getMessage());
+						}
+						this.deferredBeanNames = new ArrayList();
+						this.deferredBeanNames.add(beanName);
+						while (it.hasNext()) {
+							this.deferredBeanNames.add(it.next());
+						}
+					}
+				}
+				unitCompleted(this, null);
+			}
+			catch (BeansException ex) {
+				unitCompleted(this, ex);
+			}
+			catch (RuntimeException ex) {
+				unitCompleted(this, new BeanCreationException("Unexpected failure during singleton pre-instantiation", ex));
+			}
+			catch (Error err) {
+				unitCompleted(this, new BeanCreationException("Unexpected failure during singleton pre-instantiation", err));
+				throw err;
+			}
+		}
+	}
+
+
+	/**
+	 * Groups strongly connected singletons into CreationUnits, using an
+	 * iterative variant of Tarjan's algorithm (avoiding deep recursion on
+	 * long dependency chains). Members of a unit are kept in registration order.
+	 */
+	private class UnitBuilder {
+
+		private final Map dependencies;
+
+		private final Map indexes = new HashMap();
+
+		private final LinkedList stack = new LinkedList();
+
+		private final Set onStack = new HashSet();
+
+		private final Map unitsByBeanName = new HashMap();
+
+		private final Map registrationOrder = new HashMap();
+
+		private int index = 0;
+
+		public UnitBuilder(Map dependencies) {
+			this.dependencies = dependencies;
+		}
+
+		public Map build(List beanNames) {
+			int order = 0;
+			for (Iterator it = beanNames.iterator(); it.hasNext();) {
+				this.registrationOrder.put(it.next(), new Integer(order++));
+			}
+			for (Iterator it = beanNames.iterator(); it.hasNext();) {
+				String beanName = (String) it.next();
+				if (!this.indexes.containsKey(beanName)) {
+					visit(beanName);
+				}
+			}
+			return this.unitsByBeanName;
+		}
+
+		private void visit(String rootBeanName) {
+			LinkedList path = new LinkedList();
+			path.addFirst(enter(rootBeanName));
+			while (!path.isEmpty()) {
+				Visit current = (Visit) path.getFirst();
+				if (current.dependencies.hasNext()) {
+					String dependency = (String) current.dependencies.next();
+					Integer dependencyIndex = (Integer) this.indexes.get(dependency);
+					if (dependencyIndex == null) {
+						path.addFirst(enter(dependency));
+					}
+					else if (this.onStack.contains(dependency)) {
+						current.lowLink = Math.min(current.lowLink, dependencyIndex.intValue());
+					}
+				}
+				else {
+					path.removeFirst();
+					if (current.lowLink == current.index) {
+						collectUnit(current.beanName);
+					}
+					if (!path.isEmpty()) {
+						Visit parent = (Visit) path.getFirst();
+						parent.lowLink = Math.min(parent.lowLink, current.lowLink);
+					}
+				}
+			}
+		}
+
+		private Visit enter(String beanName) {
+			Visit visit = new Visit(beanName, this.index++, ((Set) this.dependencies.get(beanName)).iterator());
+			this.indexes.put(beanName, new Integer(visit.index));
+			this.stack.addFirst(beanName);
+			this.onStack.add(beanName);
+			return visit;
+		}
+
+		private void collectUnit(String rootBeanName) {
+			CreationUnit unit = new CreationUnit();
+			String member;
+			do {
+				member = (String) this.stack.removeFirst();
+				this.onStack.remove(member);
+				unit.beanNames.add(member);
+				this.unitsByBeanName.put(member, unit);
+			}
+			while (!member.equals(rootBeanName));
+			if (unit.beanNames.size() > 1) {
+				Collections.sort(unit.beanNames, new Comparator() {
+					public int compare(Object o1, Object o2) {
+						return ((Integer) registrationOrder.get(o1)).compareTo((Integer) registrationOrder.get(o2));
+					}
+				});
+			}
+		}
+	}
+
+
+	/**
+	 * State of a single bean in UnitBuilder's depth-first traversal.
+	 */
+	private static class Visit {
+
+		private final String beanName;
+
+		private final int index;
+
+		private final Iterator dependencies;
+
+		private int lowLink;
+
+		public Visit(String beanName, int index, Iterator dependencies) {
+			this.beanName = beanName;
+			this.index = index;
+			this.dependencies = dependencies;
+			this.lowLink = index;
+		}
+	}
+
+
+	/**
+	 * BeanDefinitionVisitor that collects the names of all referenced beans,
+	 * including references from inner beans, leaving the definition untouched.
+	 */
+	private static class BeanReferenceCollector extends BeanDefinitionVisitor {
+
+		private final Set referencedNames;
+
+		public BeanReferenceCollector(Set referencedNames) {
+			this.referencedNames = referencedNames;
+		}
+
+		protected Object resolveValue(Object value) {
+			if (value instanceof RuntimeBeanReference) {
+				this.referencedNames.add(((RuntimeBeanReference) value).getBeanName());
+				return value;
+			}
+			if (value instanceof TypedStringValue || value instanceof String) {
+				return value;
+			}
+			return super.resolveValue(value);
+		}
+
+		protected String resolveStringValue(String strVal) {
+			return strVal;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,16 @@
 
 package org.springframework.context.event;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.CollectionFactory;
 
@@ -32,6 +38,12 @@ import org.springframework.core.CollectionFactory;
  * ApplicationListener objects can be overridden through the "collectionClass"
  * bean property.
  *
+ * <p>The listeners that are interested in a specific event can be retrieved
+ * through {@link #getApplicationListeners(ApplicationEvent)}: {@link SmartApplicationListener
+ * SmartApplicationListeners} get filtered by their supported event and source types,
+ * with the resulting listener lists cached per event type and source type.
+ * The cache gets reset whenever a listener is added or removed.
+ *
  * <p>Implementing ApplicationEventMulticaster's actual {@link #multicastEvent} method
  * is left to subclasses. {@link SimpleApplicationEventMulticaster} simply multicasts
  * all events to all registered listeners, invoking them in the calling thread.
@@ -48,6 +60,12 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 	/** Collection of ApplicationListeners */
 	private Collection applicationListeners = new LinkedHashSet();
 
+	/** ListenerCacheKey --> List of ApplicationListeners */
+	private final Map listenerCache = CollectionFactory.createConcurrentMapIfPossible(16);
+
+	/** Guards the listener Collection for cache population */
+	private final Object retrievalMutex = new Object();
+
 
 	/**
 	 * Set whether this multicaster should expect concurrent updates at runtime
@@ -57,9 +75,12 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 	 */
 	public void setConcurrentUpdates(boolean concurrent) {
 		Collection newColl = (concurrent ? CollectionFactory.createCopyOnWriteSet() : new LinkedHashSet());
-		// Add all previously registered listeners (usually none).
-		newColl.addAll(this.applicationListeners);
-		this.applicationListeners = newColl;
+		synchronized (this.retrievalMutex) {
+			// Add all previously registered listeners (usually none).
+			newColl.addAll(this.applicationListeners);
+			this.applicationListeners = newColl;
+			this.listenerCache.clear();
+		}
 	}
 
 	/**
@@ -79,22 +100,34 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 		}
 		// Create desired collection instance.
 		Collection newColl = (Collection) BeanUtils.instantiateClass(collectionClass);
-		// Add all previously registered listeners (usually none).
-		newColl.addAll(this.applicationListeners);
-		this.applicationListeners = newColl;
+		synchronized (this.retrievalMutex) {
+			// Add all previously registered listeners (usually none).
+			newColl.addAll(this.applicationListeners);
+			this.applicationListeners = newColl;
+			this.listenerCache.clear();
+		}
 	}
 
 
 	public void addApplicationListener(ApplicationListener listener) {
-		this.applicationListeners.add(listener);
+		synchronized (this.retrievalMutex) {
+			this.applicationListeners.add(listener);
+			this.listenerCache.clear();
+		}
 	}
 
 	public void removeApplicationListener(ApplicationListener listener) {
-		this.applicationListeners.remove(listener);
+		synchronized (this.retrievalMutex) {
+			this.applicationListeners.remove(listener);
+			this.listenerCache.clear();
+		}
 	}
 
 	public void removeAllListeners() {
-		this.applicationListeners.clear();
+		synchronized (this.retrievalMutex) {
+			this.applicationListeners.clear();
+			this.listenerCache.clear();
+		}
 	}
 
 	/**
@@ -109,4 +142,85 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 		return this.applicationListeners;
 	}
 
+	/**
+	 * Return the ApplicationListeners that may be interested in the given event,
+	 * in registration order. Listeners not interested according to their
+	 * {@link SmartApplicationListener} declarations are filtered out already.
+	 * <p>The result is cached per event type and source type.
+	 * @param event the event to be propagated
+	 * @return an unmodifiable Collection of ApplicationListeners
+	 * @since 2.5.7
+	 * @see #supportsEvent
+	 */
+	protected Collection getApplicationListeners(ApplicationEvent event) {
+		Class eventType = event.getClass();
+		Class sourceType = event.getSource().getClass();
+		ListenerCacheKey cacheKey = new ListenerCacheKey(eventType, sourceType);
+		Collection listeners = (Collection) this.listenerCache.get(cacheKey);
+		if (listeners == null) {
+			synchronized (this.retrievalMutex) {
+				List eligibleListeners = new ArrayList();
+				for (Iterator it = this.applicationListeners.iterator(); it.hasNext();) {
+					ApplicationListener listener = (ApplicationListener) it.next();
+					if (supportsEvent(listener, eventType, sourceType)) {
+						eligibleListeners.add(listener);
+					}
+				}
+				listeners = Collections.unmodifiableList(eligibleListeners);
+				this.listenerCache.put(cacheKey, listeners);
+			}
+		}
+		return listeners;
+	}
+
+	/**
+	 * Determine whether the given listener supports the given event.
+	 * <p>The default implementation checks {@link SmartApplicationListener}
+	 * declarations, considering all other listeners as interested in any event.
+	 * @param listener the target listener to check
+	 * @param eventType the event type to check against
+	 * @param sourceType the source type to check against
+	 * @return whether the given listener should be included in the
+	 * candidates for the given event type
+	 * @since 2.5.7
+	 */
+	protected boolean supportsEvent(ApplicationListener listener, Class eventType, Class sourceType) {
+		if (listener instanceof SmartApplicationListener) {
+			SmartApplicationListener smartListener = (SmartApplicationListener) listener;
+			return (smartListener.supportsEventType(eventType) && smartListener.supportsSourceType(sourceType));
+		}
+		return true;
+	}
+
+
+	/**
+	 * Cache key for listener lists, based on event type and source type.
+	 */
+	private static class ListenerCacheKey {
+
+		private final Class eventType;
+
+		private final Class sourceType;
+
+		public ListenerCacheKey(Class eventType, Class sourceType) {
+			this.eventType = eventType;
+			this.sourceType = sourceType;
+		}
+
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ListenerCacheKey)) {
+				return false;
+			}
+			ListenerCacheKey otherKey = (ListenerCacheKey) other;
+			return (this.eventType == otherKey.eventType && this.sourceType == otherKey.sourceType);
+		}
+
+		public int hashCode() {
+			return this.eventType.hashCode() * 29 + this.sourceType.hashCode();
+		}
+	}
+
 }
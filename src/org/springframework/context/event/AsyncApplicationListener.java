@@ -0,0 +1,35 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Marker interface for {@link ApplicationListener ApplicationListeners}
+ * that allow for being invoked asynchronously, i.e. that neither depend on
+ * the publisher's thread context nor on the publisher waiting for them.
+ *
+ * <p>{@link SimpleApplicationEventMulticaster} dispatches events to such
+ * listeners through its "asyncTaskExecutor", if specified. Other listeners
+ * are always invoked through the multicaster's standard TaskExecutor.
+ *
+ * @since 2.5.7
+ * @see SimpleApplicationEventMulticaster#setAsyncTaskExecutor
+ */
+public interface AsyncApplicationListener extends ApplicationListener {
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 
 /**
  * Simple implementation of the {@link ApplicationEventMulticaster} interface.
@@ -29,22 +30,56 @@ import org.springframework.core.task.TaskExecutor;
  * <p>Multicasts all events to all registered listeners, leaving it up to
  * the listeners to ignore events that they are not interested in.
  * Listeners will usually perform corresponding <code>instanceof</code>
- * checks on the passed-in event object.
+ * checks on the passed-in event object. {@link SmartApplicationListener
+ * SmartApplicationListeners} are only invoked for the event types and
+ * source types that they declare to support.
  *
  * <p>By default, all listeners are invoked in the calling thread.
  * This allows the danger of a rogue listener blocking the entire application,
  * but adds minimal overhead. Specify an alternative TaskExecutor to have
  * listeners executed in different threads, for example from a thread pool.
+ * Alternatively, specify an "asyncTaskExecutor" to only dispatch events
+ * to {@link AsyncApplicationListener AsyncApplicationListeners} asynchronously,
+ * bounded by a maximum number of pending asynchronous events.
+ *
+ * <p>Keeps dispatch metrics: the number of multicast events and the time
+ * spent in multicasting them, as well as the number of asynchronous dispatches,
+ * the time that events waited for asynchronous execution, and the number of
+ * events that had to be processed synchronously due to back-pressure.
  *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @see #setTaskExecutor
+ * @see #setAsyncTaskExecutor
  * @see #setConcurrentUpdates
  */
 public class SimpleApplicationEventMulticaster extends AbstractApplicationEventMulticaster {
 
 	private TaskExecutor taskExecutor = new SyncTaskExecutor();
 
+	private TaskExecutor asyncTaskExecutor;
+
+	private int maxPendingAsyncEvents = 1000;
+
+	private int pendingAsyncEvents = 0;
+
+	private long eventCount = 0;
+
+	private long totalDispatchTime = 0;
+
+	private long maxDispatchTime = 0;
+
+	private long asyncDispatchCount = 0;
+
+	private long totalAsyncWaitTime = 0;
+
+	private long maxAsyncWaitTime = 0;
+
+	private long callerRunsCount = 0;
+
+	/** Guards pending event count and metrics */
+	private final Object metricsMonitor = new Object();
+
 
 	/**
 	 * Set the TaskExecutor to execute application listeners with.
@@ -69,16 +104,213 @@ public class SimpleApplicationEventMulticaster extends AbstractApplicationEventM
 		return this.taskExecutor;
 	}
 
+	/**
+	 * Set the TaskExecutor to dispatch events to {@link AsyncApplicationListener
+	 * AsyncApplicationListeners} with. All other listeners will still be invoked
+	 * through the standard {@link #setTaskExecutor TaskExecutor}.
+	 * <p>Default is none, invoking AsyncApplicationListeners just like any
+	 * other listener. Specify a thread pool here, for example a
+	 * {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor}.
+	 * @see #setMaxPendingAsyncEvents
+	 */
+	public void setAsyncTaskExecutor(TaskExecutor asyncTaskExecutor) {
+		this.asyncTaskExecutor = asyncTaskExecutor;
+	}
+
+	/**
+	 * Return the TaskExecutor for AsyncApplicationListeners, if any.
+	 */
+	protected TaskExecutor getAsyncTaskExecutor() {
+		return this.asyncTaskExecutor;
+	}
+
+	/**
+	 * Set the maximum number of asynchronous listener invocations that may be
+	 * pending at any time. Default is 1000.
+	 * <p>Once that limit is reached, further events will be processed in the
+	 * publishing thread, slowing the publisher down until asynchronous
+	 * processing caught up (back-pressure). The same applies to events that
+	 * the "asyncTaskExecutor" rejects.
+	 * @see #setAsyncTaskExecutor
+	 */
+	public void setMaxPendingAsyncEvents(int maxPendingAsyncEvents) {
+		this.maxPendingAsyncEvents = maxPendingAsyncEvents;
+	}
+
+	/**
+	 * Return the maximum number of pending asynchronous listener invocations.
+	 */
+	public int getMaxPendingAsyncEvents() {
+		return this.maxPendingAsyncEvents;
+	}
+
 
 	public void multicastEvent(final ApplicationEvent event) {
-		for (Iterator it = getApplicationListeners().iterator(); it.hasNext();) {
+		long startTime = System.currentTimeMillis();
+		for (Iterator it = getApplicationListeners(event).iterator(); it.hasNext();) {
 			final ApplicationListener listener = (ApplicationListener) it.next();
-			getTaskExecutor().execute(new Runnable() {
+			if (this.asyncTaskExecutor != null && listener instanceof AsyncApplicationListener) {
+				dispatchAsync(listener, event);
+			}
+			else {
+				getTaskExecutor().execute(new Runnable() {
+					public void run() {
+						listener.onApplicationEvent(event);
+					}
+				});
+			}
+		}
+		long dispatchTime = System.currentTimeMillis() - startTime;
+		synchronized (this.metricsMonitor) {
+			this.eventCount++;
+			this.totalDispatchTime += dispatchTime;
+			if (dispatchTime > this.maxDispatchTime) {
+				this.maxDispatchTime = dispatchTime;
+			}
+		}
+	}
+
+	/**
+	 * Dispatch the given event to the given listener through the "asyncTaskExecutor",
+	 * or invoke the listener in the calling thread if the maximum number of pending
+	 * asynchronous events has been reached or if the executor rejects the task.
+	 * @param listener the AsyncApplicationListener to invoke
+	 * @param event the event to propagate
+	 */
+	private void dispatchAsync(final ApplicationListener listener, final ApplicationEvent event) {
+		boolean callerRuns = false;
+		synchronized (this.metricsMonitor) {
+			if (this.pendingAsyncEvents >= this.maxPendingAsyncEvents) {
+				this.callerRunsCount++;
+				callerRuns = true;
+			}
+			else {
+				this.pendingAsyncEvents++;
+			}
+		}
+		if (callerRuns) {
+			listener.onApplicationEvent(event);
+			return;
+		}
+		final long submitTime = System.currentTimeMillis();
+		try {
+			this.asyncTaskExecutor.execute(new Runnable() {
 				public void run() {
-					listener.onApplicationEvent(event);
+					long waitTime = System.currentTimeMillis() - submitTime;
+					synchronized (metricsMonitor) {
+						asyncDispatchCount++;
+						totalAsyncWaitTime += waitTime;
+						if (waitTime > maxAsyncWaitTime) {
+							maxAsyncWaitTime = waitTime;
+						}
+					}
+					try {
+						listener.onApplicationEvent(event);
+					}
+					finally {
+						synchronized (metricsMonitor) {
+							pendingAsyncEvents--;
+						}
+					}
 				}
 			});
 		}
+		catch (TaskRejectedException ex) {
+			synchronized (this.metricsMonitor) {
+				this.pendingAsyncEvents--;
+				this.callerRunsCount++;
+			}
+			listener.onApplicationEvent(event);
+		}
+	}
+
+
+	/**
+	 * Return the number of events multicast so far.
+	 */
+	public long getEventCount() {
+		synchronized (this.metricsMonitor) {
+			return this.eventCount;
+		}
+	}
+
+	/**
+	 * Return the total time spent in multicasting events, in milliseconds.
+	 * This includes synchronous listener invocations but not asynchronous ones.
+	 */
+	public long getTotalDispatchTime() {
+		synchronized (this.metricsMonitor) {
+			return this.totalDispatchTime;
+		}
+	}
+
+	/**
+	 * Return the maximum time spent in multicasting a single event, in milliseconds.
+	 */
+	public long getMaxDispatchTime() {
+		synchronized (this.metricsMonitor) {
+			return this.maxDispatchTime;
+		}
+	}
+
+	/**
+	 * Return the average time spent in multicasting an event, in milliseconds.
+	 */
+	public double getAverageDispatchTime() {
+		synchronized (this.metricsMonitor) {
+			return (this.eventCount > 0 ? (double) this.totalDispatchTime / this.eventCount : 0);
+		}
+	}
+
+	/**
+	 * Return the number of asynchronous listener invocations started so far.
+	 */
+	public long getAsyncDispatchCount() {
+		synchronized (this.metricsMonitor) {
+			return this.asyncDispatchCount;
+		}
+	}
+
+	/**
+	 * Return the average time that asynchronous listener invocations waited
+	 * for execution, in milliseconds.
+	 */
+	public double getAverageAsyncWaitTime() {
+		synchronized (this.metricsMonitor) {
+			return (this.asyncDispatchCount > 0 ? (double) this.totalAsyncWaitTime / this.asyncDispatchCount : 0);
+		}
+	}
+
+	/**
+	 * Return the maximum time that an asynchronous listener invocation waited
+	 * for execution, in milliseconds.
+	 */
+	public long getMaxAsyncWaitTime() {
+		synchronized (this.metricsMonitor) {
+			return this.maxAsyncWaitTime;
+		}
+	}
+
+	/**
+	 * Return the number of asynchronous listener invocations that are currently
+	 * pending, i.e. submitted but not completed yet.
+	 */
+	public int getPendingAsyncEventCount() {
+		synchronized (this.metricsMonitor) {
+			return this.pendingAsyncEvents;
+		}
+	}
+
+	/**
+	 * Return the number of AsyncApplicationListener invocations that have been
+	 * performed in the publishing thread, due to the maximum number of pending
+	 * asynchronous events being reached or due to the executor rejecting them.
+	 * @see #setMaxPendingAsyncEvents
+	 */
+	public long getCallerRunsCount() {
+		synchronized (this.metricsMonitor) {
+			return this.callerRunsCount;
+		}
 	}
 
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Extended variant of the standard {@link ApplicationListener} interface,
+ * exposing the types of events and event sources that the listener accepts.
+ *
+ * <p>Allows an {@link AbstractApplicationEventMulticaster} to determine the
+ * listeners for a specific type of event upfront, caching the result per
+ * event type and source type, instead of invoking every listener for every
+ * event. Plain ApplicationListeners are considered as accepting any event.
+ *
+ * @since 2.5.7
+ * @see AbstractApplicationEventMulticaster#getApplicationListeners(org.springframework.context.ApplicationEvent)
+ */
+public interface SmartApplicationListener extends ApplicationListener {
+
+	/**
+	 * Determine whether this listener actually supports the given event type.
+	 * @param eventType the event type (a subclass of
+	 * {@link org.springframework.context.ApplicationEvent})
+	 * @return whether this listener may need to process events of the given type
+	 */
+	boolean supportsEventType(Class eventType);
+
+	/**
+	 * Determine whether this listener actually supports the given source type.
+	 * @param sourceType the type of the event source
+	 * @return whether this listener may need to process events from sources
+	 * of the given type
+	 */
+	boolean supportsSourceType(Class sourceType);
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -27,10 +27,15 @@ import org.springframework.context.ApplicationListener;
  * <p>Can also be used as base class, overriding the {@link #onApplicationEventInternal}
  * method instead of specifying a delegate listener.
  *
+ * <p>Exposes the specified source to the event multicaster as the only
+ * supported source type, allowing the multicaster to skip this listener for
+ * events from other types of sources. Supported event types are determined
+ * by the delegate listener, if it is a {@link SmartApplicationListener}.
+ *
  * @author Juergen Hoeller
  * @since 2.0.5
  */
-public class SourceFilteringListener implements ApplicationListener {
+public class SourceFilteringListener implements SmartApplicationListener {
 
 	private final Object source;
 
@@ -67,6 +72,15 @@ public class SourceFilteringListener implements ApplicationListener {
 		}
 	}
 
+	public boolean supportsEventType(Class eventType) {
+		return (!(this.delegate instanceof SmartApplicationListener) ||
+				((SmartApplicationListener) this.delegate).supportsEventType(eventType));
+	}
+
+	public boolean supportsSourceType(Class sourceType) {
+		return (sourceType != null && sourceType.isInstance(this.source));
+	}
+
 	/**
 	 * Actually process the event, after having filtered according to the
 	 * desired event source already.
@@ -63,6 +63,8 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 
 	private Boolean allowCircularReferences;
 
+	private Boolean concurrentSingletonCreation;
+
 	/** Bean factory for this context */
 	private DefaultListableBeanFactory beanFactory;
 
@@ -106,6 +108,16 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 		this.allowCircularReferences = Boolean.valueOf(allowCircularReferences);
 	}
 
+	/**
+	 * Set whether singleton creation should be locked per bean name, allowing
+	 * unrelated singletons to be created in parallel.
+	 * <p>Default is "false", serializing singleton creation on a factory-wide mutex.
+	 * @see org.springframework.beans.factory.support.DefaultListableBeanFactory#setConcurrentSingletonCreation
+	 */
+	public void setConcurrentSingletonCreation(boolean concurrentSingletonCreation) {
+		this.concurrentSingletonCreation = Boolean.valueOf(concurrentSingletonCreation);
+	}
+
 
 	/**
 	 * This implementation performs an actual refresh of this context's underlying
@@ -180,13 +192,15 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 	 * Customize the internal bean factory used by this context.
 	 * Called for each {@link #refresh()} attempt.
 	 * <p>The default implementation applies this context's
-	 * {@link #setAllowBeanDefinitionOverriding "allowBeanDefinitionOverriding"}
-	 * and {@link #setAllowCircularReferences "allowCircularReferences"} settings,
+	 * {@link #setAllowBeanDefinitionOverriding "allowBeanDefinitionOverriding"},
+	 * {@link #setAllowCircularReferences "allowCircularReferences"} and
+	 * {@link #setConcurrentSingletonCreation "concurrentSingletonCreation"} settings,
 	 * if specified. Can be overridden in subclasses to customize any of
 	 * {@link DefaultListableBeanFactory}'s settings.
 	 * @param beanFactory the newly created bean factory for this context
 	 * @see DefaultListableBeanFactory#setAllowBeanDefinitionOverriding
 	 * @see DefaultListableBeanFactory#setAllowCircularReferences
+	 * @see DefaultListableBeanFactory#setConcurrentSingletonCreation
 	 * @see DefaultListableBeanFactory#setAllowRawInjectionDespiteWrapping
 	 * @see DefaultListableBeanFactory#setAllowEagerClassLoading
 	 */
@@ -197,6 +211,9 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 		if (this.allowCircularReferences != null) {
 			beanFactory.setAllowCircularReferences(this.allowCircularReferences.booleanValue());
 		}
+		if (this.concurrentSingletonCreation != null) {
+			beanFactory.setConcurrentSingletonCreation(this.concurrentSingletonCreation.booleanValue());
+		}
 	}
 
 	/**
@@ -136,6 +136,8 @@ public class MethodParameter {
 		this.parameterIndex = original.parameterIndex;
 		this.parameterType = original.parameterType;
 		this.parameterAnnotations = original.parameterAnnotations;
+		this.parameterNameDiscoverer = original.parameterNameDiscoverer;
+		this.parameterName = original.parameterName;
 		this.typeVariableMap = original.typeVariableMap;
 	}
 
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+/**
+ * Strategy interface for recording the duration of framework operations,
+ * for example transaction begin and commit or JDBC statement execution.
+ *
+ * <p>Instrumented components obtain a start time from {@link #startTime()}
+ * before an operation and call {@link #record} after it completed successfully.
+ * The time source is up to the implementation, typically <code>System.nanoTime()</code>
+ * on JDK 1.5+. Implementations need to be thread-safe and should be cheap enough
+ * to be invoked on every operation: in particular, they should avoid locking.
+ *
+ * <p>Operations are identified by a category, such as "transaction.commit" or
+ * "jdbc.execute", and an optional name within that category, such as the
+ * transaction name (usually the fully-qualified method name) or the SQL statement.
+ * Instrumented components declare their categories as constants.
+ *
+ * @since 2.5.7
+ * @see org.springframework.transaction.support.AbstractPlatformTransactionManager#setTimingRecorder
+ * @see org.springframework.jdbc.core.JdbcTemplate#setTimingRecorder
+ */
+public interface TimingRecorder {
+
+	/**
+	 * Return the start time for an operation that is about to begin.
+	 * @return the start time, in an implementation-specific unit
+	 */
+	long startTime();
+
+	/**
+	 * Record the completion of an operation.
+	 * @param category the category of operation (never <code>null</code>)
+	 * @param name the name of the specific operation within the category,
+	 * or <code>null</code> if not known
+	 * @param startTime the start time of the operation, as returned
+	 * by {@link #startTime()}
+	 */
+	void record(String category, String name, long startTime);
+
+}
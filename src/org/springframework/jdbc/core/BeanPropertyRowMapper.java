@@ -16,12 +16,19 @@
 
 package org.springframework.jdbc.core;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyDescriptor;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,12 +37,16 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.MethodInvocationException;
 import org.springframework.beans.NotWritablePropertyException;
 import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.TypeMismatchException;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * {@link RowMapper} implementation that converts a row into a new instance
@@ -54,8 +65,12 @@ import org.springframework.util.Assert;
  * <p>To facilitate mapping between columns and fields that don't have matching names,
  * try using column aliases in the SQL statement like "select fname as first_name from customer".
  *
- * <p>Please note that this class is designed to provide convenience rather than high performance.
- * For best performance consider using a custom RowMapper.
+ * <p>The result set metadata gets evaluated once per ResultSet, building a plan of
+ * column indexes and corresponding bean properties that all rows get mapped with.
+ * Property values that match the property type get applied through direct setter
+ * invocation; only values that require type conversion involve a BeanWrapper.
+ * Nevertheless, this class is designed to provide convenience rather than
+ * high performance. For best performance consider using a custom RowMapper.
  *
  * @author Thomas Risberg
  * @author Juergen Hoeller
@@ -63,6 +78,15 @@ import org.springframework.util.Assert;
  */
 public class BeanPropertyRowMapper implements RowMapper {
 
+	/** Maximum number of distinct column layouts to keep column plans for */
+	private static final int COLUMN_PLAN_CACHE_LIMIT = 16;
+
+	/** Number of slots for the plans of ResultSets in use (a power of two) */
+	private static final int RESULT_SET_PLAN_SLOTS = 32;
+
+	/** Number of slots to check for a ResultSet, starting from its home slot */
+	private static final int RESULT_SET_PLAN_PROBES = 4;
+
 	/** Logger available to subclasses */
 	protected final Log logger = LogFactory.getLog(getClass());
 
@@ -78,6 +102,21 @@ public class BeanPropertyRowMapper implements RowMapper {
 	/** Set of bean properties we provide mapping for */
 	private Set mappedProperties;
 
+	/** Whether a subclass customizes the BeanWrapper used for each row */
+	private final boolean beanWrapperCustomized =
+			!BeanPropertyRowMapper.class.equals(ReflectionUtils.findMethod(
+					getClass(), "initBeanWrapper", new Class[] {BeanWrapper.class}).getDeclaringClass());
+
+	/** Column plans per list of column names, guarded by itself */
+	private final Map columnPlanCache = new ColumnPlanCache(COLUMN_PLAN_CACHE_LIMIT);
+
+	/**
+	 * Column plans for the ResultSets currently being mapped, indexed by the
+	 * identity hash code of the ResultSet. Accessed without locking: Entries
+	 * are immutable, and a stale read merely causes the plan to be looked up again.
+	 */
+	private final ResultSetColumnPlan[] resultSetPlans = new ResultSetColumnPlan[RESULT_SET_PLAN_SLOTS];
+
 
 	/**
 	 * Create a new BeanPropertyRowMapper for bean-style configuration.
@@ -197,37 +236,125 @@ public class BeanPropertyRowMapper implements RowMapper {
 
 	/**
 	 * Extract the values for all columns in the current row.
-	 * <p>Utilizes public setters and result set metadata.
+	 * <p>Utilizes public setters and result set metadata. The metadata gets
+	 * evaluated once per ResultSet, determining a plan that maps each column index
+	 * to the corresponding bean property; subsequent rows are mapped through
+	 * that plan, invoking the setters directly for values that do not require
+	 * type conversion. Plans are cached per list of column names, so ResultSets
+	 * with the same columns share a plan; the plan of a ResultSet is kept for
+	 * its further rows, even when the mapper is used for several ResultSets
+	 * concurrently, without evaluating its metadata again.
 	 * @see java.sql.ResultSetMetaData
 	 */
 	public Object mapRow(ResultSet rs, int rowNumber) throws SQLException {
 		Assert.state(this.mappedClass != null, "Mapped class was not specified");
-		Object mappedObject = BeanUtils.instantiateClass(this.mappedClass);
-		BeanWrapper bw = PropertyAccessorFactory.forBeanPropertyAccess(mappedObject);
-		initBeanWrapper(bw);
+		ColumnPlan plan = getResultSetColumnPlan(rs);
+
+		Object mappedObject = (plan.constructor != null ?
+				BeanUtils.instantiateClass(plan.constructor, null) : BeanUtils.instantiateClass(this.mappedClass));
+		BeanWrapper bw = (this.beanWrapperCustomized ? createBeanWrapper(mappedObject) : null);
+
+		for (int i = 0; i < plan.columns.length; i++) {
+			ColumnMapping column = plan.columns[i];
+			PropertyDescriptor pd = column.propertyDescriptor;
+			Object value = getColumnValue(rs, column.index, pd);
+			if (bw == null && ClassUtils.isAssignableValue(pd.getPropertyType(), value)) {
+				invokeWriteMethod(mappedObject, pd, value);
+			}
+			else {
+				if (bw == null) {
+					bw = createBeanWrapper(mappedObject);
+				}
+				try {
+					bw.setPropertyValue(pd.getName(), value);
+				}
+				catch (NotWritablePropertyException ex) {
+					throw new DataRetrievalFailureException(
+							"Unable to map column " + column.name + " to property " + pd.getName(), ex);
+				}
+			}
+		}
+
+		return mappedObject;
+	}
 
+	/**
+	 * Obtain the plan for mapping the rows of the given ResultSet, reusing
+	 * the plan determined for a previous row of the same ResultSet if possible.
+	 * @param rs the ResultSet to be mapped
+	 * @return the column plan
+	 * @throws SQLException if thrown by the ResultSetMetaData
+	 */
+	private ColumnPlan getResultSetColumnPlan(ResultSet rs) throws SQLException {
+		int homeSlot = System.identityHashCode(rs);
+		int freeSlot = -1;
+		for (int i = 0; i < RESULT_SET_PLAN_PROBES; i++) {
+			int slot = (homeSlot + i) & (RESULT_SET_PLAN_SLOTS - 1);
+			ResultSetColumnPlan resultSetPlan = this.resultSetPlans[slot];
+			if (resultSetPlan == null || resultSetPlan.isReleased()) {
+				if (freeSlot == -1) {
+					freeSlot = slot;
+				}
+			}
+			else if (resultSetPlan.isFor(rs)) {
+				return resultSetPlan.columnPlan;
+			}
+		}
+		ColumnPlan plan = getColumnPlan(rs);
+		int slot = (freeSlot != -1 ? freeSlot : homeSlot & (RESULT_SET_PLAN_SLOTS - 1));
+		this.resultSetPlans[slot] = new ResultSetColumnPlan(rs, plan);
+		return plan;
+	}
+
+	/**
+	 * Obtain the plan for mapping the rows of the given ResultSet:
+	 * a cached plan for the same column names or a newly built one.
+	 * @param rs the ResultSet to be mapped
+	 * @return the column plan
+	 * @throws SQLException if thrown by the ResultSetMetaData
+	 */
+	private ColumnPlan getColumnPlan(ResultSet rs) throws SQLException {
 		ResultSetMetaData rsmd = rs.getMetaData();
 		int columnCount = rsmd.getColumnCount();
+		List columnNames = new ArrayList(columnCount);
+		for (int index = 1; index <= columnCount; index++) {
+			columnNames.add(JdbcUtils.lookupColumnName(rsmd, index).toLowerCase());
+		}
+		ColumnPlan plan = null;
+		synchronized (this.columnPlanCache) {
+			plan = (ColumnPlan) this.columnPlanCache.get(columnNames);
+		}
+		if (plan == null) {
+			plan = buildColumnPlan(columnNames);
+			synchronized (this.columnPlanCache) {
+				this.columnPlanCache.put(columnNames, plan);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * Build the plan for mapping rows with the given columns,
+	 * matching them against the bean properties of the mapped class.
+	 * @param columnNames the lower-case column names, in column index order
+	 * @return the column plan
+	 */
+	private ColumnPlan buildColumnPlan(List columnNames) {
+		List columns = new ArrayList(columnNames.size());
 		Set populatedProperties = (isCheckFullyPopulated() ? new HashSet() : null);
 
-		for (int index = 1; index <= columnCount; index++) {
-			String column = JdbcUtils.lookupColumnName(rsmd, index).toLowerCase();
+		for (int index = 1; index <= columnNames.size(); index++) {
+			String column = (String) columnNames.get(index - 1);
 			PropertyDescriptor pd = (PropertyDescriptor) this.mappedFields.get(column);
 			if (pd != null) {
-				try {
-					Object value = getColumnValue(rs, index, pd);
-					if (logger.isDebugEnabled() && rowNumber == 0) {
-						logger.debug("Mapping column '" + column + "' to property '" +
-								pd.getName() + "' of type " + pd.getPropertyType());
-					}
-					bw.setPropertyValue(pd.getName(), value);
-					if (populatedProperties != null) {
-						populatedProperties.add(pd.getName());
-					}
+				if (logger.isDebugEnabled()) {
+					logger.debug("Mapping column '" + column + "' to property '" +
+							pd.getName() + "' of type " + pd.getPropertyType());
 				}
-				catch (NotWritablePropertyException ex) {
-					throw new DataRetrievalFailureException(
-							"Unable to map column " + column + " to property " + pd.getName(), ex);
+				ReflectionUtils.makeAccessible(pd.getWriteMethod());
+				columns.add(new ColumnMapping(index, column, pd));
+				if (populatedProperties != null) {
+					populatedProperties.add(pd.getName());
 				}
 			}
 		}
@@ -237,13 +364,57 @@ public class BeanPropertyRowMapper implements RowMapper {
 					"necessary to populate object of class [" + this.mappedClass + "]: " + this.mappedProperties);
 		}
 
-		return mappedObject;
+		Constructor constructor = null;
+		if (!this.mappedClass.isInterface()) {
+			try {
+				constructor = this.mappedClass.getDeclaredConstructor((Class[]) null);
+			}
+			catch (NoSuchMethodException ex) {
+				// BeanUtils will throw a corresponding exception for each row
+			}
+		}
+		return new ColumnPlan(constructor, (ColumnMapping[]) columns.toArray(new ColumnMapping[columns.size()]));
+	}
+
+	/**
+	 * Set the given value on the given mapped object, invoking the setter
+	 * directly since the value is known to be assignable to the property type.
+	 * Exceptions are translated the same way as a BeanWrapper would do.
+	 */
+	private void invokeWriteMethod(Object mappedObject, PropertyDescriptor pd, Object value) {
+		try {
+			pd.getWriteMethod().invoke(mappedObject, new Object[] {value});
+		}
+		catch (InvocationTargetException ex) {
+			PropertyChangeEvent pce = new PropertyChangeEvent(mappedObject, pd.getName(), null, value);
+			if (ex.getTargetException() instanceof ClassCastException) {
+				throw new TypeMismatchException(pce, pd.getPropertyType(), ex.getTargetException());
+			}
+			throw new MethodInvocationException(pce, ex.getTargetException());
+		}
+		catch (IllegalAccessException ex) {
+			throw new MethodInvocationException(
+					new PropertyChangeEvent(mappedObject, pd.getName(), null, value), ex);
+		}
+	}
+
+	/**
+	 * Create a BeanWrapper for the given mapped object,
+	 * initialized through {@link #initBeanWrapper}.
+	 */
+	private BeanWrapper createBeanWrapper(Object mappedObject) {
+		BeanWrapper bw = PropertyAccessorFactory.forBeanPropertyAccess(mappedObject);
+		initBeanWrapper(bw);
+		return bw;
 	}
 
 	/**
 	 * Initialize the given BeanWrapper to be used for row mapping.
 	 * To be called for each row.
 	 * <p>The default implementation is empty. Can be overridden in subclasses.
+	 * Note that if this method is overridden, all property values will be
+	 * applied through a BeanWrapper, whereas by default a BeanWrapper is only
+	 * used for values that require type conversion.
 	 * @param bw the BeanWrapper to initialize
 	 */
 	protected void initBeanWrapper(BeanWrapper bw) {
@@ -267,4 +438,84 @@ public class BeanPropertyRowMapper implements RowMapper {
 		return JdbcUtils.getResultSetValue(rs, index, pd.getPropertyType());
 	}
 
+
+	/**
+	 * Plan for mapping rows with a specific list of columns.
+	 */
+	private static class ColumnPlan {
+
+		public final Constructor constructor;
+
+		public final ColumnMapping[] columns;
+
+		public ColumnPlan(Constructor constructor, ColumnMapping[] columns) {
+			this.constructor = constructor;
+			this.columns = columns;
+		}
+	}
+
+
+	/**
+	 * Column plan for a specific ResultSet. Holds the ResultSet through
+	 * a weak reference, in order to not keep it reachable from this
+	 * mapper after processing.
+	 */
+	private static class ResultSetColumnPlan {
+
+		private final WeakReference resultSet;
+
+		public final ColumnPlan columnPlan;
+
+		public ResultSetColumnPlan(ResultSet resultSet, ColumnPlan columnPlan) {
+			this.resultSet = new WeakReference(resultSet);
+			this.columnPlan = columnPlan;
+		}
+
+		public boolean isFor(ResultSet rs) {
+			return (this.resultSet.get() == rs);
+		}
+
+		public boolean isReleased() {
+			return (this.resultSet.get() == null);
+		}
+	}
+
+
+	/**
+	 * Access-ordered LinkedHashMap that evicts its eldest
+	 * column plan once its capacity is exceeded.
+	 */
+	private static class ColumnPlanCache extends LinkedHashMap {
+
+		private final int capacity;
+
+		public ColumnPlanCache(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		protected boolean removeEldestEntry(Map.Entry eldest) {
+			return (size() > this.capacity);
+		}
+	}
+
+
+	/**
+	 * Mapping of a column index to a bean property.
+	 */
+	private static class ColumnMapping {
+
+		public final int index;
+
+		public final String name;
+
+		public final PropertyDescriptor propertyDescriptor;
+
+		public ColumnMapping(int index, String name, PropertyDescriptor propertyDescriptor) {
+			this.index = index;
+			this.name = name;
+			this.propertyDescriptor = propertyDescriptor;
+		}
+	}
+
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Batch update callback interface used by the chunked batch update methods
+ * of the {@link JdbcTemplate} class, setting values on a PreparedStatement
+ * for each item of an arbitrary source of batch items.
+ *
+ * <p>In contrast to {@link BatchPreparedStatementSetter}, implementations
+ * do not need to know the size of the batch upfront, and they do not need
+ * to provide random access to the batch items.
+ *
+ * <p>Implementations <i>do not</i> need to concern themselves with SQLExceptions
+ * that may be thrown from operations they attempt. The JdbcTemplate class will
+ * catch and handle SQLExceptions appropriately. Implementations need to be
+ * thread-safe if used with a JdbcTemplate that executes chunks in parallel.
+ *
+ * @since 2.5.7
+ * @see JdbcTemplate#batchUpdate(String, java.util.Iterator, int, ItemPreparedStatementSetter)
+ * @see JdbcTemplate#setBatchUpdateExecutor
+ */
+public interface ItemPreparedStatementSetter {
+
+	/**
+	 * Set parameter values on the given PreparedStatement for the given batch item.
+	 * @param ps the PreparedStatement to invoke setter methods on
+	 * @param item the current batch item
+	 * @throws SQLException if a SQLException is encountered
+	 * (i.e. there is no need to catch SQLException)
+	 */
+	void setValues(PreparedStatement ps, Object item) throws SQLException;
+
+}
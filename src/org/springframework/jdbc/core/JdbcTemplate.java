@@ -30,13 +30,18 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import javax.sql.DataSource;
 
 import org.springframework.core.CollectionFactory;
+import org.springframework.core.metrics.TimingRecorder;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.support.DataAccessUtils;
@@ -48,6 +53,7 @@ import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.jdbc.support.nativejdbc.NativeJdbcExtractor;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
 /**
@@ -99,6 +105,24 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 	private static final String RETURN_UPDATE_COUNT_PREFIX = "#update-count-";
 
+	/**
+	 * Timing category for creating a PreparedStatement or CallableStatement.
+	 * @see #setTimingRecorder
+	 */
+	public static final String TIMING_CATEGORY_PREPARE = "jdbc.prepare";
+
+	/**
+	 * Timing category for executing a statement against the database.
+	 * @see #setTimingRecorder
+	 */
+	public static final String TIMING_CATEGORY_EXECUTE = "jdbc.execute";
+
+	/**
+	 * Timing category for extracting results from a ResultSet or CallableStatement.
+	 * @see #setTimingRecorder
+	 */
+	public static final String TIMING_CATEGORY_MAPPING = "jdbc.mapping";
+
 
 	/** Custom NativeJdbcExtractor */
 	private NativeJdbcExtractor nativeJdbcExtractor;
@@ -146,6 +170,18 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 */
 	private boolean resultsMapCaseInsensitive = false;
 
+	/** TimingRecorder for statement and Connection timings, if any */
+	private TimingRecorder timingRecorder;
+
+	/** TaskExecutor for executing the chunks of a batch update in parallel, if any */
+	private TaskExecutor batchUpdateExecutor;
+
+	/** The maximum number of batch update chunks to execute in parallel */
+	private int batchUpdateConcurrency = Runtime.getRuntime().availableProcessors();
+
+	/** If this variable is set to true, queryForRowSet will return CompactSqlRowSets */
+	private boolean compactRowSets = false;
+
 
 	/**
 	 * Construct a new JdbcTemplate for bean usage.
@@ -320,6 +356,98 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return this.resultsMapCaseInsensitive;
 	}
 
+	/**
+	 * Set a TimingRecorder to record the durations of JDBC operations with,
+	 * passing in the SQL statement as operation name (if known).
+	 * <p>Records statement creation, statement execution and result extraction
+	 * for the operations implemented by this class, under the "TIMING_CATEGORY_*"
+	 * categories declared here, as well as the time spent fetching Connections
+	 * from the DataSource (see {@link DataSourceUtils#TIMING_CATEGORY_CONNECTION}).
+	 * Execution and extraction within custom StatementCallbacks and
+	 * PreparedStatementCallbacks are not recorded.
+	 * <p>Default is none.
+	 * @see #TIMING_CATEGORY_PREPARE
+	 * @see #TIMING_CATEGORY_EXECUTE
+	 * @see #TIMING_CATEGORY_MAPPING
+	 */
+	public void setTimingRecorder(TimingRecorder timingRecorder) {
+		this.timingRecorder = timingRecorder;
+	}
+
+	/**
+	 * Return the TimingRecorder to record the durations of JDBC operations with, if any.
+	 */
+	public TimingRecorder getTimingRecorder() {
+		return this.timingRecorder;
+	}
+
+	/**
+	 * Set a TaskExecutor for executing the chunks of a chunked batch update
+	 * in parallel, each on its own JDBC Connection.
+	 * <p>Only applies to chunked batch updates that run outside of a transaction,
+	 * i.e. without a Connection bound to the current thread; within a transaction,
+	 * all chunks get executed on the transactional Connection in sequence.
+	 * Note that in parallel mode, each chunk gets committed on its own:
+	 * In case of a failure, other chunks may have been applied already.
+	 * <p>Default is none, executing all chunks in sequence on the same Connection.
+	 * The TaskExecutor's thread pool should allow for at least as many concurrent
+	 * tasks as specified through {@link #setBatchUpdateConcurrency}, and the
+	 * DataSource's connection pool should provide a corresponding number of
+	 * Connections. Rejected tasks will be executed in the calling thread.
+	 * @see #batchUpdate(String, java.util.Iterator, int, ItemPreparedStatementSetter)
+	 */
+	public void setBatchUpdateExecutor(TaskExecutor batchUpdateExecutor) {
+		this.batchUpdateExecutor = batchUpdateExecutor;
+	}
+
+	/**
+	 * Return the TaskExecutor for executing the chunks of a batch update in parallel, if any.
+	 */
+	public TaskExecutor getBatchUpdateExecutor() {
+		return this.batchUpdateExecutor;
+	}
+
+	/**
+	 * Set the maximum number of chunks of a batch update to execute in parallel,
+	 * which is also the maximum number of chunks held in memory at any time.
+	 * Only applies in case of a {@link #setBatchUpdateExecutor "batchUpdateExecutor"}.
+	 * <p>Default is the number of available processors.
+	 */
+	public void setBatchUpdateConcurrency(int batchUpdateConcurrency) {
+		Assert.isTrue(batchUpdateConcurrency > 0, "Batch update concurrency must be greater than 0");
+		this.batchUpdateConcurrency = batchUpdateConcurrency;
+	}
+
+	/**
+	 * Return the maximum number of chunks of a batch update to execute in parallel.
+	 */
+	public int getBatchUpdateConcurrency() {
+		return this.batchUpdateConcurrency;
+	}
+
+	/**
+	 * Set whether the <code>queryForRowSet</code> methods should return a
+	 * {@link org.springframework.jdbc.support.rowset.CompactSqlRowSet},
+	 * holding the data column by column with primitive arrays for numeric values
+	 * and dictionary-encoded Strings, instead of wrapping a JDBC CachedRowSet.
+	 * <p>Default is "false", for compatibility with code that relies on the
+	 * CachedRowSet underneath. Switch this flag to "true" for a considerably
+	 * lower memory footprint of disconnected results.
+	 * @see #queryForRowSet(String)
+	 * @see SqlRowSetResultSetExtractor#SqlRowSetResultSetExtractor(boolean)
+	 */
+	public void setCompactRowSets(boolean compactRowSets) {
+		this.compactRowSets = compactRowSets;
+	}
+
+	/**
+	 * Return whether the <code>queryForRowSet</code> methods return
+	 * CompactSqlRowSets instead of wrapping a JDBC CachedRowSet.
+	 */
+	public boolean isCompactRowSets() {
+		return this.compactRowSets;
+	}
+
 
 	//-------------------------------------------------------------------------
 	// Methods dealing with a plain java.sql.Connection
@@ -328,7 +456,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public Object execute(ConnectionCallback action) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 
-		Connection con = DataSourceUtils.getConnection(getDataSource());
+		Connection con = DataSourceUtils.getConnection(getDataSource(), this.timingRecorder);
 		try {
 			Connection conToUse = con;
 			if (this.nativeJdbcExtractor != null) {
@@ -379,7 +507,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	public Object execute(StatementCallback action) throws DataAccessException {
 		Assert.notNull(action, "Callback object must not be null");
 
-		Connection con = DataSourceUtils.getConnection(getDataSource());
+		Connection con = DataSourceUtils.getConnection(getDataSource(), this.timingRecorder);
 		Statement stmt = null;
 		try {
 			Connection conToUse = con;
@@ -419,7 +547,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 		class ExecuteStatementCallback implements StatementCallback, SqlProvider {
 			public Object doInStatement(Statement stmt) throws SQLException {
+				long startTime = startTiming();
 				stmt.execute(sql);
+				recordTiming(TIMING_CATEGORY_EXECUTE, sql, startTime);
 				return null;
 			}
 			public String getSql() {
@@ -440,12 +570,17 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			public Object doInStatement(Statement stmt) throws SQLException {
 				ResultSet rs = null;
 				try {
+					long startTime = startTiming();
 					rs = stmt.executeQuery(sql);
+					recordTiming(TIMING_CATEGORY_EXECUTE, sql, startTime);
 					ResultSet rsToUse = rs;
 					if (nativeJdbcExtractor != null) {
 						rsToUse = nativeJdbcExtractor.getNativeResultSet(rs);
 					}
-					return rse.extractData(rsToUse);
+					startTime = startTiming();
+					Object result = rse.extractData(rsToUse);
+					recordTiming(TIMING_CATEGORY_MAPPING, sql, startTime);
+					return result;
 				}
 				finally {
 					JdbcUtils.closeResultSet(rs);
@@ -498,7 +633,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 	public SqlRowSet queryForRowSet(String sql) throws DataAccessException {
-		return (SqlRowSet) query(sql, new SqlRowSetResultSetExtractor());
+		return (SqlRowSet) query(sql, new SqlRowSetResultSetExtractor(this.compactRowSets));
 	}
 
 	public int update(final String sql) throws DataAccessException {
@@ -509,7 +644,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 		class UpdateStatementCallback implements StatementCallback, SqlProvider {
 			public Object doInStatement(Statement stmt) throws SQLException {
+				long startTime = startTiming();
 				int rows = stmt.executeUpdate(sql);
+				recordTiming(TIMING_CATEGORY_EXECUTE, sql, startTime);
 				if (logger.isDebugEnabled()) {
 					logger.debug("SQL update affected " + rows + " rows");
 				}
@@ -531,6 +668,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		class BatchUpdateStatementCallback implements StatementCallback, SqlProvider {
 			private String currSql;
 			public Object doInStatement(Statement stmt) throws SQLException, DataAccessException {
+				long startTime = startTiming();
 				int[] rowsAffected = new int[sql.length];
 				if (JdbcUtils.supportsBatchUpdates(stmt.getConnection())) {
 					for (int i = 0; i < sql.length; i++) {
@@ -550,6 +688,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 						}
 					}
 				}
+				recordTiming(TIMING_CATEGORY_EXECUTE, null, startTime);
 				return rowsAffected;
 			}
 			public String getSql() {
@@ -574,7 +713,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			logger.debug("Executing prepared SQL statement" + (sql != null ? " [" + sql + "]" : ""));
 		}
 
-		Connection con = DataSourceUtils.getConnection(getDataSource());
+		Connection con = DataSourceUtils.getConnection(getDataSource(), this.timingRecorder);
 		PreparedStatement ps = null;
 		try {
 			Connection conToUse = con;
@@ -582,7 +721,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					this.nativeJdbcExtractor.isNativeConnectionNecessaryForNativePreparedStatements()) {
 				conToUse = this.nativeJdbcExtractor.getNativeConnection(con);
 			}
+			long startTime = startTiming();
 			ps = psc.createPreparedStatement(conToUse);
+			recordTiming(TIMING_CATEGORY_PREPARE, getSql(psc), startTime);
 			applyStatementSettings(ps);
 			PreparedStatement psToUse = ps;
 			if (this.nativeJdbcExtractor != null) {
@@ -632,7 +773,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	 * @throws DataAccessException if there is any problem
 	 */
 	public Object query(
-			PreparedStatementCreator psc, final PreparedStatementSetter pss, final ResultSetExtractor rse)
+			final PreparedStatementCreator psc, final PreparedStatementSetter pss, final ResultSetExtractor rse)
 			throws DataAccessException {
 
 		Assert.notNull(rse, "ResultSetExtractor must not be null");
@@ -645,12 +786,17 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					if (pss != null) {
 						pss.setValues(ps);
 					}
+					long startTime = startTiming();
 					rs = ps.executeQuery();
+					recordTiming(TIMING_CATEGORY_EXECUTE, getSql(psc), startTime);
 					ResultSet rsToUse = rs;
 					if (nativeJdbcExtractor != null) {
 						rsToUse = nativeJdbcExtractor.getNativeResultSet(rs);
 					}
-					return rse.extractData(rsToUse);
+					startTime = startTiming();
+					Object result = rse.extractData(rsToUse);
+					recordTiming(TIMING_CATEGORY_MAPPING, getSql(psc), startTime);
+					return result;
 				}
 				finally {
 					JdbcUtils.closeResultSet(rs);
@@ -777,11 +923,188 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 	public SqlRowSet queryForRowSet(String sql, Object[] args, int[] argTypes) throws DataAccessException {
-		return (SqlRowSet) query(sql, args, argTypes, new SqlRowSetResultSetExtractor());
+		return (SqlRowSet) query(sql, args, argTypes, new SqlRowSetResultSetExtractor(this.compactRowSets));
 	}
 
 	public SqlRowSet queryForRowSet(String sql, Object[] args) throws DataAccessException {
-		return (SqlRowSet) query(sql, args, new SqlRowSetResultSetExtractor());
+		return (SqlRowSet) query(sql, args, new SqlRowSetResultSetExtractor(this.compactRowSets));
+	}
+
+	/**
+	 * Query using a prepared statement, returning an iterator that maps
+	 * each row to an object via a RowMapper while advancing the ResultSet.
+	 * <p>In contrast to the List-returning query methods, rows are not
+	 * materialized upfront: The Connection (as obtained through
+	 * {@link DataSourceUtils}, i.e. participating in a current transaction),
+	 * the PreparedStatement and the ResultSet remain open until the iterator
+	 * has been exhausted or explicitly closed. The "fetchSize", "maxRows" and
+	 * "queryTimeout" settings of this template apply as usual, with the
+	 * fetch size determining the number of rows the driver keeps in memory.
+	 * Only <code>ResultSet.next()</code> is used for navigating, so
+	 * forward-only cursors are fully supported.
+	 * <p>The returned iterator is not thread-safe; in case of a transactional
+	 * Connection, it has to be used within the transaction's thread.
+	 * @param psc object that can create a PreparedStatement given a Connection
+	 * @param pss object that knows how to set values on the prepared statement.
+	 * If this is <code>null</code>, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper object that will map one object per row
+	 * @return the iterator over the mapped objects, to be closed by the caller
+	 * unless fully iterated over
+	 * @throws DataAccessException if the query fails
+	 * @see RowIterator#close()
+	 */
+	public RowIterator queryForIterator(PreparedStatementCreator psc, PreparedStatementSetter pss, RowMapper rowMapper)
+			throws DataAccessException {
+
+		Assert.notNull(psc, "PreparedStatementCreator must not be null");
+		Assert.notNull(rowMapper, "RowMapper must not be null");
+		if (logger.isDebugEnabled()) {
+			String sql = getSql(psc);
+			logger.debug("Executing streaming SQL query" + (sql != null ? " [" + sql + "]" : ""));
+		}
+
+		Connection con = DataSourceUtils.getConnection(getDataSource(), this.timingRecorder);
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		try {
+			Connection conToUse = con;
+			if (this.nativeJdbcExtractor != null &&
+					this.nativeJdbcExtractor.isNativeConnectionNecessaryForNativePreparedStatements()) {
+				conToUse = this.nativeJdbcExtractor.getNativeConnection(con);
+			}
+			long startTime = startTiming();
+			ps = psc.createPreparedStatement(conToUse);
+			recordTiming(TIMING_CATEGORY_PREPARE, getSql(psc), startTime);
+			applyStatementSettings(ps);
+			PreparedStatement psToUse = ps;
+			if (this.nativeJdbcExtractor != null) {
+				psToUse = this.nativeJdbcExtractor.getNativePreparedStatement(ps);
+			}
+			if (pss != null) {
+				pss.setValues(psToUse);
+			}
+			startTime = startTiming();
+			rs = psToUse.executeQuery();
+			recordTiming(TIMING_CATEGORY_EXECUTE, getSql(psc), startTime);
+			ResultSet rsToUse = rs;
+			if (this.nativeJdbcExtractor != null) {
+				rsToUse = this.nativeJdbcExtractor.getNativeResultSet(rs);
+			}
+			return new ResultSetRowIterator(con, ps, rs, rsToUse, psc, pss, rowMapper);
+		}
+		catch (SQLException ex) {
+			String sql = getSql(psc);
+			JdbcUtils.closeResultSet(rs);
+			if (pss instanceof ParameterDisposer) {
+				((ParameterDisposer) pss).cleanupParameters();
+			}
+			if (psc instanceof ParameterDisposer) {
+				((ParameterDisposer) psc).cleanupParameters();
+			}
+			JdbcUtils.closeStatement(ps);
+			DataSourceUtils.releaseConnection(con, getDataSource());
+			throw getExceptionTranslator().translate("RowIterator", sql, ex);
+		}
+		catch (RuntimeException ex) {
+			JdbcUtils.closeResultSet(rs);
+			if (pss instanceof ParameterDisposer) {
+				((ParameterDisposer) pss).cleanupParameters();
+			}
+			if (psc instanceof ParameterDisposer) {
+				((ParameterDisposer) psc).cleanupParameters();
+			}
+			JdbcUtils.closeStatement(ps);
+			DataSourceUtils.releaseConnection(con, getDataSource());
+			throw ex;
+		}
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, returning an iterator that maps each row
+	 * to an object via a RowMapper while advancing the ResultSet.
+	 * @param sql SQL query to execute
+	 * @param args arguments to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type);
+	 * may be <code>null</code> if there are no arguments
+	 * @param rowMapper object that will map one object per row
+	 * @return the iterator over the mapped objects, to be closed by the caller
+	 * unless fully iterated over
+	 * @throws DataAccessException if the query fails
+	 * @see #queryForIterator(PreparedStatementCreator, PreparedStatementSetter, RowMapper)
+	 */
+	public RowIterator queryForIterator(String sql, Object[] args, RowMapper rowMapper) throws DataAccessException {
+		return queryForIterator(new SimplePreparedStatementCreator(sql), new ArgPreparedStatementSetter(args), rowMapper);
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, returning an iterator that maps each row
+	 * to an object via a RowMapper while advancing the ResultSet.
+	 * @param sql SQL query to execute
+	 * @param args arguments to bind to the query
+	 * @param argTypes SQL types of the arguments
+	 * (constants from <code>java.sql.Types</code>)
+	 * @param rowMapper object that will map one object per row
+	 * @return the iterator over the mapped objects, to be closed by the caller
+	 * unless fully iterated over
+	 * @throws DataAccessException if the query fails
+	 * @see #queryForIterator(PreparedStatementCreator, PreparedStatementSetter, RowMapper)
+	 */
+	public RowIterator queryForIterator(String sql, Object[] args, int[] argTypes, RowMapper rowMapper)
+			throws DataAccessException {
+
+		return queryForIterator(
+				new SimplePreparedStatementCreator(sql), new ArgTypePreparedStatementSetter(args, argTypes), rowMapper);
+	}
+
+	/**
+	 * Query using a prepared statement, returning an iterator that hands out
+	 * Lists of up to the given number of mapped rows, read from the ResultSet
+	 * on demand. Allows for processing large results in blocks, for example
+	 * passing each chunk on to a downstream processing stage while the next
+	 * chunk gets read.
+	 * <p>Resources are held as with {@link #queryForIterator}. The chunks
+	 * themselves are independent of the iterator and may be handed to other threads.
+	 * @param psc object that can create a PreparedStatement given a Connection
+	 * @param pss object that knows how to set values on the prepared statement.
+	 * If this is <code>null</code>, the SQL will be assumed to contain no bind parameters.
+	 * @param rowMapper object that will map one object per row
+	 * @param chunkSize the maximum number of mapped rows per chunk
+	 * @return the iterator over the chunks, each a <code>java.util.List</code>
+	 * with at least one element, to be closed by the caller unless fully iterated over
+	 * @throws DataAccessException if the query fails
+	 * @see RowIterator#close()
+	 */
+	public RowIterator queryForChunks(
+			PreparedStatementCreator psc, PreparedStatementSetter pss, RowMapper rowMapper, int chunkSize)
+			throws DataAccessException {
+
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		return new ChunkingRowIterator(queryForIterator(psc, pss, rowMapper), chunkSize);
+	}
+
+	/**
+	 * Query given SQL to create a prepared statement from SQL and a list of
+	 * arguments to bind to the query, returning an iterator that hands out
+	 * Lists of up to the given number of mapped rows, read from the ResultSet
+	 * on demand.
+	 * @param sql SQL query to execute
+	 * @param args arguments to bind to the query
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL type);
+	 * may be <code>null</code> if there are no arguments
+	 * @param rowMapper object that will map one object per row
+	 * @param chunkSize the maximum number of mapped rows per chunk
+	 * @return the iterator over the chunks, each a <code>java.util.List</code>
+	 * with at least one element, to be closed by the caller unless fully iterated over
+	 * @throws DataAccessException if the query fails
+	 * @see #queryForChunks(PreparedStatementCreator, PreparedStatementSetter, RowMapper, int)
+	 */
+	public RowIterator queryForChunks(String sql, Object[] args, RowMapper rowMapper, int chunkSize)
+			throws DataAccessException {
+
+		return queryForChunks(
+				new SimplePreparedStatementCreator(sql), new ArgPreparedStatementSetter(args), rowMapper, chunkSize);
 	}
 
 	protected int update(final PreparedStatementCreator psc, final PreparedStatementSetter pss)
@@ -795,7 +1118,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 					if (pss != null) {
 						pss.setValues(ps);
 					}
+					long startTime = startTiming();
 					int rows = ps.executeUpdate();
+					recordTiming(TIMING_CATEGORY_EXECUTE, getSql(psc), startTime);
 					if (logger.isDebugEnabled()) {
 						logger.debug("SQL update affected " + rows + " rows");
 					}
@@ -823,15 +1148,19 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 
 		Integer result = (Integer) execute(psc, new PreparedStatementCallback() {
 			public Object doInPreparedStatement(PreparedStatement ps) throws SQLException {
+				long startTime = startTiming();
 				int rows = ps.executeUpdate();
+				recordTiming(TIMING_CATEGORY_EXECUTE, getSql(psc), startTime);
 				List generatedKeys = generatedKeyHolder.getKeyList();
 				generatedKeys.clear();
 				ResultSet keys = ps.getGeneratedKeys();
 				if (keys != null) {
 					try {
+						startTime = startTiming();
 						RowMapper rowMapper = getColumnMapRowMapper();
 						RowMapperResultSetExtractor rse = new RowMapperResultSetExtractor(rowMapper, 1);
 						generatedKeys.addAll((List) rse.extractData(keys));
+						recordTiming(TIMING_CATEGORY_MAPPING, getSql(psc), startTime);
 					}
 					finally {
 						JdbcUtils.closeResultSet(keys);
@@ -858,7 +1187,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return update(sql, new ArgPreparedStatementSetter(args));
 	}
 
-	public int[] batchUpdate(String sql, final BatchPreparedStatementSetter pss) throws DataAccessException {
+	public int[] batchUpdate(final String sql, final BatchPreparedStatementSetter pss) throws DataAccessException {
 		if (logger.isDebugEnabled()) {
 			logger.debug("Executing SQL batch update [" + sql + "]");
 		}
@@ -878,7 +1207,10 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 							}
 							ps.addBatch();
 						}
-						return ps.executeBatch();
+						long startTime = startTiming();
+						int[] rowsAffected = ps.executeBatch();
+						recordTiming(TIMING_CATEGORY_EXECUTE, sql, startTime);
+						return rowsAffected;
 					}
 					else {
 						List rowsAffected = new ArrayList();
@@ -887,7 +1219,9 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 							if (ipss != null && ipss.isBatchExhausted(i)) {
 								break;
 							}
+							long startTime = startTiming();
 							rowsAffected.add(new Integer(ps.executeUpdate()));
+							recordTiming(TIMING_CATEGORY_EXECUTE, sql, startTime);
 						}
 						int[] rowsAffectedArray = new int[rowsAffected.size()];
 						for (int i = 0; i < rowsAffectedArray.length; i++) {
@@ -906,6 +1240,137 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 	}
 
 
+	/**
+	 * Issue multiple update statements on a single PreparedStatement,
+	 * using batch updates for chunks of the given size, with the values for
+	 * each statement provided by the given source of batch items.
+	 * <p>The batch items are read on demand, so the entire batch does not need
+	 * to be held in memory. Each chunk is submitted through a separate
+	 * <code>executeBatch</code> call (or through individual updates if the
+	 * JDBC driver does not support batch updates).
+	 * <p>If a {@link #setBatchUpdateExecutor "batchUpdateExecutor"} has been
+	 * specified and there is no Connection bound to the current thread (i.e. no
+	 * transaction in progress), chunks get executed in parallel on separate
+	 * Connections, with up to {@link #setBatchUpdateConcurrency "batchUpdateConcurrency"}
+	 * chunks in progress at any time.
+	 * @param sql defining PreparedStatement that will be reused.
+	 * All statements in the batch will use the same SQL.
+	 * @param batchItems the source of batch items, one per statement
+	 * @param chunkSize the maximum number of statements per batch
+	 * @param pss object to set parameters on the PreparedStatement for each batch item
+	 * @return an array with one element per chunk, each being an array
+	 * containing the numbers of rows affected by each update in the chunk
+	 * @throws DataAccessException if there is any problem issuing the update
+	 */
+	public int[][] batchUpdate(final String sql, final Iterator batchItems, final int chunkSize,
+			final ItemPreparedStatementSetter pss) throws DataAccessException {
+
+		Assert.notNull(batchItems, "Batch items must not be null");
+		Assert.notNull(pss, "ItemPreparedStatementSetter must not be null");
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+
+		if (this.batchUpdateExecutor != null && !isConnectionBoundToThread()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Executing SQL batch update [" + sql + "] in parallel chunks of " + chunkSize);
+			}
+			ParallelBatchUpdate batchUpdate = new ParallelBatchUpdate(sql, pss);
+			try {
+				while (batchItems.hasNext() && !batchUpdate.hasFailed()) {
+					List chunk = new ArrayList(chunkSize);
+					while (chunk.size() < chunkSize && batchItems.hasNext()) {
+						chunk.add(batchItems.next());
+					}
+					batchUpdate.submit(chunk);
+				}
+			}
+			finally {
+				batchUpdate.awaitCompletion();
+			}
+			return batchUpdate.getRowsAffected();
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Executing SQL batch update [" + sql + "] in chunks of " + chunkSize);
+		}
+		return (int[][]) execute(sql, new PreparedStatementCallback() {
+			public Object doInPreparedStatement(PreparedStatement ps) throws SQLException {
+				boolean batchSupported = JdbcUtils.supportsBatchUpdates(ps.getConnection());
+				List rowsAffected = new ArrayList();
+				while (batchItems.hasNext()) {
+					rowsAffected.add(executeBatchChunk(ps, sql, batchItems, chunkSize, pss, batchSupported));
+				}
+				return (int[][]) rowsAffected.toArray(new int[rowsAffected.size()][]);
+			}
+		});
+	}
+
+	/**
+	 * Issue multiple update statements on a single PreparedStatement,
+	 * using batch updates for chunks of the given size, with each batch item
+	 * being an array of arguments to bind to the statement.
+	 * @param sql defining PreparedStatement that will be reused.
+	 * All statements in the batch will use the same SQL.
+	 * @param batchArgs the source of argument arrays, one per statement
+	 * (leaving it to the PreparedStatement to guess the corresponding SQL types)
+	 * @param chunkSize the maximum number of statements per batch
+	 * @return an array with one element per chunk, each being an array
+	 * containing the numbers of rows affected by each update in the chunk
+	 * @throws DataAccessException if there is any problem issuing the update
+	 * @see #batchUpdate(String, java.util.Iterator, int, ItemPreparedStatementSetter)
+	 */
+	public int[][] batchUpdate(String sql, Iterator batchArgs, int chunkSize) throws DataAccessException {
+		return batchUpdate(sql, batchArgs, chunkSize, new ItemPreparedStatementSetter() {
+			public void setValues(PreparedStatement ps, Object item) throws SQLException {
+				new ArgPreparedStatementSetter((Object[]) item).setValues(ps);
+			}
+		});
+	}
+
+	/**
+	 * Execute a single chunk of a batch update on the given PreparedStatement,
+	 * reading up to the given number of batch items from the given Iterator.
+	 */
+	private int[] executeBatchChunk(PreparedStatement ps, String sql, Iterator batchItems, int chunkSize,
+			ItemPreparedStatementSetter pss, boolean batchSupported) throws SQLException {
+
+		if (batchSupported) {
+			for (int i = 0; i < chunkSize && batchItems.hasNext(); i++) {
+				pss.setValues(ps, batchItems.next());
+				ps.addBatch();
+			}
+			long startTime = startTiming();
+			int[] rowsAffected = ps.executeBatch();
+			recordTiming(TIMING_CATEGORY_EXECUTE, sql, startTime);
+			return rowsAffected;
+		}
+		else {
+			int[] rowsAffected = new int[chunkSize];
+			int count = 0;
+			for (; count < chunkSize && batchItems.hasNext(); count++) {
+				pss.setValues(ps, batchItems.next());
+				long startTime = startTiming();
+				rowsAffected[count] = ps.executeUpdate();
+				recordTiming(TIMING_CATEGORY_EXECUTE, sql, startTime);
+			}
+			if (count < chunkSize) {
+				int[] result = new int[count];
+				System.arraycopy(rowsAffected, 0, result, 0, count);
+				return result;
+			}
+			return rowsAffected;
+		}
+	}
+
+	/**
+	 * Determine whether a Connection for this template's DataSource
+	 * is bound to the current thread, e.g. by a transaction manager.
+	 */
+	private boolean isConnectionBoundToThread() {
+		return (TransactionSynchronizationManager.isActualTransactionActive() ||
+				TransactionSynchronizationManager.hasResource(getDataSource()));
+	}
+
+
 	//-------------------------------------------------------------------------
 	// Methods dealing with callable statements
 	//-------------------------------------------------------------------------
@@ -920,14 +1385,16 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 			logger.debug("Calling stored procedure" + (sql != null ? " [" + sql  + "]" : ""));
 		}
 
-		Connection con = DataSourceUtils.getConnection(getDataSource());
+		Connection con = DataSourceUtils.getConnection(getDataSource(), this.timingRecorder);
 		CallableStatement cs = null;
 		try {
 			Connection conToUse = con;
 			if (this.nativeJdbcExtractor != null) {
 				conToUse = this.nativeJdbcExtractor.getNativeConnection(con);
 			}
+			long startTime = startTiming();
 			cs = csc.createCallableStatement(conToUse);
+			recordTiming(TIMING_CATEGORY_PREPARE, getSql(csc), startTime);
 			applyStatementSettings(cs);
 			CallableStatement csToUse = cs;
 			if (this.nativeJdbcExtractor != null) {
@@ -964,7 +1431,7 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		return execute(new SimpleCallableStatementCreator(callString), action);
 	}
 
-	public Map call(CallableStatementCreator csc, List declaredParameters) throws DataAccessException {
+	public Map call(final CallableStatementCreator csc, List declaredParameters) throws DataAccessException {
 		final List updateCountParameters = new ArrayList();
 		final List resultSetParameters = new ArrayList();
 		final List callParameters = new ArrayList();
@@ -984,17 +1451,21 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 		return (Map) execute(csc, new CallableStatementCallback() {
 			public Object doInCallableStatement(CallableStatement cs) throws SQLException {
+				long startTime = startTiming();
 				boolean retVal = cs.execute();
+				recordTiming(TIMING_CATEGORY_EXECUTE, getSql(csc), startTime);
 				int updateCount = cs.getUpdateCount();
 				if (logger.isDebugEnabled()) {
 					logger.debug("CallableStatement.execute() returned '" + retVal + "'");
 					logger.debug("CallableStatement.getUpdateCount() returned " + updateCount);
 				}
+				startTime = startTiming();
 				Map returnedResults = createResultsMap();
 				if (retVal || updateCount != -1) {
 					returnedResults.putAll(extractReturnedResults(cs, updateCountParameters, resultSetParameters, updateCount));
 				}
 				returnedResults.putAll(extractOutputParameters(cs, callParameters));
+				recordTiming(TIMING_CATEGORY_MAPPING, getSql(csc), startTime);
 				return returnedResults;
 			}
 		});
@@ -1238,6 +1709,23 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+	/**
+	 * Return the start time for a JDBC operation to be recorded,
+	 * or 0 if no TimingRecorder has been specified.
+	 */
+	private long startTiming() {
+		return (this.timingRecorder != null ? this.timingRecorder.startTime() : 0);
+	}
+
+	/**
+	 * Record the given JDBC operation with the TimingRecorder, if any.
+	 */
+	private void recordTiming(String category, String sql, long startTime) {
+		if (this.timingRecorder != null) {
+			this.timingRecorder.record(category, sql, startTime);
+		}
+	}
+
 	/**
 	 * Determine SQL from potential provider object.
 	 * @param sqlProvider object that's potentially a SqlProvider
@@ -1371,4 +1859,299 @@ public class JdbcTemplate extends JdbcAccessor implements JdbcOperations {
 		}
 	}
 
+
+	/**
+	 * RowIterator implementation that holds the JDBC resources of a
+	 * streaming query, advancing the ResultSet on demand.
+	 */
+	private class ResultSetRowIterator implements RowIterator {
+
+		private Connection con;
+
+		private PreparedStatement ps;
+
+		private ResultSet rs;
+
+		private final ResultSet rsToUse;
+
+		private final PreparedStatementCreator psc;
+
+		private final PreparedStatementSetter pss;
+
+		private final RowMapper rowMapper;
+
+		private int rowCount = 0;
+
+		private boolean advanced = false;
+
+		private boolean rowAvailable = false;
+
+		public ResultSetRowIterator(Connection con, PreparedStatement ps, ResultSet rs, ResultSet rsToUse,
+				PreparedStatementCreator psc, PreparedStatementSetter pss, RowMapper rowMapper) {
+
+			this.con = con;
+			this.ps = ps;
+			this.rs = rs;
+			this.rsToUse = rsToUse;
+			this.psc = psc;
+			this.pss = pss;
+			this.rowMapper = rowMapper;
+		}
+
+		public boolean hasNext() {
+			if (!this.advanced) {
+				if (this.rs == null) {
+					return false;
+				}
+				try {
+					this.rowAvailable = this.rsToUse.next();
+				}
+				catch (SQLException ex) {
+					throw translateException(ex);
+				}
+				catch (RuntimeException ex) {
+					releaseResources();
+					throw ex;
+				}
+				this.advanced = true;
+				if (!this.rowAvailable) {
+					close();
+				}
+			}
+			return this.rowAvailable;
+		}
+
+		public Object next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more rows available");
+			}
+			this.advanced = false;
+			try {
+				return this.rowMapper.mapRow(this.rsToUse, this.rowCount++);
+			}
+			catch (SQLException ex) {
+				throw translateException(ex);
+			}
+			catch (RuntimeException ex) {
+				releaseResources();
+				throw ex;
+			}
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("RowIterator does not support remove");
+		}
+
+		public int getRowCount() {
+			return this.rowCount;
+		}
+
+		public void close() {
+			if (this.ps == null) {
+				return;
+			}
+			try {
+				handleWarnings(this.ps);
+			}
+			catch (SQLException ex) {
+				throw translateException(ex);
+			}
+			finally {
+				releaseResources();
+			}
+		}
+
+		private DataAccessException translateException(SQLException ex) {
+			// Release Connection early, to avoid potential connection pool deadlock
+			// in the case when the exception translator hasn't been initialized yet.
+			String sql = getSql(this.psc);
+			releaseResources();
+			return getExceptionTranslator().translate("RowIterator", sql, ex);
+		}
+
+		private void releaseResources() {
+			if (this.ps == null) {
+				return;
+			}
+			this.advanced = true;
+			this.rowAvailable = false;
+			JdbcUtils.closeResultSet(this.rs);
+			this.rs = null;
+			if (this.pss instanceof ParameterDisposer) {
+				((ParameterDisposer) this.pss).cleanupParameters();
+			}
+			if (this.psc instanceof ParameterDisposer) {
+				((ParameterDisposer) this.psc).cleanupParameters();
+			}
+			JdbcUtils.closeStatement(this.ps);
+			this.ps = null;
+			DataSourceUtils.releaseConnection(this.con, getDataSource());
+			this.con = null;
+		}
+	}
+
+
+	/**
+	 * Coordinates the parallel execution of batch update chunks through the
+	 * "batchUpdateExecutor", limiting the number of chunks in progress and
+	 * collecting the results in submission order.
+	 */
+	private class ParallelBatchUpdate {
+
+		private final String sql;
+
+		private final ItemPreparedStatementSetter pss;
+
+		private final Object monitor = new Object();
+
+		private final List rowsAffected = new ArrayList();
+
+		private int activeChunks = 0;
+
+		private RuntimeException failure;
+
+		public ParallelBatchUpdate(String sql, ItemPreparedStatementSetter pss) {
+			this.sql = sql;
+			this.pss = pss;
+		}
+
+		public void submit(final List chunk) {
+			final int index;
+			synchronized (this.monitor) {
+				awaitActiveChunks(batchUpdateConcurrency - 1);
+				index = this.rowsAffected.size();
+				this.rowsAffected.add(null);
+				this.activeChunks++;
+			}
+			Runnable task = new Runnable() {
+				public void run() {
+					int[] result = null;
+					RuntimeException ex = null;
+					try {
+						result = (int[]) execute(sql, new PreparedStatementCallback() {
+							public Object doInPreparedStatement(PreparedStatement ps) throws SQLException {
+								return executeBatchChunk(ps, sql, chunk.iterator(), chunk.size(), pss,
+										JdbcUtils.supportsBatchUpdates(ps.getConnection()));
+							}
+						});
+					}
+					catch (RuntimeException rex) {
+						ex = rex;
+					}
+					finally {
+						chunkCompleted(index, result, ex);
+					}
+				}
+			};
+			try {
+				batchUpdateExecutor.execute(task);
+			}
+			catch (TaskRejectedException ex) {
+				task.run();
+			}
+			catch (RuntimeException ex) {
+				// The task will never run: release its slot, letting awaitCompletion return.
+				chunkCompleted(index, null, ex);
+				throw ex;
+			}
+		}
+
+		public boolean hasFailed() {
+			synchronized (this.monitor) {
+				return (this.failure != null);
+			}
+		}
+
+		public void awaitCompletion() {
+			synchronized (this.monitor) {
+				awaitActiveChunks(0);
+			}
+		}
+
+		public int[][] getRowsAffected() {
+			synchronized (this.monitor) {
+				if (this.failure != null) {
+					throw this.failure;
+				}
+				return (int[][]) this.rowsAffected.toArray(new int[this.rowsAffected.size()][]);
+			}
+		}
+
+		private void chunkCompleted(int index, int[] result, RuntimeException ex) {
+			synchronized (this.monitor) {
+				if (result != null) {
+					this.rowsAffected.set(index, result);
+				}
+				else if (this.failure == null) {
+					this.failure = (ex != null ? ex :
+							new IllegalStateException("Batch update chunk " + index + " did not complete"));
+				}
+				this.activeChunks--;
+				this.monitor.notifyAll();
+			}
+		}
+
+		private void awaitActiveChunks(int maxActiveChunks) {
+			boolean interrupted = false;
+			while (this.activeChunks > maxActiveChunks) {
+				if (interrupted) {
+					throw new IllegalStateException(
+							"Thread was interrupted while waiting for batch update chunks to complete");
+				}
+				try {
+					this.monitor.wait();
+				}
+				catch (InterruptedException ex) {
+					// Re-interrupt current thread, to allow other threads to react.
+					Thread.currentThread().interrupt();
+					interrupted = true;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * RowIterator decorator that groups the rows of a target RowIterator
+	 * into Lists of a given maximum size.
+	 */
+	private static class ChunkingRowIterator implements RowIterator {
+
+		private final RowIterator rowIterator;
+
+		private final int chunkSize;
+
+		public ChunkingRowIterator(RowIterator rowIterator, int chunkSize) {
+			this.rowIterator = rowIterator;
+			this.chunkSize = chunkSize;
+		}
+
+		public boolean hasNext() {
+			return this.rowIterator.hasNext();
+		}
+
+		public Object next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException("No more rows available");
+			}
+			List chunk = new ArrayList(this.chunkSize);
+			while (chunk.size() < this.chunkSize && this.rowIterator.hasNext()) {
+				chunk.add(this.rowIterator.next());
+			}
+			return chunk;
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("RowIterator does not support remove");
+		}
+
+		public int getRowCount() {
+			return this.rowIterator.getRowCount();
+		}
+
+		public void close() {
+			this.rowIterator.close();
+		}
+	}
+
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.util.Iterator;
+
+import org.springframework.dao.DataAccessException;
+
+/**
+ * Iterator over the rows of an open JDBC ResultSet, as returned by the
+ * streaming query methods of {@link JdbcTemplate}. Advances the underlying
+ * ResultSet lazily, mapping one row (or one chunk of rows) per
+ * {@link #next()} call, and keeps the JDBC Connection, Statement and
+ * ResultSet open until the last row has been read or {@link #close()}
+ * has been called.
+ *
+ * <p>Callers that do not iterate over all rows <b>must</b> call
+ * {@link #close()}, typically in a finally block:
+ *
+ * <pre class="code">
+ * RowIterator it = jdbcTemplate.queryForIterator(sql, args, rowMapper);
+ * try {
+ *   while (it.hasNext()) {
+ *     process(it.next());
+ *   }
+ * }
+ * finally {
+ *   it.close();
+ * }</pre>
+ *
+ * JDBC exceptions thrown while iterating are translated to
+ * {@link DataAccessException DataAccessExceptions}, releasing all
+ * resources held by the iterator. The {@link #remove()} operation
+ * is not supported.
+ *
+ * @since 2.5.7
+ * @see JdbcTemplate#queryForIterator
+ * @see JdbcTemplate#queryForChunks
+ */
+public interface RowIterator extends Iterator {
+
+	/**
+	 * Return the number of rows that have been read so far.
+	 */
+	int getRowCount();
+
+	/**
+	 * Close the underlying ResultSet and Statement and release the
+	 * JDBC Connection. Can be called multiple times; subsequent calls
+	 * as well as calls after reading the last row have no effect.
+	 * @throws DataAccessException if warnings are not ignored
+	 * and the Statement has reported warnings
+	 * @see JdbcTemplate#setIgnoreWarnings
+	 */
+	void close() throws DataAccessException;
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2005 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import javax.sql.rowset.CachedRowSet;
 
 import com.sun.rowset.CachedRowSetImpl;
 
+import org.springframework.jdbc.support.rowset.CompactSqlRowSet;
 import org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 
@@ -36,15 +37,43 @@ import org.springframework.jdbc.support.rowset.SqlRowSet;
  * used, which is part of JDK 1.5+ and also available separately as part of
  * Sun's JDBC RowSet Implementations download (rowset.jar).
  *
+ * <p>Alternatively, a {@link CompactSqlRowSet} can be created, holding the
+ * data in a columnar fashion without any JDBC RowSet implementation involved.
+ * This is typically preferable for larger results that are kept in memory.
+ *
  * @author Juergen Hoeller
  * @since 1.2
  * @see #newCachedRowSet
  * @see org.springframework.jdbc.support.rowset.SqlRowSet
+ * @see org.springframework.jdbc.support.rowset.CompactSqlRowSet
  * @see JdbcTemplate#queryForRowSet(String)
  * @see javax.sql.rowset.CachedRowSet
  */
 public class SqlRowSetResultSetExtractor implements ResultSetExtractor {
 
+	private final boolean compact;
+
+
+	/**
+	 * Create a new SqlRowSetResultSetExtractor, using a standard
+	 * JDBC CachedRowSet underneath.
+	 * @see #newCachedRowSet
+	 */
+	public SqlRowSetResultSetExtractor() {
+		this(false);
+	}
+
+	/**
+	 * Create a new SqlRowSetResultSetExtractor.
+	 * @param compact whether to create a {@link CompactSqlRowSet} instead of
+	 * wrapping a standard JDBC CachedRowSet
+	 * @see #newCachedRowSet
+	 */
+	public SqlRowSetResultSetExtractor(boolean compact) {
+		this.compact = compact;
+	}
+
+
 	public Object extractData(ResultSet rs) throws SQLException {
 		return createSqlRowSet(rs);
 	}
@@ -53,15 +82,20 @@ public class SqlRowSetResultSetExtractor implements ResultSetExtractor {
 	 * Create a SqlRowSet that wraps the given ResultSet,
 	 * representing its data in a disconnected fashion.
 	 * <p>This implementation creates a Spring ResultSetWrappingSqlRowSet
-	 * instance that wraps a standard JDBC CachedRowSet instance.
+	 * instance that wraps a standard JDBC CachedRowSet instance,
+	 * or a CompactSqlRowSet if the "compact" flag has been specified.
 	 * Can be overridden to use a different implementation.
 	 * @param rs the original ResultSet (connected)
 	 * @return the disconnected SqlRowSet
 	 * @throws SQLException if thrown by JDBC methods
 	 * @see #newCachedRowSet
 	 * @see org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet
+	 * @see org.springframework.jdbc.support.rowset.CompactSqlRowSet
 	 */
 	protected SqlRowSet createSqlRowSet(ResultSet rs) throws SQLException {
+		if (this.compact) {
+			return new CompactSqlRowSet(rs);
+		}
 		CachedRowSet rowSet = newCachedRowSet();
 		rowSet.populate(rs);
 		return new ResultSetWrappingSqlRowSet(rowSet);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,7 +16,6 @@
 
 package org.springframework.jdbc.core.namedparam;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -60,11 +59,15 @@ import org.springframework.util.Assert;
  */
 public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations {
 
+	/** Default maximum number of entries for this template's SQL cache: 256 */
+	public static final int DEFAULT_CACHE_LIMIT = 256;
+
+
 	/** The JdbcTemplate we are wrapping */
 	private final JdbcOperations classicJdbcTemplate;
 
-	/** Map of original SQL String to ParsedSql representation */
-	private final Map parsedSqlCache = new HashMap();
+	/** Cache of original SQL String to ParsedSql representation */
+	private volatile ParsedSqlCache parsedSqlCache = new ParsedSqlCache(DEFAULT_CACHE_LIMIT);
 
 
 	/**
@@ -96,6 +99,52 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 		return this.classicJdbcTemplate;
 	}
 
+	/**
+	 * Specify the maximum number of entries for this template's SQL cache.
+	 * Default is 256. A value of 0 turns caching off.
+	 * <p>Statements that have not been used recently get evicted once the limit is reached.
+	 * Setting a new limit starts with an empty cache and fresh statistics.
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		this.parsedSqlCache = new ParsedSqlCache(cacheLimit);
+	}
+
+	/**
+	 * Return the maximum number of entries for this template's SQL cache.
+	 */
+	public int getCacheLimit() {
+		return this.parsedSqlCache.getCacheLimit();
+	}
+
+	/**
+	 * Return the number of SQL statements currently held in this template's cache.
+	 */
+	public int getCacheSize() {
+		return this.parsedSqlCache.size();
+	}
+
+	/**
+	 * Return the number of SQL cache lookups that found a parsed statement.
+	 */
+	public long getCacheHitCount() {
+		return this.parsedSqlCache.getHitCount();
+	}
+
+	/**
+	 * Return the number of SQL cache lookups that had to parse the statement.
+	 */
+	public long getCacheMissCount() {
+		return this.parsedSqlCache.getMissCount();
+	}
+
+	/**
+	 * Return the number of statements evicted from the SQL cache
+	 * in order to stay within the cache limit.
+	 */
+	public long getCacheEvictionCount() {
+		return this.parsedSqlCache.getEvictionCount();
+	}
+
 
 	public Object execute(String sql, SqlParameterSource paramSource, PreparedStatementCallback action)
 			throws DataAccessException {
@@ -202,8 +251,10 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	}
 
 	public SqlRowSet queryForRowSet(String sql, SqlParameterSource paramSource) throws DataAccessException {
+		boolean compact = (getJdbcOperations() instanceof JdbcTemplate &&
+				((JdbcTemplate) getJdbcOperations()).isCompactRowSets());
 		return (SqlRowSet) getJdbcOperations().query(
-				getPreparedStatementCreator(sql, paramSource), new SqlRowSetResultSetExtractor());
+				getPreparedStatementCreator(sql, paramSource), new SqlRowSetResultSetExtractor(compact));
 	}
 
 	public SqlRowSet queryForRowSet(String sql, Map paramMap) throws DataAccessException {
@@ -265,14 +316,7 @@ public class NamedParameterJdbcTemplate implements NamedParameterJdbcOperations
 	 * @return a representation of the parsed SQL statement
 	 */
 	protected ParsedSql getParsedSql(String sql) {
-		synchronized (this.parsedSqlCache) {
-			ParsedSql parsedSql = (ParsedSql) this.parsedSqlCache.get(sql);
-			if (parsedSql == null) {
-				parsedSql = NamedParameterUtils.parseSqlStatement(sql);
-				this.parsedSqlCache.put(sql, parsedSql);
-			}
-			return parsedSql;
-		}
+		return this.parsedSqlCache.getParsedSql(sql);
 	}
 
 }
@@ -184,12 +184,64 @@ public abstract class NamedParameterUtils {
 	 * placeholder to be used for a select list. Select lists should be limited
 	 * to 100 or fewer elements. A larger number of elements is not guaramteed to
 	 * be supported by the database and is strictly vendor-dependent.
+	 * <p>The resulting SQL is cached in the given ParsedSql object, per distinct
+	 * number of placeholders required for the collection parameters (if any).
 	 * @param parsedSql the parsed represenation of the SQL statement
 	 * @param paramSource the source for named parameters
 	 * @return the SQL statement with substituted parameters
 	 * @see #parseSqlStatement
 	 */
 	public static String substituteNamedParameters(ParsedSql parsedSql, SqlParameterSource paramSource) {
+		String arityKey = buildArityKey(parsedSql, paramSource);
+		String expandedSql = parsedSql.getExpandedSql(arityKey);
+		if (expandedSql == null) {
+			expandedSql = doSubstituteNamedParameters(parsedSql, paramSource);
+			parsedSql.addExpandedSql(arityKey, expandedSql);
+		}
+		return expandedSql;
+	}
+
+	/**
+	 * Build a key that identifies the placeholders required for the given
+	 * parameter values: the number of entries in each collection parameter,
+	 * and the length of each expression list among those entries.
+	 * Non-collection parameters always result in a single placeholder.
+	 * @param parsedSql the parsed represenation of the SQL statement
+	 * @param paramSource the source for named parameters
+	 * @return the arity key (an empty String if there are no collection parameters)
+	 */
+	private static String buildArityKey(ParsedSql parsedSql, SqlParameterSource paramSource) {
+		if (paramSource == null) {
+			return "";
+		}
+		StringBuffer key = null;
+		List paramNames = parsedSql.getParameterNames();
+		for (int i = 0; i < paramNames.size(); i++) {
+			String paramName = (String) paramNames.get(i);
+			if (paramSource.hasValue(paramName)) {
+				Object value = paramSource.getValue(paramName);
+				if (value instanceof Collection) {
+					if (key == null) {
+						key = new StringBuffer();
+					}
+					key.append(i).append('[');
+					for (Iterator it = ((Collection) value).iterator(); it.hasNext();) {
+						Object entryItem = it.next();
+						if (entryItem instanceof Object[]) {
+							key.append('(').append(((Object[]) entryItem).length).append(')');
+						}
+						else {
+							key.append('?');
+						}
+					}
+					key.append(']');
+				}
+			}
+		}
+		return (key != null ? key.toString() : "");
+	}
+
+	private static String doSubstituteNamedParameters(ParsedSql parsedSql, SqlParameterSource paramSource) {
 		String originalSql = parsedSql.getOriginalSql();
 		StringBuffer actualSql = new StringBuffer();
 		List paramNames = parsedSql.getParameterNames();
@@ -17,7 +17,10 @@
 package org.springframework.jdbc.core.namedparam;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Holds information about a parsed SQL statement.
@@ -28,6 +31,13 @@ import java.util.List;
  */
 public class ParsedSql {
 
+	/**
+	 * Maximum number of expanded SQL Strings to hold,
+	 * i.e. number of distinct collection parameter arities
+	 */
+	private static final int EXPANDED_SQL_CACHE_LIMIT = 64;
+
+
 	private String originalSql;
 
 	private List parameterNames = new ArrayList();
@@ -40,6 +50,9 @@ public class ParsedSql {
 
 	private int totalParameterCount;
 
+	/** Arity key String --> expanded SQL String, replaced on every addition */
+	private volatile Map expandedSqlCache = Collections.EMPTY_MAP;
+
 
 	/**
 	 * Create a new instance of the {@link ParsedSql} class.
@@ -134,6 +147,35 @@ public class ParsedSql {
 	}
 
 
+	/**
+	 * Return the expanded SQL String for the given parameter arity, if cached.
+	 * @param arityKey a String identifying the number of placeholders
+	 * required for each collection parameter
+	 * @return the expanded SQL, or <code>null</code> if none cached
+	 * @see NamedParameterUtils#substituteNamedParameters(ParsedSql, SqlParameterSource)
+	 */
+	String getExpandedSql(String arityKey) {
+		return (String) this.expandedSqlCache.get(arityKey);
+	}
+
+	/**
+	 * Cache the expanded SQL String for the given parameter arity.
+	 * @param arityKey a String identifying the number of placeholders
+	 * required for each collection parameter
+	 * @param expandedSql the expanded SQL
+	 */
+	void addExpandedSql(String arityKey, String expandedSql) {
+		synchronized (this) {
+			if (this.expandedSqlCache.size() < EXPANDED_SQL_CACHE_LIMIT) {
+				// Copy on write: lookups never need to synchronize.
+				Map newCache = new HashMap(this.expandedSqlCache);
+				newCache.put(arityKey, expandedSql);
+				this.expandedSqlCache = newCache;
+			}
+		}
+	}
+
+
 	/**
 	 * Exposes the original SQL String.
 	 */
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.jdbc.core.namedparam;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.springframework.core.CollectionFactory;
+
+/**
+ * Bounded cache of {@link ParsedSql} representations, keyed by original SQL String.
+ * Used by {@link NamedParameterJdbcTemplate}.
+ *
+ * <p>Entries are held in a concurrent Map (if available), so that lookups of
+ * cached statements do not acquire any lock. SQL parsing happens outside of any
+ * lock as well. Once an insertion exceeds the cache limit, entries get evicted
+ * in second-chance order: an entry that has been used since the last eviction
+ * round is kept for another round, approximating least-recently-used eviction.
+ *
+ * <p>Hit and miss counts are tracked in a few thread-striped counters,
+ * eviction counts within the eviction round.
+ *
+ * @since 2.5.7
+ * @see org.springframework.core.CollectionFactory#createConcurrentMapIfPossible
+ */
+class ParsedSqlCache {
+
+	private static final int STATISTICS_STRIPE_COUNT = 16;
+
+
+	private final int cacheLimit;
+
+	/** Map from SQL String to CacheEntry; also guards eviction rounds */
+	private final Map entries;
+
+	private final Statistics[] statistics = new Statistics[STATISTICS_STRIPE_COUNT];
+
+	/** Guarded by the entries monitor */
+	private long evictionCount;
+
+
+	/**
+	 * Create a new ParsedSqlCache.
+	 * @param cacheLimit the maximum number of entries to hold
+	 * (0 or less to not cache at all)
+	 */
+	public ParsedSqlCache(int cacheLimit) {
+		this.cacheLimit = cacheLimit;
+		this.entries = CollectionFactory.createConcurrentMapIfPossible(Math.max(Math.min(cacheLimit, 256), 16));
+		for (int i = 0; i < STATISTICS_STRIPE_COUNT; i++) {
+			this.statistics[i] = new Statistics();
+		}
+	}
+
+
+	/**
+	 * Return the maximum number of entries held by this cache.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Obtain the parsed representation of the given SQL statement,
+	 * parsing it and caching the result if not cached yet.
+	 * @param sql the original SQL
+	 * @return the parsed representation of the SQL statement
+	 */
+	public ParsedSql getParsedSql(String sql) {
+		Statistics stats = this.statistics[
+				System.identityHashCode(Thread.currentThread()) & (STATISTICS_STRIPE_COUNT - 1)];
+		CacheEntry entry = (CacheEntry) this.entries.get(sql);
+		if (entry != null) {
+			if (!entry.used) {
+				entry.used = true;
+			}
+			synchronized (stats) {
+				stats.hitCount++;
+			}
+			return entry.parsedSql;
+		}
+		synchronized (stats) {
+			stats.missCount++;
+		}
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+		if (this.cacheLimit > 0) {
+			this.entries.put(sql, new CacheEntry(parsedSql));
+			if (this.entries.size() > this.cacheLimit) {
+				evictEntries();
+			}
+		}
+		return parsedSql;
+	}
+
+	/**
+	 * Evict entries until this cache is back within its limit,
+	 * giving entries used since the previous round a second chance.
+	 */
+	private void evictEntries() {
+		synchronized (this.entries) {
+			while (this.entries.size() > this.cacheLimit) {
+				for (Iterator it = this.entries.values().iterator();
+						it.hasNext() && this.entries.size() > this.cacheLimit;) {
+					CacheEntry entry = (CacheEntry) it.next();
+					if (entry.used) {
+						entry.used = false;
+					}
+					else {
+						it.remove();
+						this.evictionCount++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Return the number of statements currently held in this cache.
+	 */
+	public int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Return the number of lookups that found a cached ParsedSql.
+	 */
+	public long getHitCount() {
+		long hitCount = 0;
+		for (int i = 0; i < STATISTICS_STRIPE_COUNT; i++) {
+			Statistics stats = this.statistics[i];
+			synchronized (stats) {
+				hitCount += stats.hitCount;
+			}
+		}
+		return hitCount;
+	}
+
+	/**
+	 * Return the number of lookups that had to parse the SQL statement.
+	 */
+	public long getMissCount() {
+		long missCount = 0;
+		for (int i = 0; i < STATISTICS_STRIPE_COUNT; i++) {
+			Statistics stats = this.statistics[i];
+			synchronized (stats) {
+				missCount += stats.missCount;
+			}
+		}
+		return missCount;
+	}
+
+	/**
+	 * Return the number of entries that have been evicted
+	 * in order to stay within the cache limit.
+	 */
+	public long getEvictionCount() {
+		synchronized (this.entries) {
+			return this.evictionCount;
+		}
+	}
+
+
+	/**
+	 * A cached ParsedSql, plus a flag indicating whether it has been
+	 * used since the previous eviction round.
+	 */
+	private static class CacheEntry {
+
+		public final ParsedSql parsedSql;
+
+		/** Only a hint for eviction, so a lost update does no harm */
+		public volatile boolean used = true;
+
+		public CacheEntry(ParsedSql parsedSql) {
+			this.parsedSql = parsedSql;
+		}
+	}
+
+
+	/**
+	 * Hit and miss counts for the threads mapped to one stripe.
+	 * Guarded by the Statistics object's monitor.
+	 */
+	private static class Statistics {
+
+		public long hitCount;
+
+		public long missCount;
+	}
+
+}
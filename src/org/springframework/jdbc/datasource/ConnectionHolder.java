@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -49,6 +49,8 @@ public class ConnectionHolder extends ResourceHolderSupport {
 
 	private boolean transactionActive = false;
 
+	private boolean lightweightReadOnly = false;
+
 	private Boolean savepointsSupported;
 
 	private int savepointCounter = 0;
@@ -118,6 +120,22 @@ public class ConnectionHolder extends ResourceHolderSupport {
 		return this.transactionActive;
 	}
 
+	/**
+	 * Set whether the active transaction is a "lightweight" read-only transaction,
+	 * i.e. running on a Connection that has been left in auto-commit mode.
+	 * @see DataSourceTransactionManager#setLightweightReadOnly
+	 */
+	protected void setLightweightReadOnly(boolean lightweightReadOnly) {
+		this.lightweightReadOnly = lightweightReadOnly;
+	}
+
+	/**
+	 * Return whether the active transaction is a "lightweight" read-only transaction.
+	 */
+	protected boolean isLightweightReadOnly() {
+		return this.lightweightReadOnly;
+	}
+
 
 	/**
 	 * Override the existing Connection handle with the given Connection.
@@ -198,6 +216,7 @@ public class ConnectionHolder extends ResourceHolderSupport {
 	public void clear() {
 		super.clear();
 		this.transactionActive = false;
+		this.lightweightReadOnly = false;
 		this.savepointsSupported = null;
 		this.savepointCounter = 0;
 	}
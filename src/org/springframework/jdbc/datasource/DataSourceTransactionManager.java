@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -82,6 +82,15 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
  * to "true", since nested transactions will work without restrictions on JDBC
  * drivers that support savepoints (such as the Oracle JDBC driver).
  *
+ * <p>As of Spring 2.5.7, read-only transactions can be executed in a lightweight
+ * fashion through the {@link #setLightweightReadOnly "lightweightReadOnly"} flag:
+ * The Connection will still be bound to the thread for the entire transaction,
+ * but will be left in auto-commit mode (if it is in auto-commit mode already),
+ * saving the auto-commit switches as well as the commit round-trip. This is
+ * only applied to read-only transactions with default isolation level; note
+ * that no read-only hint will be passed to the Connection in such a scenario,
+ * so do not use this mode with drivers that route based on the read-only flag.
+ *
  * <p>This transaction manager can be used as a replacement for the
  * {@link org.springframework.transaction.jta.JtaTransactionManager} in the single
  * resource case, as it does not require a container that supports JTA, typically
@@ -105,6 +114,15 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 
 	private DataSource dataSource;
 
+	private long readOnlyTransactionCount = 0;
+
+	private long lightweightReadOnlyTransactionCount = 0;
+
+	private long lightweightReadOnlyUpgradeCount = 0;
+
+	/** Guards the transaction counters */
+	private final Object metricsMonitor = new Object();
+
 
 	/**
 	 * Create a new DataSourceTransactionManager instance.
@@ -169,6 +187,40 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 	}
 
 
+	/**
+	 * Return the number of read-only transactions begun so far,
+	 * including lightweight ones.
+	 */
+	public long getReadOnlyTransactionCount() {
+		synchronized (this.metricsMonitor) {
+			return this.readOnlyTransactionCount;
+		}
+	}
+
+	/**
+	 * Return the number of read-only transactions begun in lightweight mode so far,
+	 * i.e. on a Connection that has been left in auto-commit mode.
+	 * @see #setLightweightReadOnly
+	 */
+	public long getLightweightReadOnlyTransactionCount() {
+		synchronized (this.metricsMonitor) {
+			return this.lightweightReadOnlyTransactionCount;
+		}
+	}
+
+	/**
+	 * Return the number of lightweight read-only transactions that had to be
+	 * turned into full transactions, due to a non-read-only or nested
+	 * transaction scope participating in them.
+	 * @see #setLightweightReadOnly
+	 */
+	public long getLightweightReadOnlyUpgradeCount() {
+		synchronized (this.metricsMonitor) {
+			return this.lightweightReadOnlyUpgradeCount;
+		}
+	}
+
+
 	public Object getResourceFactory() {
 		return getDataSource();
 	}
@@ -188,7 +240,11 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 	}
 
 	/**
-	 * This implementation sets the isolation level but ignores the timeout.
+	 * This implementation sets the isolation level and exposes the timeout
+	 * on the ConnectionHolder. Read-only transactions are begun in lightweight
+	 * mode if the "lightweightReadOnly" flag is active, the isolation level
+	 * is the default and the Connection is in auto-commit mode already.
+	 * @see #setLightweightReadOnly
 	 */
 	protected void doBegin(Object transaction, TransactionDefinition definition) {
 		DataSourceTransactionObject txObject = (DataSourceTransactionObject) transaction;
@@ -197,7 +253,7 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 		try {
 			if (txObject.getConnectionHolder() == null ||
 					txObject.getConnectionHolder().isSynchronizedWithTransaction()) {
-				Connection newCon = this.dataSource.getConnection();
+				Connection newCon = DataSourceUtils.fetchConnection(this.dataSource, getTimingRecorder());
 				if (logger.isDebugEnabled()) {
 					logger.debug("Acquired Connection [" + newCon + "] for JDBC transaction");
 				}
@@ -207,18 +263,41 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 			txObject.getConnectionHolder().setSynchronizedWithTransaction(true);
 			con = txObject.getConnectionHolder().getConnection();
 
-			Integer previousIsolationLevel = DataSourceUtils.prepareConnectionForTransaction(con, definition);
-			txObject.setPreviousIsolationLevel(previousIsolationLevel);
-
-			// Switch to manual commit if necessary. This is very expensive in some JDBC drivers,
-			// so we don't want to do it unnecessarily (for example if we've explicitly
-			// configured the connection pool to set it already).
-			if (con.getAutoCommit()) {
-				txObject.setMustRestoreAutoCommit(true);
+			boolean autoCommit = con.getAutoCommit();
+			if (definition.isReadOnly() && isLightweightReadOnly() && autoCommit &&
+					definition.getIsolationLevel() == TransactionDefinition.ISOLATION_DEFAULT) {
+				// Leave the Connection in auto-commit mode: no transaction setup
+				// on the Connection at all, and no commit round-trip at the end.
 				if (logger.isDebugEnabled()) {
-					logger.debug("Switching JDBC Connection [" + con + "] to manual commit");
+					logger.debug("Using JDBC Connection [" + con + "] in auto-commit mode for lightweight " +
+							"read-only transaction");
+				}
+				txObject.setPreviousIsolationLevel(null);
+				txObject.setMustRestoreAutoCommit(true);
+				txObject.getConnectionHolder().setLightweightReadOnly(true);
+			}
+			else {
+				Integer previousIsolationLevel = DataSourceUtils.prepareConnectionForTransaction(con, definition);
+				txObject.setPreviousIsolationLevel(previousIsolationLevel);
+
+				// Switch to manual commit if necessary. This is very expensive in some JDBC drivers,
+				// so we don't want to do it unnecessarily (for example if we've explicitly
+				// configured the connection pool to set it already).
+				if (autoCommit) {
+					txObject.setMustRestoreAutoCommit(true);
+					if (logger.isDebugEnabled()) {
+						logger.debug("Switching JDBC Connection [" + con + "] to manual commit");
+					}
+					con.setAutoCommit(false);
+				}
+			}
+			if (definition.isReadOnly()) {
+				synchronized (this.metricsMonitor) {
+					this.readOnlyTransactionCount++;
+					if (txObject.getConnectionHolder().isLightweightReadOnly()) {
+						this.lightweightReadOnlyTransactionCount++;
+					}
 				}
-				con.setAutoCommit(false);
 			}
 			txObject.getConnectionHolder().setTransactionActive(true);
 
@@ -252,9 +331,45 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 		TransactionSynchronizationManager.bindResource(this.dataSource, conHolder);
 	}
 
+	/**
+	 * This implementation turns a lightweight read-only transaction into a full
+	 * transaction if a non-read-only or nested transaction scope participates in it,
+	 * switching the Connection to manual commit from that point on.
+	 * @see #setLightweightReadOnly
+	 */
+	protected void prepareForParticipation(Object transaction, TransactionDefinition definition) {
+		DataSourceTransactionObject txObject = (DataSourceTransactionObject) transaction;
+		ConnectionHolder conHolder = txObject.getConnectionHolder();
+		if (conHolder.isLightweightReadOnly() && (!definition.isReadOnly() ||
+				definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_NESTED)) {
+			Connection con = conHolder.getConnection();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Switching JDBC Connection [" + con + "] to manual commit for participating " +
+						"transaction with definition [" + definition + "]");
+			}
+			try {
+				con.setAutoCommit(false);
+			}
+			catch (SQLException ex) {
+				throw new CannotCreateTransactionException(
+						"Could not switch JDBC Connection to manual commit for participating transaction", ex);
+			}
+			conHolder.setLightweightReadOnly(false);
+			synchronized (this.metricsMonitor) {
+				this.lightweightReadOnlyUpgradeCount++;
+			}
+		}
+	}
+
 	protected void doCommit(DefaultTransactionStatus status) {
 		DataSourceTransactionObject txObject = (DataSourceTransactionObject) status.getTransaction();
 		Connection con = txObject.getConnectionHolder().getConnection();
+		if (txObject.getConnectionHolder().isLightweightReadOnly()) {
+			if (status.isDebug()) {
+				logger.debug("Completing lightweight read-only transaction on JDBC Connection [" + con + "]");
+			}
+			return;
+		}
 		if (status.isDebug()) {
 			logger.debug("Committing JDBC transaction on Connection [" + con + "]");
 		}
@@ -269,6 +384,12 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 	protected void doRollback(DefaultTransactionStatus status) {
 		DataSourceTransactionObject txObject = (DataSourceTransactionObject) status.getTransaction();
 		Connection con = txObject.getConnectionHolder().getConnection();
+		if (txObject.getConnectionHolder().isLightweightReadOnly()) {
+			if (status.isDebug()) {
+				logger.debug("Completing lightweight read-only transaction on JDBC Connection [" + con + "]");
+			}
+			return;
+		}
 		if (status.isDebug()) {
 			logger.debug("Rolling back JDBC transaction on Connection [" + con + "]");
 		}
@@ -297,16 +418,18 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 			TransactionSynchronizationManager.unbindResource(this.dataSource);
 		}
 
-		// Reset connection.
+		// Reset connection, unless it has been left untouched for a lightweight transaction.
 		Connection con = txObject.getConnectionHolder().getConnection();
-		try {
-			if (txObject.isMustRestoreAutoCommit()) {
-				con.setAutoCommit(true);
+		if (!txObject.getConnectionHolder().isLightweightReadOnly()) {
+			try {
+				if (txObject.isMustRestoreAutoCommit()) {
+					con.setAutoCommit(true);
+				}
+				DataSourceUtils.resetConnectionAfterTransaction(con, txObject.getPreviousIsolationLevel());
+			}
+			catch (Throwable ex) {
+				logger.debug("Could not reset JDBC Connection after transaction", ex);
 			}
-			DataSourceUtils.resetConnectionAfterTransaction(con, txObject.getPreviousIsolationLevel());
-		}
-		catch (Throwable ex) {
-			logger.debug("Could not reset JDBC Connection after transaction", ex);
 		}
 
 		if (txObject.isNewConnectionHolder()) {
@@ -25,6 +25,7 @@ import javax.sql.DataSource;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.metrics.TimingRecorder;
 import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
@@ -57,6 +58,13 @@ public abstract class DataSourceUtils {
 	 */
 	public static final int CONNECTION_SYNCHRONIZATION_ORDER = 1000;
 
+	/**
+	 * Timing category for fetching a JDBC Connection from a DataSource,
+	 * i.e. the time spent waiting for a Connection from a pool.
+	 * @see #getConnection(javax.sql.DataSource, org.springframework.core.metrics.TimingRecorder)
+	 */
+	public static final String TIMING_CATEGORY_CONNECTION = "jdbc.connection";
+
 	private static final Log logger = LogFactory.getLog(DataSourceUtils.class);
 
 
@@ -75,8 +83,27 @@ public abstract class DataSourceUtils {
 	 * @see #releaseConnection
 	 */
 	public static Connection getConnection(DataSource dataSource) throws CannotGetJdbcConnectionException {
+		return getConnection(dataSource, null);
+	}
+
+	/**
+	 * Obtain a Connection from the given DataSource, recording the time spent
+	 * fetching a new Connection from the DataSource with the given TimingRecorder.
+	 * A Connection bound to the current thread will be returned without recording.
+	 * @param dataSource the DataSource to obtain Connections from
+	 * @param timingRecorder the TimingRecorder to record Connection fetching with
+	 * (may be <code>null</code>)
+	 * @return a JDBC Connection from the given DataSource
+	 * @throws org.springframework.jdbc.CannotGetJdbcConnectionException
+	 * if the attempt to get a Connection failed
+	 * @see #getConnection(javax.sql.DataSource)
+	 * @see #TIMING_CATEGORY_CONNECTION
+	 */
+	public static Connection getConnection(DataSource dataSource, TimingRecorder timingRecorder)
+			throws CannotGetJdbcConnectionException {
+
 		try {
-			return doGetConnection(dataSource);
+			return doGetConnection(dataSource, timingRecorder);
 		}
 		catch (SQLException ex) {
 			throw new CannotGetJdbcConnectionException("Could not get JDBC Connection", ex);
@@ -96,6 +123,23 @@ public abstract class DataSourceUtils {
 	 * @see #doReleaseConnection
 	 */
 	public static Connection doGetConnection(DataSource dataSource) throws SQLException {
+		return doGetConnection(dataSource, null);
+	}
+
+	/**
+	 * Actually obtain a JDBC Connection from the given DataSource.
+	 * Same as {@link #getConnection(DataSource, TimingRecorder)},
+	 * but throwing the original SQLException.
+	 * @param dataSource the DataSource to obtain Connections from
+	 * @param timingRecorder the TimingRecorder to record Connection fetching with
+	 * (may be <code>null</code>)
+	 * @return a JDBC Connection from the given DataSource
+	 * @throws SQLException if thrown by JDBC methods
+	 * @see #doGetConnection(javax.sql.DataSource)
+	 */
+	public static Connection doGetConnection(DataSource dataSource, TimingRecorder timingRecorder)
+			throws SQLException {
+
 		Assert.notNull(dataSource, "No DataSource specified");
 
 		ConnectionHolder conHolder = (ConnectionHolder) TransactionSynchronizationManager.getResource(dataSource);
@@ -103,14 +147,14 @@ public abstract class DataSourceUtils {
 			conHolder.requested();
 			if (!conHolder.hasConnection()) {
 				logger.debug("Fetching resumed JDBC Connection from DataSource");
-				conHolder.setConnection(dataSource.getConnection());
+				conHolder.setConnection(fetchConnection(dataSource, timingRecorder));
 			}
 			return conHolder.getConnection();
 		}
 		// Else we either got no holder or an empty thread-bound holder here.
 
 		logger.debug("Fetching JDBC Connection from DataSource");
-		Connection con = dataSource.getConnection();
+		Connection con = fetchConnection(dataSource, timingRecorder);
 
 		if (TransactionSynchronizationManager.isSynchronizationActive()) {
 			logger.debug("Registering transaction synchronization for JDBC Connection");
@@ -135,6 +179,25 @@ public abstract class DataSourceUtils {
 		return con;
 	}
 
+	/**
+	 * Fetch a new Connection from the given DataSource, recording the time
+	 * spent with the given TimingRecorder, if any.
+	 * @param dataSource the DataSource to fetch a Connection from
+	 * @param timingRecorder the TimingRecorder to use (may be <code>null</code>)
+	 * @return the new JDBC Connection
+	 * @throws SQLException if thrown by the DataSource
+	 * @see #TIMING_CATEGORY_CONNECTION
+	 */
+	static Connection fetchConnection(DataSource dataSource, TimingRecorder timingRecorder) throws SQLException {
+		if (timingRecorder == null) {
+			return dataSource.getConnection();
+		}
+		long startTime = timingRecorder.startTime();
+		Connection con = dataSource.getConnection();
+		timingRecorder.record(TIMING_CATEGORY_CONNECTION, null, startTime);
+		return con;
+	}
+
 	/**
 	 * Prepare the given Connection with the given transaction semantics.
 	 * @param con the Connection to prepare
@@ -0,0 +1,594 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Proxy for a target JDBC {@link javax.sql.DataSource}, caching the
+ * PreparedStatements created on each Connection. Useful for JDBC drivers
+ * and connection pools that do not provide statement caching themselves,
+ * avoiding the round trip for parsing the same SQL statement again.
+ *
+ * <p>Statements get cached per Connection handle returned by this proxy,
+ * keyed by SQL String as well as by the further arguments passed to
+ * <code>prepareStatement</code> (ResultSet type, concurrency and holdability,
+ * generated keys settings). Closing a cached PreparedStatement does not close
+ * the actual statement: Its parameters, any pending batch and any changed
+ * statement settings (fetch size, max rows, query timeout etc) are reset,
+ * and the statement is returned to the cache, to be handed out for the next
+ * <code>prepareStatement</code> call with the same key. The least recently
+ * used statements get closed once the {@link #setCacheLimit cache limit} has
+ * been reached. All cached statements get closed along with the Connection.
+ *
+ * <p>The lifetime of a cache is therefore determined by the lifetime of
+ * the Connection handle:
+ * <ul>
+ * <li>When placed in front of a connection pool and used as DataSource for
+ * both {@link DataSourceTransactionManager} and JdbcTemplate, statements are
+ * cached for the duration of a transaction, since the transactional Connection
+ * is held in a {@link ConnectionHolder} until the transaction completes.
+ * Outside of a transaction, each JdbcTemplate operation works with a new
+ * Connection handle, which will not benefit from caching.
+ * <li>When placed between a connection pool and the physical DataSource
+ * (for pools that are able to work with a DataSource as Connection factory),
+ * or in front of a DataSource that returns a single shared Connection,
+ * statements are cached for the lifetime of the physical Connection.
+ * </ul>
+ *
+ * <p>Hit, miss and eviction counts are tracked across all Connections.
+ *
+ * <p><b>NOTE:</b> This DataSource proxy needs to return wrapped Connections
+ * (which implement the {@link ConnectionProxy} interface), wrapped
+ * PreparedStatements and wrapped ResultSets (exposing the wrapped
+ * PreparedStatement) in order to handle close calls properly. Therefore,
+ * they cannot be cast to native JDBC types like OracleConnection or to
+ * connection pool implementation types. Use a corresponding
+ * {@link org.springframework.jdbc.support.nativejdbc.NativeJdbcExtractor}
+ * to retrieve the native JDBC Connection.
+ *
+ * @since 2.5.7
+ * @see #setCacheLimit
+ * @see java.sql.Connection#prepareStatement(String)
+ * @see java.sql.PreparedStatement#close()
+ */
+public class StatementCachingDataSourceProxy extends DelegatingDataSource {
+
+	/** Default maximum number of statements to cache per Connection: 32 */
+	public static final int DEFAULT_CACHE_LIMIT = 32;
+
+	private static final Log logger = LogFactory.getLog(StatementCachingDataSourceProxy.class);
+
+	/** Statement setters whose changes get reverted before reusing a statement, with their getters */
+	private static final Map resettableSettings = new HashMap(8);
+
+	static {
+		resettableSettings.put("setFetchDirection", "getFetchDirection");
+		resettableSettings.put("setFetchSize", "getFetchSize");
+		resettableSettings.put("setMaxFieldSize", "getMaxFieldSize");
+		resettableSettings.put("setMaxRows", "getMaxRows");
+		resettableSettings.put("setQueryTimeout", "getQueryTimeout");
+	}
+
+
+	private int cacheLimit = DEFAULT_CACHE_LIMIT;
+
+	private long hitCount;
+
+	private long missCount;
+
+	private long evictionCount;
+
+	/** Monitor for the statistics */
+	private final Object statisticsMonitor = new Object();
+
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @see #setTargetDataSource
+	 */
+	public StatementCachingDataSourceProxy() {
+	}
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @param targetDataSource the target DataSource
+	 */
+	public StatementCachingDataSourceProxy(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+
+	/**
+	 * Specify the maximum number of PreparedStatements to cache per Connection.
+	 * Default is 32. A value of 0 turns caching off.
+	 * <p>Least recently used statements get closed once the limit is reached.
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		Assert.isTrue(cacheLimit >= 0, "Cache limit must not be negative");
+		this.cacheLimit = cacheLimit;
+	}
+
+	/**
+	 * Return the maximum number of PreparedStatements to cache per Connection.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Return the number of <code>prepareStatement</code> calls
+	 * that have been served with a cached statement.
+	 */
+	public long getCacheHitCount() {
+		synchronized (this.statisticsMonitor) {
+			return this.hitCount;
+		}
+	}
+
+	/**
+	 * Return the number of <code>prepareStatement</code> calls
+	 * that had to prepare a new statement.
+	 */
+	public long getCacheMissCount() {
+		synchronized (this.statisticsMonitor) {
+			return this.missCount;
+		}
+	}
+
+	/**
+	 * Return the number of statements that have been closed
+	 * in order to stay within the cache limit.
+	 */
+	public long getCacheEvictionCount() {
+		synchronized (this.statisticsMonitor) {
+			return this.evictionCount;
+		}
+	}
+
+	/**
+	 * Return the ratio of <code>prepareStatement</code> calls that have
+	 * been served with a cached statement, between 0 and 1.
+	 */
+	public double getCacheHitRatio() {
+		synchronized (this.statisticsMonitor) {
+			long total = this.hitCount + this.missCount;
+			return (total > 0 ? (double) this.hitCount / total : 0);
+		}
+	}
+
+
+	/**
+	 * Return a statement-caching proxy for a Connection from the target DataSource.
+	 * <p>The returned Connection handle implements the ConnectionProxy interface,
+	 * allowing to retrieve the underlying target Connection.
+	 * @see ConnectionProxy#getTargetConnection
+	 */
+	public Connection getConnection() throws SQLException {
+		return getStatementCachingConnectionProxy(getTargetDataSource().getConnection());
+	}
+
+	/**
+	 * Return a statement-caching proxy for a Connection from the target DataSource.
+	 * <p>The returned Connection handle implements the ConnectionProxy interface,
+	 * allowing to retrieve the underlying target Connection.
+	 * @see ConnectionProxy#getTargetConnection
+	 */
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getStatementCachingConnectionProxy(getTargetDataSource().getConnection(username, password));
+	}
+
+	/**
+	 * Wrap the given Connection with a proxy that caches PreparedStatements.
+	 * @param target the original Connection to wrap
+	 * @return the wrapped Connection
+	 */
+	protected Connection getStatementCachingConnectionProxy(Connection target) {
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class[] {ConnectionProxy.class},
+				new StatementCachingInvocationHandler(target, this.cacheLimit));
+	}
+
+
+	/**
+	 * Close the given JDBC Statement and ignore any thrown exception.
+	 */
+	private static void closeStatement(PreparedStatement ps) {
+		try {
+			ps.close();
+		}
+		catch (SQLException ex) {
+			logger.debug("Could not close JDBC PreparedStatement", ex);
+		}
+		catch (Throwable ex) {
+			// We don't trust the JDBC driver: It might throw RuntimeException or Error.
+			logger.debug("Unexpected exception on closing JDBC PreparedStatement", ex);
+		}
+	}
+
+
+	/**
+	 * Invocation handler for Connection proxies, handing out cached
+	 * PreparedStatements and closing them along with the Connection.
+	 */
+	private class StatementCachingInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		/** Idle statements, in order of their last use */
+		private final StatementCache statementCache;
+
+		private boolean closed = false;
+
+		public StatementCachingInvocationHandler(Connection target, int cacheLimit) {
+			this.target = target;
+			this.statementCache = new StatementCache(cacheLimit);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			if (method.getName().equals("equals")) {
+				// Only consider equal when proxies are identical.
+				return (proxy == args[0] ? Boolean.TRUE : Boolean.FALSE);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// Use hashCode of Connection proxy.
+				return new Integer(System.identityHashCode(proxy));
+			}
+			else if (method.getName().equals("toString")) {
+				// Allow for differentiating between the proxy and the raw Connection.
+				return "Statement-caching proxy for target Connection [" + this.target.toString() + "]";
+			}
+			else if (method.getName().equals("getTargetConnection")) {
+				// Handle getTargetConnection method: return underlying Connection.
+				return this.target;
+			}
+			else if (method.getName().equals("close")) {
+				// Handle close method: close all cached statements along with the Connection.
+				synchronized (this.statementCache) {
+					this.closed = true;
+					for (Iterator it = this.statementCache.values().iterator(); it.hasNext();) {
+						closeStatement((PreparedStatement) it.next());
+					}
+					this.statementCache.clear();
+				}
+				this.target.close();
+				return null;
+			}
+			else if (method.getName().equals("prepareStatement") && this.statementCache.getCacheLimit() > 0) {
+				// Handle prepareStatement method: check for cached statement first.
+				StatementKey key = new StatementKey(args);
+				PreparedStatement ps = null;
+				synchronized (this.statementCache) {
+					ps = (PreparedStatement) this.statementCache.remove(key);
+				}
+				synchronized (statisticsMonitor) {
+					if (ps != null) {
+						hitCount++;
+					}
+					else {
+						missCount++;
+					}
+				}
+				if (ps == null) {
+					ps = (PreparedStatement) invokeOnTarget(method, args);
+				}
+				return Proxy.newProxyInstance(
+						PreparedStatement.class.getClassLoader(),
+						new Class[] {PreparedStatement.class},
+						new CachedStatementInvocationHandler(ps, key, proxy, this));
+			}
+
+			return invokeOnTarget(method, args);
+		}
+
+		private Object invokeOnTarget(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		/**
+		 * Return the given statement to the cache, or close it if there
+		 * is a cached statement for the same key already.
+		 */
+		public void releaseStatement(StatementKey key, PreparedStatement ps) {
+			synchronized (this.statementCache) {
+				if (!this.closed && !this.statementCache.containsKey(key)) {
+					this.statementCache.put(key, ps);
+					return;
+				}
+			}
+			closeStatement(ps);
+		}
+	}
+
+
+	/**
+	 * Invocation handler for PreparedStatement proxies, resetting the
+	 * statement and returning it to the cache on close.
+	 */
+	private static class CachedStatementInvocationHandler implements InvocationHandler {
+
+		private final PreparedStatement target;
+
+		private final StatementKey key;
+
+		private final Object connectionProxy;
+
+		private final StatementCachingInvocationHandler connectionHandler;
+
+		/** Original values of changed statement settings, keyed by getter name */
+		private Map originalSettings;
+
+		private boolean batchPending = false;
+
+		/** Whether the statement must not be reused, for example after an exception */
+		private boolean discard = false;
+
+		private boolean closed = false;
+
+		public CachedStatementInvocationHandler(PreparedStatement target, StatementKey key,
+				Object connectionProxy, StatementCachingInvocationHandler connectionHandler) {
+
+			this.target = target;
+			this.key = key;
+			this.connectionProxy = connectionProxy;
+			this.connectionHandler = connectionHandler;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on PreparedStatement interface coming in...
+
+			String methodName = method.getName();
+			if (methodName.equals("equals")) {
+				// Only consider equal when proxies are identical.
+				return (proxy == args[0] ? Boolean.TRUE : Boolean.FALSE);
+			}
+			else if (methodName.equals("hashCode")) {
+				// Use hashCode of PreparedStatement proxy.
+				return new Integer(System.identityHashCode(proxy));
+			}
+			else if (methodName.equals("toString")) {
+				return "Cached proxy for target PreparedStatement [" + this.target.toString() + "]";
+			}
+			else if (methodName.equals("isClosed")) {
+				return (this.closed ? Boolean.TRUE : Boolean.FALSE);
+			}
+			else if (methodName.equals("close")) {
+				// Handle close method: reset statement and return it to the cache.
+				if (!this.closed) {
+					this.closed = true;
+					release();
+				}
+				return null;
+			}
+
+			if (this.closed) {
+				throw new SQLException("PreparedStatement handle already closed");
+			}
+			if (methodName.equals("getConnection")) {
+				// Expose the Connection proxy rather than the target Connection.
+				return this.connectionProxy;
+			}
+			else if (methodName.equals("addBatch")) {
+				this.batchPending = true;
+			}
+			else if (resettableSettings.containsKey(methodName)) {
+				// Remember original value of statement setting, to be restored on close.
+				String getterName = (String) resettableSettings.get(methodName);
+				if (this.originalSettings == null) {
+					this.originalSettings = new HashMap(4);
+				}
+				if (!this.originalSettings.containsKey(getterName)) {
+					Method getter = PreparedStatement.class.getMethod(getterName, new Class[0]);
+					this.originalSettings.put(getterName, getter.invoke(this.target, new Object[0]));
+				}
+			}
+			else if (methodName.startsWith("set") && method.getDeclaringClass() != PreparedStatement.class) {
+				// Other statement settings (e.g. escape processing, cursor name): do not reuse.
+				this.discard = true;
+			}
+
+			Object retVal = null;
+			try {
+				retVal = method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				this.discard = true;
+				throw ex.getTargetException();
+			}
+			if (retVal instanceof ResultSet) {
+				// Expose the PreparedStatement proxy through the ResultSet,
+				// so that a close call on it returns the statement to the cache.
+				retVal = Proxy.newProxyInstance(
+						ResultSet.class.getClassLoader(),
+						new Class[] {ResultSet.class},
+						new ResultSetInvocationHandler((ResultSet) retVal, proxy));
+			}
+			return retVal;
+		}
+
+		/**
+		 * Reset the statement and return it to the cache,
+		 * or close it if it cannot be reset.
+		 */
+		private void release() {
+			if (!this.discard) {
+				try {
+					this.target.clearParameters();
+					if (this.batchPending) {
+						this.target.clearBatch();
+					}
+					if (this.originalSettings != null) {
+						for (Iterator it = this.originalSettings.entrySet().iterator(); it.hasNext();) {
+							Map.Entry entry = (Map.Entry) it.next();
+							String setterName = "s" + ((String) entry.getKey()).substring(1);
+							Method setter = PreparedStatement.class.getMethod(setterName, new Class[] {int.class});
+							setter.invoke(this.target, new Object[] {entry.getValue()});
+						}
+					}
+					this.target.clearWarnings();
+					this.connectionHandler.releaseStatement(this.key, this.target);
+					return;
+				}
+				catch (Throwable ex) {
+					logger.debug("Could not reset JDBC PreparedStatement for reuse - closing it", ex);
+				}
+			}
+			closeStatement(this.target);
+		}
+	}
+
+
+	/**
+	 * Invocation handler for ResultSet proxies, exposing the
+	 * PreparedStatement proxy instead of the target statement.
+	 */
+	private static class ResultSetInvocationHandler implements InvocationHandler {
+
+		private final ResultSet target;
+
+		private final Object statementProxy;
+
+		public ResultSetInvocationHandler(ResultSet target, Object statementProxy) {
+			this.target = target;
+			this.statementProxy = statementProxy;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ResultSet interface coming in...
+
+			if (method.getName().equals("equals")) {
+				// Only consider equal when proxies are identical.
+				return (proxy == args[0] ? Boolean.TRUE : Boolean.FALSE);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// Use hashCode of ResultSet proxy.
+				return new Integer(System.identityHashCode(proxy));
+			}
+			else if (method.getName().equals("getStatement")) {
+				// Expose the PreparedStatement proxy rather than the target statement.
+				return this.statementProxy;
+			}
+
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+	}
+
+
+	/**
+	 * Cache key for a PreparedStatement: the SQL String plus
+	 * all further arguments passed to <code>prepareStatement</code>.
+	 */
+	private static class StatementKey {
+
+		private final Object[] args;
+
+		public StatementKey(Object[] args) {
+			this.args = args;
+		}
+
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof StatementKey)) {
+				return false;
+			}
+			Object[] otherArgs = ((StatementKey) other).args;
+			if (this.args.length != otherArgs.length) {
+				return false;
+			}
+			for (int i = 0; i < this.args.length; i++) {
+				if (!ObjectUtils.nullSafeEquals(this.args[i], otherArgs[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public int hashCode() {
+			int hashCode = this.args.length;
+			for (int i = 0; i < this.args.length; i++) {
+				hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(this.args[i]);
+			}
+			return hashCode;
+		}
+	}
+
+
+	/**
+	 * Idle statements of a Connection: a LinkedHashMap that closes
+	 * its eldest statement once its cache limit is exceeded.
+	 * Guarded by its own monitor.
+	 */
+	private class StatementCache extends LinkedHashMap {
+
+		private final int cacheLimit;
+
+		public StatementCache(int cacheLimit) {
+			super(16, 0.75f, true);
+			this.cacheLimit = cacheLimit;
+		}
+
+		public int getCacheLimit() {
+			return this.cacheLimit;
+		}
+
+		protected boolean removeEldestEntry(Map.Entry eldest) {
+			if (size() > this.cacheLimit) {
+				closeStatement((PreparedStatement) eldest.getValue());
+				synchronized (statisticsMonitor) {
+					evictionCount++;
+				}
+				return true;
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,960 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+import org.springframework.util.Assert;
+
+/**
+ * Disconnected implementation of Spring's {@link SqlRowSet} interface,
+ * holding the data of a given ResultSet in memory column by column.
+ * Does not require a JDBC RowSet implementation at runtime.
+ *
+ * <p>The storage of each column is chosen according to the Java type
+ * that the JDBC driver reports for it (see
+ * {@link java.sql.ResultSetMetaData#getColumnClassName}): Boolean and
+ * integral values are held in a <code>long</code> array, floating-point
+ * values in a <code>double</code> array, with null values tracked in a
+ * bit set. String values are dictionary-encoded, sharing a single String
+ * instance for each distinct value, as long as the column has no more
+ * than {@link #DEFAULT_MAX_DICTIONARY_SIZE} distinct values; beyond that,
+ * they are held as plain String array. All other values are held as
+ * returned by <code>ResultSet.getObject</code>, with the exception of
+ * Clobs and Blobs, which are read into a String and a byte array,
+ * respectively. {@link #getObject(int)} returns values of the same
+ * type as the original ResultSet would have returned.
+ *
+ * <p>Accessor methods convert between value types in a similar fashion
+ * as common ResultSet implementations: for example, <code>getString</code>
+ * works for all columns, and <code>getInt</code> works for String values
+ * that represent a number. Conversion failures, invalid column indexes
+ * and invalid cursor positions are reported as
+ * {@link InvalidResultSetAccessException}.
+ *
+ * <p>This class is serializable if all values held by it are serializable,
+ * which is the case for all common JDBC value types.
+ *
+ * @since 2.5.7
+ * @see CompactSqlRowSetMetaData
+ * @see org.springframework.jdbc.core.SqlRowSetResultSetExtractor#SqlRowSetResultSetExtractor(boolean)
+ * @see org.springframework.jdbc.core.JdbcTemplate#setCompactRowSets
+ */
+public class CompactSqlRowSet implements SqlRowSet {
+
+	/**
+	 * Default maximum number of distinct values per dictionary-encoded
+	 * String column: 256.
+	 */
+	public static final int DEFAULT_MAX_DICTIONARY_SIZE = 256;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+
+	private final CompactSqlRowSetMetaData metaData;
+
+	private final Column[] columns;
+
+	private final int rowCount;
+
+	/** Current row number: 0 before the first row, rowCount + 1 after the last row */
+	private int cursor = 0;
+
+	private boolean wasNull = false;
+
+
+	/**
+	 * Create a new CompactSqlRowSet for the given ResultSet,
+	 * with the default maximum dictionary size.
+	 * @param resultSet the ResultSet to read all remaining rows from
+	 * (usually a connected ResultSet that gets closed afterwards)
+	 * @throws SQLException if thrown by JDBC methods
+	 * @see #DEFAULT_MAX_DICTIONARY_SIZE
+	 */
+	public CompactSqlRowSet(ResultSet resultSet) throws SQLException {
+		this(resultSet, DEFAULT_MAX_DICTIONARY_SIZE);
+	}
+
+	/**
+	 * Create a new CompactSqlRowSet for the given ResultSet.
+	 * @param resultSet the ResultSet to read all remaining rows from
+	 * (usually a connected ResultSet that gets closed afterwards)
+	 * @param maxDictionarySize the maximum number of distinct values per
+	 * dictionary-encoded String column (0 for no dictionary encoding)
+	 * @throws SQLException if thrown by JDBC methods
+	 */
+	public CompactSqlRowSet(ResultSet resultSet, int maxDictionarySize) throws SQLException {
+		Assert.notNull(resultSet, "ResultSet must not be null");
+		Assert.isTrue(maxDictionarySize >= 0, "Maximum dictionary size must not be negative");
+		this.metaData = new CompactSqlRowSetMetaData(resultSet.getMetaData());
+		int columnCount = this.metaData.getColumnCount();
+		this.columns = new Column[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			this.columns[i] = createColumn(i + 1, maxDictionarySize);
+			this.columns[i].grow(INITIAL_CAPACITY);
+		}
+		int capacity = INITIAL_CAPACITY;
+		int row = 0;
+		while (resultSet.next()) {
+			if (row == capacity) {
+				capacity *= 2;
+				for (int i = 0; i < columnCount; i++) {
+					this.columns[i].grow(capacity);
+				}
+			}
+			for (int i = 0; i < columnCount; i++) {
+				this.columns[i].read(resultSet, i + 1, row);
+			}
+			row++;
+		}
+		for (int i = 0; i < columnCount; i++) {
+			this.columns[i].trim(row);
+		}
+		this.rowCount = row;
+	}
+
+	/**
+	 * Choose the storage for the given column.
+	 */
+	private Column createColumn(int column, int maxDictionarySize) {
+		String className = this.metaData.getColumnClassName(column);
+		if (Long.class.getName().equals(className)) {
+			return new LongColumn(LongColumn.LONG);
+		}
+		else if (Integer.class.getName().equals(className)) {
+			return new LongColumn(LongColumn.INTEGER);
+		}
+		else if (Short.class.getName().equals(className)) {
+			return new LongColumn(LongColumn.SHORT);
+		}
+		else if (Byte.class.getName().equals(className)) {
+			return new LongColumn(LongColumn.BYTE);
+		}
+		else if (Boolean.class.getName().equals(className)) {
+			return new LongColumn(LongColumn.BOOLEAN);
+		}
+		else if (Double.class.getName().equals(className)) {
+			return new DoubleColumn(false);
+		}
+		else if (Float.class.getName().equals(className)) {
+			return new DoubleColumn(true);
+		}
+		else if (String.class.getName().equals(className)) {
+			return new StringColumn(maxDictionarySize);
+		}
+		else if (className == null) {
+			int type = this.metaData.getColumnType(column);
+			if (type == Types.CHAR || type == Types.VARCHAR || type == Types.LONGVARCHAR) {
+				return new StringColumn(maxDictionarySize);
+			}
+		}
+		return new ObjectColumn();
+	}
+
+
+	public SqlRowSetMetaData getMetaData() {
+		return this.metaData;
+	}
+
+	public int findColumn(String columnName) throws InvalidResultSetAccessException {
+		return this.metaData.findColumn(columnName);
+	}
+
+	/**
+	 * Return the number of rows held by this SqlRowSet.
+	 */
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+
+	// RowSet methods for extracting data values
+
+	public BigDecimal getBigDecimal(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? null : column.getBigDecimal(this.cursor - 1));
+	}
+
+	public BigDecimal getBigDecimal(String columnName) throws InvalidResultSetAccessException {
+		return getBigDecimal(findColumn(columnName));
+	}
+
+	public boolean getBoolean(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? false : column.getBoolean(this.cursor - 1));
+	}
+
+	public boolean getBoolean(String columnName) throws InvalidResultSetAccessException {
+		return getBoolean(findColumn(columnName));
+	}
+
+	public byte getByte(int columnIndex) throws InvalidResultSetAccessException {
+		return (byte) getLong(columnIndex);
+	}
+
+	public byte getByte(String columnName) throws InvalidResultSetAccessException {
+		return getByte(findColumn(columnName));
+	}
+
+	public Date getDate(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Date date = getDate(columnIndex);
+		if (date == null || cal == null) {
+			return date;
+		}
+		Calendar defaultCal = Calendar.getInstance();
+		defaultCal.setTime(date);
+		Calendar targetCal = (Calendar) cal.clone();
+		targetCal.clear();
+		targetCal.set(defaultCal.get(Calendar.YEAR), defaultCal.get(Calendar.MONTH), defaultCal.get(Calendar.DAY_OF_MONTH));
+		return new Date(targetCal.getTime().getTime());
+	}
+
+	public Date getDate(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? null : column.getDate(this.cursor - 1));
+	}
+
+	public Date getDate(String columnName, Calendar cal) throws InvalidResultSetAccessException {
+		return getDate(findColumn(columnName), cal);
+	}
+
+	public Date getDate(String columnName) throws InvalidResultSetAccessException {
+		return getDate(findColumn(columnName));
+	}
+
+	public double getDouble(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? 0 : column.getDouble(this.cursor - 1));
+	}
+
+	public double getDouble(String columnName) throws InvalidResultSetAccessException {
+		return getDouble(findColumn(columnName));
+	}
+
+	public float getFloat(int columnIndex) throws InvalidResultSetAccessException {
+		return (float) getDouble(columnIndex);
+	}
+
+	public float getFloat(String columnName) throws InvalidResultSetAccessException {
+		return getFloat(findColumn(columnName));
+	}
+
+	public int getInt(int columnIndex) throws InvalidResultSetAccessException {
+		return (int) getLong(columnIndex);
+	}
+
+	public int getInt(String columnName) throws InvalidResultSetAccessException {
+		return getInt(findColumn(columnName));
+	}
+
+	public long getLong(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? 0 : column.getLong(this.cursor - 1));
+	}
+
+	public long getLong(String columnName) throws InvalidResultSetAccessException {
+		return getLong(findColumn(columnName));
+	}
+
+	/**
+	 * This implementation ignores the given type map: values are
+	 * retrieved through <code>ResultSet.getObject(int)</code> when
+	 * populating this SqlRowSet.
+	 */
+	public Object getObject(int columnIndex, Map map) throws InvalidResultSetAccessException {
+		return getObject(columnIndex);
+	}
+
+	public Object getObject(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? null : column.getObject(this.cursor - 1));
+	}
+
+	/**
+	 * This implementation ignores the given type map: values are
+	 * retrieved through <code>ResultSet.getObject(int)</code> when
+	 * populating this SqlRowSet.
+	 */
+	public Object getObject(String columnName, Map map) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnName));
+	}
+
+	public Object getObject(String columnName) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnName));
+	}
+
+	public short getShort(int columnIndex) throws InvalidResultSetAccessException {
+		return (short) getLong(columnIndex);
+	}
+
+	public short getShort(String columnName) throws InvalidResultSetAccessException {
+		return getShort(findColumn(columnName));
+	}
+
+	public String getString(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? null : column.getString(this.cursor - 1));
+	}
+
+	public String getString(String columnName) throws InvalidResultSetAccessException {
+		return getString(findColumn(columnName));
+	}
+
+	public Time getTime(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Time time = getTime(columnIndex);
+		if (time == null || cal == null) {
+			return time;
+		}
+		Calendar defaultCal = Calendar.getInstance();
+		defaultCal.setTime(time);
+		Calendar targetCal = (Calendar) cal.clone();
+		targetCal.clear();
+		targetCal.set(1970, Calendar.JANUARY, 1, defaultCal.get(Calendar.HOUR_OF_DAY),
+				defaultCal.get(Calendar.MINUTE), defaultCal.get(Calendar.SECOND));
+		targetCal.set(Calendar.MILLISECOND, defaultCal.get(Calendar.MILLISECOND));
+		return new Time(targetCal.getTime().getTime());
+	}
+
+	public Time getTime(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? null : column.getTime(this.cursor - 1));
+	}
+
+	public Time getTime(String columnName, Calendar cal) throws InvalidResultSetAccessException {
+		return getTime(findColumn(columnName), cal);
+	}
+
+	public Time getTime(String columnName) throws InvalidResultSetAccessException {
+		return getTime(findColumn(columnName));
+	}
+
+	public Timestamp getTimestamp(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Timestamp timestamp = getTimestamp(columnIndex);
+		if (timestamp == null || cal == null) {
+			return timestamp;
+		}
+		Calendar defaultCal = Calendar.getInstance();
+		defaultCal.setTime(timestamp);
+		Calendar targetCal = (Calendar) cal.clone();
+		targetCal.clear();
+		targetCal.set(defaultCal.get(Calendar.YEAR), defaultCal.get(Calendar.MONTH),
+				defaultCal.get(Calendar.DAY_OF_MONTH), defaultCal.get(Calendar.HOUR_OF_DAY),
+				defaultCal.get(Calendar.MINUTE), defaultCal.get(Calendar.SECOND));
+		Timestamp result = new Timestamp(targetCal.getTime().getTime());
+		result.setNanos(timestamp.getNanos());
+		return result;
+	}
+
+	public Timestamp getTimestamp(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getColumn(columnIndex);
+		return (this.wasNull ? null : column.getTimestamp(this.cursor - 1));
+	}
+
+	public Timestamp getTimestamp(String columnName, Calendar cal) throws InvalidResultSetAccessException {
+		return getTimestamp(findColumn(columnName), cal);
+	}
+
+	public Timestamp getTimestamp(String columnName) throws InvalidResultSetAccessException {
+		return getTimestamp(findColumn(columnName));
+	}
+
+
+	// RowSet navigation methods
+
+	public boolean absolute(int row) throws InvalidResultSetAccessException {
+		if (row > 0) {
+			this.cursor = Math.min(row, this.rowCount + 1);
+		}
+		else if (row < 0) {
+			this.cursor = Math.max(this.rowCount + 1 + row, 0);
+		}
+		else {
+			this.cursor = 0;
+		}
+		return isOnRow();
+	}
+
+	public void afterLast() throws InvalidResultSetAccessException {
+		this.cursor = this.rowCount + 1;
+	}
+
+	public void beforeFirst() throws InvalidResultSetAccessException {
+		this.cursor = 0;
+	}
+
+	public boolean first() throws InvalidResultSetAccessException {
+		return absolute(1);
+	}
+
+	public int getRow() throws InvalidResultSetAccessException {
+		return (isOnRow() ? this.cursor : 0);
+	}
+
+	public boolean isAfterLast() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor > this.rowCount);
+	}
+
+	public boolean isBeforeFirst() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == 0);
+	}
+
+	public boolean isFirst() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == 1);
+	}
+
+	public boolean isLast() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == this.rowCount);
+	}
+
+	public boolean last() throws InvalidResultSetAccessException {
+		return absolute(-1);
+	}
+
+	public boolean next() throws InvalidResultSetAccessException {
+		if (this.cursor <= this.rowCount) {
+			this.cursor++;
+		}
+		return isOnRow();
+	}
+
+	public boolean previous() throws InvalidResultSetAccessException {
+		if (this.cursor > 0) {
+			this.cursor--;
+		}
+		return isOnRow();
+	}
+
+	public boolean relative(int rows) throws InvalidResultSetAccessException {
+		this.cursor = Math.max(Math.min(this.cursor + rows, this.rowCount + 1), 0);
+		return isOnRow();
+	}
+
+	public boolean wasNull() throws InvalidResultSetAccessException {
+		return this.wasNull;
+	}
+
+
+	private boolean isOnRow() {
+		return (this.cursor > 0 && this.cursor <= this.rowCount);
+	}
+
+	/**
+	 * Return the given column for reading a value from the current row,
+	 * updating the "wasNull" flag for that value.
+	 */
+	private Column getColumn(int columnIndex) {
+		if (columnIndex < 1 || columnIndex > this.columns.length) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid column index: " + columnIndex));
+		}
+		if (!isOnRow()) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid cursor position"));
+		}
+		Column column = this.columns[columnIndex - 1];
+		this.wasNull = column.isNull(this.cursor - 1);
+		return column;
+	}
+
+
+	/**
+	 * Base class for the storage of a column. Rows are indexed from 0 here.
+	 * Accessors get only called for non-null values; the default
+	 * implementations convert the value returned by {@link #getObject}.
+	 */
+	private static abstract class Column implements Serializable {
+
+		/** Bit set of null values, or <code>null</code> if there were no null values */
+		private long[] nulls;
+
+		public abstract void grow(int capacity);
+
+		public abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+		public abstract void trim(int rowCount);
+
+		public abstract Object getObject(int row);
+
+		protected final void setNull(int row) {
+			int word = row >> 6;
+			if (this.nulls == null) {
+				this.nulls = new long[word + 1];
+			}
+			else if (word >= this.nulls.length) {
+				long[] newNulls = new long[Math.max(word + 1, this.nulls.length * 2)];
+				System.arraycopy(this.nulls, 0, newNulls, 0, this.nulls.length);
+				this.nulls = newNulls;
+			}
+			this.nulls[word] |= (1L << row);
+		}
+
+		public final boolean isNull(int row) {
+			int word = row >> 6;
+			return (this.nulls != null && word < this.nulls.length && (this.nulls[word] & (1L << row)) != 0);
+		}
+
+		public String getString(int row) {
+			return getObject(row).toString();
+		}
+
+		public long getLong(int row) {
+			Object value = getObject(row);
+			if (value instanceof Number) {
+				return ((Number) value).longValue();
+			}
+			if (value instanceof Boolean) {
+				return (((Boolean) value).booleanValue() ? 1 : 0);
+			}
+			try {
+				return Long.parseLong(value.toString().trim());
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, "long");
+			}
+		}
+
+		public double getDouble(int row) {
+			Object value = getObject(row);
+			if (value instanceof Number) {
+				return ((Number) value).doubleValue();
+			}
+			if (value instanceof Boolean) {
+				return (((Boolean) value).booleanValue() ? 1 : 0);
+			}
+			try {
+				return Double.parseDouble(value.toString().trim());
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, "double");
+			}
+		}
+
+		public boolean getBoolean(int row) {
+			Object value = getObject(row);
+			if (value instanceof Boolean) {
+				return ((Boolean) value).booleanValue();
+			}
+			if (value instanceof Number) {
+				return (((Number) value).doubleValue() != 0);
+			}
+			String str = value.toString().trim();
+			if ("true".equalsIgnoreCase(str)) {
+				return true;
+			}
+			if ("false".equalsIgnoreCase(str)) {
+				return false;
+			}
+			try {
+				return (Double.parseDouble(str) != 0);
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, "boolean");
+			}
+		}
+
+		public BigDecimal getBigDecimal(int row) {
+			Object value = getObject(row);
+			if (value instanceof BigDecimal) {
+				return (BigDecimal) value;
+			}
+			if (value instanceof BigInteger) {
+				return new BigDecimal((BigInteger) value);
+			}
+			try {
+				return new BigDecimal(value.toString().trim());
+			}
+			catch (NumberFormatException ex) {
+				throw conversionFailure(value, "BigDecimal");
+			}
+		}
+
+		public Date getDate(int row) {
+			Object value = getObject(row);
+			if (value instanceof Date) {
+				return (Date) value;
+			}
+			if (value instanceof java.util.Date) {
+				return new Date(((java.util.Date) value).getTime());
+			}
+			try {
+				return Date.valueOf(value.toString().trim());
+			}
+			catch (IllegalArgumentException ex) {
+				throw conversionFailure(value, "Date");
+			}
+		}
+
+		public Time getTime(int row) {
+			Object value = getObject(row);
+			if (value instanceof Time) {
+				return (Time) value;
+			}
+			if (value instanceof java.util.Date) {
+				return new Time(((java.util.Date) value).getTime());
+			}
+			try {
+				return Time.valueOf(value.toString().trim());
+			}
+			catch (IllegalArgumentException ex) {
+				throw conversionFailure(value, "Time");
+			}
+		}
+
+		public Timestamp getTimestamp(int row) {
+			Object value = getObject(row);
+			if (value instanceof Timestamp) {
+				return (Timestamp) value;
+			}
+			if (value instanceof java.util.Date) {
+				return new Timestamp(((java.util.Date) value).getTime());
+			}
+			try {
+				return Timestamp.valueOf(value.toString().trim());
+			}
+			catch (IllegalArgumentException ex) {
+				throw conversionFailure(value, "Timestamp");
+			}
+		}
+
+		protected final InvalidResultSetAccessException conversionFailure(Object value, String targetType) {
+			return new InvalidResultSetAccessException(new SQLException(
+					"Cannot convert value [" + value + "] of type [" + value.getClass().getName() +
+					"] to " + targetType));
+		}
+	}
+
+
+	/**
+	 * Column storage for Boolean and integral values.
+	 */
+	private static class LongColumn extends Column {
+
+		public static final int BOOLEAN = 0;
+
+		public static final int BYTE = 1;
+
+		public static final int SHORT = 2;
+
+		public static final int INTEGER = 3;
+
+		public static final int LONG = 4;
+
+		private final int valueType;
+
+		private long[] values = new long[0];
+
+		public LongColumn(int valueType) {
+			this.valueType = valueType;
+		}
+
+		public void grow(int capacity) {
+			long[] newValues = new long[capacity];
+			System.arraycopy(this.values, 0, newValues, 0, this.values.length);
+			this.values = newValues;
+		}
+
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			long value;
+			if (this.valueType == BOOLEAN) {
+				value = (rs.getBoolean(columnIndex) ? 1 : 0);
+			}
+			else {
+				value = rs.getLong(columnIndex);
+			}
+			if (rs.wasNull()) {
+				setNull(row);
+			}
+			else {
+				this.values[row] = value;
+			}
+		}
+
+		public void trim(int rowCount) {
+			long[] newValues = new long[rowCount];
+			System.arraycopy(this.values, 0, newValues, 0, rowCount);
+			this.values = newValues;
+		}
+
+		public Object getObject(int row) {
+			long value = this.values[row];
+			switch (this.valueType) {
+				case BOOLEAN: return Boolean.valueOf(value != 0);
+				case BYTE: return new Byte((byte) value);
+				case SHORT: return new Short((short) value);
+				case INTEGER: return new Integer((int) value);
+				default: return new Long(value);
+			}
+		}
+
+		public String getString(int row) {
+			long value = this.values[row];
+			return (this.valueType == BOOLEAN ? String.valueOf(value != 0) : Long.toString(value));
+		}
+
+		public long getLong(int row) {
+			return this.values[row];
+		}
+
+		public double getDouble(int row) {
+			return this.values[row];
+		}
+
+		public boolean getBoolean(int row) {
+			return (this.values[row] != 0);
+		}
+
+		public BigDecimal getBigDecimal(int row) {
+			if (this.valueType == BOOLEAN) {
+				return super.getBigDecimal(row);
+			}
+			return BigDecimal.valueOf(this.values[row]);
+		}
+	}
+
+
+	/**
+	 * Column storage for floating-point values.
+	 */
+	private static class DoubleColumn extends Column {
+
+		private final boolean floatValues;
+
+		private double[] values = new double[0];
+
+		public DoubleColumn(boolean floatValues) {
+			this.floatValues = floatValues;
+		}
+
+		public void grow(int capacity) {
+			double[] newValues = new double[capacity];
+			System.arraycopy(this.values, 0, newValues, 0, this.values.length);
+			this.values = newValues;
+		}
+
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			double value = (this.floatValues ? rs.getFloat(columnIndex) : rs.getDouble(columnIndex));
+			if (rs.wasNull()) {
+				setNull(row);
+			}
+			else {
+				this.values[row] = value;
+			}
+		}
+
+		public void trim(int rowCount) {
+			double[] newValues = new double[rowCount];
+			System.arraycopy(this.values, 0, newValues, 0, rowCount);
+			this.values = newValues;
+		}
+
+		public Object getObject(int row) {
+			double value = this.values[row];
+			return (this.floatValues ? (Object) new Float((float) value) : new Double(value));
+		}
+
+		public String getString(int row) {
+			double value = this.values[row];
+			return (this.floatValues ? Float.toString((float) value) : Double.toString(value));
+		}
+
+		public long getLong(int row) {
+			return (long) this.values[row];
+		}
+
+		public double getDouble(int row) {
+			return this.values[row];
+		}
+
+		public boolean getBoolean(int row) {
+			return (this.values[row] != 0);
+		}
+	}
+
+
+	/**
+	 * Column storage for String values, dictionary-encoded
+	 * up until the maximum dictionary size.
+	 */
+	private static class StringColumn extends Column {
+
+		private final int maxDictionarySize;
+
+		/** Distinct values, or <code>null</code> if not dictionary-encoded */
+		private String[] dictionary;
+
+		private int dictionarySize = 0;
+
+		/** Dictionary codes per row, or <code>null</code> if not dictionary-encoded */
+		private int[] codes;
+
+		/** Plain values per row, or <code>null</code> if dictionary-encoded */
+		private String[] values;
+
+		/** Dictionary code per distinct value, only used while populating */
+		private transient Map dictionaryCodes;
+
+		public StringColumn(int maxDictionarySize) {
+			this.maxDictionarySize = maxDictionarySize;
+			if (maxDictionarySize > 0) {
+				this.dictionary = new String[Math.min(maxDictionarySize, INITIAL_CAPACITY)];
+				this.codes = new int[0];
+				this.dictionaryCodes = new HashMap();
+			}
+			else {
+				this.values = new String[0];
+			}
+		}
+
+		public void grow(int capacity) {
+			if (this.codes != null) {
+				int[] newCodes = new int[capacity];
+				System.arraycopy(this.codes, 0, newCodes, 0, this.codes.length);
+				this.codes = newCodes;
+			}
+			else {
+				String[] newValues = new String[capacity];
+				System.arraycopy(this.values, 0, newValues, 0, this.values.length);
+				this.values = newValues;
+			}
+		}
+
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			String value = rs.getString(columnIndex);
+			if (value == null) {
+				setNull(row);
+			}
+			else if (this.codes != null) {
+				Integer code = (Integer) this.dictionaryCodes.get(value);
+				if (code == null) {
+					if (this.dictionarySize == this.maxDictionarySize) {
+						decodeValues();
+						this.values[row] = value;
+						return;
+					}
+					if (this.dictionarySize == this.dictionary.length) {
+						String[] newDictionary = new String[Math.min(this.dictionarySize * 2, this.maxDictionarySize)];
+						System.arraycopy(this.dictionary, 0, newDictionary, 0, this.dictionarySize);
+						this.dictionary = newDictionary;
+					}
+					code = new Integer(this.dictionarySize);
+					this.dictionary[this.dictionarySize++] = value;
+					this.dictionaryCodes.put(value, code);
+				}
+				this.codes[row] = code.intValue();
+			}
+			else {
+				this.values[row] = value;
+			}
+		}
+
+		/**
+		 * Switch to plain values, keeping the String instances shared so far.
+		 */
+		private void decodeValues() {
+			this.values = new String[this.codes.length];
+			for (int row = 0; row < this.codes.length; row++) {
+				if (!isNull(row)) {
+					this.values[row] = this.dictionary[this.codes[row]];
+				}
+			}
+			this.codes = null;
+			this.dictionary = null;
+			this.dictionaryCodes = null;
+		}
+
+		public void trim(int rowCount) {
+			if (this.codes != null) {
+				int[] newCodes = new int[rowCount];
+				System.arraycopy(this.codes, 0, newCodes, 0, rowCount);
+				this.codes = newCodes;
+				String[] newDictionary = new String[this.dictionarySize];
+				System.arraycopy(this.dictionary, 0, newDictionary, 0, this.dictionarySize);
+				this.dictionary = newDictionary;
+				this.dictionaryCodes = null;
+			}
+			else {
+				String[] newValues = new String[rowCount];
+				System.arraycopy(this.values, 0, newValues, 0, rowCount);
+				this.values = newValues;
+			}
+		}
+
+		public Object getObject(int row) {
+			return getString(row);
+		}
+
+		public String getString(int row) {
+			return (this.codes != null ? this.dictionary[this.codes[row]] : this.values[row]);
+		}
+	}
+
+
+	/**
+	 * Column storage for all other values, as returned by the JDBC driver.
+	 */
+	private static class ObjectColumn extends Column {
+
+		private Object[] values = new Object[0];
+
+		public void grow(int capacity) {
+			Object[] newValues = new Object[capacity];
+			System.arraycopy(this.values, 0, newValues, 0, this.values.length);
+			this.values = newValues;
+		}
+
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			Object value = rs.getObject(columnIndex);
+			if (value instanceof Clob) {
+				Clob clob = (Clob) value;
+				value = clob.getSubString(1, (int) clob.length());
+			}
+			else if (value instanceof Blob) {
+				Blob blob = (Blob) value;
+				value = blob.getBytes(1, (int) blob.length());
+			}
+			if (value == null) {
+				setNull(row);
+			}
+			else {
+				this.values[row] = value;
+			}
+		}
+
+		public void trim(int rowCount) {
+			Object[] newValues = new Object[rowCount];
+			System.arraycopy(this.values, 0, newValues, 0, rowCount);
+			this.values = newValues;
+		}
+
+		public Object getObject(int row) {
+			return this.values[row];
+		}
+	}
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.io.Serializable;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+
+/**
+ * Disconnected implementation of Spring's SqlRowSetMetaData interface.
+ * Used by CompactSqlRowSet.
+ *
+ * <p>Captures the given ResultSetMetaData once, holding each attribute
+ * in a single array across all columns. Catalog, schema, table and type
+ * names are shared between columns wherever they are equal. The column
+ * name array and the index for looking up columns by name are only
+ * built on first access.
+ *
+ * @since 2.5.7
+ * @see CompactSqlRowSet#getMetaData
+ */
+public class CompactSqlRowSetMetaData implements SqlRowSetMetaData, Serializable {
+
+	private static final int CASE_SENSITIVE = 1;
+
+	private static final int CURRENCY = 2;
+
+	private static final int SIGNED = 4;
+
+
+	private final String[] catalogNames;
+
+	private final String[] columnClassNames;
+
+	private final int[] columnDisplaySizes;
+
+	private final String[] columnLabels;
+
+	private final String[] columnNames;
+
+	private final int[] columnTypes;
+
+	private final String[] columnTypeNames;
+
+	private final int[] precisions;
+
+	private final int[] scales;
+
+	private final String[] schemaNames;
+
+	private final String[] tableNames;
+
+	private final byte[] flags;
+
+	private transient String[] columnNameArray;
+
+	private transient Map columnIndexes;
+
+
+	/**
+	 * Create a new CompactSqlRowSetMetaData object, capturing
+	 * the given ResultSetMetaData instance.
+	 * @param resultSetMetaData the ResultSetMetaData to capture
+	 * (usually from a connected ResultSet)
+	 * @throws SQLException if thrown by JDBC methods
+	 * @see java.sql.ResultSet#getMetaData
+	 */
+	public CompactSqlRowSetMetaData(ResultSetMetaData resultSetMetaData) throws SQLException {
+		int columnCount = resultSetMetaData.getColumnCount();
+		this.catalogNames = new String[columnCount];
+		this.columnClassNames = new String[columnCount];
+		this.columnDisplaySizes = new int[columnCount];
+		this.columnLabels = new String[columnCount];
+		this.columnNames = new String[columnCount];
+		this.columnTypes = new int[columnCount];
+		this.columnTypeNames = new String[columnCount];
+		this.precisions = new int[columnCount];
+		this.scales = new int[columnCount];
+		this.schemaNames = new String[columnCount];
+		this.tableNames = new String[columnCount];
+		this.flags = new byte[columnCount];
+		Map sharedNames = new HashMap();
+		for (int i = 0; i < columnCount; i++) {
+			int column = i + 1;
+			this.catalogNames[i] = share(sharedNames, resultSetMetaData.getCatalogName(column));
+			this.columnClassNames[i] = share(sharedNames, resultSetMetaData.getColumnClassName(column));
+			this.columnDisplaySizes[i] = resultSetMetaData.getColumnDisplaySize(column);
+			this.columnLabels[i] = resultSetMetaData.getColumnLabel(column);
+			this.columnNames[i] = resultSetMetaData.getColumnName(column);
+			this.columnTypes[i] = resultSetMetaData.getColumnType(column);
+			this.columnTypeNames[i] = share(sharedNames, resultSetMetaData.getColumnTypeName(column));
+			this.precisions[i] = resultSetMetaData.getPrecision(column);
+			this.scales[i] = resultSetMetaData.getScale(column);
+			this.schemaNames[i] = share(sharedNames, resultSetMetaData.getSchemaName(column));
+			this.tableNames[i] = share(sharedNames, resultSetMetaData.getTableName(column));
+			int columnFlags = 0;
+			if (resultSetMetaData.isCaseSensitive(column)) {
+				columnFlags |= CASE_SENSITIVE;
+			}
+			if (resultSetMetaData.isCurrency(column)) {
+				columnFlags |= CURRENCY;
+			}
+			if (resultSetMetaData.isSigned(column)) {
+				columnFlags |= SIGNED;
+			}
+			this.flags[i] = (byte) columnFlags;
+		}
+	}
+
+	private static String share(Map sharedNames, String name) {
+		if (name == null) {
+			return null;
+		}
+		String sharedName = (String) sharedNames.get(name);
+		if (sharedName == null) {
+			sharedNames.put(name, name);
+			sharedName = name;
+		}
+		return sharedName;
+	}
+
+
+	public String getCatalogName(int column) throws InvalidResultSetAccessException {
+		return this.catalogNames[checkColumn(column)];
+	}
+
+	public String getColumnClassName(int column) throws InvalidResultSetAccessException {
+		return this.columnClassNames[checkColumn(column)];
+	}
+
+	public int getColumnCount() throws InvalidResultSetAccessException {
+		return this.columnNames.length;
+	}
+
+	public String[] getColumnNames() throws InvalidResultSetAccessException {
+		if (this.columnNameArray == null) {
+			this.columnNameArray = (String[]) this.columnNames.clone();
+		}
+		return this.columnNameArray;
+	}
+
+	public int getColumnDisplaySize(int column) throws InvalidResultSetAccessException {
+		return this.columnDisplaySizes[checkColumn(column)];
+	}
+
+	public String getColumnLabel(int column) throws InvalidResultSetAccessException {
+		return this.columnLabels[checkColumn(column)];
+	}
+
+	public String getColumnName(int column) throws InvalidResultSetAccessException {
+		return this.columnNames[checkColumn(column)];
+	}
+
+	public int getColumnType(int column) throws InvalidResultSetAccessException {
+		return this.columnTypes[checkColumn(column)];
+	}
+
+	public String getColumnTypeName(int column) throws InvalidResultSetAccessException {
+		return this.columnTypeNames[checkColumn(column)];
+	}
+
+	public int getPrecision(int column) throws InvalidResultSetAccessException {
+		return this.precisions[checkColumn(column)];
+	}
+
+	public int getScale(int column) throws InvalidResultSetAccessException {
+		return this.scales[checkColumn(column)];
+	}
+
+	public String getSchemaName(int column) throws InvalidResultSetAccessException {
+		return this.schemaNames[checkColumn(column)];
+	}
+
+	public String getTableName(int column) throws InvalidResultSetAccessException {
+		return this.tableNames[checkColumn(column)];
+	}
+
+	public boolean isCaseSensitive(int column) throws InvalidResultSetAccessException {
+		return ((this.flags[checkColumn(column)] & CASE_SENSITIVE) != 0);
+	}
+
+	public boolean isCurrency(int column) throws InvalidResultSetAccessException {
+		return ((this.flags[checkColumn(column)] & CURRENCY) != 0);
+	}
+
+	public boolean isSigned(int column) throws InvalidResultSetAccessException {
+		return ((this.flags[checkColumn(column)] & SIGNED) != 0);
+	}
+
+	/**
+	 * Find the index of the column with the given label or name,
+	 * matched case-insensitively. Column labels take precedence.
+	 * @param columnName the column label or name
+	 * @return the column index (starting at 1)
+	 * @throws InvalidResultSetAccessException if there is no such column
+	 */
+	public int findColumn(String columnName) throws InvalidResultSetAccessException {
+		if (this.columnIndexes == null) {
+			Map indexes = new HashMap(this.columnNames.length * 4);
+			for (int i = this.columnNames.length - 1; i >= 0; i--) {
+				if (this.columnNames[i] != null) {
+					indexes.put(this.columnNames[i].toUpperCase(), new Integer(i + 1));
+				}
+			}
+			for (int i = this.columnLabels.length - 1; i >= 0; i--) {
+				if (this.columnLabels[i] != null) {
+					indexes.put(this.columnLabels[i].toUpperCase(), new Integer(i + 1));
+				}
+			}
+			this.columnIndexes = indexes;
+		}
+		Integer index = (columnName != null ? (Integer) this.columnIndexes.get(columnName.toUpperCase()) : null);
+		if (index == null) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid column name: " + columnName));
+		}
+		return index.intValue();
+	}
+
+	private int checkColumn(int column) {
+		if (column < 1 || column > this.columnNames.length) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid column index: " + column));
+		}
+		return column - 1;
+	}
+
+}
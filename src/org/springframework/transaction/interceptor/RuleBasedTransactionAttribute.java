@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,10 +21,13 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.CollectionFactory;
+
 /**
  * TransactionAttribute implementation that works out whether a given exception
  * should cause transaction rollback by applying a number of rollback rules,
@@ -33,6 +36,10 @@ import org.apache.commons.logging.LogFactory;
  *
  * <p>TransactionAttributeEditor creates objects of this class.
  *
+ * <p>The rollback decision is cached per exception class, as long as the
+ * rollback rules remain unchanged and are plain RollbackRuleAttributes or
+ * NoRollbackRuleAttributes (which decide based on the exception class only).
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @since 09.04.2003
@@ -50,8 +57,14 @@ public class RuleBasedTransactionAttribute extends DefaultTransactionAttribute i
 	/** Static for optimal serializability */
 	private static final Log logger = LogFactory.getLog(RuleBasedTransactionAttribute.class);
 
+	/** Maximum number of exception classes to cache rollback decisions for */
+	private static final int DECISION_CACHE_LIMIT = 256;
+
+
 	private List rollbackRules;
 
+	private transient volatile RollbackDecisionCache rollbackDecisionCache;
+
 
 	/**
 	 * Create a new RuleBasedTransactionAttribute, with default settings.
@@ -126,6 +139,26 @@ public class RuleBasedTransactionAttribute extends DefaultTransactionAttribute i
 	 * @see TransactionAttribute#rollbackOn(java.lang.Throwable)
 	 */
 	public boolean rollbackOn(Throwable ex) {
+		RollbackDecisionCache decisionCache = this.rollbackDecisionCache;
+		if (decisionCache == null || !decisionCache.isCacheFor(this.rollbackRules)) {
+			decisionCache = new RollbackDecisionCache(this.rollbackRules);
+			this.rollbackDecisionCache = decisionCache;
+		}
+		if (!decisionCache.isActive()) {
+			return determineRollback(ex);
+		}
+		Boolean decision = decisionCache.getDecision(ex.getClass());
+		if (decision == null) {
+			decision = (determineRollback(ex) ? Boolean.TRUE : Boolean.FALSE);
+			decisionCache.putDecision(ex.getClass(), decision);
+		}
+		return decision.booleanValue();
+	}
+
+	/**
+	 * Apply the rollback rules to the given exception, without caching.
+	 */
+	private boolean determineRollback(Throwable ex) {
 		if (logger.isTraceEnabled()) {
 			logger.trace("Applying rules to determine whether transaction should rollback on " + ex);
 		}
@@ -170,4 +203,75 @@ public class RuleBasedTransactionAttribute extends DefaultTransactionAttribute i
 		return result.toString();
 	}
 
+
+	/**
+	 * Cache of rollback decisions per exception class, for a specific
+	 * snapshot of rollback rules (which are immutable themselves).
+	 */
+	private static class RollbackDecisionCache {
+
+		private final List rules;
+
+		private final Object[] ruleSnapshot;
+
+		private final boolean active;
+
+		/** Exception Class --> Boolean */
+		private final Map decisions = CollectionFactory.createConcurrentMapIfPossible(16);
+
+		public RollbackDecisionCache(List rules) {
+			this.rules = rules;
+			this.ruleSnapshot = (rules != null ? rules.toArray() : null);
+			boolean active = true;
+			if (this.ruleSnapshot != null) {
+				for (int i = 0; i < this.ruleSnapshot.length && active; i++) {
+					Class ruleClass = this.ruleSnapshot[i].getClass();
+					active = (ruleClass == RollbackRuleAttribute.class || ruleClass == NoRollbackRuleAttribute.class);
+				}
+			}
+			this.active = active;
+		}
+
+		/**
+		 * Return whether decisions can be cached for the rules: that is,
+		 * whether all rules decide based on the exception class only.
+		 */
+		public boolean isActive() {
+			return this.active;
+		}
+
+		/**
+		 * Determine whether this cache applies to the given rules,
+		 * i.e. to the same List with the same rule instances.
+		 */
+		public boolean isCacheFor(List rules) {
+			if (rules != this.rules) {
+				return false;
+			}
+			if (rules == null) {
+				return true;
+			}
+			if (rules.size() != this.ruleSnapshot.length) {
+				return false;
+			}
+			int i = 0;
+			for (Iterator it = rules.iterator(); it.hasNext(); i++) {
+				if (it.next() != this.ruleSnapshot[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public Boolean getDecision(Class exceptionClass) {
+			return (Boolean) this.decisions.get(exceptionClass);
+		}
+
+		public void putDecision(Class exceptionClass, Boolean decision) {
+			if (this.decisions.size() < DECISION_CACHE_LIMIT) {
+				this.decisions.put(exceptionClass, decision);
+			}
+		}
+	}
+
 }
@@ -17,18 +17,21 @@
 package org.springframework.transaction.interceptor;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.CollectionFactory;
 import org.springframework.core.NamedThreadLocal;
 import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.TransactionSystemException;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Base class for transactional aspects, such as the AOP Alliance
@@ -54,6 +57,15 @@ import org.springframework.util.ClassUtils;
  * <code>PlatformTransactionManager</code> and
  * <code>TransactionAttributeSource</code> are serializable.
  *
+ * <p>For the standard TransactionAttributeSource implementations, which
+ * always return the same attribute for a given method and target class,
+ * the resolved attribute (including its transaction name) is bound to the
+ * method on first resolution, typically when the proxy gets created.
+ * Subsequent invocations do not consult the TransactionAttributeSource
+ * anymore. Custom TransactionAttributeSources, including subclasses of the
+ * standard implementations that override <code>getTransactionAttribute</code>,
+ * are consulted on every invocation, as before.
+ *
  * @author Rod Johnson
  * @author Juergen Hoeller
  * @since 1.1
@@ -120,6 +132,12 @@ public abstract class TransactionAspectSupport implements InitializingBean {
 	/** Helper used to find transaction attributes */
 	private TransactionAttributeSource transactionAttributeSource;
 
+	/** Whether the TransactionAttributeSource's attributes may be bound per method */
+	private boolean constantAttributeSource;
+
+	/** Method --> TransactionMethodBinding (chained per target class) */
+	private final Map methodBindings = CollectionFactory.createConcurrentMapIfPossible(64);
+
 
 	/**
 	 * Set the transaction manager. This will perform actual
@@ -151,7 +169,7 @@ public abstract class TransactionAspectSupport implements InitializingBean {
 	public void setTransactionAttributes(Properties transactionAttributes) {
 		NameMatchTransactionAttributeSource tas = new NameMatchTransactionAttributeSource();
 		tas.setProperties(transactionAttributes);
-		this.transactionAttributeSource = tas;
+		setTransactionAttributeSource(tas);
 	}
 
 	/**
@@ -164,7 +182,7 @@ public abstract class TransactionAspectSupport implements InitializingBean {
 	 * @see org.springframework.transaction.annotation.AnnotationTransactionAttributeSource
 	 */
 	public void setTransactionAttributeSources(TransactionAttributeSource[] transactionAttributeSources) {
-		this.transactionAttributeSource = new CompositeTransactionAttributeSource(transactionAttributeSources);
+		setTransactionAttributeSource(new CompositeTransactionAttributeSource(transactionAttributeSources));
 	}
 
 	/**
@@ -179,6 +197,8 @@ public abstract class TransactionAspectSupport implements InitializingBean {
 	 */
 	public void setTransactionAttributeSource(TransactionAttributeSource transactionAttributeSource) {
 		this.transactionAttributeSource = transactionAttributeSource;
+		this.constantAttributeSource = isConstantAttributeSource(transactionAttributeSource);
+		this.methodBindings.clear();
 	}
 
 	/**
@@ -216,8 +236,76 @@ public abstract class TransactionAspectSupport implements InitializingBean {
 	 */
 	protected TransactionInfo createTransactionIfNecessary(Method method, Class targetClass) {
 		// If the transaction attribute is null, the method is non-transactional.
+		TransactionMethodBinding binding = getTransactionMethodBinding(method, targetClass);
+		return createTransactionIfNecessary(binding.getNamedTransactionAttribute(), binding.getJoinpointIdentification());
+	}
+
+	/**
+	 * Determine the transaction attribute and joinpoint identification for the
+	 * given method, reusing a previously bound result if the TransactionAttributeSource
+	 * is known to return constant attributes.
+	 * @param method method about to execute
+	 * @param targetClass class the method is on (may be <code>null</code>)
+	 * @return the binding for the given method (never <code>null</code>)
+	 */
+	TransactionMethodBinding getTransactionMethodBinding(Method method, Class targetClass) {
+		if (!this.constantAttributeSource || getTransactionAttributeSource() != this.transactionAttributeSource) {
+			return createTransactionMethodBinding(method, targetClass, null);
+		}
+		TransactionMethodBinding firstBinding = (TransactionMethodBinding) this.methodBindings.get(method);
+		for (TransactionMethodBinding binding = firstBinding; binding != null; binding = binding.next) {
+			if (binding.targetClass == targetClass) {
+				return binding;
+			}
+		}
+		// Concurrent additions for other target classes may get lost here: they will simply be resolved again.
+		TransactionMethodBinding binding = createTransactionMethodBinding(method, targetClass, firstBinding);
+		this.methodBindings.put(method, binding);
+		return binding;
+	}
+
+	private TransactionMethodBinding createTransactionMethodBinding(
+			Method method, Class targetClass, TransactionMethodBinding next) {
+
 		TransactionAttribute txAttr = getTransactionAttributeSource().getTransactionAttribute(method, targetClass);
-		return createTransactionIfNecessary(txAttr, methodIdentification(method));
+		final String joinpointIdentification = methodIdentification(method);
+		TransactionAttribute namedTxAttr = txAttr;
+		// If no name specified, apply method identification as transaction name.
+		if (txAttr != null && txAttr.getName() == null) {
+			namedTxAttr = new DelegatingTransactionAttribute(txAttr) {
+				public String getName() {
+					return joinpointIdentification;
+				}
+			};
+		}
+		return new TransactionMethodBinding(targetClass, txAttr, namedTxAttr, joinpointIdentification, next);
+	}
+
+	/**
+	 * Determine whether the given TransactionAttributeSource is known to always
+	 * return the same attribute for a given method and target class: that is,
+	 * whether it uses the attribute lookup of one of the standard implementations.
+	 */
+	private static boolean isConstantAttributeSource(TransactionAttributeSource tas) {
+		if (tas instanceof CompositeTransactionAttributeSource) {
+			TransactionAttributeSource[] sources = ((CompositeTransactionAttributeSource) tas).getTransactionAttributeSources();
+			for (int i = 0; i < sources.length; i++) {
+				if (!isConstantAttributeSource(sources[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (tas == null) {
+			return false;
+		}
+		Method lookupMethod = ReflectionUtils.findMethod(
+				tas.getClass(), "getTransactionAttribute", new Class[] {Method.class, Class.class});
+		Class declaringClass = lookupMethod.getDeclaringClass();
+		return (declaringClass.equals(AbstractFallbackTransactionAttributeSource.class) ||
+				declaringClass.equals(NameMatchTransactionAttributeSource.class) ||
+				declaringClass.equals(MethodMapTransactionAttributeSource.class) ||
+				declaringClass.equals(MatchAlwaysTransactionAttributeSource.class));
 	}
 
 	/**
@@ -387,6 +475,59 @@ public abstract class TransactionAspectSupport implements InitializingBean {
 	}
 
 
+	/**
+	 * The transaction attribute resolved for a specific method and target class,
+	 * along with the joinpoint identification for the method.
+	 */
+	static class TransactionMethodBinding {
+
+		private final Class targetClass;
+
+		private final TransactionAttribute transactionAttribute;
+
+		private final TransactionAttribute namedTransactionAttribute;
+
+		private final String joinpointIdentification;
+
+		private final TransactionMethodBinding next;
+
+		public TransactionMethodBinding(Class targetClass, TransactionAttribute transactionAttribute,
+				TransactionAttribute namedTransactionAttribute, String joinpointIdentification,
+				TransactionMethodBinding next) {
+
+			this.targetClass = targetClass;
+			this.transactionAttribute = transactionAttribute;
+			this.namedTransactionAttribute = namedTransactionAttribute;
+			this.joinpointIdentification = joinpointIdentification;
+			this.next = next;
+		}
+
+		/**
+		 * Return the transaction attribute as returned by the TransactionAttributeSource
+		 * (or <code>null</code> if the method is non-transactional).
+		 */
+		public TransactionAttribute getTransactionAttribute() {
+			return this.transactionAttribute;
+		}
+
+		/**
+		 * Return the transaction attribute with the joinpoint identification
+		 * applied as transaction name, if no name has been specified
+		 * (or <code>null</code> if the method is non-transactional).
+		 */
+		public TransactionAttribute getNamedTransactionAttribute() {
+			return this.namedTransactionAttribute;
+		}
+
+		/**
+		 * Return a String representation of the method, for use in logging.
+		 */
+		public String getJoinpointIdentification() {
+			return this.joinpointIdentification;
+		}
+	}
+
+
 	/**
 	 * Opaque object used to hold Transaction information. Subclasses
 	 * must pass it back to methods on this class, but not see its internals.
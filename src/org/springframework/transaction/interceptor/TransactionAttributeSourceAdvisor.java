@@ -16,6 +16,8 @@
 
 package org.springframework.transaction.interceptor;
 
+import java.lang.reflect.Method;
+
 import org.aopalliance.aop.Advice;
 
 import org.springframework.aop.ClassFilter;
@@ -43,6 +45,14 @@ public class TransactionAttributeSourceAdvisor extends AbstractPointcutAdvisor {
 		protected TransactionAttributeSource getTransactionAttributeSource() {
 			return (transactionInterceptor != null ? transactionInterceptor.getTransactionAttributeSource() : null);
 		}
+
+		public boolean matches(Method method, Class targetClass) {
+			// Resolve through the interceptor, binding the attribute to the method at proxy creation time.
+			if (transactionInterceptor != null && transactionInterceptor.getTransactionAttributeSource() != null) {
+				return (transactionInterceptor.getTransactionMethodBinding(method, targetClass).getTransactionAttribute() != null);
+			}
+			return super.matches(method, targetClass);
+		}
 	};
 
 
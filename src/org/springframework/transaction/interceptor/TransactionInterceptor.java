@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -92,13 +92,14 @@ public class TransactionInterceptor extends TransactionAspectSupport implements
 		Class targetClass = (invocation.getThis() != null ? invocation.getThis().getClass() : null);
 
 		// If the transaction attribute is null, the method is non-transactional.
-		final TransactionAttribute txAttr =
-				getTransactionAttributeSource().getTransactionAttribute(invocation.getMethod(), targetClass);
-		final String joinpointIdentification = methodIdentification(invocation.getMethod());
+		TransactionMethodBinding binding = getTransactionMethodBinding(invocation.getMethod(), targetClass);
+		final TransactionAttribute txAttr = binding.getTransactionAttribute();
+		final String joinpointIdentification = binding.getJoinpointIdentification();
 
 		if (txAttr == null || !(getTransactionManager() instanceof CallbackPreferringPlatformTransactionManager)) {
 			// Standard transaction demarcation with getTransaction and commit/rollback calls.
-			TransactionInfo txInfo = createTransactionIfNecessary(txAttr, joinpointIdentification);
+			TransactionInfo txInfo =
+					createTransactionIfNecessary(binding.getNamedTransactionAttribute(), joinpointIdentification);
 			Object retVal = null;
 			try {
 				// This is an around advice: Invoke the next interceptor in the chain.
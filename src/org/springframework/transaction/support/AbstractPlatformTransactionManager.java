@@ -26,6 +26,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.core.Constants;
+import org.springframework.core.metrics.TimingRecorder;
 import org.springframework.transaction.IllegalTransactionStateException;
 import org.springframework.transaction.InvalidTimeoutException;
 import org.springframework.transaction.NestedTransactionNotSupportedException;
@@ -108,6 +109,30 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 	 */
 	public static final int SYNCHRONIZATION_NEVER = 2;
 
+	/**
+	 * Timing category for beginning a new transaction.
+	 * @see #setTimingRecorder
+	 */
+	public static final String TIMING_CATEGORY_BEGIN = "transaction.begin";
+
+	/**
+	 * Timing category for committing a transaction.
+	 * @see #setTimingRecorder
+	 */
+	public static final String TIMING_CATEGORY_COMMIT = "transaction.commit";
+
+	/**
+	 * Timing category for rolling back a transaction.
+	 * @see #setTimingRecorder
+	 */
+	public static final String TIMING_CATEGORY_ROLLBACK = "transaction.rollback";
+
+	/**
+	 * Timing category for suspending an existing transaction.
+	 * @see #setTimingRecorder
+	 */
+	public static final String TIMING_CATEGORY_SUSPEND = "transaction.suspend";
+
 
 	/** Constants instance for AbstractPlatformTransactionManager */
 	private static final Constants constants = new Constants(AbstractPlatformTransactionManager.class);
@@ -130,6 +155,10 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 
 	private boolean rollbackOnCommitFailure = false;
 
+	private boolean lightweightReadOnly = false;
+
+	private transient TimingRecorder timingRecorder;
+
 
 	/**
 	 * Set the transaction synchronization by the name of the corresponding constant
@@ -324,6 +353,60 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		return this.rollbackOnCommitFailure;
 	}
 
+	/**
+	 * Set whether read-only transactions may be executed in a "lightweight" fashion,
+	 * i.e. with the transactional resource bound to the thread for the entire scope
+	 * but without an actual backend transaction underneath, as far as the concrete
+	 * transaction manager and the transaction definition allow for it.
+	 * <p>Default is "false". Switch this flag to "true" in order to save the
+	 * transaction begin and commit round-trips for read-only transactions:
+	 * for example, DataSourceTransactionManager will keep the JDBC Connection
+	 * in auto-commit mode, not applying any read-only hints to it either.
+	 * <p>A lightweight read-only transaction will be turned into a full transaction
+	 * as soon as a non-read-only or nested transaction scope participates in it.
+	 * Note that statements executed before that point will not be covered by the
+	 * transaction then; this is the price to pay for the lightweight begin.
+	 * <p>This flag is only effective with transaction managers that support it
+	 * through overriding {@link #prepareForParticipation}.
+	 * @see org.springframework.transaction.TransactionDefinition#isReadOnly()
+	 * @see org.springframework.jdbc.datasource.DataSourceTransactionManager
+	 */
+	public final void setLightweightReadOnly(boolean lightweightReadOnly) {
+		this.lightweightReadOnly = lightweightReadOnly;
+	}
+
+	/**
+	 * Return whether read-only transactions may be executed in a "lightweight" fashion.
+	 */
+	public final boolean isLightweightReadOnly() {
+		return this.lightweightReadOnly;
+	}
+
+	/**
+	 * Set a TimingRecorder to record the durations of transaction begin, commit,
+	 * rollback and suspend operations with, under the "TIMING_CATEGORY_*"
+	 * categories declared by this class. The transaction name will be passed
+	 * in as operation name: typically the fully-qualified method name when
+	 * driven by a TransactionInterceptor.
+	 * <p>Default is none. Note that a TimingRecorder will not be serialized
+	 * along with this transaction manager.
+	 * @see #TIMING_CATEGORY_BEGIN
+	 * @see #TIMING_CATEGORY_COMMIT
+	 * @see #TIMING_CATEGORY_ROLLBACK
+	 * @see #TIMING_CATEGORY_SUSPEND
+	 * @see org.springframework.transaction.TransactionDefinition#getName()
+	 */
+	public final void setTimingRecorder(TimingRecorder timingRecorder) {
+		this.timingRecorder = timingRecorder;
+	}
+
+	/**
+	 * Return the TimingRecorder to record transaction operation durations with, if any.
+	 */
+	public final TimingRecorder getTimingRecorder() {
+		return this.timingRecorder;
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of PlatformTransactionManager
@@ -371,7 +454,9 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				logger.debug("Creating new transaction with name [" + definition.getName() + "]: " + definition);
 			}
 			try {
+				long startTime = startTiming();
 				doBegin(transaction, definition);
+				recordTiming(TIMING_CATEGORY_BEGIN, definition.getName(), startTime);
 			}
 			catch (RuntimeException ex) {
 				resume(null, suspendedResources);
@@ -408,7 +493,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 			if (debugEnabled) {
 				logger.debug("Suspending current transaction");
 			}
-			Object suspendedResources = suspend(transaction);
+			Object suspendedResources = suspendWithTiming(transaction);
 			boolean newSynchronization = (getTransactionSynchronization() == SYNCHRONIZATION_ALWAYS);
 			return newTransactionStatus(
 					definition, null, false, newSynchronization, debugEnabled, suspendedResources);
@@ -419,9 +504,11 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				logger.debug("Suspending current transaction, creating new transaction with name [" +
 						definition.getName() + "]");
 			}
-			SuspendedResourcesHolder suspendedResources = suspend(transaction);
+			SuspendedResourcesHolder suspendedResources = suspendWithTiming(transaction);
 			try {
+				long startTime = startTiming();
 				doBegin(transaction, definition);
+				recordTiming(TIMING_CATEGORY_BEGIN, definition.getName(), startTime);
 			}
 			catch (RuntimeException beginEx) {
 				resumeAfterBeginException(transaction, suspendedResources, beginEx);
@@ -445,6 +532,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 			if (debugEnabled) {
 				logger.debug("Creating nested transaction with name [" + definition.getName() + "]");
 			}
+			prepareForParticipation(transaction, definition);
 			if (useSavepointForNestedTransaction()) {
 				// Create savepoint within existing Spring-managed transaction,
 				// through the SavepointManager API implemented by TransactionStatus.
@@ -458,7 +546,9 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				// Nested transaction through nested begin and commit/rollback calls.
 				// Usually only for JTA: Spring synchronization might get activated here
 				// in case of a pre-existing JTA transaction.
+				long startTime = startTiming();
 				doBegin(transaction, definition);
+				recordTiming(TIMING_CATEGORY_BEGIN, definition.getName(), startTime);
 				boolean newSynchronization = (getTransactionSynchronization() != SYNCHRONIZATION_NEVER);
 				return newTransactionStatus(definition, transaction, true, newSynchronization, debugEnabled, null);
 			}
@@ -487,6 +577,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				}
 			}
 		}
+		prepareForParticipation(transaction, definition);
 		boolean newSynchronization = (getTransactionSynchronization() != SYNCHRONIZATION_NEVER);
 		return newTransactionStatus(definition, transaction, false, newSynchronization, debugEnabled, null);
 	}
@@ -531,6 +622,50 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		return this.defaultTimeout;
 	}
 
+	/**
+	 * Return the start time for an operation to be recorded,
+	 * or 0 if no TimingRecorder has been specified.
+	 */
+	private long startTiming() {
+		return (this.timingRecorder != null ? this.timingRecorder.startTime() : 0);
+	}
+
+	/**
+	 * Record the given operation with the TimingRecorder, if any.
+	 */
+	private void recordTiming(String category, String name, long startTime) {
+		if (this.timingRecorder != null) {
+			this.timingRecorder.record(category, name, startTime);
+		}
+	}
+
+	/**
+	 * Record the given operation with the TimingRecorder, if any,
+	 * using the current transaction name as operation name.
+	 */
+	private void recordTiming(String category, long startTime) {
+		if (this.timingRecorder != null) {
+			this.timingRecorder.record(
+					category, TransactionSynchronizationManager.getCurrentTransactionName(), startTime);
+		}
+	}
+
+	/**
+	 * Suspend the given existing transaction, recording the duration
+	 * of the suspension with the TimingRecorder, if any.
+	 * @see #suspend
+	 */
+	private SuspendedResourcesHolder suspendWithTiming(Object transaction) {
+		if (this.timingRecorder == null) {
+			return suspend(transaction);
+		}
+		String name = TransactionSynchronizationManager.getCurrentTransactionName();
+		long startTime = this.timingRecorder.startTime();
+		SuspendedResourcesHolder suspendedResources = suspend(transaction);
+		this.timingRecorder.record(TIMING_CATEGORY_SUSPEND, name, startTime);
+		return suspendedResources;
+	}
+
 
 	/**
 	 * Suspend the given transaction. Suspends transaction synchronization first,
@@ -729,7 +864,9 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 					if (status.isDebug()) {
 						logger.debug("Initiating transaction commit");
 					}
+					long startTime = startTiming();
 					doCommit(status);
+					recordTiming(TIMING_CATEGORY_COMMIT, startTime);
 				}
 				// Throw UnexpectedRollbackException if we have a global rollback-only
 				// marker but still didn't get a corresponding exception from commit.
@@ -820,7 +957,9 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 					if (status.isDebug()) {
 						logger.debug("Initiating transaction rollback");
 					}
+					long startTime = startTiming();
 					doRollback(status);
+					recordTiming(TIMING_CATEGORY_ROLLBACK, startTime);
 				}
 				else if (status.hasTransaction()) {
 					if (status.isLocalRollbackOnly() || isGlobalRollbackOnParticipationFailure()) {
@@ -1064,6 +1203,23 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		return true;
 	}
 
+	/**
+	 * Prepare the given existing transaction for participation by an inner
+	 * transaction scope, either joining it or creating a nested transaction
+	 * within it (as indicated by the definition's propagation behavior).
+	 * <p>Typically used for turning a "lightweight" read-only transaction into
+	 * a full transaction when a non-read-only or nested scope participates.
+	 * <p>The default implementation does nothing. Subclasses that support the
+	 * {@link #setLightweightReadOnly "lightweightReadOnly"} mode need to override it.
+	 * @param transaction transaction object returned by <code>doGetTransaction</code>
+	 * @param definition TransactionDefinition instance of the participating scope
+	 * @throws TransactionException in case of system errors
+	 * @see #setLightweightReadOnly
+	 */
+	protected void prepareForParticipation(Object transaction, TransactionDefinition definition)
+			throws TransactionException {
+	}
+
 	/**
 	 * Begin a new transaction with semantics according to the given transaction
 	 * definition. Does not have to care about applying the propagation behavior,
@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -63,6 +62,11 @@ import org.springframework.util.Assert;
  * within a JTA transaction, e.g. a JDBC Connection or a Hibernate Session for
  * any given DataSource or SessionFactory, respectively.
  *
+ * <p>All state for the current thread is held in a single context object,
+ * bound to the thread only as long as it carries any state. Resources are kept
+ * in a small array-backed table, since there are usually only one or two
+ * resources bound at any time.
+ *
  * @author Juergen Hoeller
  * @since 02.06.2003
  * @see #isSynchronizationActive
@@ -79,23 +83,33 @@ public abstract class TransactionSynchronizationManager {
 
 	private static final Comparator synchronizationComparator = new OrderComparator();
 
-	private static final ThreadLocal resources =
-			new NamedThreadLocal("Transactional resources");
-
-	private static final ThreadLocal synchronizations =
-			new NamedThreadLocal("Transaction synchronizations");
+	private static final ThreadLocal transactionContext =
+			new NamedThreadLocal("Transaction synchronization context");
 
-	private static final ThreadLocal currentTransactionName =
-			new NamedThreadLocal("Current transaction name");
 
-	private static final ThreadLocal currentTransactionReadOnly =
-			new NamedThreadLocal("Current transaction read-only status");
-
-	private static final ThreadLocal currentTransactionIsolationLevel =
-			new NamedThreadLocal("Current transaction isolation level");
+	/**
+	 * Return the context for the current thread.
+	 * @param create whether to create and bind a new context if none is bound
+	 * @return the current context, or <code>null</code> if none bound
+	 * and <code>create</code> is <code>false</code>
+	 */
+	private static TransactionContext getContext(boolean create) {
+		TransactionContext context = (TransactionContext) transactionContext.get();
+		if (context == null && create) {
+			context = new TransactionContext();
+			transactionContext.set(context);
+		}
+		return context;
+	}
 
-	private static final ThreadLocal actualTransactionActive =
-			new NamedThreadLocal("Actual transaction active");
+	/**
+	 * Unbind the given context from the current thread if it does not carry any state anymore.
+	 */
+	private static void releaseContextIfEmpty(TransactionContext context) {
+		if (context.isEmpty()) {
+			transactionContext.set(null);
+		}
+	}
 
 
 	//-------------------------------------------------------------------------
@@ -112,8 +126,15 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #hasResource
 	 */
 	public static Map getResourceMap() {
-		Map map = (Map) resources.get();
-		return (map != null ? Collections.unmodifiableMap(map) : Collections.EMPTY_MAP);
+		TransactionContext context = getContext(false);
+		if (context == null || context.resourceCount == 0) {
+			return Collections.EMPTY_MAP;
+		}
+		Map map = new HashMap(context.resourceCount * 2);
+		for (int i = 0; i < context.resourceCount; i++) {
+			map.put(context.resourceKeys[i], context.resourceValues[i]);
+		}
+		return Collections.unmodifiableMap(map);
 	}
 
 	/**
@@ -149,14 +170,19 @@ public abstract class TransactionSynchronizationManager {
 	 * Actually check the value of the resource that is bound for the given key.
 	 */
 	private static Object doGetResource(Object actualKey) {
-		Map map = (Map) resources.get();
-		if (map == null) {
+		TransactionContext context = getContext(false);
+		if (context == null) {
 			return null;
 		}
-		Object value = map.get(actualKey);
+		int index = context.indexOfResource(actualKey);
+		if (index < 0) {
+			return null;
+		}
+		Object value = context.resourceValues[index];
 		// Transparently remove ResourceHolder that was marked as void...
 		if (value instanceof ResourceHolder && ((ResourceHolder) value).isVoid()) {
-			map.remove(actualKey);
+			context.removeResource(index);
+			releaseContextIfEmpty(context);
 			value = null;
 		}
 		return value;
@@ -172,16 +198,14 @@ public abstract class TransactionSynchronizationManager {
 	public static void bindResource(Object key, Object value) throws IllegalStateException {
 		Object actualKey = TransactionSynchronizationUtils.unwrapResourceIfNecessary(key);
 		Assert.notNull(value, "Value must not be null");
-		Map map = (Map) resources.get();
-		// set ThreadLocal Map if none found
-		if (map == null) {
-			map = new HashMap();
-			resources.set(map);
-		}
-		if (map.put(actualKey, value) != null) {
-			throw new IllegalStateException("Already value [" + map.get(actualKey) + "] for key [" +
+		TransactionContext context = getContext(true);
+		int index = context.indexOfResource(actualKey);
+		if (index >= 0) {
+			context.resourceValues[index] = value;
+			throw new IllegalStateException("Already value [" + value + "] for key [" +
 					actualKey + "] bound to thread [" + Thread.currentThread().getName() + "]");
 		}
+		context.addResource(actualKey, value);
 		if (logger.isTraceEnabled()) {
 			logger.trace("Bound value [" + value + "] for key [" + actualKey + "] to thread [" +
 					Thread.currentThread().getName() + "]");
@@ -219,16 +243,18 @@ public abstract class TransactionSynchronizationManager {
 	 * Actually remove the value of the resource that is bound for the given key.
 	 */
 	private static Object doUnbindResource(Object actualKey) {
-		Map map = (Map) resources.get();
-		if (map == null) {
+		TransactionContext context = getContext(false);
+		if (context == null) {
 			return null;
 		}
-		Object value = map.remove(actualKey);
-		// Remove entire ThreadLocal if empty...
-		if (map.isEmpty()) {
-			resources.set(null);
+		int index = context.indexOfResource(actualKey);
+		if (index < 0) {
+			return null;
 		}
-		if (value != null && logger.isTraceEnabled()) {
+		Object value = context.removeResource(index);
+		// Remove entire context if empty...
+		releaseContextIfEmpty(context);
+		if (logger.isTraceEnabled()) {
 			logger.trace("Removed value [" + value + "] for key [" + actualKey + "] from thread [" +
 					Thread.currentThread().getName() + "]");
 		}
@@ -246,7 +272,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #registerSynchronization
 	 */
 	public static boolean isSynchronizationActive() {
-		return (synchronizations.get() != null);
+		TransactionContext context = getContext(false);
+		return (context != null && context.synchronizationActive);
 	}
 
 	/**
@@ -255,11 +282,12 @@ public abstract class TransactionSynchronizationManager {
 	 * @throws IllegalStateException if synchronization is already active
 	 */
 	public static void initSynchronization() throws IllegalStateException {
-		if (isSynchronizationActive()) {
+		TransactionContext context = getContext(true);
+		if (context.synchronizationActive) {
 			throw new IllegalStateException("Cannot activate transaction synchronization - already active");
 		}
 		logger.trace("Initializing transaction synchronization");
-		synchronizations.set(new LinkedList());
+		context.synchronizationActive = true;
 	}
 
 	/**
@@ -276,31 +304,46 @@ public abstract class TransactionSynchronizationManager {
 	    throws IllegalStateException {
 
 		Assert.notNull(synchronization, "TransactionSynchronization must not be null");
-		if (!isSynchronizationActive()) {
+		TransactionContext context = getContext(false);
+		if (context == null || !context.synchronizationActive) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
-		List synchs = (List) synchronizations.get();
-		synchs.add(synchronization);
+		if (context.synchronizations == null) {
+			context.synchronizations = new ArrayList(4);
+		}
+		context.synchronizations.add(synchronization);
+		context.synchronizationSnapshot = null;
 	}
 
 	/**
 	 * Return an unmodifiable snapshot list of all registered synchronizations
 	 * for the current thread.
+	 * <p>The snapshot is reused for subsequent calls until further
+	 * synchronizations get registered.
 	 * @return unmodifiable List of TransactionSynchronization instances
 	 * @throws IllegalStateException if synchronization is not active
 	 * @see TransactionSynchronization
 	 */
 	public static List getSynchronizations() throws IllegalStateException {
-		if (!isSynchronizationActive()) {
+		TransactionContext context = getContext(false);
+		if (context == null || !context.synchronizationActive) {
 			throw new IllegalStateException("Transaction synchronization is not active");
 		}
-		List synchs = (List) synchronizations.get();
-		// Sort lazily here, not in registerSynchronization.
-		Collections.sort(synchs, synchronizationComparator);
-		// Return unmodifiable snapshot, to avoid ConcurrentModificationExceptions
-		// while iterating and invoking synchronization callbacks that in turn
-		// might register further synchronizations.
-		return Collections.unmodifiableList(new ArrayList(synchs));
+		if (context.synchronizationSnapshot == null) {
+			if (context.synchronizations == null || context.synchronizations.isEmpty()) {
+				context.synchronizationSnapshot = Collections.EMPTY_LIST;
+			}
+			else {
+				// Sort lazily here, not in registerSynchronization.
+				Collections.sort(context.synchronizations, synchronizationComparator);
+				// Return unmodifiable snapshot, to avoid ConcurrentModificationExceptions
+				// while iterating and invoking synchronization callbacks that in turn
+				// might register further synchronizations.
+				context.synchronizationSnapshot =
+						Collections.unmodifiableList(new ArrayList(context.synchronizations));
+			}
+		}
+		return context.synchronizationSnapshot;
 	}
 
 	/**
@@ -309,11 +352,13 @@ public abstract class TransactionSynchronizationManager {
 	 * @throws IllegalStateException if synchronization is not active
 	 */
 	public static void clearSynchronization() throws IllegalStateException {
-		if (!isSynchronizationActive()) {
+		TransactionContext context = getContext(false);
+		if (context == null || !context.synchronizationActive) {
 			throw new IllegalStateException("Cannot deactivate transaction synchronization - not active");
 		}
 		logger.trace("Clearing transaction synchronization");
-		synchronizations.set(null);
+		context.clearSynchronization();
+		releaseContextIfEmpty(context);
 	}
 
 
@@ -328,7 +373,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getName()
 	 */
 	public static void setCurrentTransactionName(String name) {
-		currentTransactionName.set(name);
+		TransactionContext context = getContext(name != null);
+		if (context != null) {
+			context.currentTransactionName = name;
+			releaseContextIfEmpty(context);
+		}
 	}
 
 	/**
@@ -338,7 +387,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getName()
 	 */
 	public static String getCurrentTransactionName() {
-		return (String) currentTransactionName.get();
+		TransactionContext context = getContext(false);
+		return (context != null ? context.currentTransactionName : null);
 	}
 
 	/**
@@ -349,7 +399,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#isReadOnly()
 	 */
 	public static void setCurrentTransactionReadOnly(boolean readOnly) {
-		currentTransactionReadOnly.set(readOnly ? Boolean.TRUE : null);
+		TransactionContext context = getContext(readOnly);
+		if (context != null) {
+			context.currentTransactionReadOnly = readOnly;
+			releaseContextIfEmpty(context);
+		}
 	}
 
 	/**
@@ -368,7 +422,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.hibernate.FlushMode#NEVER
 	 */
 	public static boolean isCurrentTransactionReadOnly() {
-		return (currentTransactionReadOnly.get() != null);
+		TransactionContext context = getContext(false);
+		return (context != null && context.currentTransactionReadOnly);
 	}
 
 	/**
@@ -388,7 +443,11 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getIsolationLevel()
 	 */
 	public static void setCurrentTransactionIsolationLevel(Integer isolationLevel) {
-		currentTransactionIsolationLevel.set(isolationLevel);
+		TransactionContext context = getContext(isolationLevel != null);
+		if (context != null) {
+			context.currentTransactionIsolationLevel = isolationLevel;
+			releaseContextIfEmpty(context);
+		}
 	}
 
 	/**
@@ -409,7 +468,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see org.springframework.transaction.TransactionDefinition#getIsolationLevel()
 	 */
 	public static Integer getCurrentTransactionIsolationLevel() {
-		return (Integer) currentTransactionIsolationLevel.get();
+		TransactionContext context = getContext(false);
+		return (context != null ? context.currentTransactionIsolationLevel : null);
 	}
 
 	/**
@@ -419,7 +479,11 @@ public abstract class TransactionSynchronizationManager {
 	 * with an actual transaction; <code>false</code> to reset that marker
 	 */
 	public static void setActualTransactionActive(boolean active) {
-		actualTransactionActive.set(active ? Boolean.TRUE : null);
+		TransactionContext context = getContext(active);
+		if (context != null) {
+			context.actualTransactionActive = active;
+			releaseContextIfEmpty(context);
+		}
 	}
 
 	/**
@@ -434,7 +498,8 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #isSynchronizationActive()
 	 */
 	public static boolean isActualTransactionActive() {
-		return (actualTransactionActive.get() != null);
+		TransactionContext context = getContext(false);
+		return (context != null && context.actualTransactionActive);
 	}
 
 
@@ -448,11 +513,98 @@ public abstract class TransactionSynchronizationManager {
 	 * @see #setActualTransactionActive
 	 */
 	public static void clear() {
-		clearSynchronization();
-		setCurrentTransactionName(null);
-		setCurrentTransactionReadOnly(false);
-		setCurrentTransactionIsolationLevel(null);
-		setActualTransactionActive(false);
+		TransactionContext context = getContext(false);
+		if (context == null || !context.synchronizationActive) {
+			throw new IllegalStateException("Cannot deactivate transaction synchronization - not active");
+		}
+		logger.trace("Clearing transaction synchronization");
+		context.clearSynchronization();
+		context.currentTransactionName = null;
+		context.currentTransactionReadOnly = false;
+		context.currentTransactionIsolationLevel = null;
+		context.actualTransactionActive = false;
+		releaseContextIfEmpty(context);
+	}
+
+
+	/**
+	 * Holder for all transaction synchronization state of a thread.
+	 */
+	private static class TransactionContext {
+
+		private Object[] resourceKeys;
+
+		private Object[] resourceValues;
+
+		private int resourceCount;
+
+		private boolean synchronizationActive;
+
+		/** Registered TransactionSynchronizations, lazily created */
+		private List synchronizations;
+
+		/** Sorted, unmodifiable copy of the synchronizations, reset on registration */
+		private List synchronizationSnapshot;
+
+		private String currentTransactionName;
+
+		private boolean currentTransactionReadOnly;
+
+		private Integer currentTransactionIsolationLevel;
+
+		private boolean actualTransactionActive;
+
+		public int indexOfResource(Object key) {
+			for (int i = 0; i < this.resourceCount; i++) {
+				Object candidate = this.resourceKeys[i];
+				if (candidate == key || key.equals(candidate)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		public void addResource(Object key, Object value) {
+			if (this.resourceKeys == null) {
+				this.resourceKeys = new Object[4];
+				this.resourceValues = new Object[4];
+			}
+			else if (this.resourceCount == this.resourceKeys.length) {
+				Object[] newKeys = new Object[this.resourceCount * 2];
+				Object[] newValues = new Object[this.resourceCount * 2];
+				System.arraycopy(this.resourceKeys, 0, newKeys, 0, this.resourceCount);
+				System.arraycopy(this.resourceValues, 0, newValues, 0, this.resourceCount);
+				this.resourceKeys = newKeys;
+				this.resourceValues = newValues;
+			}
+			this.resourceKeys[this.resourceCount] = key;
+			this.resourceValues[this.resourceCount] = value;
+			this.resourceCount++;
+		}
+
+		public Object removeResource(int index) {
+			Object value = this.resourceValues[index];
+			int last = this.resourceCount - 1;
+			// Order of resources does not matter: move the last one into the gap.
+			this.resourceKeys[index] = this.resourceKeys[last];
+			this.resourceValues[index] = this.resourceValues[last];
+			this.resourceKeys[last] = null;
+			this.resourceValues[last] = null;
+			this.resourceCount = last;
+			return value;
+		}
+
+		public void clearSynchronization() {
+			this.synchronizationActive = false;
+			this.synchronizations = null;
+			this.synchronizationSnapshot = null;
+		}
+
+		public boolean isEmpty() {
+			return (this.resourceCount == 0 && !this.synchronizationActive && this.currentTransactionName == null &&
+					!this.currentTransactionReadOnly && this.currentTransactionIsolationLevel == null &&
+					!this.actualTransactionActive);
+		}
 	}
 
 }
@@ -228,7 +228,7 @@ public class AntPathMatcher implements PathMatcher {
 	 * @return <code>true</code> if the string matches against the
 	 * pattern, or <code>false</code> otherwise.
 	 */
-	private boolean matchStrings(String pattern, String str) {
+	static boolean matchStrings(String pattern, String str) {
 		char[] patArr = pattern.toCharArray();
 		char[] strArr = str.toCharArray();
 		int patIdxStart = 0;
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link AntPathMatcher} variant that compiles each pattern once into a
+ * reusable matcher form, instead of re-tokenizing and re-scanning the
+ * pattern on every match. Matching semantics are exactly the same as
+ * with a plain AntPathMatcher.
+ *
+ * <p>Compiled patterns are cached up to a configurable limit. The most
+ * recently tokenized path is kept per thread, so that matching one path
+ * against many patterns in a row - as done by URL-based handler mappings -
+ * tokenizes the path only once.
+ *
+ * <p>Furthermore, a CompiledPathMatcher can build a {@link PathPatternIndex}:
+ * a prefix tree over a set of patterns that finds all patterns matching a
+ * given path without evaluating every single pattern.
+ *
+ * <p>Designed for use with a fixed set of patterns, such as URL mappings.
+ * For arbitrary, ever-changing patterns, a plain AntPathMatcher is preferable.
+ *
+ * @since 2.5.7
+ * @see #createPatternIndex()
+ */
+public class CompiledPathMatcher extends AntPathMatcher {
+
+	/** Default maximum number of compiled patterns to cache: 4096 */
+	public static final int DEFAULT_CACHE_LIMIT = 4096;
+
+
+	private String pathSeparator = DEFAULT_PATH_SEPARATOR;
+
+	private int cacheLimit = DEFAULT_CACHE_LIMIT;
+
+	/** Pattern String --> CompiledPattern, replaced on every addition */
+	private volatile Map compiledPatterns = Collections.EMPTY_MAP;
+
+	private final Object cacheMonitor = new Object();
+
+	/** Last tokenized path per thread, as Object[] {path String, token String array} */
+	private final ThreadLocal lastTokenizedPath = new ThreadLocal();
+
+
+	public void setPathSeparator(String pathSeparator) {
+		super.setPathSeparator(pathSeparator);
+		this.pathSeparator = (pathSeparator != null ? pathSeparator : DEFAULT_PATH_SEPARATOR);
+		synchronized (this.cacheMonitor) {
+			this.compiledPatterns = Collections.EMPTY_MAP;
+		}
+	}
+
+	/**
+	 * Return the path separator used for pattern parsing.
+	 */
+	public String getPathSeparator() {
+		return this.pathSeparator;
+	}
+
+	/**
+	 * Specify the maximum number of compiled patterns to cache.
+	 * Default is 4096. Patterns beyond this limit get compiled for
+	 * each match, which is still as efficient as AntPathMatcher.
+	 */
+	public void setCacheLimit(int cacheLimit) {
+		this.cacheLimit = cacheLimit;
+	}
+
+	/**
+	 * Return the maximum number of compiled patterns to cache.
+	 */
+	public int getCacheLimit() {
+		return this.cacheLimit;
+	}
+
+	/**
+	 * Create a new, empty {@link PathPatternIndex} based on this matcher.
+	 */
+	public PathPatternIndex createPatternIndex() {
+		return new PathPatternIndex(this);
+	}
+
+
+	protected boolean doMatch(String pattern, String path, boolean fullMatch) {
+		if (path.startsWith(this.pathSeparator) != pattern.startsWith(this.pathSeparator)) {
+			return false;
+		}
+		return getCompiledPattern(pattern).matches(path, tokenizePath(path), fullMatch);
+	}
+
+	/**
+	 * Obtain the compiled form of the given pattern, compiling it if necessary.
+	 * @param pattern the pattern String
+	 * @return the corresponding CompiledPattern
+	 */
+	CompiledPattern getCompiledPattern(String pattern) {
+		CompiledPattern compiled = (CompiledPattern) this.compiledPatterns.get(pattern);
+		if (compiled == null) {
+			compiled = new CompiledPattern(pattern, this.pathSeparator);
+			synchronized (this.cacheMonitor) {
+				if (this.compiledPatterns.size() < this.cacheLimit) {
+					// Copy on write: lookups never need to synchronize.
+					Map newPatterns = new HashMap(this.compiledPatterns);
+					newPatterns.put(pattern, compiled);
+					this.compiledPatterns = newPatterns;
+				}
+			}
+		}
+		return compiled;
+	}
+
+	/**
+	 * Tokenize the given path into its segments, reusing the tokens
+	 * of the previous invocation on the current thread if possible.
+	 * @param path the path to tokenize
+	 * @return the path segments
+	 */
+	String[] tokenizePath(String path) {
+		Object[] last = (Object[]) this.lastTokenizedPath.get();
+		if (last != null && path.equals(last[0])) {
+			return (String[]) last[1];
+		}
+		String[] pathDirs = StringUtils.tokenizeToStringArray(path, this.pathSeparator);
+		this.lastTokenizedPath.set(new Object[] {path, pathDirs});
+		return pathDirs;
+	}
+
+
+	/**
+	 * Compiled form of a single pattern: its segments pre-classified into
+	 * literals, "**" wildcards and segments that require wildcard matching.
+	 */
+	static class CompiledPattern {
+
+		private final String pattern;
+
+		private final String pathSeparator;
+
+		private final PatternSegment[] segments;
+
+		private final int literalPrefixLength;
+
+		public CompiledPattern(String pattern, String pathSeparator) {
+			this.pattern = pattern;
+			this.pathSeparator = pathSeparator;
+			String[] pattDirs = StringUtils.tokenizeToStringArray(pattern, pathSeparator);
+			this.segments = new PatternSegment[pattDirs.length];
+			int prefixLength = -1;
+			for (int i = 0; i < pattDirs.length; i++) {
+				this.segments[i] = new PatternSegment(pattDirs[i]);
+				if (prefixLength == -1 && !this.segments[i].literal) {
+					prefixLength = i;
+				}
+			}
+			this.literalPrefixLength = (prefixLength != -1 ? prefixLength : pattDirs.length);
+		}
+
+		public String getPattern() {
+			return this.pattern;
+		}
+
+		/**
+		 * Return the literal segments at the start of the pattern,
+		 * i.e. all segments before the first wildcard segment.
+		 */
+		public String[] getLiteralPrefix() {
+			String[] prefix = new String[this.literalPrefixLength];
+			for (int i = 0; i < prefix.length; i++) {
+				prefix[i] = this.segments[i].text;
+			}
+			return prefix;
+		}
+
+		/**
+		 * Match the given path against this pattern, following the same
+		 * algorithm as {@link AntPathMatcher#doMatch} on pre-tokenized input.
+		 * Assumes that the leading path separators have been checked already.
+		 */
+		public boolean matches(String path, String[] pathDirs, boolean fullMatch) {
+			PatternSegment[] pattDirs = this.segments;
+			int pattIdxStart = 0;
+			int pattIdxEnd = pattDirs.length - 1;
+			int pathIdxStart = 0;
+			int pathIdxEnd = pathDirs.length - 1;
+
+			// Match all elements up to the first **
+			while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				PatternSegment patDir = pattDirs[pattIdxStart];
+				if (patDir.doubleWildcard) {
+					break;
+				}
+				if (!patDir.matches(pathDirs[pathIdxStart])) {
+					return false;
+				}
+				pattIdxStart++;
+				pathIdxStart++;
+			}
+
+			if (pathIdxStart > pathIdxEnd) {
+				// Path is exhausted, only match if rest of pattern is * or **'s
+				if (pattIdxStart > pattIdxEnd) {
+					return (this.pattern.endsWith(this.pathSeparator) ?
+							path.endsWith(this.pathSeparator) : !path.endsWith(this.pathSeparator));
+				}
+				if (!fullMatch) {
+					return true;
+				}
+				if (pattIdxStart == pattIdxEnd && pattDirs[pattIdxStart].singleWildcard &&
+						path.endsWith(this.pathSeparator)) {
+					return true;
+				}
+				return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+			}
+			else if (pattIdxStart > pattIdxEnd) {
+				// String not exhausted, but pattern is. Failure.
+				return false;
+			}
+			else if (!fullMatch && pattDirs[pattIdxStart].doubleWildcard) {
+				// Path start definitely matches due to "**" part in pattern.
+				return true;
+			}
+
+			// up to last '**'
+			while (pattIdxStart <= pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				PatternSegment patDir = pattDirs[pattIdxEnd];
+				if (patDir.doubleWildcard) {
+					break;
+				}
+				if (!patDir.matches(pathDirs[pathIdxEnd])) {
+					return false;
+				}
+				pattIdxEnd--;
+				pathIdxEnd--;
+			}
+			if (pathIdxStart > pathIdxEnd) {
+				// String is exhausted
+				return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+			}
+
+			while (pattIdxStart != pattIdxEnd && pathIdxStart <= pathIdxEnd) {
+				int patIdxTmp = -1;
+				for (int i = pattIdxStart + 1; i <= pattIdxEnd; i++) {
+					if (pattDirs[i].doubleWildcard) {
+						patIdxTmp = i;
+						break;
+					}
+				}
+				if (patIdxTmp == pattIdxStart + 1) {
+					// '**/**' situation, so skip one
+					pattIdxStart++;
+					continue;
+				}
+				// Find the pattern between padIdxStart & padIdxTmp in str between
+				// strIdxStart & strIdxEnd
+				int patLength = (patIdxTmp - pattIdxStart - 1);
+				int strLength = (pathIdxEnd - pathIdxStart + 1);
+				int foundIdx = -1;
+
+				strLoop:
+				for (int i = 0; i <= strLength - patLength; i++) {
+					for (int j = 0; j < patLength; j++) {
+						if (!pattDirs[pattIdxStart + j + 1].matches(pathDirs[pathIdxStart + i + j])) {
+							continue strLoop;
+						}
+					}
+					foundIdx = pathIdxStart + i;
+					break;
+				}
+
+				if (foundIdx == -1) {
+					return false;
+				}
+
+				pattIdxStart = patIdxTmp;
+				pathIdxStart = foundIdx + patLength;
+			}
+
+			return onlyDoubleWildcards(pattIdxStart, pattIdxEnd);
+		}
+
+		private boolean onlyDoubleWildcards(int start, int end) {
+			for (int i = start; i <= end; i++) {
+				if (!this.segments[i].doubleWildcard) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+
+	/**
+	 * A single segment of a compiled pattern.
+	 */
+	private static class PatternSegment {
+
+		public final String text;
+
+		public final boolean literal;
+
+		public final boolean singleWildcard;
+
+		public final boolean doubleWildcard;
+
+		public PatternSegment(String text) {
+			this.text = text;
+			this.literal = (text.indexOf('*') == -1 && text.indexOf('?') == -1);
+			this.singleWildcard = "*".equals(text);
+			this.doubleWildcard = "**".equals(text);
+		}
+
+		public boolean matches(String pathDir) {
+			if (this.literal) {
+				return this.text.equals(pathDir);
+			}
+			if (this.singleWildcard) {
+				return true;
+			}
+			return matchStrings(this.text, pathDir);
+		}
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix tree over a set of path patterns, for finding all patterns
+ * that match a given path without evaluating every registered pattern.
+ * Obtained through {@link CompiledPathMatcher#createPatternIndex()}.
+ *
+ * <p>Each pattern is filed under its literal leading segments, i.e. under
+ * the segments before its first wildcard. A lookup walks down the tree
+ * along the segments of the given path, collecting the patterns filed
+ * along the way - only those can possibly match - and then evaluates just
+ * these candidates with the CompiledPathMatcher. The result is exactly
+ * the same as calling {@link PathMatcher#match} for every registered pattern.
+ *
+ * <p>Patterns may be added at any time; the tree gets rebuilt on the next
+ * lookup after a modification. Lookups are thread-safe.
+ *
+ * @since 2.5.7
+ */
+public class PathPatternIndex {
+
+	private final CompiledPathMatcher pathMatcher;
+
+	/** Registered pattern Strings, in registration order */
+	private final List patterns = new ArrayList();
+
+	private final Set patternSet = new HashSet();
+
+	/** Root of the tree, or <code>null</code> if it needs to be (re-)built */
+	private volatile Node root;
+
+
+	/**
+	 * Create a new PathPatternIndex for the given CompiledPathMatcher.
+	 * @param pathMatcher the CompiledPathMatcher to match paths with
+	 */
+	public PathPatternIndex(CompiledPathMatcher pathMatcher) {
+		Assert.notNull(pathMatcher, "CompiledPathMatcher must not be null");
+		this.pathMatcher = pathMatcher;
+	}
+
+
+	/**
+	 * Add the given pattern to this index. Patterns that have been
+	 * added before will be ignored, keeping their original position.
+	 * @param pattern the pattern to add
+	 */
+	public void addPattern(String pattern) {
+		Assert.notNull(pattern, "Pattern must not be null");
+		synchronized (this.patterns) {
+			if (this.patternSet.add(pattern)) {
+				this.patterns.add(pattern);
+				this.root = null;
+			}
+		}
+	}
+
+	/**
+	 * Return the number of patterns in this index.
+	 */
+	public int size() {
+		synchronized (this.patterns) {
+			return this.patterns.size();
+		}
+	}
+
+	/**
+	 * Find all registered patterns that match the given path.
+	 * @param path the path to match
+	 * @return the matching patterns, in registration order
+	 * (never <code>null</code>)
+	 * @see PathMatcher#match
+	 */
+	public List getMatchingPatterns(String path) {
+		Node node = getRoot();
+		String[] pathDirs = this.pathMatcher.tokenizePath(path);
+		List candidates = new ArrayList();
+		addCandidates(node, candidates);
+		for (int i = 0; i < pathDirs.length && node.children != null; i++) {
+			node = (Node) node.children.get(pathDirs[i]);
+			if (node == null) {
+				break;
+			}
+			addCandidates(node, candidates);
+		}
+		if (candidates.isEmpty()) {
+			return Collections.EMPTY_LIST;
+		}
+		Collections.sort(candidates);
+		List matches = new ArrayList(candidates.size());
+		for (Iterator it = candidates.iterator(); it.hasNext();) {
+			IndexedPattern candidate = (IndexedPattern) it.next();
+			if (this.pathMatcher.match(candidate.pattern, path)) {
+				matches.add(candidate.pattern);
+			}
+		}
+		return matches;
+	}
+
+	private void addCandidates(Node node, List candidates) {
+		if (node.patterns != null) {
+			candidates.addAll(node.patterns);
+		}
+	}
+
+	private Node getRoot() {
+		Node root = this.root;
+		if (root == null) {
+			synchronized (this.patterns) {
+				root = this.root;
+				if (root == null) {
+					root = buildTree();
+					this.root = root;
+				}
+			}
+		}
+		return root;
+	}
+
+	private Node buildTree() {
+		Node root = new Node();
+		int order = 0;
+		for (Iterator it = this.patterns.iterator(); it.hasNext();) {
+			String pattern = (String) it.next();
+			String[] prefix = this.pathMatcher.getCompiledPattern(pattern).getLiteralPrefix();
+			Node node = root;
+			for (int i = 0; i < prefix.length; i++) {
+				node = node.getOrCreateChild(prefix[i]);
+			}
+			node.addPattern(new IndexedPattern(pattern, order++));
+		}
+		return root;
+	}
+
+
+	/**
+	 * A node in the prefix tree, representing a literal path segment.
+	 */
+	private static class Node {
+
+		/** Path segment String --> child Node */
+		public Map children;
+
+		/** Patterns whose literal prefix ends at this node */
+		public List patterns;
+
+		public Node getOrCreateChild(String segment) {
+			if (this.children == null) {
+				this.children = new HashMap();
+			}
+			Node child = (Node) this.children.get(segment);
+			if (child == null) {
+				child = new Node();
+				this.children.put(segment, child);
+			}
+			return child;
+		}
+
+		public void addPattern(IndexedPattern pattern) {
+			if (this.patterns == null) {
+				this.patterns = new ArrayList(2);
+			}
+			this.patterns.add(pattern);
+		}
+	}
+
+
+	/**
+	 * A pattern together with its registration order.
+	 */
+	private static class IndexedPattern implements Comparable {
+
+		public final String pattern;
+
+		public final int order;
+
+		public IndexedPattern(String pattern, int order) {
+			this.pattern = pattern;
+			this.order = order;
+		}
+
+		public int compareTo(Object other) {
+			int otherOrder = ((IndexedPattern) other).order;
+			return (this.order < otherOrder ? -1 : (this.order > otherOrder ? 1 : 0));
+		}
+	}
+
+}
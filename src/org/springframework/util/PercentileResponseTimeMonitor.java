@@ -0,0 +1,110 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+/**
+ * Interface for monitors that expose the distribution of response times
+ * through percentiles, as well as statistics for a recent time window
+ * in addition to the overall statistics.
+ *
+ * <p>Statistics may be approximate: implementations may trade exact
+ * reporting for the avoidance of synchronization on the recording path.
+ *
+ * <p>Consists of simple getters and operations only, so that it is suitable
+ * as management interface for Spring's
+ * {@link org.springframework.jmx.export.MBeanExporter}, for example through an
+ * {@link org.springframework.jmx.export.assembler.InterfaceBasedMBeanInfoAssembler}.
+ *
+ * @since 2.5.7
+ */
+public interface PercentileResponseTimeMonitor {
+
+	/**
+	 * Return the number of recorded accesses.
+	 */
+	int getAccessCount();
+
+	/**
+	 * Return the average response time in milliseconds.
+	 */
+	int getAverageResponseTimeMillis();
+
+	/**
+	 * Return the best (quickest) response time in milliseconds.
+	 */
+	int getBestResponseTimeMillis();
+
+	/**
+	 * Return the worst (slowest) response time in milliseconds.
+	 */
+	int getWorstResponseTimeMillis();
+
+	/**
+	 * Return the response time at the given percentile in milliseconds.
+	 * @param percentile the percentile, between 0 and 100 (e.g. 99.9)
+	 */
+	int getPercentileResponseTimeMillis(double percentile);
+
+	/**
+	 * Return the median response time in milliseconds.
+	 */
+	int getMedianResponseTimeMillis();
+
+	/**
+	 * Return the 99th percentile of response times in milliseconds.
+	 */
+	int getP99ResponseTimeMillis();
+
+	/**
+	 * Return the 99.9th percentile of response times in milliseconds.
+	 */
+	int getP999ResponseTimeMillis();
+
+	/**
+	 * Return the length of the recent time window in milliseconds.
+	 */
+	long getWindowMillis();
+
+	/**
+	 * Return the number of accesses within the recent time window.
+	 */
+	int getRecentAccessCount();
+
+	/**
+	 * Return the average response time within the recent time window in milliseconds.
+	 */
+	int getRecentAverageResponseTimeMillis();
+
+	/**
+	 * Return the response time at the given percentile within the recent
+	 * time window in milliseconds.
+	 * @param percentile the percentile, between 0 and 100 (e.g. 99.9)
+	 */
+	int getRecentPercentileResponseTimeMillis(double percentile);
+
+	/**
+	 * Return the 99th percentile of response times within the recent
+	 * time window in milliseconds.
+	 */
+	int getRecentP99ResponseTimeMillis();
+
+	/**
+	 * Reset all statistics recorded so far.
+	 */
+	void reset();
+
+}
@@ -19,14 +19,16 @@ package org.springframework.web.servlet.handler;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.BeansException;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.util.Assert;
+import org.springframework.util.CompiledPathMatcher;
 import org.springframework.util.PathMatcher;
+import org.springframework.util.PathPatternIndex;
 import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.util.UrlPathHelper;
@@ -44,7 +46,10 @@ import org.springframework.web.util.UrlPathHelper;
  *
  * <p>Will search all path patterns to find the most exact match for the
  * current request path. The most exact match is defined as the longest
- * path pattern that matches the current request path.
+ * path pattern that matches the current request path. With the default
+ * {@link org.springframework.util.CompiledPathMatcher}, registered paths are
+ * kept in a {@link org.springframework.util.PathPatternIndex}, so that only
+ * paths sharing the request path's leading segments need to be evaluated.
  *
  * @author Juergen Hoeller
  * @since 16.04.2003
@@ -56,7 +61,7 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 
 	private UrlPathHelper urlPathHelper = new UrlPathHelper();
 
-	private PathMatcher pathMatcher = new AntPathMatcher();
+	private PathMatcher pathMatcher = new CompiledPathMatcher();
 
 	private Object rootHandler;
 
@@ -64,6 +69,8 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 
 	private final Map handlerMap = new LinkedHashMap();
 
+	private PathPatternIndex pathIndex = ((CompiledPathMatcher) this.pathMatcher).createPatternIndex();
+
 
 	/**
 	 * Set if URL lookup should always use the full path within the current servlet
@@ -101,12 +108,26 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 
 	/**
 	 * Set the PathMatcher implementation to use for matching URL paths
-	 * against registered URL patterns. Default is AntPathMatcher.
+	 * against registered URL patterns. Default is a CompiledPathMatcher,
+	 * which follows the AntPathMatcher rules.
+	 * <p>Registered paths will only be indexed for a CompiledPathMatcher;
+	 * any other PathMatcher will be asked to match every registered path.
+	 * @see org.springframework.util.CompiledPathMatcher
 	 * @see org.springframework.util.AntPathMatcher
 	 */
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		Assert.notNull(pathMatcher, "PathMatcher must not be null");
 		this.pathMatcher = pathMatcher;
+		if (pathMatcher instanceof CompiledPathMatcher) {
+			PathPatternIndex pathIndex = ((CompiledPathMatcher) pathMatcher).createPatternIndex();
+			for (Iterator it = this.handlerMap.keySet().iterator(); it.hasNext();) {
+				pathIndex.addPattern((String) it.next());
+			}
+			this.pathIndex = pathIndex;
+		}
+		else {
+			this.pathIndex = null;
+		}
 	}
 
 	/**
@@ -202,14 +223,7 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 			return buildPathExposingHandler(handler, urlPath);
 		}
 		// Pattern match?
-		String bestPathMatch = null;
-		for (Iterator it = this.handlerMap.keySet().iterator(); it.hasNext();) {
-			String registeredPath = (String) it.next();
-			if (getPathMatcher().match(registeredPath, urlPath) &&
-					(bestPathMatch == null || bestPathMatch.length() < registeredPath.length())) {
-				bestPathMatch = registeredPath;
-			}
-		}
+		String bestPathMatch = findBestPathMatch(urlPath);
 		if (bestPathMatch != null) {
 			handler = this.handlerMap.get(bestPathMatch);
 			validateHandler(handler, request);
@@ -220,6 +234,37 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 		return null;
 	}
 
+	/**
+	 * Find the most exact registered path that matches the given URL path,
+	 * that is, the longest one - or the first registered one in case of a tie.
+	 * @param urlPath URL the bean is mapped to
+	 * @return the most exact registered path, or <code>null</code> if none matches
+	 */
+	private String findBestPathMatch(String urlPath) {
+		PathPatternIndex pathIndex = this.pathIndex;
+		Iterator it = null;
+		if (pathIndex != null) {
+			// Only paths sharing the URL's leading segments, already matched.
+			List matchingPaths = pathIndex.getMatchingPatterns(urlPath);
+			if (matchingPaths.size() == 1) {
+				return (String) matchingPaths.get(0);
+			}
+			it = matchingPaths.iterator();
+		}
+		else {
+			it = this.handlerMap.keySet().iterator();
+		}
+		String bestPathMatch = null;
+		while (it.hasNext()) {
+			String registeredPath = (String) it.next();
+			if ((bestPathMatch == null || bestPathMatch.length() < registeredPath.length()) &&
+					(pathIndex != null || getPathMatcher().match(registeredPath, urlPath))) {
+				bestPathMatch = registeredPath;
+			}
+		}
+		return bestPathMatch;
+	}
+
 	/**
 	 * Validate the given handler against the current request.
 	 * <p>The default implementation is empty. Can be overridden in subclasses,
@@ -321,6 +366,9 @@ public abstract class AbstractUrlHandlerMapping extends AbstractHandlerMapping {
 			}
 			else {
 				this.handlerMap.put(urlPath, resolvedHandler);
+				if (this.pathIndex != null) {
+					this.pathIndex.addPattern(urlPath);
+				}
 				if (logger.isDebugEnabled()) {
 					logger.debug("Mapped URL path [" + urlPath + "] onto handler [" + resolvedHandler + "]");
 				}
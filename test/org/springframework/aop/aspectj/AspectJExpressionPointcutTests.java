@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2005 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  * 
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,6 +29,7 @@ import org.springframework.aop.Pointcut;
 import org.springframework.aop.aspectj.AspectJExpressionPointcut;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.beans.IOther;
 import org.springframework.beans.ITestBean;
 import org.springframework.beans.TestBean;
@@ -256,6 +257,73 @@ public class AspectJExpressionPointcutTests extends TestCase {
 		assertEquals("Calls should be 1", 1, interceptor.getCount());
 	}
 
+	public void testDynamicMatchingJdkProxyRepeatedly() {
+		String expression = "execution(void org.springframework.beans.ITestBean.setAge(int)) && " +
+				"args(age) && this(org.springframework.beans.ITestBean)";
+		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(
+				AspectJExpressionPointcutTests.class, new String[] {"age"}, new Class[] {int.class});
+		pointcut.setExpression(expression);
+		CallCountingInterceptor interceptor = new CallCountingInterceptor();
+
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvisor(new DefaultPointcutAdvisor(pointcut, interceptor));
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		proxy.setAge(30);
+		proxy.setAge(31);
+		proxy.getAge();
+		assertEquals("Calls should be 2", 2, interceptor.getCount());
+		assertEquals(31, proxy.getAge());
+	}
+
+	public void testShadowMatchCacheSharedForIdenticalExpressions() {
+		String expression = "execution(int org.springframework.beans.TestBean.getAge())";
+		AspectJExpressionPointcut pc1 = (AspectJExpressionPointcut) getPointcut(expression);
+		AspectJExpressionPointcut pc2 = (AspectJExpressionPointcut) getPointcut(expression);
+		AspectJExpressionPointcut pc3 = (AspectJExpressionPointcut) getPointcut(MATCH_ALL_METHODS);
+
+		ShadowMatchCache cache = getShadowMatchCache(pc1);
+		assertSame(cache, getShadowMatchCache(pc2));
+		assertNotSame(cache, getShadowMatchCache(pc3));
+
+		// The cache may have been populated by other pointcuts for the same expression already.
+		assertMatchesGetAge(pc1.getMethodMatcher());
+		int size = cache.size();
+		assertTrue(size > 0);
+		assertMatchesGetAge(pc2.getMethodMatcher());
+		assertEquals(size, cache.size());
+	}
+
+	public void testShadowMatchCacheNotSharedForDifferentDeclarationScopes() {
+		String expression = "execution(int org.springframework.beans.TestBean.getAge())";
+		AspectJExpressionPointcut pc1 = new AspectJExpressionPointcut(
+				AspectJExpressionPointcutTests.class, new String[0], new Class[0]);
+		pc1.setExpression(expression);
+		AspectJExpressionPointcut pc2 = new AspectJExpressionPointcut(
+				TestBean.class, new String[0], new Class[0]);
+		pc2.setExpression(expression);
+		assertNotSame(getShadowMatchCache(pc1), getShadowMatchCache(pc2));
+	}
+
+	public void testShadowMatchCacheNotSharedIfTurnedOff() {
+		String expression = "execution(int org.springframework.beans.TestBean.getAge())";
+		AspectJExpressionPointcut pc1 = (AspectJExpressionPointcut) getPointcut(expression);
+		AspectJExpressionPointcut pc2 = new AspectJExpressionPointcut();
+		pc2.setShareShadowMatchCache(false);
+		pc2.setExpression(expression);
+
+		assertMatchesGetAge(pc1.getMethodMatcher());
+		assertMatchesGetAge(pc2.getMethodMatcher());
+		assertNotSame(getShadowMatchCache(pc1), getShadowMatchCache(pc2));
+	}
+
+	public void testShadowMatchCacheNotSharedForBeanDesignator() {
+		String expression = "execution(int org.springframework.beans.TestBean.getAge()) && bean(myBean)";
+		AspectJExpressionPointcut pc1 = (AspectJExpressionPointcut) getPointcut(expression);
+		AspectJExpressionPointcut pc2 = (AspectJExpressionPointcut) getPointcut(expression);
+		assertNotSame(getShadowMatchCache(pc1), getShadowMatchCache(pc2));
+	}
+
 	public void testInvalidExpression() {
 		String expression = "execution(void org.springframework.beans.TestBean.setSomeNumber(Number) && args(Double)";
 
@@ -324,6 +392,12 @@ public class AspectJExpressionPointcutTests extends TestCase {
 		assertEquals("execution(* *(..)) && args(String) && this(Object)",expr.getPointcutExpression());		
 	}
 	
+	private ShadowMatchCache getShadowMatchCache(AspectJExpressionPointcut pointcut) {
+		pointcut.getPointcutExpression();  // forces resolution
+		Object resolvedExpression = new DirectFieldAccessor(pointcut).getPropertyValue("resolvedExpression");
+		return (ShadowMatchCache) new DirectFieldAccessor(resolvedExpression).getPropertyValue("shadowMatchCache");
+	}
+
 	private Pointcut getPointcut(String expression) {
 		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
 		pointcut.setExpression(expression);
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2006 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.aop.aspectj;
 
 import junit.framework.TestCase;
+import org.springframework.aop.ClassFilter;
 import org.springframework.aop.framework.autoproxy.CountingTestBean;
 import org.springframework.beans.IOther;
 import org.springframework.beans.ITestBean;
@@ -74,6 +75,38 @@ public final class TypePatternClassFilterTests extends TestCase {
 		assertTrue("matches Double",tpcf.matches(Double.class));	
 	}
 
+	public void testCandidateFilterForPackagePattern() {
+		ClassFilter candidateFilter = new TypePatternClassFilter("org.springframework.beans..*").getCandidateFilter();
+		assertNotNull(candidateFilter);
+		assertTrue(candidateFilter.matches(TestBean.class));
+		assertTrue(candidateFilter.matches(DefaultListableBeanFactory.class));
+		assertFalse(candidateFilter.matches(CountingTestBean.class));
+		assertEquals(candidateFilter, new TypePatternClassFilter("org.springframework.beans.*").getCandidateFilter());
+		assertEquals(candidateFilter, new TypePatternClassFilter("org.springframework.beans.TestBean").getCandidateFilter());
+		assertFalse(candidateFilter.equals(
+				new TypePatternClassFilter("org.springframework.beans.factory.*").getCandidateFilter()));
+	}
+
+	public void testCandidateFilterForNestedTypePattern() {
+		TypePatternClassFilter tpcf = new TypePatternClassFilter(
+				"org.springframework.aop.aspectj.TypePatternClassFilterTests.NestedBean");
+		assertTrue(tpcf.matches(NestedBean.class));
+		assertTrue(tpcf.getCandidateFilter().matches(NestedBean.class));
+		assertFalse(tpcf.getCandidateFilter().matches(TestBean.class));
+
+		tpcf = new TypePatternClassFilter("org.springframework.aop.aspectj.TypePatternClassFilterTests.*");
+		assertTrue(tpcf.matches(NestedBean.class));
+		assertTrue(tpcf.getCandidateFilter().matches(NestedBean.class));
+	}
+
+	public void testNoCandidateFilterForUnrestrictedPattern() {
+		assertNull(new TypePatternClassFilter("org.springframework.beans.ITestBean+").getCandidateFilter());
+		assertNull(new TypePatternClassFilter("*..beans.*").getCandidateFilter());
+		assertNull(new TypePatternClassFilter("TestBean").getCandidateFilter());
+		assertNull(new TypePatternClassFilter(
+				"org.springframework.beans.* || org.springframework.aop.*").getCandidateFilter());
+	}
+
 	public void testSetTypePatternWithNullArgument() throws Exception {
 		new AssertThrows(IllegalArgumentException.class) {
 			public void test() throws Exception {
@@ -90,4 +123,9 @@ public final class TypePatternClassFilterTests extends TestCase {
 		}.runTest();
 	}
 
+
+
+	public static class NestedBean {
+	}
+
 }
@@ -1070,6 +1070,30 @@ public abstract class AbstractAopProxyTests extends TestCase {
 		assertEquals(di.getCount(), 2);
 	}
 
+	public void testFrozenProxyWithStaticAndDynamicPointcuts() throws Throwable {
+		TestBean tb = new TestBean();
+		ProxyFactory pc = new ProxyFactory(new Class[] {ITestBean.class});
+		NopInterceptor all = new NopInterceptor();
+		pc.addAdvice(all);
+		NopInterceptor setters = new NopInterceptor();
+		TestDynamicPointcutForSettersOnly dp = new TestDynamicPointcutForSettersOnly(setters, "Age");
+		pc.addAdvisor(dp);
+		NopInterceptor getAge = new NopInterceptor();
+		pc.addAdvisor(new TestStaticPointcutAdvice(getAge, "getAge"));
+		pc.setTarget(tb);
+		pc.setFrozen(true);
+		ITestBean it = (ITestBean) createProxy(pc);
+		it.setAge(11);
+		assertEquals(11, it.getAge());
+		// Applies statically but not dynamically
+		it.setName("joe");
+		assertEquals("joe", it.getName());
+		assertEquals(4, all.getCount());
+		assertEquals(1, dp.count);
+		assertEquals(1, setters.getCount());
+		assertEquals(1, getAge.getCount());
+	}
+
 	/**
 	 * There are times when we want to call proceed() twice.
 	 * We can do this if we clone the invocation.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.easymock.MockControl;
 
 import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.aop.interceptor.NopInterceptor;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.IOther;
 import org.springframework.beans.ITestBean;
@@ -150,6 +151,47 @@ public class JdkDynamicProxyTests extends AbstractAopProxyTests {
 	}
 
 
+	public void testFrozenProxyAppliesAdviceChangesAfterUnfreezing() {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		NopInterceptor first = new NopInterceptor();
+		pf.addAdvice(first);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		proxy.getAge();
+		assertEquals(1, first.getCount());
+
+		pf.setFrozen(false);
+		NopInterceptor second = new NopInterceptor();
+		pf.addAdvice(second);
+		proxy.getAge();
+		assertEquals(2, first.getCount());
+		assertEquals(1, second.getCount());
+	}
+
+	public void testFrozenProxyAppliesChangesAfterRefreezing() {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		NopInterceptor first = new NopInterceptor();
+		pf.addAdvice(first);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		proxy.getAge();
+		assertEquals(1, first.getCount());
+
+		pf.setFrozen(false);
+		NopInterceptor second = new NopInterceptor();
+		pf.addAdvice(second);
+		TestBean otherTarget = new TestBean();
+		otherTarget.setAge(42);
+		pf.setTarget(otherTarget);
+		pf.setFrozen(true);
+		assertEquals(42, proxy.getAge());
+		assertEquals(2, first.getCount());
+		assertEquals(1, second.getCount());
+		proxy.getAge();
+		assertEquals(3, first.getCount());
+		assertEquals(2, second.getCount());
+	}
+
 	public static interface Foo {
 
 		Bar getBarThis();
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.IOException;
+
+import org.springframework.aop.interceptor.NopInterceptor;
+import org.springframework.beans.ITestBean;
+import org.springframework.beans.TestBean;
+
+/**
+ * Runs the JDK proxy test suite with generated target invokers,
+ * plus tests specific to generated invokers.
+ *
+ */
+public class JdkDynamicProxyWithGeneratedInvokersTests extends JdkDynamicProxyTests {
+
+	protected Object createProxy(ProxyCreatorSupport as) {
+		as.setUseGeneratedInvokers(true);
+		return super.createProxy(as);
+	}
+
+	protected AopProxy createAopProxy(AdvisedSupport as) {
+		as.setUseGeneratedInvokers(true);
+		return super.createAopProxy(as);
+	}
+
+	public void testTargetInvokedThroughGeneratedClass() throws Throwable {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		assertGeneratedInvocation(proxy);
+	}
+
+	public void testAdvisedTargetInvokedThroughGeneratedClass() throws Throwable {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvice(nop);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		assertGeneratedInvocation(proxy);
+		assertEquals(1, nop.getCount());
+	}
+
+	public void testFrozenTargetInvokedThroughGeneratedClass() throws Throwable {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		NopInterceptor nop = new NopInterceptor();
+		pf.addAdvice(nop);
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) createProxy(pf);
+		assertGeneratedInvocation(proxy);
+		assertEquals(1, nop.getCount());
+	}
+
+	private void assertGeneratedInvocation(ITestBean proxy) {
+		try {
+			proxy.unreliableFileOperation();
+			fail("Should have thrown IOException");
+		}
+		catch (IOException ex) {
+			// Thrown by the target method: check its immediate caller.
+			StackTraceElement caller = ex.getStackTrace()[1];
+			assertTrue("Not invoked through generated class: " + caller,
+					caller.getClassName().indexOf("FastClass") != -1);
+		}
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework.autoproxy;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.interceptor.NopInterceptor;
+import org.springframework.aop.interceptor.SerializableNopInterceptor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultIntroductionAdvisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.IndexableClassFilter;
+import org.springframework.aop.support.RootClassFilter;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.beans.ITestBean;
+import org.springframework.beans.TestBean;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.util.ClassUtils;
+
+/**
+ * @since 2.5.7
+ */
+public class AdvisorApplicabilityIndexTests extends TestCase {
+
+	public void testEquivalentToAopUtils() {
+		List advisors = new ArrayList();
+		advisors.add(new DefaultPointcutAdvisor(new NopInterceptor()));
+		advisors.add(new DefaultPointcutAdvisor(new CountingPointcut(new RootClassFilter(ITestBean.class)),
+				new NopInterceptor()));
+		advisors.add(new NeverMatchAdvisor());
+		advisors.add(new DefaultIntroductionAdvisor(new SerializableNopInterceptor()));
+		AdvisorApplicabilityIndex index = new AdvisorApplicabilityIndex(advisors, null);
+
+		assertEquals(AopUtils.findAdvisorsThatCanApply(advisors, TestBean.class),
+				index.findAdvisorsThatCanApply(TestBean.class));
+		assertEquals(AopUtils.findAdvisorsThatCanApply(advisors, DefaultListableBeanFactory.class),
+				index.findAdvisorsThatCanApply(DefaultListableBeanFactory.class));
+		assertEquals(1, index.getIndexedAdvisorCount());
+	}
+
+	public void testEqualCandidateFiltersEvaluatedOncePerClass() {
+		CountingCandidateFilter candidateFilter = new CountingCandidateFilter("org.springframework.beans.");
+		CountingPointcut pc1 = new CountingPointcut(new IndexedClassFilter(candidateFilter));
+		CountingPointcut pc2 = new CountingPointcut(
+				new IndexedClassFilter(new CountingCandidateFilter("org.springframework.beans.")));
+		List advisors = new ArrayList();
+		advisors.add(new DefaultPointcutAdvisor(pc1, new NopInterceptor()));
+		advisors.add(new DefaultPointcutAdvisor(pc2, new NopInterceptor()));
+		AdvisorApplicabilityIndex index = new AdvisorApplicabilityIndex(advisors, null);
+		assertEquals(2, index.getIndexedAdvisorCount());
+
+		assertTrue(index.findAdvisorsThatCanApply(DefaultListableBeanFactory.class).isEmpty());
+		assertEquals(1, candidateFilter.count);
+		assertEquals("Methods must not have been checked", 0, pc1.count + pc2.count);
+
+		assertEquals(2, index.findAdvisorsThatCanApply(TestBean.class).size());
+		assertEquals(2, candidateFilter.count);
+		assertTrue(pc1.count > 0);
+		assertTrue(pc2.count > 0);
+	}
+
+	public void testIsIndexFor() {
+		List advisors = new ArrayList();
+		advisors.add(new DefaultPointcutAdvisor(new NopInterceptor()));
+		AdvisorApplicabilityIndex index = new AdvisorApplicabilityIndex(advisors, null);
+		assertTrue(index.isIndexFor(new ArrayList(advisors)));
+		List otherAdvisors = new ArrayList(advisors);
+		otherAdvisors.add(new NeverMatchAdvisor());
+		assertFalse(index.isIndexFor(otherAdvisors));
+		otherAdvisors.remove(0);
+		assertFalse(index.isIndexFor(otherAdvisors));
+	}
+
+	public void testStatisticsCarriedOverToNewIndex() {
+		List advisors = new ArrayList();
+		StaticMethodMatcherPointcutAdvisor advisor = new NeverMatchAdvisor();
+		advisor.setClassFilter(new RootClassFilter(ITestBean.class));
+		advisors.add(advisor);
+		AdvisorApplicabilityIndex index = new AdvisorApplicabilityIndex(advisors, null);
+		index.findAdvisorsThatCanApply(TestBean.class);
+		index.findAdvisorsThatCanApply(DefaultListableBeanFactory.class);
+		String statistics = (String) index.getAdvisorStatistics().get(0);
+		assertTrue(statistics, statistics.indexOf("evaluated for 1 classes") != -1);
+		assertTrue(statistics, statistics.indexOf("matched 0") != -1);
+		assertTrue(statistics, statistics.indexOf("skipped for 1 classes") != -1);
+
+		advisors.add(new NeverMatchAdvisor());
+		AdvisorApplicabilityIndex newIndex = new AdvisorApplicabilityIndex(advisors, index);
+		assertEquals(2, newIndex.getAdvisorStatistics().size());
+		assertEquals(statistics, newIndex.getAdvisorStatistics().get(0));
+	}
+
+
+	private static class CountingPointcut extends StaticMethodMatcherPointcut {
+
+		public int count;
+
+		public CountingPointcut(ClassFilter classFilter) {
+			setClassFilter(classFilter);
+		}
+
+		public boolean matches(Method method, Class targetClass) {
+			this.count++;
+			return true;
+		}
+	}
+
+
+	private static class IndexedClassFilter implements IndexableClassFilter {
+
+		private final ClassFilter candidateFilter;
+
+		public IndexedClassFilter(ClassFilter candidateFilter) {
+			this.candidateFilter = candidateFilter;
+		}
+
+		public boolean matches(Class clazz) {
+			return clazz.getName().startsWith("org.springframework.beans.");
+		}
+
+		public ClassFilter getCandidateFilter() {
+			return this.candidateFilter;
+		}
+	}
+
+
+	private static class CountingCandidateFilter implements ClassFilter {
+
+		private final String packagePrefix;
+
+		public int count;
+
+		public CountingCandidateFilter(String packagePrefix) {
+			this.packagePrefix = packagePrefix;
+		}
+
+		public boolean matches(Class clazz) {
+			this.count++;
+			return ClassUtils.getPackageName(clazz).concat(".").equals(this.packagePrefix);
+		}
+
+		public boolean equals(Object other) {
+			return (other instanceof CountingCandidateFilter &&
+					this.packagePrefix.equals(((CountingCandidateFilter) other).packagePrefix));
+		}
+
+		public int hashCode() {
+			return this.packagePrefix.hashCode();
+		}
+	}
+
+}
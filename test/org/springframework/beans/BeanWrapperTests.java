@@ -1162,6 +1162,78 @@ public class BeanWrapperTests extends TestCase {
 		assertEquals("someValue", bean.getSomeProperty());
 	}
 
+	public void testPropertiesInProtectedBaseBeanWithGeneratedAccessors() {
+		DerivedFromProtectedBaseBean bean = new DerivedFromProtectedBaseBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setUseGeneratedAccessors(true);
+		bw.setPropertyValue("someProperty", "someValue");
+		assertEquals("someValue", bw.getPropertyValue("someProperty"));
+		assertEquals("someValue", bean.getSomeProperty());
+	}
+
+	public void testGeneratedAccessors() {
+		TestBean tb = new TestBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(tb);
+		bw.setUseGeneratedAccessors(true);
+		bw.setPropertyValue("name", "tom");
+		bw.setPropertyValue("age", "33");
+		bw.setPropertyValue("spouse", new TestBean());
+		bw.setPropertyValue("spouse.name", "kerry");
+		bw.setPropertyValue("country", null);
+		assertEquals("tom", tb.getName());
+		assertEquals(33, tb.getAge());
+		assertEquals("kerry", tb.getSpouse().getName());
+		assertEquals("tom", bw.getPropertyValue("name"));
+		assertEquals(new Integer(33), bw.getPropertyValue("age"));
+		assertEquals("kerry", bw.getPropertyValue("spouse.name"));
+		assertNull(bw.getPropertyValue("country"));
+	}
+
+	public void testIndexedPropertiesWithGeneratedAccessors() {
+		IndexedTestBean bean = new IndexedTestBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(bean);
+		bw.setUseGeneratedAccessors(true);
+		bw.setPropertyValue("array[0].name", "name5");
+		bw.setPropertyValue("list[1].name", "name6");
+		bw.setPropertyValue("map[key1].name", "name7");
+		bw.setPropertyValue("map['key.3']", new TestBean("name8", 0));
+		assertEquals("name5", bean.getArray()[0].getName());
+		assertEquals("name5", bw.getPropertyValue("array[0].name"));
+		assertEquals("name6", bw.getPropertyValue("list[1].name"));
+		assertEquals("name7", bw.getPropertyValue("map[key1].name"));
+		assertEquals("name8", bw.getPropertyValue("map['key.3'].name"));
+	}
+
+	public void testExceptionsWithGeneratedAccessors() {
+		TestBean tb = new TestBean();
+		BeanWrapperImpl bw = new BeanWrapperImpl(tb);
+		bw.setUseGeneratedAccessors(true);
+		try {
+			bw.setPropertyValue("age", null);
+			fail("Should have thrown TypeMismatchException");
+		}
+		catch (TypeMismatchException ex) {
+			// expected
+		}
+		try {
+			bw.setPropertyValue("touchy", ".");
+			fail("Should have thrown MethodInvocationException");
+		}
+		catch (MethodInvocationException ex) {
+			assertTrue(ex.getCause() instanceof Exception);
+		}
+		GetterBean gb = new GetterBean();
+		BeanWrapperImpl gbw = new BeanWrapperImpl(gb);
+		gbw.setUseGeneratedAccessors(true);
+		try {
+			gbw.getPropertyValue("name");
+			fail("Should have thrown InvalidPropertyException");
+		}
+		catch (InvalidPropertyException ex) {
+			assertTrue(ex.getCause().getCause() instanceof RuntimeException);
+		}
+	}
+
 	public void testErrorMessageOfNestedProperty() {
 		ITestBean parent = new TestBean();
 		ITestBean child = new DifferentTestBean();
@@ -45,4 +45,40 @@ public class CachedIntrospectionResultsTests extends TestCase {
 		assertTrue(CachedIntrospectionResults.classCache.containsKey(TestBean.class));
 	}
 
+	public void testCacheStatistics() throws Exception {
+		new BeanWrapperImpl(TestBean.class).isWritableProperty("name");
+		long hitCount = CachedIntrospectionResults.getCacheHitCount();
+		long missCount = CachedIntrospectionResults.getCacheMissCount();
+		new BeanWrapperImpl(TestBean.class).isWritableProperty("name");
+		assertEquals(hitCount + 1, CachedIntrospectionResults.getCacheHitCount());
+		assertEquals(missCount, CachedIntrospectionResults.getCacheMissCount());
+
+		ClassLoader child = new OverridingClassLoader(getClass().getClassLoader());
+		Class tbClass = child.loadClass("org.springframework.beans.TestBean");
+		new BeanWrapperImpl(tbClass).isWritableProperty("name");
+		assertEquals(missCount + 1, CachedIntrospectionResults.getCacheMissCount());
+		// Not cache-safe, hence only softly cached - but still served from the cache.
+		assertTrue(CachedIntrospectionResults.classCache.containsKey(tbClass));
+		new BeanWrapperImpl(tbClass).isWritableProperty("name");
+		assertEquals(hitCount + 2, CachedIntrospectionResults.getCacheHitCount());
+	}
+
+	public void testFieldCacheSharedByDirectFieldAccessors() throws Exception {
+		DirectFieldAccessor dfa = new DirectFieldAccessor(new TestBean());
+		assertTrue(dfa.isWritableProperty("name"));
+		assertTrue(CachedIntrospectionResults.fieldCache.containsKey(TestBean.class));
+		assertSame(CachedIntrospectionResults.fieldsForClass(TestBean.class),
+				CachedIntrospectionResults.fieldsForClass(TestBean.class));
+
+		ClassLoader child = new OverridingClassLoader(getClass().getClassLoader());
+		Class tbClass = child.loadClass("org.springframework.beans.TestBean");
+		dfa = new DirectFieldAccessor(tbClass.newInstance());
+		dfa.setPropertyValue("name", "tom");
+		assertEquals("tom", dfa.getPropertyValue("name"));
+		assertTrue(CachedIntrospectionResults.fieldCache.containsKey(tbClass));
+		CachedIntrospectionResults.clearClassLoader(child);
+		assertFalse(CachedIntrospectionResults.fieldCache.containsKey(tbClass));
+		assertTrue(CachedIntrospectionResults.fieldCache.containsKey(TestBean.class));
+	}
+
 }
@@ -69,6 +69,8 @@ import org.springframework.beans.propertyeditors.CustomNumberEditor;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.test.AssertThrows;
 import org.springframework.util.StopWatch;
 
@@ -1383,6 +1385,110 @@ public class DefaultListableBeanFactoryTests extends TestCase {
 		lbf.preInstantiateSingletons();
 	}
 
+	public void testParallelPreInstantiation() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+		executor.setConcurrencyLimit(4);
+		lbf.setPreInstantiationExecutor(executor);
+		assertTrue(lbf.isConcurrentSingletonCreation());
+		for (int i = 0; i < 20; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			bd.getPropertyValues().addPropertyValue("name", "tb" + i);
+			if (i > 0) {
+				bd.getPropertyValues().addPropertyValue("spouse", new RuntimeBeanReference("tb" + (i - 1)));
+			}
+			lbf.registerBeanDefinition("tb" + i, bd);
+		}
+		RootBeanDefinition dependent = new RootBeanDefinition(TestBean.class);
+		dependent.setDependsOn(new String[] {"tb19"});
+		lbf.registerBeanDefinition("dependent", dependent);
+		RootBeanDefinition lazy = new RootBeanDefinition(TestBean.class);
+		lazy.setLazyInit(true);
+		lbf.registerBeanDefinition("lazy", lazy);
+
+		lbf.preInstantiateSingletons();
+		for (int i = 0; i < 20; i++) {
+			assertTrue(lbf.containsSingleton("tb" + i));
+			if (i > 0) {
+				TestBean tb = (TestBean) lbf.getBean("tb" + i);
+				assertSame(lbf.getBean("tb" + (i - 1)), tb.getSpouse());
+			}
+		}
+		assertTrue(lbf.containsSingleton("dependent"));
+		assertFalse(lbf.containsSingleton("lazy"));
+		assertEquals(1, lbf.getDependentBeans("tb19").length);
+	}
+
+	public void testParallelPreInstantiationWithCircularReference() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setPreInstantiationExecutor(new SimpleAsyncTaskExecutor());
+		RootBeanDefinition bd1 = new RootBeanDefinition(TestBean.class);
+		bd1.getPropertyValues().addPropertyValue("spouse", new RuntimeBeanReference("tb2"));
+		lbf.registerBeanDefinition("tb1", bd1);
+		RootBeanDefinition bd2 = new RootBeanDefinition(TestBean.class);
+		bd2.getPropertyValues().addPropertyValue("spouse", new RuntimeBeanReference("tb1"));
+		lbf.registerBeanDefinition("tb2", bd2);
+		lbf.registerBeanDefinition("other", new RootBeanDefinition(TestBean.class));
+
+		lbf.preInstantiateSingletons();
+		TestBean tb1 = (TestBean) lbf.getBean("tb1");
+		TestBean tb2 = (TestBean) lbf.getBean("tb2");
+		assertSame(tb2, tb1.getSpouse());
+		assertSame(tb1, tb2.getSpouse());
+		assertTrue(lbf.containsSingleton("other"));
+	}
+
+	public void testParallelPreInstantiationWithDeferredSingleton() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setPreInstantiationExecutor(new SimpleAsyncTaskExecutor());
+		DeferredCreationBean.attempts = 0;
+		DeferredCreationBean.creationThread = null;
+		lbf.registerBeanDefinition("deferred", new RootBeanDefinition(DeferredCreationBean.class));
+		RootBeanDefinition dependent = new RootBeanDefinition(TestBean.class);
+		dependent.setDependsOn(new String[] {"deferred"});
+		lbf.registerBeanDefinition("dependent", dependent);
+
+		lbf.preInstantiateSingletons();
+		assertTrue(lbf.containsSingleton("deferred"));
+		assertTrue(lbf.containsSingleton("dependent"));
+		assertEquals(2, DeferredCreationBean.attempts);
+		assertSame("Deferred singleton must be retried before its dependent gets created",
+				Thread.currentThread(), DeferredCreationBean.creationThread);
+	}
+
+	public void testParallelPreInstantiationWithLongDependencyChain() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setPreInstantiationExecutor(new SyncTaskExecutor());
+		int chainLength = 20000;
+		for (int i = 0; i < chainLength; i++) {
+			RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+			if (i < chainLength - 1) {
+				bd.setDependsOn(new String[] {"tb" + (i + 1)});
+			}
+			lbf.registerBeanDefinition("tb" + i, bd);
+		}
+
+		lbf.preInstantiateSingletons();
+		assertTrue(lbf.containsSingleton("tb0"));
+		assertTrue(lbf.containsSingleton("tb" + (chainLength - 1)));
+	}
+
+	public void testParallelPreInstantiationWithFailure() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		lbf.setPreInstantiationExecutor(new SimpleAsyncTaskExecutor());
+		lbf.registerBeanDefinition("tb", new RootBeanDefinition(TestBean.class));
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.getPropertyValues().addPropertyValue("ag", "20");
+		lbf.registerBeanDefinition("invalid", bd);
+		try {
+			lbf.preInstantiateSingletons();
+			fail("Should have thrown BeanCreationException");
+		}
+		catch (BeanCreationException ex) {
+			assertEquals("invalid", ex.getBeanName());
+		}
+	}
+
 	public void testBeanDefinitionWithInterface() {
 		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
 		lbf.registerBeanDefinition("test", new RootBeanDefinition(ITestBean.class));
@@ -1680,6 +1786,77 @@ public class DefaultListableBeanFactoryTests extends TestCase {
 		assertTrue("Prototype creation took too long: " + sw.getTotalTimeMillis(), sw.getTotalTimeMillis() < 4000);
 	}
 
+	public void testPrototypeCreationWithReferencesRequiringConversion() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		RootBeanDefinition rbd = new RootBeanDefinition(TestBean.class);
+		rbd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		rbd.getPropertyValues().addPropertyValue("name", "juergen");
+		rbd.getPropertyValues().addPropertyValue("age", new RuntimeBeanReference("age"));
+		rbd.getPropertyValues().addPropertyValue("spouse", new RuntimeBeanReference("spouse"));
+		rbd.getPropertyValues().addPropertyValue("spouse.name", "kerry");
+		lbf.registerBeanDefinition("test", rbd);
+		RootBeanDefinition ageDef = new RootBeanDefinition(String.class);
+		ageDef.getConstructorArgumentValues().addGenericArgumentValue("99");
+		lbf.registerBeanDefinition("age", ageDef);
+		lbf.registerBeanDefinition("spouse", new RootBeanDefinition(TestBean.class));
+		TestBean spouse = (TestBean) lbf.getBean("spouse");
+		for (int i = 0; i < 3; i++) {
+			TestBean tb = (TestBean) lbf.getBean("test");
+			assertEquals("juergen", tb.getName());
+			assertEquals(99, tb.getAge());
+			assertSame(spouse, tb.getSpouse());
+			assertEquals("kerry", spouse.getName());
+		}
+		assertEquals(1, lbf.getDependentBeans("spouse").length);
+	}
+
+	public void testPrototypeCreationWithBeanPostProcessorAddedLater() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		RootBeanDefinition rbd = new RootBeanDefinition(TestBean.class);
+		rbd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		rbd.getPropertyValues().addPropertyValue("name", "juergen");
+		lbf.registerBeanDefinition("test", rbd);
+		assertEquals("juergen", ((TestBean) lbf.getBean("test")).getName());
+
+		lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+			public boolean postProcessAfterInstantiation(Object bean, String beanName) {
+				((TestBean) bean).setAge(99);
+				return true;
+			}
+		});
+		TestBean tb = (TestBean) lbf.getBean("test");
+		assertEquals("juergen", tb.getName());
+		assertEquals(99, tb.getAge());
+
+		DefaultListableBeanFactory otherLbf = new DefaultListableBeanFactory();
+		otherLbf.registerBeanDefinition("test", rbd);
+		assertEquals(0, ((TestBean) otherLbf.getBean("test")).getAge());
+		otherLbf.copyConfigurationFrom(lbf);
+		assertEquals(99, ((TestBean) otherLbf.getBean("test")).getAge());
+	}
+
+	public void testPrototypeCreationWithBeanPostProcessorReplaced() {
+		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
+		RootBeanDefinition rbd = new RootBeanDefinition(TestBean.class);
+		rbd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		lbf.registerBeanDefinition("test", rbd);
+		lbf.addBeanPostProcessor(new InstantiationAwareBeanPostProcessorAdapter() {
+			public boolean postProcessAfterInstantiation(Object bean, String beanName) {
+				((TestBean) bean).setAge(99);
+				return true;
+			}
+		});
+		assertEquals(99, ((TestBean) lbf.getBean("test")).getAge());
+
+		lbf.getBeanPostProcessors().set(0, new InstantiationAwareBeanPostProcessorAdapter() {
+			public boolean postProcessAfterInstantiation(Object bean, String beanName) {
+				((TestBean) bean).setAge(42);
+				return true;
+			}
+		});
+		assertEquals(42, ((TestBean) lbf.getBean("test")).getAge());
+	}
+
 	public void testBeanPostProcessorWithWrappedObjectAndDisposableBean() {
 		DefaultListableBeanFactory lbf = new DefaultListableBeanFactory();
 		RootBeanDefinition bd = new RootBeanDefinition(BeanWithDisposableBean.class);
@@ -2148,6 +2325,25 @@ public class DefaultListableBeanFactoryTests extends TestCase {
 	}
 
 
+	/**
+	 * Bean that fails with a BeanCurrentlyInCreationException on its
+	 * first creation attempt, as if in concurrent circular creation.
+	 */
+	public static class DeferredCreationBean {
+
+		public static int attempts;
+
+		public static Thread creationThread;
+
+		public DeferredCreationBean() {
+			if (attempts++ == 0) {
+				throw new BeanCurrentlyInCreationException("deferred");
+			}
+			creationThread = Thread.currentThread();
+		}
+	}
+
+
 	private static class CustomTypeConverter implements TypeConverter {
 
 		private final NumberFormat numberFormat;
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import junit.framework.TestCase;
+
+import org.springframework.beans.TestBean;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.ObjectFactory;
+
+/**
+ */
+public class DefaultSingletonBeanRegistryTests extends TestCase {
+
+	public void testSingletons() {
+		DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+
+		TestBean tb = new TestBean();
+		beanRegistry.registerSingleton("tb", tb);
+		assertSame(tb, beanRegistry.getSingleton("tb"));
+
+		TestBean tb2 = (TestBean) beanRegistry.getSingleton("tb2", new ObjectFactory() {
+			public Object getObject() {
+				return new TestBean();
+			}
+		});
+		assertSame(tb2, beanRegistry.getSingleton("tb2"));
+
+		assertSame(tb, beanRegistry.getSingleton("tb"));
+		assertSame(tb2, beanRegistry.getSingleton("tb2"));
+		assertEquals(2, beanRegistry.getSingletonCount());
+		assertEquals(2, beanRegistry.getSingletonNames().length);
+
+		beanRegistry.destroySingletons();
+		assertEquals(0, beanRegistry.getSingletonCount());
+		assertEquals(0, beanRegistry.getSingletonNames().length);
+	}
+
+	public void testConcurrentCreationOfUnrelatedSingletons() throws Exception {
+		final DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+
+		// "a" can only complete once "b" has been created by another thread,
+		// which would block forever on a registry-wide creation lock.
+		final TestBean b = new TestBean("b");
+		CreatingThread creator = new CreatingThread(beanRegistry, "a", new ObjectFactory() {
+			public Object getObject() {
+				synchronized (b) {
+					while (beanRegistry.getSingleton("b") == null) {
+						try {
+							b.wait(50);
+						}
+						catch (InterruptedException ex) {
+							throw new IllegalStateException("Interrupted");
+						}
+					}
+				}
+				return new TestBean("a");
+			}
+		});
+		creator.start();
+		while (!beanRegistry.isSingletonCurrentlyInCreation("a")) {
+			Thread.sleep(5);
+		}
+
+		Object created = beanRegistry.getSingleton("b", new ObjectFactory() {
+			public Object getObject() {
+				return b;
+			}
+		});
+		assertSame(b, created);
+		creator.join(5000);
+		assertFalse(creator.isAlive());
+		assertNull(creator.failure);
+		assertEquals("a", ((TestBean) creator.singleton).getName());
+		assertSame(creator.singleton, beanRegistry.getSingleton("a"));
+	}
+
+	public void testConcurrentCreationOfSameSingletonYieldsSingleInstance() throws Exception {
+		final DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		final int[] invocationCount = new int[1];
+		ObjectFactory slowFactory = new ObjectFactory() {
+			public Object getObject() {
+				synchronized (invocationCount) {
+					invocationCount[0]++;
+				}
+				try {
+					Thread.sleep(100);
+				}
+				catch (InterruptedException ex) {
+					throw new IllegalStateException("Interrupted");
+				}
+				return new TestBean();
+			}
+		};
+
+		CreatingThread[] creators = new CreatingThread[5];
+		for (int i = 0; i < creators.length; i++) {
+			creators[i] = new CreatingThread(beanRegistry, "tb", slowFactory);
+			creators[i].start();
+		}
+		for (int i = 0; i < creators.length; i++) {
+			creators[i].join(5000);
+			assertNull(creators[i].failure);
+			assertSame(beanRegistry.getSingleton("tb"), creators[i].singleton);
+		}
+		assertEquals(1, invocationCount[0]);
+	}
+
+	public void testEarlyReferenceNotExposedToOtherThreads() throws Exception {
+		final DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		final TestBean early = new TestBean("early");
+		final Object monitor = new Object();
+		final boolean[] proceed = new boolean[1];
+		CreatingThread creator = new CreatingThread(beanRegistry, "tb", new ObjectFactory() {
+			public Object getObject() {
+				beanRegistry.addSingletonFactory("tb", new ObjectFactory() {
+					public Object getObject() {
+						return early;
+					}
+				});
+				assertSame(early, beanRegistry.getSingleton("tb"));
+				synchronized (monitor) {
+					while (!proceed[0]) {
+						try {
+							monitor.wait();
+						}
+						catch (InterruptedException ex) {
+							throw new IllegalStateException("Interrupted");
+						}
+					}
+				}
+				return early;
+			}
+		});
+		creator.start();
+		while (!beanRegistry.isSingletonCurrentlyInCreation("tb")) {
+			Thread.sleep(5);
+		}
+		Thread.sleep(50);
+
+		assertNull(beanRegistry.getSingleton("tb"));
+		synchronized (monitor) {
+			proceed[0] = true;
+			monitor.notifyAll();
+		}
+		creator.join(5000);
+		assertNull(creator.failure);
+		assertSame(early, beanRegistry.getSingleton("tb"));
+	}
+
+	public void testEarlyReferenceObtainedOutsideOfSingletonMutex() {
+		final DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		final TestBean early = new TestBean("early");
+		final boolean[] mutexHeld = new boolean[] {true};
+		Object singleton = beanRegistry.getSingleton("tb", new ObjectFactory() {
+			public Object getObject() {
+				beanRegistry.addSingletonFactory("tb", new ObjectFactory() {
+					public Object getObject() {
+						mutexHeld[0] = Thread.holdsLock(beanRegistry.getSingletonMutex());
+						return early;
+					}
+				});
+				assertSame(early, beanRegistry.getSingleton("tb"));
+				assertSame(early, beanRegistry.getSingleton("tb"));
+				return early;
+			}
+		});
+		assertSame(early, singleton);
+		assertFalse(mutexHeld[0]);
+	}
+
+	public void testDestroySingletonsWhileCreationLockHeld() throws Exception {
+		final DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		final int[] invocationCount = new int[1];
+		final Object monitor = new Object();
+		final boolean[] proceed = new boolean[1];
+		CreatingThread creator = new CreatingThread(beanRegistry, "tb", new ObjectFactory() {
+			public Object getObject() {
+				synchronized (monitor) {
+					invocationCount[0]++;
+					while (!proceed[0]) {
+						try {
+							monitor.wait();
+						}
+						catch (InterruptedException ex) {
+							throw new IllegalStateException("Interrupted");
+						}
+					}
+				}
+				return new TestBean();
+			}
+		});
+		creator.start();
+		while (!beanRegistry.isSingletonCurrentlyInCreation("tb")) {
+			Thread.sleep(5);
+		}
+		beanRegistry.destroySingletons();
+
+		// A second creator must still wait for the creation lock held by the first one.
+		CreatingThread creator2 = new CreatingThread(beanRegistry, "tb", new ObjectFactory() {
+			public Object getObject() {
+				synchronized (monitor) {
+					invocationCount[0]++;
+				}
+				return new TestBean();
+			}
+		});
+		creator2.start();
+		Thread.sleep(50);
+		synchronized (monitor) {
+			assertEquals(1, invocationCount[0]);
+			proceed[0] = true;
+			monitor.notifyAll();
+		}
+		creator.join(5000);
+		creator2.join(5000);
+		assertNull(creator.failure);
+		assertNull(creator2.failure);
+		assertSame(creator.singleton, creator2.singleton);
+	}
+
+	public void testCircularCreationAcrossThreadsIsDetected() throws Exception {
+		final DefaultSingletonBeanRegistry beanRegistry = new DefaultSingletonBeanRegistry();
+		beanRegistry.setConcurrentSingletonCreation(true);
+		final Object monitor = new Object();
+		final int[] started = new int[1];
+		CreatingThread creatorA = new CreatingThread(beanRegistry, "a",
+				new DependentObjectFactory(beanRegistry, "b", monitor, started));
+		CreatingThread creatorB = new CreatingThread(beanRegistry, "b",
+				new DependentObjectFactory(beanRegistry, "a", monitor, started));
+		creatorA.start();
+		creatorB.start();
+		creatorA.join(5000);
+		creatorB.join(5000);
+		assertFalse(creatorA.isAlive());
+		assertFalse(creatorB.isAlive());
+		assertTrue(creatorA.failure instanceof BeanCurrentlyInCreationException ||
+				creatorB.failure instanceof BeanCurrentlyInCreationException);
+	}
+
+
+	private static class CreatingThread extends Thread {
+
+		private final DefaultSingletonBeanRegistry beanRegistry;
+
+		private final String beanName;
+
+		private final ObjectFactory singletonFactory;
+
+		public volatile Object singleton;
+
+		public volatile Throwable failure;
+
+		public CreatingThread(DefaultSingletonBeanRegistry beanRegistry, String beanName, ObjectFactory singletonFactory) {
+			this.beanRegistry = beanRegistry;
+			this.beanName = beanName;
+			this.singletonFactory = singletonFactory;
+		}
+
+		public void run() {
+			try {
+				this.singleton = this.beanRegistry.getSingleton(this.beanName, this.singletonFactory);
+			}
+			catch (Throwable ex) {
+				this.failure = ex;
+			}
+		}
+	}
+
+
+	private static class DependentObjectFactory implements ObjectFactory {
+
+		private final DefaultSingletonBeanRegistry beanRegistry;
+
+		private final String dependency;
+
+		private final Object monitor;
+
+		private final int[] started;
+
+		public DependentObjectFactory(DefaultSingletonBeanRegistry beanRegistry, String dependency,
+				Object monitor, int[] started) {
+			this.beanRegistry = beanRegistry;
+			this.dependency = dependency;
+			this.monitor = monitor;
+			this.started = started;
+		}
+
+		public Object getObject() {
+			// Wait until both singletons are in creation before requesting the other one.
+			synchronized (this.monitor) {
+				this.started[0]++;
+				this.monitor.notifyAll();
+				while (this.started[0] < 2) {
+					try {
+						this.monitor.wait();
+					}
+					catch (InterruptedException ex) {
+						throw new IllegalStateException("Interrupted");
+					}
+				}
+			}
+			return this.beanRegistry.getSingleton(this.dependency, new ObjectFactory() {
+				public Object getObject() {
+					return new TestBean();
+				}
+			});
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@
 package org.springframework.context.event;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import junit.framework.TestCase;
@@ -36,6 +37,8 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.BeanThatBroadcasts;
 import org.springframework.context.BeanThatListens;
 import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.test.AssertThrows;
 
 /**
@@ -130,6 +133,80 @@ public class ApplicationContextEventTests extends TestCase {
 		ctrl.verify();
 	}
 
+	public void testSmartListenerOnlyInvokedForSupportedEventType() {
+		MyEventListener listener = new MyEventListener();
+		NoOpApplicationListener plainListener = new NoOpApplicationListener();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener);
+
+		smc.multicastEvent(new ContextClosedEvent(new StaticApplicationContext()));
+		assertEquals(0, listener.seenEvents.size());
+		smc.multicastEvent(new MyEvent(this));
+		assertEquals(1, listener.seenEvents.size());
+		assertEquals(1, smc.getApplicationListeners(new MyEvent(this)).size());
+
+		smc.addApplicationListener(plainListener);
+		assertEquals(2, smc.getApplicationListeners(new MyEvent(this)).size());
+		assertEquals(1, smc.getApplicationListeners(new ContextClosedEvent(new StaticApplicationContext())).size());
+		assertEquals(2, smc.getEventCount());
+	}
+
+	public void testSourceFilteringListenerOnlyInvokedForSupportedSourceType() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		MyEventListener delegate = new MyEventListener();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(new SourceFilteringListener(context, delegate));
+
+		assertEquals(0, smc.getApplicationListeners(new MyEvent(this)).size());
+		assertEquals(0, smc.getApplicationListeners(new ContextClosedEvent(context)).size());
+		assertEquals(1, smc.getApplicationListeners(new MyEvent(context)).size());
+		smc.multicastEvent(new MyEvent(context));
+		smc.multicastEvent(new MyEvent(new StaticApplicationContext()));
+		assertEquals(1, delegate.seenEvents.size());
+	}
+
+	public void testAsyncListenerWithBackPressure() {
+		QueueingTaskExecutor executor = new QueueingTaskExecutor();
+		MyAsyncEventListener asyncListener = new MyAsyncEventListener();
+		MyEventListener listener = new MyEventListener();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setAsyncTaskExecutor(executor);
+		smc.setMaxPendingAsyncEvents(1);
+		smc.addApplicationListener(asyncListener);
+		smc.addApplicationListener(listener);
+
+		smc.multicastEvent(new MyEvent(this));
+		assertEquals(1, listener.seenEvents.size());
+		assertEquals(0, asyncListener.seenEvents.size());
+		assertEquals(1, smc.getPendingAsyncEventCount());
+
+		smc.multicastEvent(new MyEvent(this));
+		assertEquals("Second event must have been processed by caller", 1, asyncListener.seenEvents.size());
+		assertEquals(1, smc.getCallerRunsCount());
+
+		executor.runAll();
+		assertEquals(2, asyncListener.seenEvents.size());
+		assertEquals(0, smc.getPendingAsyncEventCount());
+		assertEquals(1, smc.getAsyncDispatchCount());
+		assertEquals(2, smc.getEventCount());
+	}
+
+	public void testAsyncListenerInvokedByCallerIfRejected() {
+		MyAsyncEventListener asyncListener = new MyAsyncEventListener();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.setAsyncTaskExecutor(new TaskExecutor() {
+			public void execute(Runnable task) {
+				throw new TaskRejectedException("rejected");
+			}
+		});
+		smc.addApplicationListener(asyncListener);
+
+		smc.multicastEvent(new MyEvent(this));
+		assertEquals(1, asyncListener.seenEvents.size());
+		assertEquals(1, smc.getCallerRunsCount());
+		assertEquals(0, smc.getPendingAsyncEventCount());
+	}
+
 	public void testEvenPublicationInterceptor() throws Throwable {
 		MockControl invCtrl = MockControl.createControl(MethodInvocation.class);
 		MethodInvocation invocation = (MethodInvocation) invCtrl.getMock();
@@ -198,6 +275,45 @@ public class ApplicationContextEventTests extends TestCase {
 	}
 
 
+	public static class MyEventListener implements SmartApplicationListener {
+
+		public final List seenEvents = new ArrayList();
+
+		public boolean supportsEventType(Class eventType) {
+			return MyEvent.class.isAssignableFrom(eventType);
+		}
+
+		public boolean supportsSourceType(Class sourceType) {
+			return true;
+		}
+
+		public void onApplicationEvent(ApplicationEvent event) {
+			this.seenEvents.add(event);
+		}
+	}
+
+
+	public static class MyAsyncEventListener extends MyEventListener implements AsyncApplicationListener {
+	}
+
+
+	private static class QueueingTaskExecutor implements TaskExecutor {
+
+		private final List tasks = new ArrayList();
+
+		public void execute(Runnable task) {
+			this.tasks.add(task);
+		}
+
+		public void runAll() {
+			for (Iterator it = this.tasks.iterator(); it.hasNext();) {
+				((Runnable) it.next()).run();
+			}
+			this.tasks.clear();
+		}
+	}
+
+
 	private static final class NoOpApplicationListener implements ApplicationListener {
 
 		public void onApplicationEvent(ApplicationEvent event) {
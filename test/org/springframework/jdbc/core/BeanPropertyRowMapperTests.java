@@ -16,9 +16,16 @@
 
 package org.springframework.jdbc.core;
 
+import java.beans.PropertyDescriptor;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.List;
 
+import org.easymock.MockControl;
+
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.jdbc.core.test.ConcretePerson;
 import org.springframework.jdbc.core.test.ExtendedPerson;
@@ -89,4 +96,143 @@ public class BeanPropertyRowMapperTests extends AbstractRowMapperTests {
 		}
 	}
 
+	public void testMetaDataEvaluatedOncePerResultSet() throws SQLException {
+		BeanPropertyRowMapper mapper = new BeanPropertyRowMapper(Person.class);
+		for (int run = 0; run < 2; run++) {
+			MockControl rsControl = createResultSetControl(2);
+			ResultSet rs = (ResultSet) rsControl.getMock();
+			for (int i = 0; i < 2; i++) {
+				verifyMappedPerson((Person) mapper.mapRow(rs, i));
+			}
+			rsControl.verify();
+		}
+	}
+
+	public void testInterleavedResultSets() throws SQLException {
+		BeanPropertyRowMapper mapper = new BeanPropertyRowMapper(Person.class);
+		MockControl rsControl1 = createResultSetControl(2);
+		ResultSet rs1 = (ResultSet) rsControl1.getMock();
+		MockControl rsControl2 = createResultSetControl(2);
+		ResultSet rs2 = (ResultSet) rsControl2.getMock();
+		for (int i = 0; i < 2; i++) {
+			verifyMappedPerson((Person) mapper.mapRow(rs1, i));
+			verifyMappedPerson((Person) mapper.mapRow(rs2, i));
+		}
+		rsControl1.verify();
+		rsControl2.verify();
+	}
+
+	public void testResultSetsMappedConcurrently() throws Throwable {
+		BeanPropertyRowMapper mapper = new BeanPropertyRowMapper(Person.class);
+		MockControl rsControl1 = createResultSetControl(100);
+		ResultSet rs1 = (ResultSet) rsControl1.getMock();
+		MockControl rsControl2 = createResultSetControl(100);
+		ResultSet rs2 = (ResultSet) rsControl2.getMock();
+		verifyMappedPerson((Person) mapper.mapRow(rs1, 0));
+		verifyMappedPerson((Person) mapper.mapRow(rs2, 0));
+		mapRows(new RowMappingThread(mapper, rs1, 1, 100), new RowMappingThread(mapper, rs2, 1, 100));
+		rsControl1.verify();
+		rsControl2.verify();
+	}
+
+	public void testValueConversionThroughBeanWrapper() throws SQLException {
+		BeanPropertyRowMapper mapper = new BeanPropertyRowMapper(Person.class) {
+			protected Object getColumnValue(ResultSet rs, int index, PropertyDescriptor pd) throws SQLException {
+				Object value = super.getColumnValue(rs, index, pd);
+				return ("age".equals(pd.getName()) ? value.toString() : value);
+			}
+		};
+		MockControl rsControl = createResultSetControl(2);
+		ResultSet rs = (ResultSet) rsControl.getMock();
+		for (int i = 0; i < 2; i++) {
+			verifyMappedPerson((Person) mapper.mapRow(rs, i));
+		}
+		rsControl.verify();
+	}
+
+	private void mapRows(RowMappingThread thread1, RowMappingThread thread2) throws Throwable {
+		thread1.start();
+		thread2.start();
+		thread1.join();
+		thread2.join();
+		if (thread1.failure != null) {
+			throw thread1.failure;
+		}
+		if (thread2.failure != null) {
+			throw thread2.failure;
+		}
+	}
+
+	private MockControl createResultSetControl(int rowCount) throws SQLException {
+		MockControl rsmdControl = MockControl.createControl(ResultSetMetaData.class);
+		ResultSetMetaData rsmd = (ResultSetMetaData) rsmdControl.getMock();
+		rsmd.getColumnCount();
+		rsmdControl.setReturnValue(4, 1);
+		rsmd.getColumnLabel(1);
+		rsmdControl.setReturnValue("name", 1);
+		rsmd.getColumnLabel(2);
+		rsmdControl.setReturnValue("age", 1);
+		rsmd.getColumnLabel(3);
+		rsmdControl.setReturnValue("birth_date", 1);
+		rsmd.getColumnLabel(4);
+		rsmdControl.setReturnValue("balance", 1);
+		rsmdControl.replay();
+
+		MockControl rsControl = MockControl.createControl(ResultSet.class);
+		ResultSet rs = (ResultSet) rsControl.getMock();
+		rs.getMetaData();
+		rsControl.setReturnValue(rsmd, 1);
+		rs.getString(1);
+		rsControl.setReturnValue("Bubba", rowCount);
+		rs.wasNull();
+		rsControl.setReturnValue(false, rowCount);
+		rs.getLong(2);
+		rsControl.setReturnValue(22, rowCount);
+		rs.getTimestamp(3);
+		rsControl.setReturnValue(new Timestamp(1221222L), rowCount);
+		rs.getBigDecimal(4);
+		rsControl.setReturnValue(new BigDecimal("1234.56"), rowCount);
+		rsControl.replay();
+		return rsControl;
+	}
+
+	private static void verifyMappedPerson(Person bean) {
+		assertEquals("Bubba", bean.getName());
+		assertEquals(22L, bean.getAge());
+		assertEquals(new java.util.Date(1221222L), bean.getBirth_date());
+		assertEquals(new BigDecimal("1234.56"), bean.getBalance());
+	}
+
+
+	private static class RowMappingThread extends Thread {
+
+		private final BeanPropertyRowMapper mapper;
+
+		private final ResultSet rs;
+
+		private final int fromRow;
+
+		private final int toRow;
+
+		private Throwable failure;
+
+		public RowMappingThread(BeanPropertyRowMapper mapper, ResultSet rs, int fromRow, int toRow) {
+			this.mapper = mapper;
+			this.rs = rs;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+
+		public void run() {
+			try {
+				for (int i = this.fromRow; i < this.toRow; i++) {
+					verifyMappedPerson((Person) this.mapper.mapRow(this.rs, i));
+				}
+			}
+			catch (Throwable ex) {
+				this.failure = ex;
+			}
+		}
+	}
+
 }
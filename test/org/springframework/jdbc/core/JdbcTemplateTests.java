@@ -16,6 +16,9 @@
 
 package org.springframework.jdbc.core;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -29,12 +32,17 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import javax.sql.DataSource;
 
 import org.easymock.MockControl;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.core.metrics.TimingRecorder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.dao.UncategorizedDataAccessException;
@@ -44,6 +52,7 @@ import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.jdbc.SQLWarningException;
 import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.core.support.AbstractInterruptibleBatchPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
 import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
@@ -313,6 +322,271 @@ public class JdbcTemplateTests extends AbstractJdbcTests {
 		ctrlStatement.verify();
 	}
 
+	public void testQueryWithTimingRecorder() throws Exception {
+		String sql = "SELECT FORENAME FROM CUSTMR WHERE ID = ?";
+		Integer argument = new Integer(99);
+
+		MockControl ctrlResultSet = MockControl.createControl(ResultSet.class);
+		ResultSet mockResultSet = (ResultSet) ctrlResultSet.getMock();
+		mockResultSet.next();
+		ctrlResultSet.setReturnValue(false);
+		mockResultSet.close();
+		ctrlResultSet.setVoidCallable();
+
+		MockControl ctrlStatement = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement mockStatement = (PreparedStatement) ctrlStatement.getMock();
+		mockStatement.setObject(1, argument);
+		mockStatement.executeQuery();
+		ctrlStatement.setReturnValue(mockResultSet);
+		if (debugEnabled) {
+			mockStatement.getWarnings();
+			ctrlStatement.setReturnValue(null);
+		}
+		mockStatement.close();
+		ctrlStatement.setVoidCallable();
+
+		mockConnection.prepareStatement(sql);
+		ctrlConnection.setReturnValue(mockStatement);
+
+		ctrlResultSet.replay();
+		ctrlStatement.replay();
+		replay();
+
+		final List records = new ArrayList();
+		JdbcTemplate template = new JdbcTemplate(mockDataSource);
+		template.setTimingRecorder(new TimingRecorder() {
+			public long startTime() {
+				return 0;
+			}
+			public void record(String category, String name, long startTime) {
+				records.add(category + ":" + name);
+			}
+		});
+		template.query(sql, new Object[] {argument}, new RowCallbackHandler() {
+			public void processRow(ResultSet rs) {
+				fail("Should not be called");
+			}
+		});
+
+		List expected = new ArrayList();
+		expected.add(DataSourceUtils.TIMING_CATEGORY_CONNECTION + ":null");
+		expected.add(JdbcTemplate.TIMING_CATEGORY_PREPARE + ":" + sql);
+		expected.add(JdbcTemplate.TIMING_CATEGORY_EXECUTE + ":" + sql);
+		expected.add(JdbcTemplate.TIMING_CATEGORY_MAPPING + ":" + sql);
+		assertEquals(expected, records);
+		ctrlResultSet.verify();
+		ctrlStatement.verify();
+	}
+
+	public void testQueryForIterator() throws Exception {
+		String sql = "SELECT FORENAME FROM CUSTMR WHERE ID < ?";
+		Integer argument = new Integer(4);
+
+		MockControl ctrlResultSet = MockControl.createControl(ResultSet.class);
+		ResultSet mockResultSet = (ResultSet) ctrlResultSet.getMock();
+		mockResultSet.next();
+		ctrlResultSet.setReturnValue(true, 3);
+		mockResultSet.getString(1);
+		ctrlResultSet.setReturnValue("rod");
+		mockResultSet.getString(1);
+		ctrlResultSet.setReturnValue("juergen");
+		mockResultSet.getString(1);
+		ctrlResultSet.setReturnValue("thomas");
+		mockResultSet.next();
+		ctrlResultSet.setReturnValue(false);
+		mockResultSet.close();
+		ctrlResultSet.setVoidCallable(1);
+
+		MockControl ctrlStatement = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement mockStatement = (PreparedStatement) ctrlStatement.getMock();
+		mockStatement.setFetchSize(100);
+		ctrlStatement.setVoidCallable(1);
+		mockStatement.setMaxRows(1000);
+		ctrlStatement.setVoidCallable(1);
+		mockStatement.setObject(1, argument);
+		mockStatement.executeQuery();
+		ctrlStatement.setReturnValue(mockResultSet);
+		if (debugEnabled) {
+			mockStatement.getWarnings();
+			ctrlStatement.setReturnValue(null);
+		}
+		mockStatement.close();
+		ctrlStatement.setVoidCallable(1);
+
+		mockConnection.prepareStatement(sql);
+		ctrlConnection.setReturnValue(mockStatement);
+
+		ctrlResultSet.replay();
+		ctrlStatement.replay();
+		replay();
+
+		JdbcTemplate template = new JdbcTemplate(mockDataSource);
+		template.setFetchSize(100);
+		template.setMaxRows(1000);
+		RowIterator it = template.queryForIterator(sql, new Object[] {argument}, new RowMapper() {
+			public Object mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return rowNum + ":" + rs.getString(1);
+			}
+		});
+		assertTrue(it.hasNext());
+		assertTrue(it.hasNext());
+		assertEquals("0:rod", it.next());
+		assertEquals("1:juergen", it.next());
+		assertEquals("2:thomas", it.next());
+		assertFalse(it.hasNext());
+		assertEquals(3, it.getRowCount());
+		ctrlResultSet.verify();
+		ctrlStatement.verify();
+
+		it.close();
+		try {
+			it.next();
+			fail("Should have thrown NoSuchElementException");
+		}
+		catch (NoSuchElementException ex) {
+			// expected
+		}
+	}
+
+	public void testQueryForIteratorClosedEarly() throws Exception {
+		String sql = "SELECT FORENAME FROM CUSTMR";
+
+		MockControl ctrlResultSet = MockControl.createControl(ResultSet.class);
+		ResultSet mockResultSet = (ResultSet) ctrlResultSet.getMock();
+		mockResultSet.next();
+		ctrlResultSet.setReturnValue(true, 1);
+		mockResultSet.getString(1);
+		ctrlResultSet.setReturnValue("rod");
+		mockResultSet.close();
+		ctrlResultSet.setVoidCallable(1);
+
+		MockControl ctrlStatement = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement mockStatement = (PreparedStatement) ctrlStatement.getMock();
+		mockStatement.executeQuery();
+		ctrlStatement.setReturnValue(mockResultSet);
+		if (debugEnabled) {
+			mockStatement.getWarnings();
+			ctrlStatement.setReturnValue(null);
+		}
+		mockStatement.close();
+		ctrlStatement.setVoidCallable(1);
+
+		mockConnection.prepareStatement(sql);
+		ctrlConnection.setReturnValue(mockStatement);
+
+		ctrlResultSet.replay();
+		ctrlStatement.replay();
+		replay();
+
+		JdbcTemplate template = new JdbcTemplate(mockDataSource);
+		RowIterator it = template.queryForIterator(sql, null, new RowMapper() {
+			public Object mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return rs.getString(1);
+			}
+		});
+		assertEquals("rod", it.next());
+		it.close();
+		it.close();
+		assertFalse(it.hasNext());
+		ctrlResultSet.verify();
+		ctrlStatement.verify();
+	}
+
+	public void testQueryForChunks() throws Exception {
+		String sql = "SELECT ID FROM CUSTMR";
+
+		MockControl ctrlResultSet = MockControl.createControl(ResultSet.class);
+		ResultSet mockResultSet = (ResultSet) ctrlResultSet.getMock();
+		for (int i = 0; i < 5; i++) {
+			mockResultSet.next();
+			ctrlResultSet.setReturnValue(true);
+			mockResultSet.getInt(1);
+			ctrlResultSet.setReturnValue(i);
+		}
+		mockResultSet.next();
+		ctrlResultSet.setReturnValue(false);
+		mockResultSet.close();
+		ctrlResultSet.setVoidCallable(1);
+
+		MockControl ctrlStatement = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement mockStatement = (PreparedStatement) ctrlStatement.getMock();
+		mockStatement.executeQuery();
+		ctrlStatement.setReturnValue(mockResultSet);
+		if (debugEnabled) {
+			mockStatement.getWarnings();
+			ctrlStatement.setReturnValue(null);
+		}
+		mockStatement.close();
+		ctrlStatement.setVoidCallable(1);
+
+		mockConnection.prepareStatement(sql);
+		ctrlConnection.setReturnValue(mockStatement);
+
+		ctrlResultSet.replay();
+		ctrlStatement.replay();
+		replay();
+
+		JdbcTemplate template = new JdbcTemplate(mockDataSource);
+		RowIterator it = template.queryForChunks(sql, null, new RowMapper() {
+			public Object mapRow(ResultSet rs, int rowNum) throws SQLException {
+				return new Integer(rs.getInt(1));
+			}
+		}, 2);
+		List chunks = new ArrayList();
+		while (it.hasNext()) {
+			chunks.add(it.next());
+		}
+		assertEquals(3, chunks.size());
+		assertEquals(2, ((List) chunks.get(0)).size());
+		assertEquals(2, ((List) chunks.get(1)).size());
+		assertEquals(1, ((List) chunks.get(2)).size());
+		assertEquals(new Integer(4), ((List) chunks.get(2)).get(0));
+		assertEquals(5, it.getRowCount());
+		ctrlResultSet.verify();
+		ctrlStatement.verify();
+	}
+
+	public void testQueryForIteratorWithSQLExceptionWhileIterating() throws Exception {
+		String sql = "SELECT FORENAME FROM CUSTMR";
+		SQLException sex = new SQLException("bad row");
+
+		MockControl ctrlResultSet = MockControl.createControl(ResultSet.class);
+		ResultSet mockResultSet = (ResultSet) ctrlResultSet.getMock();
+		mockResultSet.next();
+		ctrlResultSet.setThrowable(sex);
+		mockResultSet.close();
+		ctrlResultSet.setVoidCallable(1);
+
+		MockControl ctrlStatement = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement mockStatement = (PreparedStatement) ctrlStatement.getMock();
+		mockStatement.executeQuery();
+		ctrlStatement.setReturnValue(mockResultSet);
+		mockStatement.close();
+		ctrlStatement.setVoidCallable(1);
+
+		mockConnection.prepareStatement(sql);
+		ctrlConnection.setReturnValue(mockStatement);
+
+		ctrlResultSet.replay();
+		ctrlStatement.replay();
+		replay();
+
+		JdbcTemplate template = new JdbcTemplate(mockDataSource);
+		template.setExceptionTranslator(new SQLStateSQLExceptionTranslator());
+		RowIterator it = template.queryForIterator(sql, null, new SingleColumnRowMapper(String.class));
+		try {
+			it.hasNext();
+			fail("Should have thrown UncategorizedSQLException");
+		}
+		catch (UncategorizedSQLException ex) {
+			assertSame(sex, ex.getCause());
+		}
+		assertFalse(it.hasNext());
+		it.close();
+		ctrlResultSet.verify();
+		ctrlStatement.verify();
+	}
+
 	public void testLeaveConnectionOpenOnRequest() throws Exception {
 		String sql = "SELECT ID, FORENAME FROM CUSTMR WHERE ID < 3";
 
@@ -810,6 +1084,173 @@ public class JdbcTemplateTests extends AbstractJdbcTests {
 		ctrlDatabaseMetaData.verify();
 	}
 
+	public void testChunkedBatchUpdate() throws Exception {
+		doTestChunkedBatchUpdate(false);
+	}
+
+	public void testChunkedBatchUpdateWithBatchUpdateExecutor() throws Exception {
+		doTestChunkedBatchUpdate(true);
+	}
+
+	private void doTestChunkedBatchUpdate(boolean parallel) throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		int chunkCount = (parallel ? 2 : 1);
+
+		MockControl ctrlPreparedStatement = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement mockPreparedStatement = (PreparedStatement) ctrlPreparedStatement.getMock();
+		mockPreparedStatement.getConnection();
+		ctrlPreparedStatement.setReturnValue(mockConnection, chunkCount);
+		for (int i = 0; i < 3; i++) {
+			mockPreparedStatement.setObject(1, new Integer(i * 100));
+			ctrlPreparedStatement.setVoidCallable();
+			mockPreparedStatement.addBatch();
+			ctrlPreparedStatement.setVoidCallable();
+		}
+		mockPreparedStatement.executeBatch();
+		ctrlPreparedStatement.setReturnValue(new int[] {1, 2});
+		mockPreparedStatement.executeBatch();
+		ctrlPreparedStatement.setReturnValue(new int[] {3});
+		if (debugEnabled) {
+			mockPreparedStatement.getWarnings();
+			ctrlPreparedStatement.setReturnValue(null, chunkCount);
+		}
+		mockPreparedStatement.close();
+		ctrlPreparedStatement.setVoidCallable(chunkCount);
+
+		MockControl ctrlDatabaseMetaData = MockControl.createControl(DatabaseMetaData.class);
+		DatabaseMetaData mockDatabaseMetaData = (DatabaseMetaData) ctrlDatabaseMetaData.getMock();
+		mockDatabaseMetaData.supportsBatchUpdates();
+		ctrlDatabaseMetaData.setReturnValue(true, chunkCount);
+
+		mockConnection.prepareStatement(sql);
+		ctrlConnection.setReturnValue(mockPreparedStatement, chunkCount);
+		mockConnection.getMetaData();
+		ctrlConnection.setReturnValue(mockDatabaseMetaData, chunkCount);
+
+		ctrlPreparedStatement.replay();
+		ctrlDatabaseMetaData.replay();
+		replay();
+
+		List batchArgs = new ArrayList();
+		for (int i = 0; i < 3; i++) {
+			batchArgs.add(new Object[] {new Integer(i * 100)});
+		}
+		JdbcTemplate template = new JdbcTemplate(mockDataSource);
+		if (parallel) {
+			template.setBatchUpdateExecutor(new SyncTaskExecutor());
+		}
+
+		int[][] actualRowsAffected = template.batchUpdate(sql, batchArgs.iterator(), 2);
+		assertEquals(2, actualRowsAffected.length);
+		assertEquals(2, actualRowsAffected[0].length);
+		assertEquals(1, actualRowsAffected[0][0]);
+		assertEquals(2, actualRowsAffected[0][1]);
+		assertEquals(1, actualRowsAffected[1].length);
+		assertEquals(3, actualRowsAffected[1][0]);
+
+		ctrlPreparedStatement.verify();
+		ctrlDatabaseMetaData.verify();
+	}
+
+	public void testChunkedBatchUpdateWithBatchUpdateExecutorAndFailure() throws Exception {
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final SQLException sex = new SQLException("bad update");
+
+		MockControl ctrlPreparedStatement = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement mockPreparedStatement = (PreparedStatement) ctrlPreparedStatement.getMock();
+		mockPreparedStatement.getConnection();
+		ctrlPreparedStatement.setReturnValue(mockConnection);
+		mockPreparedStatement.setObject(1, new Integer(0));
+		ctrlPreparedStatement.setVoidCallable();
+		mockPreparedStatement.addBatch();
+		ctrlPreparedStatement.setVoidCallable();
+		mockPreparedStatement.executeBatch();
+		ctrlPreparedStatement.setThrowable(sex);
+		mockPreparedStatement.close();
+		ctrlPreparedStatement.setVoidCallable();
+
+		MockControl ctrlDatabaseMetaData = MockControl.createControl(DatabaseMetaData.class);
+		DatabaseMetaData mockDatabaseMetaData = (DatabaseMetaData) ctrlDatabaseMetaData.getMock();
+		mockDatabaseMetaData.supportsBatchUpdates();
+		ctrlDatabaseMetaData.setReturnValue(true);
+
+		mockConnection.prepareStatement(sql);
+		ctrlConnection.setReturnValue(mockPreparedStatement);
+		mockConnection.getMetaData();
+		ctrlConnection.setReturnValue(mockDatabaseMetaData);
+
+		ctrlPreparedStatement.replay();
+		ctrlDatabaseMetaData.replay();
+		replay();
+
+		List batchArgs = new ArrayList();
+		for (int i = 0; i < 3; i++) {
+			batchArgs.add(new Object[] {new Integer(i)});
+		}
+		JdbcTemplate template = new JdbcTemplate(mockDataSource);
+		template.setExceptionTranslator(new SQLStateSQLExceptionTranslator());
+		template.setBatchUpdateExecutor(new SyncTaskExecutor());
+		try {
+			template.batchUpdate(sql, batchArgs.iterator(), 1);
+			fail("Should have thrown UncategorizedSQLException");
+		}
+		catch (UncategorizedSQLException ex) {
+			assertSame(sex, ex.getCause());
+		}
+
+		ctrlPreparedStatement.verify();
+		ctrlDatabaseMetaData.verify();
+	}
+
+	public void testChunkedBatchUpdateWithAsyncBatchUpdateExecutor() throws Exception {
+		BatchStubHandler dataSourceHandler = new BatchStubHandler();
+		DataSource dataSource = (DataSource) dataSourceHandler.createProxy(DataSource.class);
+		List batchArgs = new ArrayList();
+		for (int i = 0; i < 10; i++) {
+			batchArgs.add(new Object[] {new Integer(i)});
+		}
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.setBatchUpdateExecutor(new SimpleAsyncTaskExecutor());
+		template.setBatchUpdateConcurrency(3);
+
+		int[][] actualRowsAffected = template.batchUpdate(
+				"UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?", batchArgs.iterator(), 3);
+		assertEquals(4, actualRowsAffected.length);
+		for (int i = 0; i < actualRowsAffected.length; i++) {
+			assertEquals((i < 3 ? 3 : 1), actualRowsAffected[i].length);
+			for (int j = 0; j < actualRowsAffected[i].length; j++) {
+				// The stub reports the parameter value as number of affected rows.
+				assertEquals(i * 3 + j, actualRowsAffected[i][j]);
+			}
+		}
+		assertEquals(4, dataSourceHandler.getConnectionCount());
+		assertEquals(4, dataSourceHandler.getClosedConnectionCount());
+	}
+
+	public void testChunkedBatchUpdateWithFailingBatchUpdateExecutor() throws Exception {
+		replay();
+
+		final IllegalStateException failure = new IllegalStateException("Executor shut down");
+		List batchArgs = new ArrayList();
+		for (int i = 0; i < 3; i++) {
+			batchArgs.add(new Object[] {new Integer(i)});
+		}
+		JdbcTemplate template = new JdbcTemplate(mockDataSource);
+		template.setBatchUpdateExecutor(new TaskExecutor() {
+			public void execute(Runnable task) {
+				throw failure;
+			}
+		});
+		try {
+			template.batchUpdate("UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?",
+					batchArgs.iterator(), 1);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			assertSame(failure, ex);
+		}
+	}
+
 	public void testInterruptibleBatchUpdate() throws Exception {
 		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
 		final int[] ids = new int[] { 100, 200 };
@@ -2054,4 +2495,116 @@ public class JdbcTemplateTests extends AbstractJdbcTests {
 		}
 	}
 
+
+
+	/**
+	 * Thread-safe stub for a DataSource and the JDBC objects obtained from it,
+	 * for batch updates from multiple threads. Each PreparedStatement reports
+	 * its int parameter values as numbers of rows affected by each batch item.
+	 */
+	private static class BatchStubHandler implements InvocationHandler {
+
+		/** The handler for the DataSource, holding the counts and serving as monitor */
+		private final BatchStubHandler root;
+
+		private final List parameters = new ArrayList();
+
+		private final List batch = new ArrayList();
+
+		private Object connection;
+
+		private int connectionCount = 0;
+
+		private int closedConnectionCount = 0;
+
+		public BatchStubHandler() {
+			this.root = this;
+		}
+
+		private BatchStubHandler(BatchStubHandler root, Object connection) {
+			this.root = root;
+			this.connection = connection;
+		}
+
+		public Object createProxy(Class type) {
+			return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {type}, this);
+		}
+
+		public int getConnectionCount() {
+			synchronized (this.root) {
+				return this.connectionCount;
+			}
+		}
+
+		public int getClosedConnectionCount() {
+			synchronized (this.root) {
+				return this.closedConnectionCount;
+			}
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+			if (name.equals("equals")) {
+				return Boolean.valueOf(proxy == args[0]);
+			}
+			if (name.equals("hashCode")) {
+				return new Integer(System.identityHashCode(proxy));
+			}
+			if (name.equals("toString")) {
+				return "Stub for " + proxy.getClass().getInterfaces()[0].getName();
+			}
+			synchronized (this.root) {
+				if (proxy instanceof DataSource && name.equals("getConnection")) {
+					this.root.connectionCount++;
+					BatchStubHandler handler = new BatchStubHandler(this.root, null);
+					handler.connection = handler.createProxy(Connection.class);
+					return handler.connection;
+				}
+				if (proxy instanceof Connection && name.equals("close")) {
+					this.root.closedConnectionCount++;
+				}
+				if (proxy instanceof Connection && name.equals("prepareStatement")) {
+					return new BatchStubHandler(this.root, proxy).createProxy(PreparedStatement.class);
+				}
+				if (proxy instanceof Connection && name.equals("getMetaData")) {
+					return new BatchStubHandler(this.root, proxy).createProxy(DatabaseMetaData.class);
+				}
+				if (proxy instanceof DatabaseMetaData && name.equals("supportsBatchUpdates")) {
+					return Boolean.TRUE;
+				}
+				if (proxy instanceof PreparedStatement) {
+					if (name.equals("getConnection")) {
+						return this.connection;
+					}
+					if (name.equals("setObject")) {
+						this.parameters.add(args[1]);
+					}
+					if (name.equals("addBatch")) {
+						this.batch.addAll(this.parameters);
+						this.parameters.clear();
+					}
+					if (name.equals("executeBatch")) {
+						int[] rowsAffected = new int[this.batch.size()];
+						for (int i = 0; i < rowsAffected.length; i++) {
+							rowsAffected[i] = ((Integer) this.batch.get(i)).intValue();
+						}
+						this.batch.clear();
+						return rowsAffected;
+					}
+				}
+			}
+			Class returnType = method.getReturnType();
+			if (returnType.equals(boolean.class)) {
+				return Boolean.FALSE;
+			}
+			if (returnType.equals(int.class)) {
+				return new Integer(0);
+			}
+			if (returnType.equals(long.class)) {
+				return new Long(0);
+			}
+			return null;
+		}
+	}
+
 }
@@ -106,6 +106,41 @@ public class NamedParameterJdbcTemplateTests extends AbstractJdbcTests {
 		}.runTest();
 	}
 
+	public void testParsedSqlCache() {
+		NamedParameterJdbcTemplate jt = new NamedParameterJdbcTemplate(mockDataSource);
+		assertEquals(NamedParameterJdbcTemplate.DEFAULT_CACHE_LIMIT, jt.getCacheLimit());
+		ParsedSql parsedSql = jt.getParsedSql(SELECT_NAMED_PARAMETERS);
+		assertSame(parsedSql, jt.getParsedSql(SELECT_NAMED_PARAMETERS));
+		assertSame(parsedSql, jt.getParsedSql(SELECT_NAMED_PARAMETERS));
+		assertEquals(1, jt.getCacheSize());
+		assertEquals(2, jt.getCacheHitCount());
+		assertEquals(1, jt.getCacheMissCount());
+		assertEquals(0, jt.getCacheEvictionCount());
+	}
+
+	public void testParsedSqlCacheWithLimit() {
+		NamedParameterJdbcTemplate jt = new NamedParameterJdbcTemplate(mockDataSource);
+		jt.setCacheLimit(1);
+		ParsedSql parsedSql = jt.getParsedSql(SELECT_NAMED_PARAMETERS);
+		assertSame(parsedSql, jt.getParsedSql(SELECT_NAMED_PARAMETERS));
+		jt.getParsedSql(UPDATE_NAMED_PARAMETERS);
+		assertEquals(1, jt.getCacheSize());
+		assertEquals(1, jt.getCacheEvictionCount());
+		assertNotSame(parsedSql, jt.getParsedSql(SELECT_NAMED_PARAMETERS));
+
+		jt.setCacheLimit(100);
+		for (int i = 0; i < 250; i++) {
+			jt.getParsedSql(SELECT_NAMED_PARAMETERS + " and x = " + i);
+		}
+		assertTrue(jt.getCacheSize() <= 100);
+		assertEquals(jt.getCacheEvictionCount(), 250 - jt.getCacheSize());
+
+		jt.setCacheLimit(0);
+		assertNotSame(jt.getParsedSql(SELECT_NAMED_PARAMETERS), jt.getParsedSql(SELECT_NAMED_PARAMETERS));
+		assertEquals(0, jt.getCacheSize());
+		assertEquals(2, jt.getCacheMissCount());
+	}
+
 	public void testExecute() throws SQLException {
 		mockPreparedStatement.setObject(1, new Integer(1));
 		ctrlPreparedStatement.setVoidCallable();
@@ -16,6 +16,7 @@
 
 package org.springframework.jdbc.core.namedparam;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -64,6 +65,23 @@ public class NamedParameterUtilsTests extends TestCase {
 		assertEquals("xxx ? ? ? xx ? ?", NamedParameterUtils.substituteNamedParameters("xxx :a :b :c xx :a :a", namedParams));
 	}
 
+	public void testSubstituteNamedParametersWithCollectionsOfDifferentSize() {
+		ParsedSql parsedSql = NamedParameterUtils.parseSqlStatement("xxx :a in (:b) and :c in (:b)");
+		MapSqlParameterSource namedParams = new MapSqlParameterSource();
+		namedParams.addValue("a", "a").addValue("b", Arrays.asList(new Object[] {"b1", "b2"})).addValue("c", "c");
+		assertEquals("xxx ? in (?, ?) and ? in (?, ?)", NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+		namedParams.addValue("b", Collections.singletonList("b1"));
+		assertEquals("xxx ? in (?) and ? in (?)", NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+		namedParams.addValue("b", Arrays.asList(new Object[] {"b1", "b2", "b3"}));
+		assertEquals("xxx ? in (?, ?, ?) and ? in (?, ?, ?)", NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+		namedParams.addValue("b", Arrays.asList(new Object[] {new Object[] {"b1", "b2"}, "b3"}));
+		assertEquals("xxx ? in ((?, ?), ?) and ? in ((?, ?), ?)", NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+		namedParams.addValue("b", Arrays.asList(new Object[] {"b1", "b2"}));
+		assertEquals("xxx ? in (?, ?) and ? in (?, ?)", NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+		namedParams.addValue("b", "b");
+		assertEquals("xxx ? in (?) and ? in (?)", NamedParameterUtils.substituteNamedParameters(parsedSql, namedParams));
+	}
+
 	public void testConvertParamMapToArray() {
 		Map paramMap = new HashMap();
 		paramMap.put("a", "a");
@@ -21,12 +21,15 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.sql.DataSource;
 
 import junit.framework.TestCase;
 import org.easymock.MockControl;
 
+import org.springframework.core.metrics.TimingRecorder;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.UncategorizedSQLException;
 import org.springframework.jdbc.support.nativejdbc.SimpleNativeJdbcExtractor;
@@ -1090,6 +1093,148 @@ public class DataSourceTransactionManagerTests extends TestCase {
 		dsControl.verify();
 	}
 
+	public void testLightweightReadOnlyTransaction() throws Exception {
+		MockControl dsControl = MockControl.createControl(DataSource.class);
+		final DataSource ds = (DataSource) dsControl.getMock();
+		MockControl conControl = MockControl.createControl(Connection.class);
+		final Connection con = (Connection) conControl.getMock();
+
+		ds.getConnection();
+		dsControl.setReturnValue(con, 2);
+		con.getAutoCommit();
+		conControl.setReturnValue(true, 2);
+		con.close();
+		conControl.setVoidCallable(2);
+
+		conControl.replay();
+		dsControl.replay();
+
+		DataSourceTransactionManager tm = new DataSourceTransactionManager(ds);
+		tm.setLightweightReadOnly(true);
+		TransactionTemplate tt = new TransactionTemplate(tm);
+		tt.setReadOnly(true);
+		TransactionCallbackWithoutResult callback = new TransactionCallbackWithoutResult() {
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+				assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+				assertSame(con, DataSourceUtils.getConnection(ds));
+			}
+		};
+		tt.execute(callback);
+		tt.execute(new TransactionCallbackWithoutResult() {
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				status.setRollbackOnly();
+			}
+		});
+
+		assertTrue("Hasn't thread connection", !TransactionSynchronizationManager.hasResource(ds));
+		assertEquals(2, tm.getReadOnlyTransactionCount());
+		assertEquals(2, tm.getLightweightReadOnlyTransactionCount());
+		assertEquals(0, tm.getLightweightReadOnlyUpgradeCount());
+		conControl.verify();
+		dsControl.verify();
+	}
+
+	public void testLightweightReadOnlyTransactionWithParticipatingReadWriteTransaction() throws Exception {
+		MockControl dsControl = MockControl.createControl(DataSource.class);
+		final DataSource ds = (DataSource) dsControl.getMock();
+		MockControl conControl = MockControl.createControl(Connection.class);
+		final Connection con = (Connection) conControl.getMock();
+
+		ds.getConnection();
+		dsControl.setReturnValue(con, 1);
+		con.getAutoCommit();
+		conControl.setReturnValue(true, 1);
+		con.setAutoCommit(false);
+		conControl.setVoidCallable(1);
+		con.commit();
+		conControl.setVoidCallable(1);
+		con.setAutoCommit(true);
+		conControl.setVoidCallable(1);
+		con.isReadOnly();
+		conControl.setReturnValue(false, 1);
+		con.close();
+		conControl.setVoidCallable(1);
+
+		conControl.replay();
+		dsControl.replay();
+
+		DataSourceTransactionManager tm = new DataSourceTransactionManager(ds);
+		tm.setLightweightReadOnly(true);
+		TransactionTemplate tt = new TransactionTemplate(tm);
+		tt.setReadOnly(true);
+		final TransactionTemplate tt2 = new TransactionTemplate(tm);
+		tt.execute(new TransactionCallbackWithoutResult() {
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				tt2.execute(new TransactionCallbackWithoutResult() {
+					protected void doInTransactionWithoutResult(TransactionStatus status) {
+						assertSame(con, DataSourceUtils.getConnection(ds));
+					}
+				});
+			}
+		});
+
+		assertTrue("Hasn't thread connection", !TransactionSynchronizationManager.hasResource(ds));
+		assertEquals(1, tm.getReadOnlyTransactionCount());
+		assertEquals(1, tm.getLightweightReadOnlyTransactionCount());
+		assertEquals(1, tm.getLightweightReadOnlyUpgradeCount());
+		conControl.verify();
+		dsControl.verify();
+	}
+
+	public void testTransactionWithTimingRecorder() throws Exception {
+		MockControl dsControl = MockControl.createControl(DataSource.class);
+		DataSource ds = (DataSource) dsControl.getMock();
+		MockControl conControl = MockControl.createControl(Connection.class);
+		Connection con = (Connection) conControl.getMock();
+
+		ds.getConnection();
+		dsControl.setReturnValue(con, 2);
+		con.getAutoCommit();
+		conControl.setReturnValue(false, 2);
+		con.rollback();
+		conControl.setVoidCallable(1);
+		con.commit();
+		conControl.setVoidCallable(1);
+		con.isReadOnly();
+		conControl.setReturnValue(false, 2);
+		con.close();
+		conControl.setVoidCallable(2);
+
+		conControl.replay();
+		dsControl.replay();
+
+		RecordingTimingRecorder timingRecorder = new RecordingTimingRecorder();
+		DataSourceTransactionManager tm = new DataSourceTransactionManager(ds);
+		tm.setTimingRecorder(timingRecorder);
+		TransactionTemplate tt = new TransactionTemplate(tm);
+		tt.setName("outer");
+		final TransactionTemplate tt2 = new TransactionTemplate(tm);
+		tt2.setName("inner");
+		tt2.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		tt.execute(new TransactionCallbackWithoutResult() {
+			protected void doInTransactionWithoutResult(TransactionStatus status) {
+				tt2.execute(new TransactionCallbackWithoutResult() {
+					protected void doInTransactionWithoutResult(TransactionStatus status) {
+						status.setRollbackOnly();
+					}
+				});
+			}
+		});
+
+		List expected = new ArrayList();
+		expected.add("jdbc.connection:null");
+		expected.add("transaction.begin:outer");
+		expected.add("transaction.suspend:outer");
+		expected.add("jdbc.connection:null");
+		expected.add("transaction.begin:inner");
+		expected.add("transaction.rollback:inner");
+		expected.add("transaction.commit:outer");
+		assertEquals(expected, timingRecorder.records);
+		conControl.verify();
+		dsControl.verify();
+	}
+
 	public void testTransactionWithLongTimeout() throws Exception {
 		doTestTransactionWithTimeout(10);
 	}
@@ -1987,4 +2132,18 @@ public class DataSourceTransactionManagerTests extends TestCase {
 		}
 	}
 
+
+	private static class RecordingTimingRecorder implements TimingRecorder {
+
+		public final List records = new ArrayList();
+
+		public long startTime() {
+			return 0;
+		}
+
+		public void record(String category, String name, long startTime) {
+			this.records.add(category + ":" + name);
+		}
+	}
+
 }
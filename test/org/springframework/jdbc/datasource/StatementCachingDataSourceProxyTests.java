@@ -0,0 +1,308 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import junit.framework.TestCase;
+import org.easymock.MockControl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * @since 2.5.7
+ */
+public class StatementCachingDataSourceProxyTests extends TestCase {
+
+	private static final String SQL = "UPDATE TEST SET NAME = 'Rod' WHERE ID = ?";
+
+	private MockControl dsControl;
+
+	private DataSource ds;
+
+	private MockControl conControl;
+
+	private Connection con;
+
+	private StatementCachingDataSourceProxy proxy;
+
+
+	protected void setUp() throws Exception {
+		dsControl = MockControl.createControl(DataSource.class);
+		ds = (DataSource) dsControl.getMock();
+		conControl = MockControl.createControl(Connection.class);
+		con = (Connection) conControl.getMock();
+		ds.getConnection();
+		dsControl.setReturnValue(con, 1);
+		dsControl.replay();
+		proxy = new StatementCachingDataSourceProxy(ds);
+	}
+
+	protected void tearDown() throws Exception {
+		dsControl.verify();
+		conControl.verify();
+	}
+
+
+	public void testStatementReused() throws Exception {
+		MockControl psControl = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement ps = (PreparedStatement) psControl.getMock();
+		con.prepareStatement(SQL);
+		conControl.setReturnValue(ps, 1);
+		con.close();
+		conControl.setVoidCallable(1);
+		ps.setInt(1, 1);
+		psControl.setVoidCallable(2);
+		ps.executeUpdate();
+		psControl.setReturnValue(1, 2);
+		ps.clearParameters();
+		psControl.setVoidCallable(2);
+		ps.clearWarnings();
+		psControl.setVoidCallable(2);
+		ps.close();
+		psControl.setVoidCallable(1);
+		conControl.replay();
+		psControl.replay();
+
+		Connection conProxy = proxy.getConnection();
+		assertSame(con, ((ConnectionProxy) conProxy).getTargetConnection());
+		for (int i = 0; i < 2; i++) {
+			PreparedStatement psProxy = conProxy.prepareStatement(SQL);
+			assertSame(conProxy, psProxy.getConnection());
+			psProxy.setInt(1, 1);
+			assertEquals(1, psProxy.executeUpdate());
+			psProxy.close();
+			try {
+				psProxy.executeUpdate();
+				fail("Should have thrown SQLException");
+			}
+			catch (SQLException ex) {
+				// expected
+			}
+		}
+		conProxy.close();
+
+		assertEquals(1, proxy.getCacheHitCount());
+		assertEquals(1, proxy.getCacheMissCount());
+		assertEquals(0.5, proxy.getCacheHitRatio(), 0.0);
+		psControl.verify();
+	}
+
+	public void testStatementClosedThroughResultSet() throws Exception {
+		MockControl psControl = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement ps = (PreparedStatement) psControl.getMock();
+		MockControl rsControl = MockControl.createControl(ResultSet.class);
+		ResultSet rs = (ResultSet) rsControl.getMock();
+		con.prepareStatement(SQL);
+		conControl.setReturnValue(ps, 1);
+		con.close();
+		conControl.setVoidCallable(1);
+		ps.executeQuery();
+		psControl.setReturnValue(rs, 2);
+		ps.clearParameters();
+		psControl.setVoidCallable(2);
+		ps.clearWarnings();
+		psControl.setVoidCallable(2);
+		ps.close();
+		psControl.setVoidCallable(1);
+		rs.next();
+		rsControl.setReturnValue(false, 2);
+		rs.close();
+		rsControl.setVoidCallable(2);
+		conControl.replay();
+		psControl.replay();
+		rsControl.replay();
+
+		Connection conProxy = proxy.getConnection();
+		for (int i = 0; i < 2; i++) {
+			PreparedStatement psProxy = conProxy.prepareStatement(SQL);
+			ResultSet rsProxy = psProxy.executeQuery();
+			assertFalse(rsProxy.next());
+			assertSame(psProxy, rsProxy.getStatement());
+			rsProxy.close();
+			rsProxy.getStatement().close();
+		}
+		conProxy.close();
+
+		assertEquals(1, proxy.getCacheHitCount());
+		assertEquals(1, proxy.getCacheMissCount());
+		psControl.verify();
+		rsControl.verify();
+	}
+
+	public void testStatementSettingsAndBatchReset() throws Exception {
+		MockControl psControl = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement ps = (PreparedStatement) psControl.getMock();
+		con.prepareStatement(SQL);
+		conControl.setReturnValue(ps, 1);
+		con.close();
+		conControl.setVoidCallable(1);
+		ps.getFetchSize();
+		psControl.setReturnValue(0, 1);
+		ps.setFetchSize(100);
+		psControl.setVoidCallable(1);
+		ps.setInt(1, 1);
+		psControl.setVoidCallable(1);
+		ps.addBatch();
+		psControl.setVoidCallable(1);
+		ps.clearParameters();
+		psControl.setVoidCallable(1);
+		ps.clearBatch();
+		psControl.setVoidCallable(1);
+		ps.setFetchSize(0);
+		psControl.setVoidCallable(1);
+		ps.clearWarnings();
+		psControl.setVoidCallable(1);
+		ps.close();
+		psControl.setVoidCallable(1);
+		conControl.replay();
+		psControl.replay();
+
+		Connection conProxy = proxy.getConnection();
+		PreparedStatement psProxy = conProxy.prepareStatement(SQL);
+		psProxy.setFetchSize(100);
+		psProxy.setInt(1, 1);
+		psProxy.addBatch();
+		psProxy.close();
+		conProxy.close();
+
+		psControl.verify();
+	}
+
+	public void testStatementKeyIncludesGeneratedKeysSetting() throws Exception {
+		MockControl psControl = MockControl.createNiceControl(PreparedStatement.class);
+		PreparedStatement ps = (PreparedStatement) psControl.getMock();
+		MockControl ps2Control = MockControl.createNiceControl(PreparedStatement.class);
+		PreparedStatement ps2 = (PreparedStatement) ps2Control.getMock();
+		con.prepareStatement(SQL);
+		conControl.setReturnValue(ps, 1);
+		con.prepareStatement(SQL, Statement.RETURN_GENERATED_KEYS);
+		conControl.setReturnValue(ps2, 1);
+		con.close();
+		conControl.setVoidCallable(1);
+		conControl.replay();
+		psControl.replay();
+		ps2Control.replay();
+
+		Connection conProxy = proxy.getConnection();
+		conProxy.prepareStatement(SQL).close();
+		conProxy.prepareStatement(SQL, Statement.RETURN_GENERATED_KEYS).close();
+		conProxy.prepareStatement(SQL).close();
+		conProxy.prepareStatement(SQL, Statement.RETURN_GENERATED_KEYS).close();
+		conProxy.close();
+
+		assertEquals(2, proxy.getCacheHitCount());
+		assertEquals(2, proxy.getCacheMissCount());
+	}
+
+	public void testLeastRecentlyUsedStatementEvicted() throws Exception {
+		String otherSql = "SELECT NAME FROM TEST";
+		MockControl psControl = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement ps = (PreparedStatement) psControl.getMock();
+		MockControl ps2Control = MockControl.createNiceControl(PreparedStatement.class);
+		PreparedStatement ps2 = (PreparedStatement) ps2Control.getMock();
+		con.prepareStatement(SQL);
+		conControl.setReturnValue(ps, 1);
+		con.prepareStatement(otherSql);
+		conControl.setReturnValue(ps2, 1);
+		con.close();
+		conControl.setVoidCallable(1);
+		ps.clearParameters();
+		psControl.setVoidCallable(1);
+		ps.clearWarnings();
+		psControl.setVoidCallable(1);
+		ps.close();
+		psControl.setVoidCallable(1);
+		conControl.replay();
+		psControl.replay();
+		ps2Control.replay();
+
+		proxy.setCacheLimit(1);
+		Connection conProxy = proxy.getConnection();
+		conProxy.prepareStatement(SQL).close();
+		conProxy.prepareStatement(otherSql).close();
+		conProxy.close();
+
+		assertEquals(1, proxy.getCacheEvictionCount());
+		psControl.verify();
+	}
+
+	public void testStatementDiscardedAfterException() throws Exception {
+		MockControl psControl = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement ps = (PreparedStatement) psControl.getMock();
+		con.prepareStatement(SQL);
+		conControl.setReturnValue(ps, 1);
+		con.close();
+		conControl.setVoidCallable(1);
+		ps.executeUpdate();
+		psControl.setThrowable(new SQLException("bad update"));
+		ps.close();
+		psControl.setVoidCallable(1);
+		conControl.replay();
+		psControl.replay();
+
+		Connection conProxy = proxy.getConnection();
+		PreparedStatement psProxy = conProxy.prepareStatement(SQL);
+		try {
+			psProxy.executeUpdate();
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			// expected
+		}
+		psProxy.close();
+		psControl.verify();
+		conProxy.close();
+	}
+
+	public void testWithJdbcTemplateAndBoundConnection() throws Exception {
+		MockControl psControl = MockControl.createNiceControl(PreparedStatement.class);
+		PreparedStatement ps = (PreparedStatement) psControl.getMock();
+		ps.executeUpdate();
+		psControl.setReturnValue(1, 3);
+		con.prepareStatement(SQL);
+		conControl.setReturnValue(ps, 1);
+		con.close();
+		conControl.setVoidCallable(1);
+		conControl.replay();
+		psControl.replay();
+
+		Connection conProxy = proxy.getConnection();
+		TransactionSynchronizationManager.bindResource(proxy, new ConnectionHolder(conProxy));
+		try {
+			JdbcTemplate template = new JdbcTemplate(proxy);
+			for (int i = 0; i < 3; i++) {
+				assertEquals(1, template.update(SQL, new Object[] {new Integer(i)}));
+			}
+		}
+		finally {
+			TransactionSynchronizationManager.unbindResource(proxy);
+		}
+		conProxy.close();
+
+		assertEquals(2, proxy.getCacheHitCount());
+		assertEquals(1, proxy.getCacheMissCount());
+	}
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import junit.framework.TestCase;
+import org.easymock.MockControl;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
+import org.springframework.util.SerializationTestUtils;
+
+/**
+ * @since 2.5.7
+ */
+public class CompactSqlRowSetTests extends TestCase {
+
+	private static final String[] COLUMN_LABELS = new String[] {"ID", "AGE", "SCORE", "NAME", "CREATED"};
+
+	private static final String[] COLUMN_CLASS_NAMES = new String[] {"java.lang.Long", "java.lang.Integer",
+			"java.lang.Double", "java.lang.String", "java.sql.Timestamp"};
+
+	private static final Timestamp TIMESTAMP = new Timestamp(1224000000000L);
+
+	private static final Object[][] ROWS = new Object[][] {
+			{new Long(1), new Integer(33), new Double(1.5), "Juergen", TIMESTAMP},
+			{new Long(2), null, new Double(2.5), "Rod", null},
+			{new Long(3), new Integer(44), null, null, TIMESTAMP}};
+
+
+	public void testValuesAndConversions() throws Exception {
+		CompactSqlRowSet rowSet = new CompactSqlRowSet(createResultSet(COLUMN_LABELS, COLUMN_CLASS_NAMES, ROWS));
+		assertEquals(3, rowSet.getRowCount());
+
+		assertTrue(rowSet.next());
+		assertEquals(new Long(1), rowSet.getObject(1));
+		assertEquals(new Integer(33), rowSet.getObject("age"));
+		assertEquals(33, rowSet.getInt(2));
+		assertEquals("33", rowSet.getString(2));
+		assertEquals(BigDecimal.valueOf(33), rowSet.getBigDecimal(2));
+		assertEquals(new Double(1.5), rowSet.getObject(3));
+		assertEquals(1, rowSet.getInt("Score"));
+		assertEquals("1.5", rowSet.getString(3));
+		assertEquals("Juergen", rowSet.getObject(4));
+		assertFalse(rowSet.wasNull());
+		assertEquals(TIMESTAMP, rowSet.getTimestamp(5));
+		assertEquals(new Date(TIMESTAMP.getTime()), rowSet.getDate(5));
+
+		assertTrue(rowSet.next());
+		assertEquals(0, rowSet.getInt(2));
+		assertTrue(rowSet.wasNull());
+		assertNull(rowSet.getObject(2));
+		assertNull(rowSet.getString(2));
+		assertEquals(2.5, rowSet.getDouble(3), 0.0);
+		assertFalse(rowSet.wasNull());
+		assertEquals("Rod", rowSet.getString("NAME"));
+		assertNull(rowSet.getTimestamp(5));
+		assertTrue(rowSet.wasNull());
+
+		assertTrue(rowSet.next());
+		assertEquals(3, rowSet.getLong(1));
+		assertEquals(0.0, rowSet.getDouble(3), 0.0);
+		assertTrue(rowSet.wasNull());
+		assertNull(rowSet.getString(4));
+		assertTrue(rowSet.wasNull());
+		assertFalse(rowSet.next());
+	}
+
+	public void testNavigation() throws Exception {
+		CompactSqlRowSet rowSet = new CompactSqlRowSet(createResultSet(COLUMN_LABELS, COLUMN_CLASS_NAMES, ROWS));
+		assertTrue(rowSet.isBeforeFirst());
+		assertEquals(0, rowSet.getRow());
+		try {
+			rowSet.getLong(1);
+			fail("Should have thrown InvalidResultSetAccessException");
+		}
+		catch (InvalidResultSetAccessException ex) {
+			// expected
+		}
+
+		assertTrue(rowSet.last());
+		assertTrue(rowSet.isLast());
+		assertEquals(3, rowSet.getRow());
+		assertEquals(3, rowSet.getLong(1));
+		assertTrue(rowSet.previous());
+		assertEquals(2, rowSet.getLong(1));
+		assertTrue(rowSet.absolute(-3));
+		assertTrue(rowSet.isFirst());
+		assertEquals(1, rowSet.getLong(1));
+		assertTrue(rowSet.relative(2));
+		assertEquals(3, rowSet.getLong(1));
+		assertFalse(rowSet.relative(1));
+		assertTrue(rowSet.isAfterLast());
+		assertFalse(rowSet.next());
+		assertTrue(rowSet.previous());
+		assertEquals(3, rowSet.getLong(1));
+		assertFalse(rowSet.absolute(5));
+		assertTrue(rowSet.isAfterLast());
+		assertTrue(rowSet.first());
+		assertEquals(1, rowSet.getLong(1));
+		rowSet.beforeFirst();
+		assertFalse(rowSet.previous());
+		rowSet.afterLast();
+		assertTrue(rowSet.isAfterLast());
+	}
+
+	public void testDictionaryOverflow() throws Exception {
+		Object[][] rows = new Object[][] {{"a"}, {"b"}, {"a"}, {null}, {"c"}, {"b"}, {"d"}};
+		CompactSqlRowSet rowSet = new CompactSqlRowSet(
+				createResultSet(new String[] {"VALUE"}, new String[] {"java.lang.String"}, rows), 2);
+		for (int i = 0; i < rows.length; i++) {
+			assertTrue(rowSet.next());
+			assertEquals(rows[i][0], rowSet.getString(1));
+		}
+		assertFalse(rowSet.next());
+	}
+
+	public void testInvalidAccess() throws Exception {
+		CompactSqlRowSet rowSet = new CompactSqlRowSet(createResultSet(COLUMN_LABELS, COLUMN_CLASS_NAMES, ROWS));
+		rowSet.first();
+		try {
+			rowSet.getInt(4);
+			fail("Should have thrown InvalidResultSetAccessException");
+		}
+		catch (InvalidResultSetAccessException ex) {
+			// expected
+		}
+		try {
+			rowSet.getInt(6);
+			fail("Should have thrown InvalidResultSetAccessException");
+		}
+		catch (InvalidResultSetAccessException ex) {
+			// expected
+		}
+		try {
+			rowSet.findColumn("BOGUS");
+			fail("Should have thrown InvalidResultSetAccessException");
+		}
+		catch (InvalidResultSetAccessException ex) {
+			// expected
+		}
+	}
+
+	public void testMetaData() throws Exception {
+		CompactSqlRowSet rowSet = new CompactSqlRowSet(createResultSet(COLUMN_LABELS, COLUMN_CLASS_NAMES, ROWS));
+		SqlRowSetMetaData metaData = rowSet.getMetaData();
+		assertEquals(5, metaData.getColumnCount());
+		assertEquals("NAME", metaData.getColumnName(4));
+		assertEquals("NAME", metaData.getColumnNames()[3]);
+		assertEquals("java.lang.String", metaData.getColumnClassName(4));
+		assertEquals(Types.OTHER, metaData.getColumnType(4));
+		assertEquals(4, rowSet.findColumn("name"));
+	}
+
+	public void testSerialization() throws Exception {
+		CompactSqlRowSet rowSet = new CompactSqlRowSet(createResultSet(COLUMN_LABELS, COLUMN_CLASS_NAMES, ROWS));
+		rowSet = (CompactSqlRowSet) SerializationTestUtils.serializeAndDeserialize(rowSet);
+		assertTrue(rowSet.last());
+		assertEquals(new Integer(44), rowSet.getObject("AGE"));
+		assertEquals(TIMESTAMP, rowSet.getTimestamp("CREATED"));
+		assertEquals(4, rowSet.findColumn("NAME"));
+	}
+
+	public void testSqlRowSetResultSetExtractor() throws Exception {
+		Object rowSet = new SqlRowSetResultSetExtractor(true).extractData(
+				createResultSet(COLUMN_LABELS, COLUMN_CLASS_NAMES, ROWS));
+		assertTrue(rowSet instanceof CompactSqlRowSet);
+		assertEquals(3, ((CompactSqlRowSet) rowSet).getRowCount());
+	}
+
+
+	private ResultSet createResultSet(String[] labels, String[] classNames, Object[][] rows) throws Exception {
+		MockControl metaDataControl = MockControl.createNiceControl(ResultSetMetaData.class);
+		ResultSetMetaData metaData = (ResultSetMetaData) metaDataControl.getMock();
+		metaData.getColumnCount();
+		metaDataControl.setReturnValue(labels.length);
+		for (int i = 0; i < labels.length; i++) {
+			metaData.getColumnClassName(i + 1);
+			metaDataControl.setReturnValue(classNames[i]);
+			metaData.getColumnLabel(i + 1);
+			metaDataControl.setReturnValue(labels[i]);
+			metaData.getColumnName(i + 1);
+			metaDataControl.setReturnValue(labels[i]);
+			metaData.getColumnType(i + 1);
+			metaDataControl.setReturnValue(Types.OTHER);
+		}
+		metaDataControl.replay();
+
+		MockControl rsControl = MockControl.createControl(ResultSet.class);
+		ResultSet rs = (ResultSet) rsControl.getMock();
+		rs.getMetaData();
+		rsControl.setReturnValue(metaData);
+		for (int row = 0; row < rows.length; row++) {
+			rs.next();
+			rsControl.setReturnValue(true);
+			for (int i = 0; i < labels.length; i++) {
+				Object value = rows[row][i];
+				if ("java.lang.Long".equals(classNames[i]) || "java.lang.Integer".equals(classNames[i])) {
+					rs.getLong(i + 1);
+					rsControl.setReturnValue(value != null ? ((Number) value).longValue() : 0);
+					rs.wasNull();
+					rsControl.setReturnValue(value == null);
+				}
+				else if ("java.lang.Double".equals(classNames[i])) {
+					rs.getDouble(i + 1);
+					rsControl.setReturnValue(value != null ? ((Number) value).doubleValue() : 0);
+					rs.wasNull();
+					rsControl.setReturnValue(value == null);
+				}
+				else if ("java.lang.String".equals(classNames[i])) {
+					rs.getString(i + 1);
+					rsControl.setReturnValue(value);
+				}
+				else {
+					rs.getObject(i + 1);
+					rsControl.setReturnValue(value);
+				}
+			}
+		}
+		rs.next();
+		rsControl.setReturnValue(false);
+		rsControl.replay();
+		return rs;
+	}
+
+}
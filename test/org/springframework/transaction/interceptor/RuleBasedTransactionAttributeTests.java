@@ -153,6 +153,39 @@ public class RuleBasedTransactionAttributeTests extends TestCase {
 		assertFalse(rta.rollbackOn(new MyBusinessWarningException()));
 	}
 
+	public void testCachedDecisionReflectsChangedRules() {
+		RuleBasedTransactionAttribute rta = new RuleBasedTransactionAttribute();
+		assertFalse(rta.rollbackOn(new MyBusinessException()));
+		assertFalse(rta.rollbackOn(new MyBusinessException()));
+
+		rta.getRollbackRules().add(new RollbackRuleAttribute(MyBusinessException.class));
+		assertTrue(rta.rollbackOn(new MyBusinessException()));
+		assertTrue(rta.rollbackOn(new MyBusinessWarningException()));
+
+		rta.getRollbackRules().set(0, new NoRollbackRuleAttribute(MyBusinessException.class));
+		assertFalse(rta.rollbackOn(new MyBusinessException()));
+
+		List list = new LinkedList();
+		list.add(new RollbackRuleAttribute(MyBusinessWarningException.class));
+		rta.setRollbackRules(list);
+		assertFalse(rta.rollbackOn(new MyBusinessException()));
+		assertTrue(rta.rollbackOn(new MyBusinessWarningException()));
+	}
+
+	public void testCustomRuleNotCached() {
+		final boolean[] rollback = new boolean[] {true};
+		List list = new LinkedList();
+		list.add(new RollbackRuleAttribute(MyBusinessException.class) {
+			public int getDepth(Throwable ex) {
+				return (rollback[0] ? super.getDepth(ex) : -1);
+			}
+		});
+		RuleBasedTransactionAttribute rta = new RuleBasedTransactionAttribute(TransactionDefinition.PROPAGATION_REQUIRED, list);
+		assertTrue(rta.rollbackOn(new MyBusinessException()));
+		rollback[0] = false;
+		assertFalse(rta.rollbackOn(new MyBusinessException()));
+	}
+
 
 	public static class MyBusinessException extends Exception {}
 
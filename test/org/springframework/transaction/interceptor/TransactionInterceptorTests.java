@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2005 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  * 
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,13 @@
 package org.springframework.transaction.interceptor;
 
 import java.io.Serializable;
+import java.lang.reflect.Method;
 import java.util.Properties;
 
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.ITestBean;
+import org.springframework.beans.TestBean;
+import org.springframework.transaction.CallCountingTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionException;
@@ -104,6 +108,73 @@ public class TransactionInterceptorTests extends AbstractTransactionAspectTests
 		assertTrue(ctas.getTransactionAttributeSources()[1] instanceof NameMatchTransactionAttributeSource);
 	}
 
+	public void testTransactionAttributeBoundPerMethod() {
+		final int[] lookups = new int[1];
+		NameMatchTransactionAttributeSource tas = new NameMatchTransactionAttributeSource() {
+			protected boolean isMatch(String methodName, String mappedName) {
+				lookups[0]++;
+				return super.isMatch(methodName, mappedName);
+			}
+		};
+		Properties props = new Properties();
+		props.setProperty("get*", "PROPAGATION_REQUIRED");
+		tas.setProperties(props);
+		CallCountingTransactionManager ptm = new CallCountingTransactionManager();
+		TransactionInterceptor ti = new TransactionInterceptor(ptm, tas);
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.addAdvisor(new TransactionAttributeSourceAdvisor(ti));
+		pf.setFrozen(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+
+		int lookupsAfterProxyCreation = lookups[0];
+		proxy.getAge();
+		proxy.getAge();
+		proxy.setAge(5);
+		proxy.setAge(5);
+		assertEquals("No lookups after proxy creation", lookupsAfterProxyCreation, lookups[0]);
+		assertEquals(2, ptm.commits);
+		assertEquals(ITestBean.class.getName() + ".getAge", ptm.lastDefinition.getName());
+
+		ti.setTransactionAttributeSource(tas);
+		proxy.getAge();
+		assertTrue(lookups[0] > lookupsAfterProxyCreation);
+	}
+
+	public void testOverriddenTransactionAttributeLookupConsultedPerInvocation() {
+		final int[] lookups = new int[1];
+		NameMatchTransactionAttributeSource tas = new NameMatchTransactionAttributeSource() {
+			public TransactionAttribute getTransactionAttribute(Method method, Class targetClass) {
+				lookups[0]++;
+				return (lookups[0] % 2 == 0 ? super.getTransactionAttribute(method, targetClass) : null);
+			}
+		};
+		Properties props = new Properties();
+		props.setProperty("get*", "PROPAGATION_REQUIRED");
+		tas.setProperties(props);
+		CallCountingTransactionManager ptm = new CallCountingTransactionManager();
+		ITestBean proxy = (ITestBean) advised(new TestBean(), ptm, tas);
+		proxy.getAge();
+		proxy.getAge();
+		assertEquals(2, lookups[0]);
+		assertEquals(1, ptm.commits);
+	}
+
+	public void testCustomTransactionAttributeSourceConsultedPerInvocation() {
+		final int[] lookups = new int[1];
+		TransactionAttributeSource tas = new TransactionAttributeSource() {
+			public TransactionAttribute getTransactionAttribute(Method method, Class targetClass) {
+				lookups[0]++;
+				return (lookups[0] % 2 == 0 ? new DefaultTransactionAttribute() : null);
+			}
+		};
+		CallCountingTransactionManager ptm = new CallCountingTransactionManager();
+		ITestBean proxy = (ITestBean) advised(new TestBean(), ptm, tas);
+		proxy.getAge();
+		proxy.getAge();
+		assertEquals(2, lookups[0]);
+		assertEquals(1, ptm.commits);
+	}
+
 
 	/**
 	 * We won't use this: we just want to know it's serializable.
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * @since 2.5.7
+ */
+public class TransactionSynchronizationManagerTests extends TestCase {
+
+	protected void tearDown() {
+		assertTrue(TransactionSynchronizationManager.getResourceMap().isEmpty());
+		assertFalse(TransactionSynchronizationManager.isSynchronizationActive());
+		assertNull(TransactionSynchronizationManager.getCurrentTransactionName());
+		assertFalse(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+		assertNull(TransactionSynchronizationManager.getCurrentTransactionIsolationLevel());
+		assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+	}
+
+	public void testBindAndUnbindResources() {
+		String[] keys = new String[10];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = "key" + i;
+			TransactionSynchronizationManager.bindResource(keys[i], new Integer(i));
+		}
+		assertEquals(keys.length, TransactionSynchronizationManager.getResourceMap().size());
+		for (int i = 0; i < keys.length; i++) {
+			assertTrue(TransactionSynchronizationManager.hasResource(new String(keys[i])));
+			assertEquals(new Integer(i), TransactionSynchronizationManager.getResource(keys[i]));
+		}
+		try {
+			TransactionSynchronizationManager.bindResource(keys[3], "value");
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+		assertEquals("value", TransactionSynchronizationManager.unbindResource(keys[3]));
+		assertFalse(TransactionSynchronizationManager.hasResource(keys[3]));
+		assertNull(TransactionSynchronizationManager.unbindResourceIfPossible(keys[3]));
+		for (int i = 0; i < keys.length; i++) {
+			if (i != 3) {
+				assertEquals(new Integer(i), TransactionSynchronizationManager.unbindResource(keys[i]));
+			}
+		}
+	}
+
+	public void testVoidResourceHolderRemoved() {
+		ResourceHolderSupport holder = new ResourceHolderSupport() {};
+		TransactionSynchronizationManager.bindResource("key", holder);
+		assertSame(holder, TransactionSynchronizationManager.getResource("key"));
+		holder.unbound();
+		assertNull(TransactionSynchronizationManager.getResource("key"));
+	}
+
+	public void testSynchronizationSnapshotReusedUntilRegistration() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+			TransactionSynchronization synch1 = new OrderedSynchronization(2);
+			TransactionSynchronization synch2 = new OrderedSynchronization(1);
+			TransactionSynchronizationManager.registerSynchronization(synch1);
+			TransactionSynchronizationManager.registerSynchronization(synch2);
+			List synchs = TransactionSynchronizationManager.getSynchronizations();
+			assertEquals(2, synchs.size());
+			assertSame(synch2, synchs.get(0));
+			assertSame(synch1, synchs.get(1));
+			assertSame(synchs, TransactionSynchronizationManager.getSynchronizations());
+
+			TransactionSynchronization synch3 = new OrderedSynchronization(0);
+			TransactionSynchronizationManager.registerSynchronization(synch3);
+			assertEquals(2, synchs.size());
+			List newSynchs = TransactionSynchronizationManager.getSynchronizations();
+			assertEquals(3, newSynchs.size());
+			assertSame(synch3, newSynchs.get(0));
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		try {
+			TransactionSynchronizationManager.getSynchronizations();
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+	}
+
+	public void testClearResetsTransactionCharacteristics() {
+		TransactionSynchronizationManager.bindResource("key", "value");
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setCurrentTransactionName("tx");
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(new Integer(2));
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		assertEquals("tx", TransactionSynchronizationManager.getCurrentTransactionName());
+		assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+		assertEquals(new Integer(2), TransactionSynchronizationManager.getCurrentTransactionIsolationLevel());
+		assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+
+		TransactionSynchronizationManager.clear();
+		assertEquals("value", TransactionSynchronizationManager.getResource("key"));
+		TransactionSynchronizationManager.unbindResource("key");
+		try {
+			TransactionSynchronizationManager.clear();
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+	}
+
+
+	private static class OrderedSynchronization extends TransactionSynchronizationAdapter {
+
+		private final int order;
+
+		public OrderedSynchronization(int order) {
+			this.order = order;
+		}
+
+		public int getOrder() {
+			return this.order;
+		}
+	}
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs all PathMatcher tests against CompiledPathMatcher,
+ * plus tests for its PathPatternIndex.
+ *
+ */
+public class CompiledPathMatcherTests extends PathMatcherTests {
+
+	private static final String[] SEGMENTS = {"a", "b", "test", "*", "**", "?", "t?st", "*.html", "a*b", ""};
+
+
+	protected AntPathMatcher createPathMatcher() {
+		return new CompiledPathMatcher();
+	}
+
+	public void testSameResultsAsAntPathMatcher() {
+		AntPathMatcher antPathMatcher = new AntPathMatcher();
+		CompiledPathMatcher compiledPathMatcher = new CompiledPathMatcher();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			String pattern = randomPath(random, true);
+			String path = randomPath(random, false);
+			assertEquals("match(" + pattern + ", " + path + ")",
+					antPathMatcher.match(pattern, path), compiledPathMatcher.match(pattern, path));
+			assertEquals("matchStart(" + pattern + ", " + path + ")",
+					antPathMatcher.matchStart(pattern, path), compiledPathMatcher.matchStart(pattern, path));
+		}
+	}
+
+	public void testCacheLimit() {
+		CompiledPathMatcher pathMatcher = new CompiledPathMatcher();
+		pathMatcher.setCacheLimit(1);
+		assertTrue(pathMatcher.match("/a/*", "/a/b"));
+		assertTrue(pathMatcher.match("/b/*", "/b/c"));
+		assertFalse(pathMatcher.match("/b/*", "/a/c"));
+		assertTrue(pathMatcher.match("/a/*", "/a/b"));
+	}
+
+	public void testPatternIndex() {
+		CompiledPathMatcher pathMatcher = new CompiledPathMatcher();
+		PathPatternIndex index = pathMatcher.createPatternIndex();
+		index.addPattern("/welcome.html");
+		index.addPattern("/show*.html");
+		index.addPattern("/docs/**");
+		index.addPattern("/docs/cvs/*.html");
+		index.addPattern("/**/*.html");
+		index.addPattern("/docs/cvs/*.html");
+		assertEquals(5, index.size());
+
+		assertEquals(Arrays.asList(new String[] {"/welcome.html", "/**/*.html"}),
+				index.getMatchingPatterns("/welcome.html"));
+		assertEquals(Arrays.asList(new String[] {"/docs/**", "/docs/cvs/*.html", "/**/*.html"}),
+				index.getMatchingPatterns("/docs/cvs/commit.html"));
+		assertEquals(Arrays.asList(new String[] {"/docs/**"}), index.getMatchingPatterns("/docs/cvs/commit"));
+		assertTrue(index.getMatchingPatterns("/other").isEmpty());
+
+		index.addPattern("/other");
+		assertEquals(Arrays.asList(new String[] {"/other"}), index.getMatchingPatterns("/other"));
+	}
+
+	public void testPatternIndexFindsSameMatchesAsAntPathMatcher() {
+		AntPathMatcher antPathMatcher = new AntPathMatcher();
+		CompiledPathMatcher compiledPathMatcher = new CompiledPathMatcher();
+		PathPatternIndex index = compiledPathMatcher.createPatternIndex();
+		Random random = new Random(7);
+		List patterns = new ArrayList();
+		for (int i = 0; i < 500; i++) {
+			String pattern = randomPath(random, true);
+			if (!patterns.contains(pattern)) {
+				patterns.add(pattern);
+				index.addPattern(pattern);
+			}
+		}
+		for (int i = 0; i < 2000; i++) {
+			String path = randomPath(random, false);
+			List expected = new ArrayList();
+			for (int j = 0; j < patterns.size(); j++) {
+				String pattern = (String) patterns.get(j);
+				if (antPathMatcher.match(pattern, path)) {
+					expected.add(pattern);
+				}
+			}
+			assertEquals(path, expected, index.getMatchingPatterns(path));
+		}
+	}
+
+	private String randomPath(Random random, boolean pattern) {
+		StringBuffer sb = new StringBuffer();
+		if (random.nextBoolean()) {
+			sb.append('/');
+		}
+		int length = random.nextInt(5);
+		for (int i = 0; i < length; i++) {
+			if (i > 0) {
+				sb.append('/');
+			}
+			String segment = SEGMENTS[random.nextInt(SEGMENTS.length)];
+			if (!pattern) {
+				segment = StringUtils.replace(StringUtils.replace(segment, "*", "x"), "?", "e");
+			}
+			sb.append(segment);
+		}
+		if (random.nextInt(4) == 0) {
+			sb.append('/');
+		}
+		return sb.toString();
+	}
+
+}
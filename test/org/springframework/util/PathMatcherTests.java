@@ -25,8 +25,12 @@ import junit.framework.TestCase;
  */
 public class PathMatcherTests extends TestCase {
 
+	protected AntPathMatcher createPathMatcher() {
+		return new AntPathMatcher();
+	}
+
 	public void testAntPathMatcher() {
-		PathMatcher pathMatcher = new AntPathMatcher();
+		PathMatcher pathMatcher = createPathMatcher();
 
 		// test exact matching
 		assertTrue(pathMatcher.match("test", "test"));
@@ -110,7 +114,7 @@ public class PathMatcherTests extends TestCase {
 	}
 
 	public void testAntPathMatcherWithMatchStart() {
-		PathMatcher pathMatcher = new AntPathMatcher();
+		PathMatcher pathMatcher = createPathMatcher();
 
 		// test exact matching
 		assertTrue(pathMatcher.matchStart("test", "test"));
@@ -198,7 +202,7 @@ public class PathMatcherTests extends TestCase {
 	}
 
 	public void testAntPathMatcherWithUniqueDeliminator() {
-		AntPathMatcher pathMatcher = new AntPathMatcher();
+		AntPathMatcher pathMatcher = createPathMatcher();
 		pathMatcher.setPathSeparator(".");
 
 		// test exact matching
@@ -260,7 +264,7 @@ public class PathMatcherTests extends TestCase {
 	}
 
 	public void testAntPathMatcherExtractPathWithinPattern() throws Exception {
-		PathMatcher pathMatcher = new AntPathMatcher();
+		PathMatcher pathMatcher = createPathMatcher();
 
 		assertEquals("", pathMatcher.extractPathWithinPattern("/docs/commit.html", "/docs/commit.html"));
 
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.web.servlet.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Tests for URL handler lookup through the index of registered paths,
+ * comparing it against scanning all mappings with a plain AntPathMatcher.
+ */
+public class IndexedUrlHandlerMappingTests extends TestCase {
+
+	private static final int MAPPINGS = 200;
+
+	private static final String[] REQUEST_PATHS = {
+			"/app4/module44/item/view.html", "/app3/module103/list", "/app1/module101/a/b/c",
+			"/app2/module102", "/app2/module102/x", "/static/css/site.css", "/app1/unknown", "/nowhere"};
+
+
+	private SimpleUrlHandlerMapping indexedMapping;
+
+	private SimpleUrlHandlerMapping scanningMapping;
+
+
+	protected void setUp() {
+		Map urlMap = new LinkedHashMap();
+		for (int i = 0; i < MAPPINGS; i++) {
+			String prefix = "/app" + (i % 10) + "/module" + i;
+			switch (i % 4) {
+				case 0: urlMap.put(prefix + "/item/*.html", new Integer(i)); break;
+				case 1: urlMap.put(prefix + "/**", new Integer(i)); break;
+				case 2: urlMap.put(prefix + "/*", new Integer(i)); break;
+				default: urlMap.put(prefix + "/list", new Integer(i));
+			}
+		}
+		urlMap.put("/**/*.css", new Integer(-1));
+		urlMap.put("/app1/**", new Integer(-2));
+
+		StaticWebApplicationContext wac = new StaticWebApplicationContext();
+		wac.setServletContext(new MockServletContext());
+		wac.refresh();
+		this.indexedMapping = new SimpleUrlHandlerMapping();
+		this.indexedMapping.setUrlMap(urlMap);
+		this.indexedMapping.setApplicationContext(wac);
+		this.scanningMapping = new SimpleUrlHandlerMapping();
+		this.scanningMapping.setPathMatcher(new AntPathMatcher());
+		this.scanningMapping.setUrlMap(urlMap);
+		this.scanningMapping.setApplicationContext(wac);
+	}
+
+	public void testResolvedHandlers() throws Exception {
+		assertEquals(new Integer(44), getHandler(this.indexedMapping, "/app4/module44/item/view.html").getHandler());
+		assertEquals(new Integer(103), getHandler(this.indexedMapping, "/app3/module103/list").getHandler());
+		assertEquals(new Integer(101), getHandler(this.indexedMapping, "/app1/module101/a/b/c").getHandler());
+		assertEquals(new Integer(102), getHandler(this.indexedMapping, "/app2/module102/x").getHandler());
+		assertEquals(new Integer(-1), getHandler(this.indexedMapping, "/static/css/site.css").getHandler());
+		assertEquals(new Integer(-2), getHandler(this.indexedMapping, "/app1/unknown").getHandler());
+		assertNull(getHandler(this.indexedMapping, "/nowhere"));
+	}
+
+	public void testSameHandlersAsScanningLookup() throws Exception {
+		for (int i = 0; i < REQUEST_PATHS.length; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", REQUEST_PATHS[i]);
+			HandlerExecutionChain indexedChain = getHandler(this.indexedMapping, request);
+			Object indexedPath = request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+			request = new MockHttpServletRequest("GET", REQUEST_PATHS[i]);
+			HandlerExecutionChain scanningChain = getHandler(this.scanningMapping, request);
+			Object scanningPath = request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+			if (scanningChain == null) {
+				assertNull(REQUEST_PATHS[i], indexedChain);
+			}
+			else {
+				assertEquals(REQUEST_PATHS[i], scanningChain.getHandler(), indexedChain.getHandler());
+				assertEquals(REQUEST_PATHS[i], scanningPath, indexedPath);
+			}
+		}
+	}
+
+	private HandlerExecutionChain getHandler(HandlerMapping hm, String path) throws Exception {
+		return getHandler(hm, new MockHttpServletRequest("GET", path));
+	}
+
+	private HandlerExecutionChain getHandler(HandlerMapping hm, MockHttpServletRequest request) throws Exception {
+		HandlerExecutionChain hec = hm.getHandler(request);
+		if (hec != null) {
+			HandlerInterceptor[] interceptors = hec.getInterceptors();
+			for (int i = 0; i < interceptors.length; i++) {
+				interceptors[i].preHandle(request, null, hec.getHandler());
+			}
+		}
+		return hec;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ package org.springframework.aop.support.annotation;
 import java.lang.annotation.Annotation;
 
 import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.IndexableClassFilter;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.Assert;
 
@@ -30,7 +31,7 @@ import org.springframework.util.Assert;
  * @since 2.0
  * @see AnnotationMatchingPointcut
  */
-public class AnnotationClassFilter implements ClassFilter {
+public class AnnotationClassFilter implements IndexableClassFilter {
 
 	private final Class<? extends Annotation> annotationType;
 
@@ -65,4 +66,33 @@ public class AnnotationClassFilter implements ClassFilter {
 				clazz.isAnnotationPresent(this.annotationType));
 	}
 
+	/**
+	 * This implementation returns this filter itself, since it is cheap to
+	 * evaluate and can be shared with other filters for the same annotation.
+	 */
+	public ClassFilter getCandidateFilter() {
+		return this;
+	}
+
+
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof AnnotationClassFilter)) {
+			return false;
+		}
+		AnnotationClassFilter otherFilter = (AnnotationClassFilter) other;
+		return (this.annotationType.equals(otherFilter.annotationType) &&
+				this.checkInherited == otherFilter.checkInherited);
+	}
+
+	public int hashCode() {
+		return this.annotationType.hashCode() * 29 + (this.checkInherited ? 1 : 0);
+	}
+
+	public String toString() {
+		return getClass().getName() + ": " + this.annotationType.getName();
+	}
+
 }
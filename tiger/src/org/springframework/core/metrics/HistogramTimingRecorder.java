@@ -0,0 +1,236 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link TimingRecorder} implementation that keeps a {@link LatencyHistogram}
+ * per category as well as per operation name within each category, measuring
+ * durations via <code>System.nanoTime()</code>. Recording is lock-free.
+ *
+ * <p>The number of distinct operation names per category is limited through the
+ * {@link #setMaxNamesPerCategory "maxNamesPerCategory"} property, keeping memory
+ * consumption bounded in case of dynamically generated SQL. Further names will
+ * only be reflected in the category histogram.
+ *
+ * <p>Designed to be exported through Spring's
+ * {@link org.springframework.jmx.export.MBeanExporter} as-is: all statistics
+ * are available through simple getters and operations, with durations
+ * converted to milliseconds.
+ *
+ * @since 2.5.7
+ * @see org.springframework.transaction.support.AbstractPlatformTransactionManager#setTimingRecorder
+ * @see org.springframework.jdbc.core.JdbcTemplate#setTimingRecorder
+ */
+public class HistogramTimingRecorder implements TimingRecorder {
+
+	private static final double NANOS_PER_MILLI = 1000000d;
+
+
+	private volatile int maxNamesPerCategory = 500;
+
+	private final ConcurrentMap<String, CategoryTimings> categories = new ConcurrentHashMap<String, CategoryTimings>();
+
+
+	/**
+	 * Specify the maximum number of distinct operation names to keep
+	 * a separate histogram for, per category. Default is 500.
+	 */
+	public void setMaxNamesPerCategory(int maxNamesPerCategory) {
+		this.maxNamesPerCategory = maxNamesPerCategory;
+	}
+
+	/**
+	 * Return the maximum number of distinct operation names per category.
+	 */
+	public int getMaxNamesPerCategory() {
+		return this.maxNamesPerCategory;
+	}
+
+
+	public long startTime() {
+		return System.nanoTime();
+	}
+
+	public void record(String category, String name, long startTime) {
+		long duration = System.nanoTime() - startTime;
+		CategoryTimings timings = this.categories.get(category);
+		if (timings == null) {
+			timings = new CategoryTimings();
+			CategoryTimings existing = this.categories.putIfAbsent(category, timings);
+			if (existing != null) {
+				timings = existing;
+			}
+		}
+		timings.histogram.record(duration);
+		if (name != null) {
+			LatencyHistogram histogram = timings.histogramsByName.get(name);
+			if (histogram == null && timings.histogramsByName.size() < this.maxNamesPerCategory) {
+				histogram = new LatencyHistogram();
+				LatencyHistogram existing = timings.histogramsByName.putIfAbsent(name, histogram);
+				if (existing != null) {
+					histogram = existing;
+				}
+			}
+			if (histogram != null) {
+				histogram.record(duration);
+			}
+		}
+	}
+
+
+	/**
+	 * Return the histogram for the given category.
+	 * @param category the category of operation
+	 * @return the histogram (with durations in nanoseconds),
+	 * or <code>null</code> if no operation has been recorded for the category
+	 */
+	public LatencyHistogram getHistogram(String category) {
+		CategoryTimings timings = this.categories.get(category);
+		return (timings != null ? timings.histogram : null);
+	}
+
+	/**
+	 * Return the histogram for the given operation name within the given category.
+	 * @param category the category of operation
+	 * @param name the name of the operation
+	 * @return the histogram (with durations in nanoseconds),
+	 * or <code>null</code> if no such operation has been recorded
+	 */
+	public LatencyHistogram getHistogram(String category, String name) {
+		CategoryTimings timings = this.categories.get(category);
+		return (timings != null ? timings.histogramsByName.get(name) : null);
+	}
+
+	/**
+	 * Return the categories recorded so far, in alphabetical order.
+	 */
+	public String[] getCategories() {
+		String[] categories = this.categories.keySet().toArray(new String[this.categories.size()]);
+		Arrays.sort(categories);
+		return categories;
+	}
+
+	/**
+	 * Return the number of operations recorded for the given category.
+	 */
+	public long getCount(String category) {
+		LatencyHistogram histogram = getHistogram(category);
+		return (histogram != null ? histogram.getCount() : 0);
+	}
+
+	/**
+	 * Return the mean duration of the operations in the given category, in milliseconds.
+	 */
+	public double getMeanMillis(String category) {
+		LatencyHistogram histogram = getHistogram(category);
+		return (histogram != null ? histogram.getMean() / NANOS_PER_MILLI : 0);
+	}
+
+	/**
+	 * Return the duration at the given percentile for the given category, in milliseconds.
+	 * @param category the category of operation
+	 * @param percentile the percentile, between 0 and 100 (e.g. 99.9)
+	 */
+	public double getPercentileMillis(String category, double percentile) {
+		LatencyHistogram histogram = getHistogram(category);
+		return (histogram != null ? histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI : 0);
+	}
+
+	/**
+	 * Return the maximum duration recorded for the given category, in milliseconds.
+	 */
+	public double getMaxMillis(String category) {
+		LatencyHistogram histogram = getHistogram(category);
+		return (histogram != null ? histogram.getMax() / NANOS_PER_MILLI : 0);
+	}
+
+	/**
+	 * Return a summary line for each category, in alphabetical order.
+	 */
+	public String[] getSummaries() {
+		String[] categories = getCategories();
+		String[] summaries = new String[categories.length];
+		for (int i = 0; i < categories.length; i++) {
+			summaries[i] = summarize(categories[i], getHistogram(categories[i]));
+		}
+		return summaries;
+	}
+
+	/**
+	 * Return a summary line for each operation name within the given category,
+	 * ordered by total time spent (highest first).
+	 */
+	public String[] getNameSummaries(String category) {
+		CategoryTimings timings = this.categories.get(category);
+		if (timings == null) {
+			return new String[0];
+		}
+		List<Map.Entry<String, LatencyHistogram>> entries =
+				new ArrayList<Map.Entry<String, LatencyHistogram>>(timings.histogramsByName.entrySet());
+		Collections.sort(entries, new Comparator<Map.Entry<String, LatencyHistogram>>() {
+			public int compare(Map.Entry<String, LatencyHistogram> e1, Map.Entry<String, LatencyHistogram> e2) {
+				long total1 = e1.getValue().getTotal();
+				long total2 = e2.getValue().getTotal();
+				return (total1 > total2 ? -1 : (total1 < total2 ? 1 : 0));
+			}
+		});
+		String[] summaries = new String[entries.size()];
+		for (int i = 0; i < summaries.length; i++) {
+			Map.Entry<String, LatencyHistogram> entry = entries.get(i);
+			summaries[i] = summarize(entry.getKey(), entry.getValue());
+		}
+		return summaries;
+	}
+
+	/**
+	 * Reset all statistics recorded so far.
+	 */
+	public void reset() {
+		this.categories.clear();
+	}
+
+	private String summarize(String key, LatencyHistogram histogram) {
+		return String.format("%s: count=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, p99.9=%.3fms, max=%.3fms",
+				key, histogram.getCount(), histogram.getMean() / NANOS_PER_MILLI,
+				histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+				histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+				histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+				histogram.getMax() / NANOS_PER_MILLI);
+	}
+
+
+	/**
+	 * Histograms for a specific category.
+	 */
+	private static class CategoryTimings {
+
+		public final LatencyHistogram histogram = new LatencyHistogram();
+
+		public final ConcurrentMap<String, LatencyHistogram> histogramsByName =
+				new ConcurrentHashMap<String, LatencyHistogram>();
+	}
+
+}
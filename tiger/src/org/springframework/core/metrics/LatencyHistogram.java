@@ -0,0 +1,223 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory histogram of non-negative long values such as latencies,
+ * with log-linear buckets: each power-of-two range is split into 8 linear
+ * sub-buckets, bounding the relative error of reported percentiles to 6.25%.
+ * Values up to 2^40 (about 18 minutes in nanoseconds) are distinguished;
+ * larger values are counted in the highest bucket.
+ *
+ * <p>Recording is lock-free, based on atomic counters: a single bucket
+ * increment plus a running total, with minimum and maximum being updated
+ * only when exceeded. Read operations are meant for monitoring purposes and
+ * iterate over all buckets; they may observe concurrently recorded values
+ * only partially.
+ *
+ * @since 2.5.7
+ * @see HistogramTimingRecorder
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int MAX_EXPONENT = 40;
+
+	private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	private final AtomicLong total = new AtomicLong();
+
+	private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+	private final AtomicLong max = new AtomicLong();
+
+
+	/**
+	 * Record the given value. Negative values are recorded as 0.
+	 * @param value the value to record (e.g. a duration in nanoseconds)
+	 */
+	public void record(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		this.buckets.incrementAndGet(bucketIndex(value));
+		this.total.addAndGet(value);
+		updateMin(value);
+		updateMax(value);
+	}
+
+	/**
+	 * Add all values recorded by the given histogram to this histogram,
+	 * for example to merge several histograms for reporting purposes.
+	 * @param other the histogram to add values from
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			long count = other.buckets.get(i);
+			if (count != 0) {
+				this.buckets.addAndGet(i, count);
+			}
+		}
+		this.total.addAndGet(other.total.get());
+		updateMin(other.min.get());
+		updateMax(other.max.get());
+	}
+
+	/**
+	 * Return the number of values recorded so far.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += this.buckets.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Return the sum of all values recorded so far.
+	 */
+	public long getTotal() {
+		return this.total.get();
+	}
+
+	/**
+	 * Return the lowest value recorded so far, or 0 if none.
+	 */
+	public long getMin() {
+		long min = this.min.get();
+		return (min != Long.MAX_VALUE ? min : 0);
+	}
+
+	/**
+	 * Return the highest value recorded so far.
+	 */
+	public long getMax() {
+		return this.max.get();
+	}
+
+	/**
+	 * Return the mean of all values recorded so far, or 0 if none.
+	 */
+	public double getMean() {
+		long count = getCount();
+		return (count > 0 ? (double) getTotal() / count : 0);
+	}
+
+	/**
+	 * Return the value at the given percentile, approximated by the middle
+	 * of the corresponding bucket (but never exceeding the maximum value).
+	 * @param percentile the percentile, between 0 and 100 (e.g. 99.9)
+	 * @return the approximate value at the given percentile, or 0 if none recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+		long[] counts = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts[i] = this.buckets.get(i);
+			count += counts[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(bucketMiddle(i), getMax());
+			}
+		}
+		return getMax();
+	}
+
+	/**
+	 * Reset this histogram. Values recorded concurrently may or may not be retained.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			this.buckets.set(i, 0);
+		}
+		this.total.set(0);
+		this.min.set(Long.MAX_VALUE);
+		this.max.set(0);
+	}
+
+
+	private void updateMin(long value) {
+		long currentMin = this.min.get();
+		while (value < currentMin && !this.min.compareAndSet(currentMin, value)) {
+			currentMin = this.min.get();
+		}
+	}
+
+	private void updateMax(long value) {
+		long currentMax = this.max.get();
+		while (value > currentMax && !this.max.compareAndSet(currentMax, value)) {
+			currentMax = this.max.get();
+		}
+	}
+
+
+	/**
+	 * Determine the bucket for the given non-negative value.
+	 */
+	private static int bucketIndex(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent >= MAX_EXPONENT) {
+			return BUCKET_COUNT - 1;
+		}
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+		return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+	}
+
+	/**
+	 * Determine the middle of the value range covered by the given bucket.
+	 */
+	private static long bucketMiddle(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+		int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+		long lowerBound = ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+		return lowerBound + ((1L << shift) >> 1);
+	}
+
+
+	public String toString() {
+		return "LatencyHistogram: count=" + getCount() + ", mean=" + getMean() + ", p50=" +
+				getValueAtPercentile(50) + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax();
+	}
+
+}
@@ -41,8 +41,11 @@ import org.springframework.jdbc.core.BeanPropertyRowMapper;
  * <p>To facilitate mapping between columns and fields that don't have matching names,
  * try using column aliases in the SQL statement like "select fname as first_name from customer".
  *
- * <p>Please note that this class is designed to provide convenience rather than high performance.
- * For best performance consider using a custom RowMapper.
+ * <p>The result set metadata gets evaluated once per ResultSet, building a plan of
+ * column indexes and corresponding bean properties that all rows get mapped with
+ * (see {@link BeanPropertyRowMapper}). Nevertheless, this class is designed to provide
+ * convenience rather than high performance. For best performance consider using
+ * a custom RowMapper.
  *
  * @author Thomas Risberg
  * @author Juergen Hoeller
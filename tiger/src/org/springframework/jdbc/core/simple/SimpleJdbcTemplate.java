@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2007 the original author or authors.
+ * Copyright 2002-2008 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,8 @@ package org.springframework.jdbc.core.simple;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -25,7 +27,9 @@ import javax.sql.DataSource;
 
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ItemPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.SqlParameterValue;
 import org.springframework.jdbc.core.SqlTypeValue;
 import org.springframework.jdbc.core.StatementCreatorUtils;
@@ -35,6 +39,7 @@ import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
 import org.springframework.jdbc.core.namedparam.ParsedSql;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 
 /**
@@ -261,6 +266,41 @@ public class SimpleJdbcTemplate implements SimpleJdbcOperations {
 		return doExecuteBatchUpdateWithNamedParameters(sql, batchArgs);
 	}
 
+	/**
+	 * Execute a batch using the supplied SQL statement with the batch of
+	 * supplied arguments, submitting chunks of the given size.
+	 * <p>The arguments are read on demand, so the given Iterable may provide
+	 * an arbitrary number of argument arrays without holding them in memory.
+	 * If the underlying JdbcOperations object is a JdbcTemplate, chunks may
+	 * get executed in parallel according to its "batchUpdateExecutor".
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the source of argument arrays, one per statement
+	 * @param chunkSize the maximum number of statements per batch
+	 * @return an array with one element per chunk, each being an array
+	 * containing the numbers of rows affected by each update in the chunk
+	 * @see org.springframework.jdbc.core.JdbcTemplate#batchUpdate(String, java.util.Iterator, int, ItemPreparedStatementSetter)
+	 * @see org.springframework.jdbc.core.JdbcTemplate#setBatchUpdateExecutor
+	 */
+	public int[][] batchUpdate(String sql, Iterable<Object[]> batchArgs, int chunkSize) {
+		return doExecuteChunkedBatchUpdate(sql, batchArgs, new int[0], chunkSize);
+	}
+
+	/**
+	 * Execute a batch using the supplied SQL statement with the batch of
+	 * supplied arguments, submitting chunks of the given size.
+	 * @param sql the SQL statement to execute
+	 * @param batchArgs the source of argument arrays, one per statement
+	 * @param argTypes SQL types of the arguments
+	 * (constants from <code>java.sql.Types</code>)
+	 * @param chunkSize the maximum number of statements per batch
+	 * @return an array with one element per chunk, each being an array
+	 * containing the numbers of rows affected by each update in the chunk
+	 * @see #batchUpdate(String, Iterable, int)
+	 */
+	public int[][] batchUpdate(String sql, Iterable<Object[]> batchArgs, int[] argTypes, int chunkSize) {
+		return doExecuteChunkedBatchUpdate(sql, batchArgs, argTypes, chunkSize);
+	}
+
 
 	private int[] doExecuteBatchUpdate(String sql, final List<Object[]> batchValues, final int[] columnTypes) {
 		return getJdbcOperations().batchUpdate(
@@ -278,6 +318,31 @@ public class SimpleJdbcTemplate implements SimpleJdbcOperations {
 				});
 	}
 
+	private int[][] doExecuteChunkedBatchUpdate(
+			String sql, Iterable<Object[]> batchArgs, final int[] columnTypes, int chunkSize) {
+
+		Assert.isTrue(chunkSize > 0, "Chunk size must be greater than 0");
+		Iterator<Object[]> it = batchArgs.iterator();
+		JdbcOperations jdbcOperations = getJdbcOperations();
+		if (jdbcOperations instanceof JdbcTemplate) {
+			return ((JdbcTemplate) jdbcOperations).batchUpdate(sql, it, chunkSize,
+					new ItemPreparedStatementSetter() {
+						public void setValues(PreparedStatement ps, Object item) throws SQLException {
+							doSetStatementParameters((Object[]) item, ps, columnTypes);
+						}
+					});
+		}
+		List<int[]> rowsAffected = new ArrayList<int[]>();
+		while (it.hasNext()) {
+			List<Object[]> chunk = new ArrayList<Object[]>(chunkSize);
+			while (chunk.size() < chunkSize && it.hasNext()) {
+				chunk.add(it.next());
+			}
+			rowsAffected.add(doExecuteBatchUpdate(sql, chunk, columnTypes));
+		}
+		return rowsAffected.toArray(new int[rowsAffected.size()][]);
+	}
+
 	private int[] doExecuteBatchUpdateWithNamedParameters(String sql, final SqlParameterSource[] batchArgs) {
 		if (batchArgs.length <= 0) {
 			return new int[] {0};
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.metrics.LatencyHistogram;
+import org.springframework.core.metrics.TimingRecorder;
+
+/**
+ * Lock-free implementation of the {@link PercentileResponseTimeMonitor}
+ * interface, recording response times into fixed-memory
+ * {@link LatencyHistogram LatencyHistograms}.
+ *
+ * <p>Response times are recorded into a ring of time slots, each covering
+ * a fraction of the recent time window. Each slot is striped across a small
+ * number of histograms, selected by thread, in order to reduce contention
+ * between concurrently recording threads. When a slot gets reused for a new
+ * interval, its content is transferred to the overall statistics. The recent
+ * time window thus advances in steps of the slot length; statistics for it
+ * cover between <code>slotCount - 1</code> and <code>slotCount</code> slots.
+ *
+ * <p>Statistics are approximate: percentiles are accurate to about 6%, and
+ * response times recorded concurrently with a slot transition may occasionally
+ * be lost.
+ *
+ * <p>Also implements the {@link TimingRecorder} interface, measuring in
+ * milliseconds, so that it can be plugged into any component that reports
+ * operation timings, e.g. a transaction manager or a JdbcTemplate. All
+ * recorded operations contribute to the same statistics, regardless of their
+ * category; use separate monitors for separate statistics.
+ *
+ * @since 2.5.7
+ * @see #recordResponseTime
+ * @see org.springframework.transaction.support.AbstractPlatformTransactionManager#setTimingRecorder
+ * @see org.springframework.jdbc.core.JdbcTemplate#setTimingRecorder
+ */
+public class ConcurrentResponseTimeMonitor implements PercentileResponseTimeMonitor, TimingRecorder {
+
+	/** Default length of the recent time window: one minute */
+	public static final long DEFAULT_WINDOW_MILLIS = 60000;
+
+	/** Default number of time slots that the recent time window is divided into */
+	public static final int DEFAULT_SLOT_COUNT = 6;
+
+	private static final int MAX_STRIPE_COUNT = 4;
+
+
+	private final long windowMillis;
+
+	private final long slotMillis;
+
+	private final TimeSlot[] slots;
+
+	private final int stripeMask;
+
+	/** Histogram for response times that have been transferred from expired time slots */
+	private final LatencyHistogram expiredHistogram = new LatencyHistogram();
+
+
+	/**
+	 * Create a new ConcurrentResponseTimeMonitor with a recent time window
+	 * of one minute, divided into 6 slots.
+	 */
+	public ConcurrentResponseTimeMonitor() {
+		this(DEFAULT_WINDOW_MILLIS, DEFAULT_SLOT_COUNT);
+	}
+
+	/**
+	 * Create a new ConcurrentResponseTimeMonitor.
+	 * @param windowMillis the length of the recent time window in milliseconds
+	 * @param slotCount the number of time slots that the recent time window
+	 * is divided into (determining the granularity of the window)
+	 */
+	public ConcurrentResponseTimeMonitor(long windowMillis, int slotCount) {
+		Assert.isTrue(slotCount > 0, "Slot count must be greater than 0");
+		Assert.isTrue(windowMillis >= slotCount, "Window must be at least one millisecond per slot");
+		this.windowMillis = windowMillis;
+		this.slotMillis = windowMillis / slotCount;
+		int stripeCount = 1;
+		int processors = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPE_COUNT);
+		while (stripeCount < processors) {
+			stripeCount <<= 1;
+		}
+		this.stripeMask = stripeCount - 1;
+		this.slots = new TimeSlot[slotCount];
+		for (int i = 0; i < slotCount; i++) {
+			this.slots[i] = new TimeSlot(stripeCount);
+		}
+	}
+
+
+	/**
+	 * Record the given response time, without any synchronization.
+	 * @param responseTimeMillis the response time of this request
+	 */
+	public void recordResponseTime(long responseTimeMillis) {
+		long slotIndex = System.currentTimeMillis() / this.slotMillis;
+		TimeSlot slot = this.slots[(int) (slotIndex % this.slots.length)];
+		long currentIndex = slot.index.get();
+		if (currentIndex < slotIndex && slot.index.compareAndSet(currentIndex, slotIndex)) {
+			for (LatencyHistogram stripe : slot.stripes) {
+				this.expiredHistogram.add(stripe);
+				stripe.reset();
+			}
+		}
+		slot.stripes[(int) Thread.currentThread().getId() & this.stripeMask].record(responseTimeMillis);
+	}
+
+	public long startTime() {
+		return System.currentTimeMillis();
+	}
+
+	public void record(String category, String name, long startTime) {
+		recordResponseTime(System.currentTimeMillis() - startTime);
+	}
+
+	public int getAccessCount() {
+		return (int) getHistogram(false).getCount();
+	}
+
+	public int getAverageResponseTimeMillis() {
+		return (int) getHistogram(false).getMean();
+	}
+
+	public int getBestResponseTimeMillis() {
+		LatencyHistogram histogram = getHistogram(false);
+		return (histogram.getCount() > 0 ? (int) histogram.getMin() : Integer.MAX_VALUE);
+	}
+
+	public int getWorstResponseTimeMillis() {
+		LatencyHistogram histogram = getHistogram(false);
+		return (histogram.getCount() > 0 ? (int) histogram.getMax() : Integer.MIN_VALUE);
+	}
+
+	public int getPercentileResponseTimeMillis(double percentile) {
+		return (int) getHistogram(false).getValueAtPercentile(percentile);
+	}
+
+	public int getMedianResponseTimeMillis() {
+		return getPercentileResponseTimeMillis(50);
+	}
+
+	public int getP99ResponseTimeMillis() {
+		return getPercentileResponseTimeMillis(99);
+	}
+
+	public int getP999ResponseTimeMillis() {
+		return getPercentileResponseTimeMillis(99.9);
+	}
+
+	public long getWindowMillis() {
+		return this.windowMillis;
+	}
+
+	public int getRecentAccessCount() {
+		return (int) getHistogram(true).getCount();
+	}
+
+	public int getRecentAverageResponseTimeMillis() {
+		return (int) getHistogram(true).getMean();
+	}
+
+	public int getRecentPercentileResponseTimeMillis(double percentile) {
+		return (int) getHistogram(true).getValueAtPercentile(percentile);
+	}
+
+	public int getRecentP99ResponseTimeMillis() {
+		return getRecentPercentileResponseTimeMillis(99);
+	}
+
+	public void reset() {
+		for (TimeSlot slot : this.slots) {
+			for (LatencyHistogram stripe : slot.stripes) {
+				stripe.reset();
+			}
+		}
+		this.expiredHistogram.reset();
+	}
+
+	/**
+	 * Return a merged histogram for either the overall statistics
+	 * or the statistics within the recent time window.
+	 * @param recentOnly whether to include the recent time window only
+	 * @return a new histogram with response times in milliseconds
+	 */
+	protected LatencyHistogram getHistogram(boolean recentOnly) {
+		LatencyHistogram merged = new LatencyHistogram();
+		long oldestSlotIndex = System.currentTimeMillis() / this.slotMillis - this.slots.length;
+		for (TimeSlot slot : this.slots) {
+			if (!recentOnly || slot.index.get() > oldestSlotIndex) {
+				for (LatencyHistogram stripe : slot.stripes) {
+					merged.add(stripe);
+				}
+			}
+		}
+		if (!recentOnly) {
+			merged.add(this.expiredHistogram);
+		}
+		return merged;
+	}
+
+
+	public String toString() {
+		LatencyHistogram histogram = getHistogram(false);
+		StringBuffer sb = new StringBuffer();
+		sb.append("hits=[").append(histogram.getCount()).append("]; ");
+		sb.append("average=[").append((long) histogram.getMean()).append("ms]; ");
+		sb.append("best=[").append(histogram.getMin()).append("ms]; ");
+		sb.append("worst=[").append(histogram.getMax()).append("ms]; ");
+		sb.append("p50=[").append(histogram.getValueAtPercentile(50)).append("ms]; ");
+		sb.append("p99=[").append(histogram.getValueAtPercentile(99)).append("ms]; ");
+		sb.append("p99.9=[").append(histogram.getValueAtPercentile(99.9)).append("ms]");
+		return sb.toString();
+	}
+
+
+	/**
+	 * Striped histograms for a time slot within the recent time window.
+	 */
+	private static class TimeSlot {
+
+		public final AtomicLong index = new AtomicLong(-1);
+
+		public final LatencyHistogram[] stripes;
+
+		public TimeSlot(int stripeCount) {
+			this.stripes = new LatencyHistogram[stripeCount];
+			for (int i = 0; i < stripeCount; i++) {
+				this.stripes[i] = new LatencyHistogram();
+			}
+		}
+	}
+
+}
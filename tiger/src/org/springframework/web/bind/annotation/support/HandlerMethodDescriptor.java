@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.bind.annotation.support;
+
+import java.lang.reflect.Method;
+
+import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Pre-resolved invocation metadata for a handler method, init-binder method
+ * or model attribute method: the bridged method to invoke, its fully resolved
+ * method parameters and the values of its web annotations.
+ *
+ * <p>Built once per method by {@link HandlerMethodResolver#getMethodDescriptor},
+ * so that {@link HandlerMethodInvoker} does not have to introspect parameter
+ * annotations and generic parameter types on every request. Immutable once built:
+ * each invocation obtains its own copies of the resolved MethodParameter objects,
+ * since argument resolution may change their nesting level.
+ *
+ * @since 2.5.7
+ */
+class HandlerMethodDescriptor {
+
+	private final Method method;
+
+	private final Class[] parameterTypes;
+
+	private final MethodParameter[] methodParameters;
+
+	private final String[] requestParamNames;
+
+	private final boolean[] requestParamsRequired;
+
+	private final String[] modelAttributeNames;
+
+	private final String modelAttributeName;
+
+	private final String[] initBinderTargetNames;
+
+
+	/**
+	 * Create a new HandlerMethodDescriptor for the given method.
+	 * @param method the method as found on the handler type
+	 * @param handlerType the handler type to resolve generic parameter types against
+	 * @param parameterNameDiscoverer the ParameterNameDiscoverer to use for resolving
+	 * method parameter names (may be <code>null</code>)
+	 */
+	public HandlerMethodDescriptor(Method method, Class handlerType, ParameterNameDiscoverer parameterNameDiscoverer) {
+		this.method = BridgeMethodResolver.findBridgedMethod(method);
+		this.parameterTypes = this.method.getParameterTypes();
+		int paramCount = this.parameterTypes.length;
+		this.methodParameters = new MethodParameter[paramCount];
+		this.requestParamNames = new String[paramCount];
+		this.requestParamsRequired = new boolean[paramCount];
+		this.modelAttributeNames = new String[paramCount];
+
+		for (int i = 0; i < paramCount; i++) {
+			MethodParameter methodParam = new MethodParameter(this.method, i);
+			methodParam.initParameterNameDiscovery(parameterNameDiscoverer);
+			GenericTypeResolver.resolveParameterType(methodParam, handlerType);
+			// Resolve the parameter name right away, for all copies to share.
+			methodParam.getParameterName();
+			this.methodParameters[i] = methodParam;
+			Object[] paramAnns = methodParam.getParameterAnnotations();
+			for (int j = 0; j < paramAnns.length; j++) {
+				Object paramAnn = paramAnns[j];
+				if (RequestParam.class.isInstance(paramAnn)) {
+					RequestParam requestParam = (RequestParam) paramAnn;
+					this.requestParamNames[i] = requestParam.value();
+					this.requestParamsRequired[i] = requestParam.required();
+					break;
+				}
+				else if (ModelAttribute.class.isInstance(paramAnn)) {
+					ModelAttribute attr = (ModelAttribute) paramAnn;
+					this.modelAttributeNames[i] = attr.value();
+				}
+			}
+		}
+
+		ModelAttribute attr = AnnotationUtils.findAnnotation(this.method, ModelAttribute.class);
+		this.modelAttributeName = (attr != null ? attr.value() : null);
+		InitBinder initBinder = AnnotationUtils.findAnnotation(this.method, InitBinder.class);
+		this.initBinderTargetNames = (initBinder != null ? initBinder.value() : null);
+	}
+
+
+	/**
+	 * Return the method to invoke (with bridge methods resolved).
+	 */
+	public Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return the number of method parameters.
+	 */
+	public int getParameterCount() {
+		return this.parameterTypes.length;
+	}
+
+	/**
+	 * Return the declared type of the specified method parameter.
+	 */
+	public Class getParameterType(int index) {
+		return this.parameterTypes[index];
+	}
+
+	/**
+	 * Return a new MethodParameter for the specified index, carrying the
+	 * resolved parameter type and name. To be used for a single invocation.
+	 */
+	public MethodParameter getMethodParameter(int index) {
+		return new MethodParameter(this.methodParameters[index]);
+	}
+
+	/**
+	 * Return the <code>@RequestParam</code> name for the specified method parameter,
+	 * or <code>null</code> if not annotated with <code>@RequestParam</code>.
+	 */
+	public String getRequestParamName(int index) {
+		return this.requestParamNames[index];
+	}
+
+	/**
+	 * Return whether the <code>@RequestParam</code> on the specified
+	 * method parameter is marked as required.
+	 */
+	public boolean isRequestParamRequired(int index) {
+		return this.requestParamsRequired[index];
+	}
+
+	/**
+	 * Return the <code>@ModelAttribute</code> name for the specified method parameter,
+	 * or <code>null</code> if not annotated with <code>@ModelAttribute</code>
+	 * (before any <code>@RequestParam</code> annotation).
+	 */
+	public String getModelAttributeName(int index) {
+		return this.modelAttributeNames[index];
+	}
+
+	/**
+	 * Return the method-level <code>@ModelAttribute</code> name,
+	 * or <code>null</code> if the method is not annotated with it.
+	 */
+	public String getModelAttributeName() {
+		return this.modelAttributeName;
+	}
+
+	/**
+	 * Determine whether this <code>@InitBinder</code> method applies
+	 * to the given attribute name.
+	 */
+	public boolean isInitBinderTarget(String attrName) {
+		if (this.initBinderTargetNames == null) {
+			return false;
+		}
+		if (this.initBinderTargetNames.length == 0) {
+			return true;
+		}
+		for (String targetName : this.initBinderTargetNames) {
+			if (targetName.equals(attrName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
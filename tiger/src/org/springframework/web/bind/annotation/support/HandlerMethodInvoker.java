@@ -18,7 +18,6 @@ package org.springframework.web.bind.annotation.support;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
@@ -28,12 +27,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.BeanUtils;
-import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.Conventions;
 import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.ui.ExtendedModelMap;
 import org.springframework.ui.Model;
 import org.springframework.util.ClassUtils;
@@ -41,9 +38,6 @@ import org.springframework.util.ReflectionUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.WebDataBinder;
-import org.springframework.web.bind.annotation.InitBinder;
-import org.springframework.web.bind.annotation.ModelAttribute;
-import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.support.DefaultSessionAttributeStore;
 import org.springframework.web.bind.support.SessionAttributeStore;
 import org.springframework.web.bind.support.SessionStatus;
@@ -112,68 +106,54 @@ public class HandlerMethodInvoker {
 			Method handlerMethod, Object handler, NativeWebRequest webRequest, ExtendedModelMap implicitModel)
 			throws Exception {
 
-		Method handlerMethodToInvoke = BridgeMethodResolver.findBridgedMethod(handlerMethod);
+		HandlerMethodDescriptor handlerMethodToInvoke = getMethodDescriptor(handlerMethod, handler);
 		try {
 			boolean debug = logger.isDebugEnabled();
 			for (Method attributeMethod : this.methodResolver.getModelAttributeMethods()) {
-				Method attributeMethodToInvoke = BridgeMethodResolver.findBridgedMethod(attributeMethod);
+				HandlerMethodDescriptor attributeMethodToInvoke = getMethodDescriptor(attributeMethod, handler);
 				Object[] args = resolveHandlerArguments(attributeMethodToInvoke, handler, webRequest, implicitModel);
 				if (debug) {
-					logger.debug("Invoking model attribute method: " + attributeMethodToInvoke);
+					logger.debug("Invoking model attribute method: " + attributeMethodToInvoke.getMethod());
 				}
-				Object attrValue = doInvokeMethod(attributeMethodToInvoke, handler, args);
-				String attrName = AnnotationUtils.findAnnotation(attributeMethodToInvoke, ModelAttribute.class).value();
+				Object attrValue = doInvokeMethod(attributeMethodToInvoke.getMethod(), handler, args);
+				String attrName = attributeMethodToInvoke.getModelAttributeName();
 				if ("".equals(attrName)) {
-					Class resolvedType = GenericTypeResolver.resolveReturnType(attributeMethodToInvoke, handler.getClass());
-					attrName = Conventions.getVariableNameForReturnType(attributeMethodToInvoke, resolvedType, attrValue);
+					Method method = attributeMethodToInvoke.getMethod();
+					Class resolvedType = GenericTypeResolver.resolveReturnType(method, handler.getClass());
+					attrName = Conventions.getVariableNameForReturnType(method, resolvedType, attrValue);
 				}
 				implicitModel.addAttribute(attrName, attrValue);
 			}
 			Object[] args = resolveHandlerArguments(handlerMethodToInvoke, handler, webRequest, implicitModel);
 			if (debug) {
-				logger.debug("Invoking request handler method: " + handlerMethodToInvoke);
+				logger.debug("Invoking request handler method: " + handlerMethodToInvoke.getMethod());
 			}
-			return doInvokeMethod(handlerMethodToInvoke, handler, args);
+			return doInvokeMethod(handlerMethodToInvoke.getMethod(), handler, args);
 		}
 		catch (IllegalStateException ex) {
 			// Throw exception with full handler method context...
-			throw new HandlerMethodInvocationException(handlerMethodToInvoke, ex);
+			throw new HandlerMethodInvocationException(handlerMethodToInvoke.getMethod(), ex);
 		}
 	}
 
+	private HandlerMethodDescriptor getMethodDescriptor(Method method, Object handler) {
+		return this.methodResolver.getMethodDescriptor(method, handler.getClass(), this.parameterNameDiscoverer);
+	}
+
 	@SuppressWarnings("unchecked")
-	private Object[] resolveHandlerArguments(
-			Method handlerMethod, Object handler, NativeWebRequest webRequest, ExtendedModelMap implicitModel)
-			throws Exception {
+	private Object[] resolveHandlerArguments(HandlerMethodDescriptor handlerMethod, Object handler,
+			NativeWebRequest webRequest, ExtendedModelMap implicitModel) throws Exception {
 
-		Class[] paramTypes = handlerMethod.getParameterTypes();
-		Object[] args = new Object[paramTypes.length];
+		Object[] args = new Object[handlerMethod.getParameterCount()];
 
 		for (int i = 0; i < args.length; i++) {
-			MethodParameter methodParam = new MethodParameter(handlerMethod, i);
-			methodParam.initParameterNameDiscovery(this.parameterNameDiscoverer);
-			GenericTypeResolver.resolveParameterType(methodParam, handler.getClass());
-			String paramName = null;
-			boolean paramRequired = false;
-			String attrName = null;
-			Object[] paramAnns = methodParam.getParameterAnnotations();
-
-			for (int j = 0; j < paramAnns.length; j++) {
-				Object paramAnn = paramAnns[j];
-				if (RequestParam.class.isInstance(paramAnn)) {
-					RequestParam requestParam = (RequestParam) paramAnn;
-					paramName = requestParam.value();
-					paramRequired = requestParam.required();
-					break;
-				}
-				else if (ModelAttribute.class.isInstance(paramAnn)) {
-					ModelAttribute attr = (ModelAttribute) paramAnn;
-					attrName = attr.value();
-				}
-			}
+			MethodParameter methodParam = handlerMethod.getMethodParameter(i);
+			String paramName = handlerMethod.getRequestParamName(i);
+			boolean paramRequired = handlerMethod.isRequestParamRequired(i);
+			String attrName = handlerMethod.getModelAttributeName(i);
 			if (paramName != null && attrName != null) {
 				throw new IllegalStateException("@RequestParam and @ModelAttribute are an exclusive choice -" +
-						"do not specify both on the same parameter: " + handlerMethod);
+						"do not specify both on the same parameter: " + handlerMethod.getMethod());
 			}
 
 			Class paramType = methodParam.getParameterType();
@@ -208,7 +188,8 @@ public class HandlerMethodInvoker {
 			}
 			else if (attrName != null) {
 				WebDataBinder binder = resolveModelAttribute(attrName, methodParam, implicitModel, webRequest, handler);
-				boolean assignBindingResult = (args.length > i + 1 && Errors.class.isAssignableFrom(paramTypes[i + 1]));
+				boolean assignBindingResult =
+						(args.length > i + 1 && Errors.class.isAssignableFrom(handlerMethod.getParameterType(i + 1)));
 				if (binder.getTarget() != null) {
 					doBind(webRequest, binder, !assignBindingResult);
 				}
@@ -235,17 +216,16 @@ public class HandlerMethodInvoker {
 			if (!initBinderMethods.isEmpty()) {
 				boolean debug = logger.isDebugEnabled();
 				for (Method initBinderMethod : initBinderMethods) {
-					Method methodToInvoke = BridgeMethodResolver.findBridgedMethod(initBinderMethod);
-					String[] targetNames = AnnotationUtils.findAnnotation(methodToInvoke, InitBinder.class).value();
-					if (targetNames.length == 0 || Arrays.asList(targetNames).contains(attrName)) {
-						Object[] initBinderArgs = resolveInitBinderArguments(handler, methodToInvoke, binder, webRequest);
+					HandlerMethodDescriptor methodToInvoke = getMethodDescriptor(initBinderMethod, handler);
+					if (methodToInvoke.isInitBinderTarget(attrName)) {
+						Object[] initBinderArgs = resolveInitBinderArguments(methodToInvoke, binder, webRequest);
 						if (debug) {
-							logger.debug("Invoking init-binder method: " + methodToInvoke);
+							logger.debug("Invoking init-binder method: " + methodToInvoke.getMethod());
 						}
-						Object returnValue = doInvokeMethod(methodToInvoke, handler, initBinderArgs);
+						Object returnValue = doInvokeMethod(methodToInvoke.getMethod(), handler, initBinderArgs);
 						if (returnValue != null) {
 							throw new IllegalStateException(
-									"InitBinder methods must not have a return value: " + methodToInvoke);
+									"InitBinder methods must not have a return value: " + methodToInvoke.getMethod());
 						}
 					}
 				}
@@ -253,32 +233,18 @@ public class HandlerMethodInvoker {
 		}
 	}
 
-	private Object[] resolveInitBinderArguments(Object handler, Method initBinderMethod,
+	private Object[] resolveInitBinderArguments(HandlerMethodDescriptor initBinderMethod,
 			WebDataBinder binder, NativeWebRequest webRequest) throws Exception {
 
-		Class[] initBinderParams = initBinderMethod.getParameterTypes();
-		Object[] initBinderArgs = new Object[initBinderParams.length];
+		Object[] initBinderArgs = new Object[initBinderMethod.getParameterCount()];
 
 		for (int i = 0; i < initBinderArgs.length; i++) {
-			MethodParameter methodParam = new MethodParameter(initBinderMethod, i);
-			methodParam.initParameterNameDiscovery(this.parameterNameDiscoverer);
-			GenericTypeResolver.resolveParameterType(methodParam, handler.getClass());
-			String paramName = null;
-			boolean paramRequired = false;
-			Object[] paramAnns = methodParam.getParameterAnnotations();
-
-			for (int j = 0; j < paramAnns.length; j++) {
-				Object paramAnn = paramAnns[j];
-				if (RequestParam.class.isInstance(paramAnn)) {
-					RequestParam requestParam = (RequestParam) paramAnn;
-					paramName = requestParam.value();
-					paramRequired = requestParam.required();
-					break;
-				}
-				else if (ModelAttribute.class.isInstance(paramAnn)) {
-					throw new IllegalStateException(
-							"@ModelAttribute is not supported on @InitBinder methods: " + initBinderMethod);
-				}
+			MethodParameter methodParam = initBinderMethod.getMethodParameter(i);
+			String paramName = initBinderMethod.getRequestParamName(i);
+			boolean paramRequired = initBinderMethod.isRequestParamRequired(i);
+			if (initBinderMethod.getModelAttributeName(i) != null) {
+				throw new IllegalStateException(
+						"@ModelAttribute is not supported on @InitBinder methods: " + initBinderMethod.getMethod());
 			}
 
 			if (paramName == null) {
@@ -287,7 +253,7 @@ public class HandlerMethodInvoker {
 					initBinderArgs[i] = argValue;
 				}
 				else {
-					Class paramType = initBinderParams[i];
+					Class paramType = initBinderMethod.getParameterType(i);
 					if (paramType.isInstance(binder)) {
 						initBinderArgs[i] = binder;
 					}
@@ -296,7 +262,7 @@ public class HandlerMethodInvoker {
 					}
 					else {
 						throw new IllegalStateException("Unsupported argument [" + paramType.getName() +
-								"] for @InitBinder method: " + initBinderMethod);
+								"] for @InitBinder method: " + initBinderMethod.getMethod());
 					}
 				}
 			}
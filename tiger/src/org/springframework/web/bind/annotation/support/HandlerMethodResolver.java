@@ -21,8 +21,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.annotation.InitBinder;
@@ -63,6 +66,9 @@ public class HandlerMethodResolver {
 
 	private final Set<String> actualSessionAttributeNames = Collections.synchronizedSet(new HashSet<String>(4));
 
+	private final Map<Method, HandlerMethodDescriptor> methodDescriptorCache =
+			new ConcurrentHashMap<Method, HandlerMethodDescriptor>();
+
 
 	/**
 	 * Create a new HandlerMethodResolver for the specified handler type.
@@ -134,4 +140,23 @@ public class HandlerMethodResolver {
 		return this.actualSessionAttributeNames;
 	}
 
+	/**
+	 * Obtain the pre-resolved invocation metadata for the given method,
+	 * building it on first access.
+	 * @param method the handler, init-binder or model attribute method
+	 * @param handlerType the actual handler type (for generic type resolution)
+	 * @param parameterNameDiscoverer the ParameterNameDiscoverer to use
+	 * @return the corresponding HandlerMethodDescriptor
+	 */
+	HandlerMethodDescriptor getMethodDescriptor(
+			Method method, Class handlerType, ParameterNameDiscoverer parameterNameDiscoverer) {
+
+		HandlerMethodDescriptor descriptor = this.methodDescriptorCache.get(method);
+		if (descriptor == null) {
+			descriptor = new HandlerMethodDescriptor(method, handlerType, parameterNameDiscoverer);
+			this.methodDescriptorCache.put(method, descriptor);
+		}
+		return descriptor;
+	}
+
 }
@@ -23,9 +23,13 @@ import java.io.Writer;
 import java.lang.reflect.Method;
 import java.security.Principal;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletException;
@@ -118,6 +122,13 @@ public class AnnotationMethodHandlerAdapter extends WebContentGenerator implemen
 	 */
 	protected static final Log pageNotFoundLogger = LogFactory.getLog(PAGE_NOT_FOUND_LOG_CATEGORY);
 
+	/**
+	 * Maximum number of resolved handler methods to cache per handler type,
+	 * protecting against an unbounded variety of lookup paths. Once reached,
+	 * an existing entry gets evicted for each newly resolved method.
+	 */
+	private static final int RESOLVED_METHOD_CACHE_LIMIT = 1024;
+
 	private UrlPathHelper urlPathHelper = new UrlPathHelper();
 
 	private PathMatcher pathMatcher = new AntPathMatcher();
@@ -289,7 +300,7 @@ public class AnnotationMethodHandlerAdapter extends WebContentGenerator implemen
 	public ModelAndView handle(HttpServletRequest request, HttpServletResponse response, Object handler)
 			throws Exception {
 
-		if (handler.getClass().getAnnotation(SessionAttributes.class) != null) {
+		if (getMethodResolver(handler).hasSessionAttributes()) {
 			// Always prevent caching in case of session attribute management.
 			checkAndPrepare(request, response, this.cacheSecondsForSessionAttributeHandlers, true);
 			// Prepare cached set of session attributes names.
@@ -395,15 +406,23 @@ public class AnnotationMethodHandlerAdapter extends WebContentGenerator implemen
 
 	private class ServletHandlerMethodResolver extends HandlerMethodResolver {
 
+		/** Handler Method --> RequestMappingInfo, derived from the annotations once */
+		private final Map<Method, RequestMappingInfo> mappings = new LinkedHashMap<Method, RequestMappingInfo>();
+
+		/** All distinct parameter conditions specified by the mappings */
+		private final String[] paramConditions;
+
+		/** Whether the MethodNameResolver may be involved, preventing caching of resolved methods */
+		private final boolean methodNameResolutionPossible;
+
+		/** Resolution key --> resolved handler Method */
+		private final Map<String, Method> resolvedMethodCache = new ConcurrentHashMap<String, Method>();
+
 		public ServletHandlerMethodResolver(Class<?> handlerType) {
 			super(handlerType);
-		}
-
-		public Method resolveHandlerMethod(HttpServletRequest request) throws ServletException {
-			String lookupPath = urlPathHelper.getLookupPathForRequest(request);
-			Map<RequestMappingInfo, Method> targetHandlerMethods = new LinkedHashMap<RequestMappingInfo, Method>();
-			Map<RequestMappingInfo, String> targetPathMatches = new LinkedHashMap<RequestMappingInfo, String>();
-			String resolvedMethodName = null;
+			Set<String> conditions = new LinkedHashSet<String>();
+			Map<RequestMappingInfo, String> pathlessMethodNames = new HashMap<RequestMappingInfo, String>();
+			boolean methodNameResolutionPossible = false;
 			for (Method handlerMethod : getHandlerMethods()) {
 				RequestMappingInfo mappingInfo = new RequestMappingInfo();
 				RequestMapping mapping = AnnotationUtils.findAnnotation(handlerMethod, RequestMapping.class);
@@ -414,6 +433,65 @@ public class AnnotationMethodHandlerAdapter extends WebContentGenerator implemen
 				if (!hasTypeLevelMapping() || !Arrays.equals(mapping.params(), getTypeLevelMapping().params())) {
 					mappingInfo.params = mapping.params();
 				}
+				conditions.addAll(Arrays.asList(mappingInfo.params));
+				if (mappingInfo.paths.length == 0) {
+					String otherName = pathlessMethodNames.put(mappingInfo, handlerMethod.getName());
+					if (otherName != null && !otherName.equals(handlerMethod.getName())) {
+						methodNameResolutionPossible = true;
+					}
+				}
+				this.mappings.put(handlerMethod, mappingInfo);
+			}
+			this.paramConditions = conditions.toArray(new String[conditions.size()]);
+			this.methodNameResolutionPossible = methodNameResolutionPossible;
+		}
+
+		public Method resolveHandlerMethod(HttpServletRequest request) throws ServletException {
+			String lookupPath = urlPathHelper.getLookupPathForRequest(request);
+			if (this.methodNameResolutionPossible) {
+				// Outcome may depend on arbitrary request state through the MethodNameResolver.
+				return doResolveHandlerMethod(lookupPath, request);
+			}
+			String cacheKey = getResolutionKey(lookupPath, request);
+			Method resolvedMethod = this.resolvedMethodCache.get(cacheKey);
+			if (resolvedMethod == null) {
+				resolvedMethod = doResolveHandlerMethod(lookupPath, request);
+				if (this.resolvedMethodCache.size() >= RESOLVED_METHOD_CACHE_LIMIT) {
+					// Make room by evicting an arbitrary entry, keeping lookups lock-free.
+					Iterator<String> it = this.resolvedMethodCache.keySet().iterator();
+					if (it.hasNext()) {
+						it.next();
+						it.remove();
+					}
+				}
+				this.resolvedMethodCache.put(cacheKey, resolvedMethod);
+			}
+			return resolvedMethod;
+		}
+
+		/**
+		 * Build the key for the resolution cache: The resolved method only depends on
+		 * the lookup path, the HTTP method and the outcome of each parameter condition.
+		 */
+		private String getResolutionKey(String lookupPath, HttpServletRequest request) {
+			StringBuilder key = new StringBuilder(this.paramConditions.length + lookupPath.length() + 8);
+			for (String condition : this.paramConditions) {
+				key.append(ServletAnnotationMappingUtils.checkParameters(new String[] {condition}, request) ? '1' : '0');
+			}
+			return key.append(request.getMethod()).append(' ').append(lookupPath).toString();
+		}
+
+		/**
+		 * Resolve the handler method for the given request,
+		 * evaluating all handler method mappings.
+		 */
+		private Method doResolveHandlerMethod(String lookupPath, HttpServletRequest request) throws ServletException {
+			Map<RequestMappingInfo, Method> targetHandlerMethods = new LinkedHashMap<RequestMappingInfo, Method>();
+			Map<RequestMappingInfo, String> targetPathMatches = new LinkedHashMap<RequestMappingInfo, String>();
+			String resolvedMethodName = null;
+			for (Map.Entry<Method, RequestMappingInfo> entry : this.mappings.entrySet()) {
+				Method handlerMethod = entry.getKey();
+				RequestMappingInfo mappingInfo = entry.getValue();
 				boolean match = false;
 				if (mappingInfo.paths.length > 0) {
 					for (String mappedPath : mappingInfo.paths) {
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import junit.framework.TestCase;
+
+/**
+ * @since 2.5.7
+ */
+public class HistogramTimingRecorderTests extends TestCase {
+
+	public void testRecordPerCategoryAndName() {
+		HistogramTimingRecorder recorder = new HistogramTimingRecorder();
+		recorder.record("jdbc.execute", "select 1", recorder.startTime());
+		recorder.record("jdbc.execute", "select 1", recorder.startTime());
+		recorder.record("jdbc.execute", "select 2", recorder.startTime());
+		recorder.record("jdbc.connection", null, recorder.startTime() - 2000000);
+
+		assertEquals(2, recorder.getCategories().length);
+		assertEquals("jdbc.connection", recorder.getCategories()[0]);
+		assertEquals(3, recorder.getCount("jdbc.execute"));
+		assertEquals(2, recorder.getHistogram("jdbc.execute", "select 1").getCount());
+		assertEquals(1, recorder.getHistogram("jdbc.execute", "select 2").getCount());
+		assertEquals(1, recorder.getCount("jdbc.connection"));
+		assertTrue(recorder.getMaxMillis("jdbc.connection") >= 2);
+		assertTrue(recorder.getPercentileMillis("jdbc.connection", 50) >= 1.8);
+		assertEquals(0, recorder.getCount("transaction.commit"));
+
+		assertEquals(2, recorder.getSummaries().length);
+		assertTrue(recorder.getSummaries()[1].startsWith("jdbc.execute: count=3"));
+		String[] nameSummaries = recorder.getNameSummaries("jdbc.execute");
+		assertEquals(2, nameSummaries.length);
+		assertEquals(0, recorder.getNameSummaries("transaction.commit").length);
+
+		recorder.reset();
+		assertEquals(0, recorder.getCategories().length);
+	}
+
+	public void testMaxNamesPerCategory() {
+		HistogramTimingRecorder recorder = new HistogramTimingRecorder();
+		recorder.setMaxNamesPerCategory(2);
+		for (int i = 0; i < 5; i++) {
+			recorder.record("jdbc.execute", "select " + i, recorder.startTime());
+		}
+		assertEquals(5, recorder.getCount("jdbc.execute"));
+		assertEquals(2, recorder.getNameSummaries("jdbc.execute").length);
+		assertNull(recorder.getHistogram("jdbc.execute", "select 4"));
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import junit.framework.TestCase;
+
+/**
+ * @since 2.5.7
+ */
+public class LatencyHistogramTests extends TestCase {
+
+	public void testEmptyHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(99), 0);
+		assertEquals(0.0, histogram.getMean(), 0);
+	}
+
+	public void testSmallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 16; i++) {
+			histogram.record(i);
+		}
+		assertEquals(16, histogram.getCount());
+		assertEquals(120, histogram.getTotal());
+		assertEquals(15, histogram.getMax());
+		assertEquals(7, histogram.getValueAtPercentile(50));
+		assertEquals(15, histogram.getValueAtPercentile(100));
+		assertEquals(0, histogram.getValueAtPercentile(0));
+	}
+
+	public void testPercentilesWithinRelativeError() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 100000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertEquals(100000, histogram.getCount());
+		assertWithinError(50000000L, histogram.getValueAtPercentile(50));
+		assertWithinError(99000000L, histogram.getValueAtPercentile(99));
+		assertWithinError(99900000L, histogram.getValueAtPercentile(99.9));
+		assertEquals(100000000L, histogram.getMax());
+		assertTrue(histogram.getValueAtPercentile(100) <= histogram.getMax());
+	}
+
+	public void testOutliersAndNegativeValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(2, histogram.getCount());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(Long.MAX_VALUE, histogram.getMax());
+		assertTrue(histogram.getValueAtPercentile(100) > (1L << 39));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMax());
+	}
+
+	public void testMergeHistograms() {
+		LatencyHistogram histogram1 = new LatencyHistogram();
+		histogram1.record(10);
+		histogram1.record(20);
+		LatencyHistogram histogram2 = new LatencyHistogram();
+		histogram2.record(5);
+		histogram2.record(1000);
+		LatencyHistogram merged = new LatencyHistogram();
+		merged.add(histogram1);
+		merged.add(histogram2);
+		merged.add(new LatencyHistogram());
+		assertEquals(4, merged.getCount());
+		assertEquals(1035, merged.getTotal());
+		assertEquals(5, merged.getMin());
+		assertEquals(1000, merged.getMax());
+		assertEquals(2, histogram1.getCount());
+
+		merged.reset();
+		assertEquals(0, merged.getMin());
+	}
+
+	public void testInvalidPercentile() {
+		try {
+			new LatencyHistogram().getValueAtPercentile(100.1);
+			fail("Should have thrown IllegalArgumentException");
+		}
+		catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+	private void assertWithinError(long expected, long actual) {
+		assertTrue("Expected about " + expected + " but was " + actual,
+				Math.abs(actual - expected) <= expected * 0.0625);
+	}
+
+}
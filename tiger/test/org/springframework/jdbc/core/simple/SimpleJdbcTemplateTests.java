@@ -674,4 +674,71 @@ public class SimpleJdbcTemplateTests extends TestCase {
 		ctrlDatabaseMetaData.verify();
 	}
 
+	public void testChunkedBatchUpdateWithListOfObjectArrays() throws Exception {
+		MockControl ctrlConnection = MockControl.createControl(Connection.class);
+		Connection mockConnection = (Connection) ctrlConnection.getMock();
+		mockConnection.close();
+		ctrlConnection.setDefaultVoidCallable();
+
+		MockControl ctrlDataSource = MockControl.createControl(DataSource.class);
+		DataSource mockDataSource = (DataSource) ctrlDataSource.getMock();
+		mockDataSource.getConnection();
+		ctrlDataSource.setDefaultReturnValue(mockConnection);
+
+		final String sql = "UPDATE NOSUCHTABLE SET DATE_DISPATCHED = SYSDATE WHERE ID = ?";
+		final List<Object[]> ids = new ArrayList<Object[]>();
+		ids.add(new Object[] {100});
+		ids.add(new Object[] {200});
+		ids.add(new Object[] {300});
+
+		MockControl ctrlPreparedStatement = MockControl.createControl(PreparedStatement.class);
+		PreparedStatement mockPreparedStatement = (PreparedStatement) ctrlPreparedStatement.getMock();
+		mockPreparedStatement.getConnection();
+		ctrlPreparedStatement.setReturnValue(mockConnection);
+		for (Object[] id : ids) {
+			mockPreparedStatement.setObject(1, id[0]);
+			ctrlPreparedStatement.setVoidCallable();
+			mockPreparedStatement.addBatch();
+			ctrlPreparedStatement.setVoidCallable();
+		}
+		mockPreparedStatement.executeBatch();
+		ctrlPreparedStatement.setReturnValue(new int[] {1, 2});
+		mockPreparedStatement.executeBatch();
+		ctrlPreparedStatement.setReturnValue(new int[] {3});
+		if (debugEnabled) {
+			mockPreparedStatement.getWarnings();
+			ctrlPreparedStatement.setReturnValue(null);
+		}
+		mockPreparedStatement.close();
+		ctrlPreparedStatement.setVoidCallable();
+
+		MockControl ctrlDatabaseMetaData = MockControl.createControl(DatabaseMetaData.class);
+		DatabaseMetaData mockDatabaseMetaData = (DatabaseMetaData) ctrlDatabaseMetaData.getMock();
+		mockDatabaseMetaData.supportsBatchUpdates();
+		ctrlDatabaseMetaData.setReturnValue(true);
+
+		mockConnection.prepareStatement(sql);
+		ctrlConnection.setReturnValue(mockPreparedStatement);
+		mockConnection.getMetaData();
+		ctrlConnection.setReturnValue(mockDatabaseMetaData);
+
+		ctrlPreparedStatement.replay();
+		ctrlDatabaseMetaData.replay();
+		ctrlDataSource.replay();
+		ctrlConnection.replay();
+
+		SimpleJdbcTemplate simpleJdbcTemplate = new SimpleJdbcTemplate(mockDataSource);
+
+		int[][] actualRowsAffected = simpleJdbcTemplate.batchUpdate(sql, ids, 2);
+
+		assertEquals(2, actualRowsAffected.length);
+		assertEquals(2, actualRowsAffected[0].length);
+		assertEquals(2, actualRowsAffected[0][1]);
+		assertEquals(1, actualRowsAffected[1].length);
+		assertEquals(3, actualRowsAffected[1][0]);
+
+		ctrlPreparedStatement.verify();
+		ctrlDatabaseMetaData.verify();
+	}
+
 }
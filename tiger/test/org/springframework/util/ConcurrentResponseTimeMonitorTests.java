@@ -0,0 +1,118 @@
+/*
+ * Copyright 2002-2008 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import junit.framework.TestCase;
+
+import org.springframework.core.metrics.TimingRecorder;
+
+/**
+ * @since 2.5.7
+ */
+public class ConcurrentResponseTimeMonitorTests extends TestCase {
+
+	public void testEmptyMonitor() {
+		ConcurrentResponseTimeMonitor monitor = new ConcurrentResponseTimeMonitor();
+		assertEquals(0, monitor.getAccessCount());
+		assertEquals(0, monitor.getAverageResponseTimeMillis());
+		assertEquals(Integer.MAX_VALUE, monitor.getBestResponseTimeMillis());
+		assertEquals(Integer.MIN_VALUE, monitor.getWorstResponseTimeMillis());
+		assertEquals(0, monitor.getP99ResponseTimeMillis());
+		assertEquals(0, monitor.getRecentAccessCount());
+		assertEquals(ConcurrentResponseTimeMonitor.DEFAULT_WINDOW_MILLIS, monitor.getWindowMillis());
+	}
+
+	public void testStatistics() {
+		ConcurrentResponseTimeMonitor monitor = new ConcurrentResponseTimeMonitor();
+		for (int i = 1; i <= 1000; i++) {
+			monitor.recordResponseTime(i);
+		}
+		assertEquals(1000, monitor.getAccessCount());
+		assertEquals(500, monitor.getAverageResponseTimeMillis());
+		assertEquals(1, monitor.getBestResponseTimeMillis());
+		assertEquals(1000, monitor.getWorstResponseTimeMillis());
+		assertWithinError(500, monitor.getMedianResponseTimeMillis());
+		assertWithinError(990, monitor.getP99ResponseTimeMillis());
+		assertWithinError(999, monitor.getP999ResponseTimeMillis());
+		assertEquals(1000, monitor.getRecentAccessCount());
+		assertEquals(500, monitor.getRecentAverageResponseTimeMillis());
+		assertWithinError(990, monitor.getRecentP99ResponseTimeMillis());
+		assertTrue(monitor.toString().indexOf("hits=[1000]") != -1);
+
+		monitor.reset();
+		assertEquals(0, monitor.getAccessCount());
+		assertEquals(0, monitor.getRecentAccessCount());
+	}
+
+	public void testRecentTimeWindow() throws InterruptedException {
+		ConcurrentResponseTimeMonitor monitor = new ConcurrentResponseTimeMonitor(100, 2);
+		monitor.recordResponseTime(10);
+		monitor.recordResponseTime(20);
+		assertEquals(2, monitor.getRecentAccessCount());
+		Thread.sleep(250);
+		assertEquals(0, monitor.getRecentAccessCount());
+		assertEquals(2, monitor.getAccessCount());
+
+		monitor.recordResponseTime(30);
+		Thread.sleep(60);
+		monitor.recordResponseTime(40);
+		assertTrue(monitor.getRecentAccessCount() >= 1);
+		assertEquals(4, monitor.getAccessCount());
+		assertEquals(25, monitor.getAverageResponseTimeMillis());
+		assertEquals(10, monitor.getBestResponseTimeMillis());
+		assertEquals(40, monitor.getWorstResponseTimeMillis());
+	}
+
+	public void testConcurrentRecording() throws InterruptedException {
+		final ConcurrentResponseTimeMonitor monitor = new ConcurrentResponseTimeMonitor();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						monitor.recordResponseTime(j % 100);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(80000, monitor.getAccessCount());
+		assertEquals(49, monitor.getAverageResponseTimeMillis());
+		assertEquals(0, monitor.getBestResponseTimeMillis());
+		assertEquals(99, monitor.getWorstResponseTimeMillis());
+	}
+
+	public void testAsTimingRecorder() {
+		ConcurrentResponseTimeMonitor monitor = new ConcurrentResponseTimeMonitor();
+		TimingRecorder recorder = monitor;
+		long startTime = recorder.startTime();
+		recorder.record("transaction.commit", null, startTime - 200);
+		recorder.record("jdbc.query", "select 1", startTime - 100);
+		assertEquals(2, monitor.getAccessCount());
+		assertTrue(monitor.getBestResponseTimeMillis() >= 100);
+		assertTrue(monitor.getWorstResponseTimeMillis() >= 200);
+	}
+
+	private void assertWithinError(int expected, int actual) {
+		assertTrue("Expected about " + expected + " but was " + actual,
+				Math.abs(actual - expected) <= expected * 0.0625);
+	}
+
+}
@@ -441,6 +441,50 @@ public class ServletAnnotationControllerTests extends TestCase {
 		assertEquals("mySurpriseView", response.getContentAsString());
 	}
 
+	public void testParameterDispatchingControllerWithRepeatedRequests() throws Exception {
+		final MockServletContext servletContext = new MockServletContext();
+		final MockServletConfig servletConfig = new MockServletConfig(servletContext);
+
+		@SuppressWarnings("serial")
+		DispatcherServlet servlet = new DispatcherServlet() {
+			protected WebApplicationContext createWebApplicationContext(WebApplicationContext parent) {
+				GenericWebApplicationContext wac = new GenericWebApplicationContext();
+				wac.setServletContext(servletContext);
+				RootBeanDefinition bd = new RootBeanDefinition(MyParameterDispatchingController.class);
+				bd.setScope(WebApplicationContext.SCOPE_REQUEST);
+				wac.registerBeanDefinition("controller", bd);
+				AnnotationConfigUtils.registerAnnotationConfigProcessors(wac);
+				wac.getBeanFactory().registerResolvableDependency(ServletConfig.class, servletConfig);
+				wac.refresh();
+				return wac;
+			}
+		};
+		servlet.init(servletConfig);
+
+		// Same path, different parameter values: resolved handler methods must not be mixed up.
+		String[][] params = {{}, {"view", "other"}, {"view", "my", "lang", "de"}, {"view", "my", "lang", "en"},
+				{"surprise", "!"}, {"view", "my"}, {"view.x", "1"}};
+		String[] views = {"myView", "myOtherView", "myLangView", "myView", "mySurpriseView", "myOtherView", "myOtherView"};
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < params.length; i++) {
+				MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/myPath.do");
+				for (int j = 0; j < params[i].length; j += 2) {
+					request.addParameter(params[i][j], params[i][j + 1]);
+				}
+				MockHttpServletResponse response = new MockHttpServletResponse();
+				servlet.service(request, response);
+				assertEquals(views[i], response.getContentAsString());
+			}
+		}
+
+		MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "POST", "/myPath.do");
+		request.addParameter("view", "my");
+		request.addParameter("lang", "de");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		servlet.service(request, response);
+		assertEquals("myView", response.getContentAsString());
+	}
+
 	public void testMethodNameDispatchingController() throws Exception {
 		@SuppressWarnings("serial")
 		DispatcherServlet servlet = new DispatcherServlet() {
@@ -629,6 +673,33 @@ public class ServletAnnotationControllerTests extends TestCase {
 		assertEquals("mySurpriseView", response.getContentAsString());
 	}
 
+	public void testRelativePathDispatchingControllerWithManyDistinctPaths() throws Exception {
+		@SuppressWarnings("serial")
+		DispatcherServlet servlet = new DispatcherServlet() {
+			protected WebApplicationContext createWebApplicationContext(WebApplicationContext parent) {
+				GenericWebApplicationContext wac = new GenericWebApplicationContext();
+				wac.registerBeanDefinition("controller", new RootBeanDefinition(MyRelativePathDispatchingController.class));
+				wac.refresh();
+				return wac;
+			}
+		};
+		servlet.init(new MockServletConfig());
+
+		// More distinct paths than the resolved method cache holds per handler type.
+		for (int round = 0; round < 2; round++) {
+			for (int i = 0; i < 1500; i++) {
+				MockHttpServletRequest request = new MockHttpServletRequest("GET", "/myApp/path" + i + "Other");
+				MockHttpServletResponse response = new MockHttpServletResponse();
+				servlet.service(request, response);
+				assertEquals("myOtherView", response.getContentAsString());
+			}
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/myApp/myLang");
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			servlet.service(request, response);
+			assertEquals("myLangView", response.getContentAsString());
+		}
+	}
+
 	public void testNullCommandController() throws Exception {
 		@SuppressWarnings("serial")
 		DispatcherServlet servlet = new DispatcherServlet() {